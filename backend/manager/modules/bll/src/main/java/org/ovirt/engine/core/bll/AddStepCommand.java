@@ -12,7 +12,6 @@ import org.ovirt.engine.core.common.job.Job;
 import org.ovirt.engine.core.common.job.Step;
 import org.ovirt.engine.core.common.utils.ExecutionMethod;
 import org.ovirt.engine.core.dao.JobDao;
-import org.ovirt.engine.core.dao.StepDao;
 
 public abstract class AddStepCommand<T extends AddStepParameters> extends CommandBase<T> {
 
@@ -23,8 +22,6 @@ public abstract class AddStepCommand<T extends AddStepParameters> extends Comman
     private JobRepository jobRepository;
     @Inject
     private JobDao jobDao;
-    @Inject
-    private StepDao stepDao;
 
     protected AddStepCommand(T parameters, CommandContext cmdContext) {
         super(parameters, cmdContext);
@@ -35,7 +32,7 @@ public abstract class AddStepCommand<T extends AddStepParameters> extends Comman
         boolean retValue=true;
         job = jobDao.get(getParameters().getParentId());
         if (job == null) {
-            parentStep = stepDao.get(getParameters().getParentId());
+            parentStep = jobRepository.getStep(getParameters().getParentId(), false);
         }
         if (job == null && parentStep == null) {
             retValue=false;
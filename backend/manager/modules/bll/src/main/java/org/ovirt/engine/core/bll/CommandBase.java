@@ -31,9 +31,11 @@ import org.ovirt.engine.core.bll.context.CompensationContext;
 import org.ovirt.engine.core.bll.context.DefaultCompensationContext;
 import org.ovirt.engine.core.bll.context.EngineContext;
 import org.ovirt.engine.core.bll.context.NoOpCompensationContext;
+import org.ovirt.engine.core.bll.executor.QueryResultCache;
 import org.ovirt.engine.core.bll.interfaces.BackendInternal;
 import org.ovirt.engine.core.bll.job.ExecutionContext;
 import org.ovirt.engine.core.bll.job.ExecutionHandler;
+import org.ovirt.engine.core.bll.job.JobRepository;
 import org.ovirt.engine.core.bll.quota.InvalidQuotaParametersException;
 import org.ovirt.engine.core.bll.quota.QuotaConsumptionParameter;
 import org.ovirt.engine.core.bll.quota.QuotaManager;
@@ -91,7 +93,6 @@ import org.ovirt.engine.core.dal.job.ExecutionMessageDirector;
 import org.ovirt.engine.core.dao.BusinessEntitySnapshotDao;
 import org.ovirt.engine.core.dao.EntityDao;
 import org.ovirt.engine.core.dao.PermissionDao;
-import org.ovirt.engine.core.dao.StepDao;
 import org.ovirt.engine.core.utils.CorrelationIdTracker;
 import org.ovirt.engine.core.utils.ReflectionUtils;
 import org.ovirt.engine.core.utils.ReplacementUtils;
@@ -103,6 +104,7 @@ import org.ovirt.engine.core.utils.transaction.TransactionCompletionListener;
 import org.ovirt.engine.core.utils.transaction.TransactionMethod;
 import org.ovirt.engine.core.utils.transaction.TransactionRollbackListener;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.ovirt.engine.core.vdsbroker.EntityChangeTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
@@ -160,7 +162,7 @@ public abstract class CommandBase<T extends ActionParametersBase>
     private PermissionDao permissionDao;
 
     @Inject
-    private StepDao stepDao;
+    private JobRepository jobRepository;
 
     @Inject
     private CommandCoordinatorUtil commandCoordinatorUtil;
@@ -168,6 +170,12 @@ public abstract class CommandBase<T extends ActionParametersBase>
     @Inject
     private CommandCompensator compensator;
 
+    @Inject
+    private EntityChangeTracker entityChangeTracker;
+
+    @Inject
+    private QueryResultCache queryResultCache;
+
     @Named
     @Inject
     private Predicate<DbUser> isSystemSuperUserPredicate;
@@ -526,6 +534,7 @@ public abstract class CommandBase<T extends ActionParametersBase>
                 log.info("endAction: Transaction was aborted in {}", this.getClass().getName());
             } finally {
                 freeLockEndAction();
+                reportEntityChanges();
                 endStepsAndJobIfNeeded();
                 // NOTE: this update persists updates made during the endSuccessfully()/endWithFailure() execution.
                 // The update is done intentionally after the freeLock() call, change with care.
@@ -1365,7 +1374,7 @@ public abstract class CommandBase<T extends ActionParametersBase>
                             getCommandStepSubjectEntities());
             if (taskStep != null) {
                 if (shouldUpdateStepProgress()) {
-                    stepDao.updateStepProgress(taskStep.getId(), 0);
+                    jobRepository.updateStepProgress(taskStep.getId(), 0);
                 }
                 getExecutionContext().setStep(taskStep);
                 persistCommandIfNeeded();
@@ -1412,6 +1421,7 @@ public abstract class CommandBase<T extends ActionParametersBase>
                     startPollingAsyncTasks();
                 }
             } finally {
+                reportEntityChanges();
                 if (noAsyncOperations() && !executionHandler.checkIfJobHasTasks(getExecutionContext())) {
                     executionHandler.endJob(getExecutionContext(), getSucceeded());
                 }
@@ -1419,6 +1429,43 @@ public abstract class CommandBase<T extends ActionParametersBase>
         }
     }
 
+    /**
+     * Reports the VM and the host of the command as changed, so views that are refreshed by their changes are
+     * updated, and drops the cached query results, which may contain any of the entities the command changed. This is
+     * done once the changes are visible to others: right away when the command ran in its own transaction, which
+     * ended by now, or when the transaction the command joined completes. The changes are reported on rollback as
+     * well, as the command may have compensated changes that were made outside of the transaction.
+     */
+    private void reportEntityChanges() {
+        try {
+            if (TransactionSupport.current() != null
+                    && TransactionSupport.current().getStatus() == Status.STATUS_ACTIVE) {
+                registerRollbackHandler(new TransactionCompletionListener() {
+                    @Override
+                    public void onSuccess() {
+                        reportEntityChangesNow();
+                    }
+
+                    @Override
+                    public void onRollback() {
+                        reportEntityChangesNow();
+                    }
+                });
+                return;
+            }
+        } catch (SystemException | RuntimeException e) {
+            log.debug("Unable to report the entity changes of '{}' on transaction completion: {}",
+                    getClass().getName(), e.getMessage());
+        }
+        reportEntityChangesNow();
+    }
+
+    private void reportEntityChangesNow() {
+        entityChangeTracker.changed(VdcObjectType.VM, getVmId());
+        entityChangeTracker.changed(VdcObjectType.VDS, getVdsId());
+        queryResultCache.invalidate();
+    }
+
     public boolean hasTasks() {
         return !getReturnValue().getVdsmTaskIdList().isEmpty();
     }
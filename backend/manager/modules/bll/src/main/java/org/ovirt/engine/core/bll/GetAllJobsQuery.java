@@ -1,8 +1,12 @@
 package org.ovirt.engine.core.bll;
 
+import java.util.List;
+
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.bll.job.JobRepository;
+import org.ovirt.engine.core.common.job.Job;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.dao.JobDao;
 
@@ -10,12 +14,17 @@ public class GetAllJobsQuery <P extends QueryParametersBase> extends QueriesComm
     @Inject
     private JobDao jobDao;
 
+    @Inject
+    private JobRepository jobRepository;
+
     public GetAllJobsQuery(P parameters, EngineContext engineContext) {
         super(parameters, engineContext);
     }
 
     @Override
     protected void executeQueryCommand() {
-        getQueryReturnValue().setReturnValue(jobDao.getAll());
+        List<Job> jobs = jobDao.getAll();
+        jobRepository.applyPendingChanges(jobs);
+        getQueryReturnValue().setReturnValue(jobs);
     }
 }
@@ -3,9 +3,11 @@ package org.ovirt.engine.core.bll;
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.bll.executor.CachedQuery;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.dao.RoleDao;
 
+@CachedQuery
 public class GetAllRolesQuery<P extends QueryParametersBase> extends QueriesCommandBase<P> {
     @Inject
     private RoleDao roleDao;
@@ -28,6 +28,7 @@ public class GetJobsByCorrelationIdQuery<P extends GetJobsByCorrelationIdQueryPa
     @Override
     protected void executeQueryCommand() {
         List<Job> jobs = jobDao.getJobsByCorrelationId(getParameters().getCorrelationId());
+        jobRepository.applyPendingChanges(jobs);
 
         for (Job job : jobs) {
             jobRepository.loadJobSteps(job);
@@ -5,6 +5,7 @@ import java.util.List;
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.bll.job.JobRepository;
 import org.ovirt.engine.core.common.config.Config;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.job.Job;
@@ -18,6 +19,9 @@ public class GetJobsByOffsetQuery<P extends GetJobsByOffsetQueryParameters> exte
     @Inject
     private JobDao jobDao;
 
+    @Inject
+    private JobRepository jobRepository;
+
     public GetJobsByOffsetQuery(P parameters, EngineContext engineContext) {
         super(parameters, engineContext);
     }
@@ -29,6 +33,7 @@ public class GetJobsByOffsetQuery<P extends GetJobsByOffsetQueryParameters> exte
 
         int offset = Math.max(getParameters().getOffset(), 0);
         List<Job> jobs = jobDao.getJobsByOffsetAndPageSize(offset * pageSize, pageSize);
+        jobRepository.applyPendingChanges(jobs);
         getQueryReturnValue().setReturnValue(jobs);
     }
 
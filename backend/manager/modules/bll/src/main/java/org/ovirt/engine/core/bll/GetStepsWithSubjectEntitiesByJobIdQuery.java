@@ -5,17 +5,13 @@ import java.util.List;
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.bll.job.JobRepository;
 import org.ovirt.engine.core.common.job.Step;
 import org.ovirt.engine.core.common.queries.GetStepsWithSubjectEntitiesByJobIdQueryParameters;
-import org.ovirt.engine.core.dao.StepDao;
-import org.ovirt.engine.core.dao.StepSubjectEntityDao;
 
 public class GetStepsWithSubjectEntitiesByJobIdQuery<P extends GetStepsWithSubjectEntitiesByJobIdQueryParameters> extends QueriesCommandBase<P> {
     @Inject
-    private StepDao stepDao;
-
-    @Inject
-    private StepSubjectEntityDao stepSubjectEntityDao;
+    private JobRepository jobRepository;
 
     public GetStepsWithSubjectEntitiesByJobIdQuery(P parameters, EngineContext engineContext) {
         super(parameters, engineContext);
@@ -23,8 +19,7 @@ public class GetStepsWithSubjectEntitiesByJobIdQuery<P extends GetStepsWithSubje
 
     @Override
     protected void executeQueryCommand() {
-        List<Step> steps = stepDao.getStepsByJobId(getParameters().getJobId());
-        steps.forEach(s -> s.setSubjectEntities(stepSubjectEntityDao.getStepSubjectEntitiesByStepId(s.getId())));
+        List<Step> steps = jobRepository.getJobSteps(getParameters().getJobId(), true);
         getQueryReturnValue().setReturnValue(steps);
     }
 }
@@ -8,6 +8,7 @@ import java.util.Map;
 
 import javax.inject.Inject;
 
+import org.ovirt.engine.core.bll.job.JobRepository;
 import org.ovirt.engine.core.bll.storage.EntityPollingCommand;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.HostJobCommandParameters;
@@ -24,7 +25,6 @@ import org.ovirt.engine.core.common.vdscommands.VDSReturnValue;
 import org.ovirt.engine.core.compat.CommandStatus;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.backendcompat.CommandExecutionStatus;
-import org.ovirt.engine.core.dao.StepDao;
 import org.ovirt.engine.core.dao.VdsDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,7 +37,7 @@ public abstract class HostJobCallback extends ChildCommandsCallbackBase {
     @Inject
     private VdsDao vdsDao;
     @Inject
-    private StepDao stepDao;
+    private JobRepository jobRepository;
 
     @Override
     protected void childCommandsExecutionEnded(CommandBase<?> command,
@@ -225,7 +225,7 @@ public abstract class HostJobCallback extends ChildCommandsCallbackBase {
 
     private void updateStepProgress(Guid stepId, Integer progress) {
         if (stepId != null) {
-            stepDao.updateStepProgress(stepId, progress);
+            jobRepository.updateStepProgress(stepId, progress);
         }
     }
 
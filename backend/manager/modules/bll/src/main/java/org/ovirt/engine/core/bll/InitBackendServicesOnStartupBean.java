@@ -7,6 +7,7 @@ import javax.ejb.Startup;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 
+import org.ovirt.engine.core.bll.ServiceStartupPlan.Step;
 import org.ovirt.engine.core.bll.aaa.SessionDataContainer;
 import org.ovirt.engine.core.bll.dwh.DwhHeartBeat;
 import org.ovirt.engine.core.bll.gluster.GlusterJobsManager;
@@ -23,11 +24,13 @@ import org.ovirt.engine.core.bll.tasks.AsyncTaskManager;
 import org.ovirt.engine.core.bll.tasks.CommandCallbacksPoller;
 import org.ovirt.engine.core.bll.tasks.CommandCoordinatorUtil;
 import org.ovirt.engine.core.bll.tasks.CommandsRepository;
+import org.ovirt.engine.core.common.BackendService;
 import org.ovirt.engine.core.common.config.Config;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.utils.customprop.VmPropertiesUtils;
 import org.ovirt.engine.core.common.utils.exceptions.InitializationException;
 import org.ovirt.engine.core.utils.customprop.DevicePropertiesUtils;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.irsbroker.IrsProxyManager;
 import org.slf4j.Logger;
@@ -68,61 +71,88 @@ public class InitBackendServicesOnStartupBean implements InitBackendServicesOnSt
     public void create() {
 
         try {
-            serviceLoader.load(ClusterCpuFlagsManager.class);
+            ServiceStartupPlan plan = new ServiceStartupPlan();
+            Step clusterCpuFlagsManager = load(plan, ClusterCpuFlagsManager.class);
             // This must be done before starting to sample the hosts status from VDSM since the sampling will turn such host from Reboot to NonResponsive
-            serviceLoader.load(PmHealthCheckManager.class);
-            serviceLoader.load(EngineBackupAwarenessManager.class);
-            serviceLoader.load(DataCenterCompatibilityChecker.class);
-            serviceLoader.load(ResourceManager.class);
-            serviceLoader.load(HostDeviceManager.class);
-
-            try {
-                log.info("Init VM custom properties utilities");
-                VmPropertiesUtils.getInstance().init();
-            } catch (InitializationException e) {
-                log.error("Initialization of vm custom properties failed.", e);
-            }
-
-            serviceLoader.load(KubevirtService.class);
-
-            serviceLoader.load(IrsProxyManager.class);
-            serviceLoader.load(OvfDataUpdater.class);
-            serviceLoader.load(StoragePoolStatusHandler.class);
-            serviceLoader.load(GlusterJobsManager.class);
-
-            resourceManager.get().scheduleJobsForHosts();
-
-            try {
-                log.info("Init device custom properties utilities");
-                DevicePropertiesUtils.getInstance().init();
-            } catch (InitializationException e) {
-                log.error("Initialization of device custom properties failed.", e);
-            }
-
-            serviceLoader.load(SchedulingManager.class);
-
-            sessionDataContainer.cleanupEngineSessionsOnStartup();
-
-            serviceLoader.load(DwhHeartBeat.class);
-
-            commandsRepository.get().handleUnmanagedCommands();
-            serviceLoader.load(AsyncTaskManager.class);
-            serviceLoader.load(CommandCoordinatorUtil.class);
-            serviceLoader.load(CommandCallbacksPoller.class);
-            serviceLoader.load(CommandEntityCleanupManager.class);
+            Step pmHealthCheckManager = load(plan, PmHealthCheckManager.class);
+            Step engineBackupAwarenessManager = load(plan, EngineBackupAwarenessManager.class);
+            Step dataCenterCompatibilityChecker = load(plan, DataCenterCompatibilityChecker.class);
+            Step resourceManagerLoad = load(plan, ResourceManager.class, clusterCpuFlagsManager, pmHealthCheckManager);
+            Step hostDeviceManager = load(plan, HostDeviceManager.class, resourceManagerLoad);
+
+            Step vmPropertiesUtils = plan.add("VmPropertiesUtils", () -> {
+                try {
+                    log.info("Init VM custom properties utilities");
+                    VmPropertiesUtils.getInstance().init();
+                } catch (InitializationException e) {
+                    log.error("Initialization of vm custom properties failed.", e);
+                }
+            });
+
+            Step kubevirtService = load(plan, KubevirtService.class, resourceManagerLoad);
+
+            Step irsProxyManager = load(plan, IrsProxyManager.class, resourceManagerLoad);
+            Step ovfDataUpdater = load(plan, OvfDataUpdater.class, irsProxyManager);
+            Step storagePoolStatusHandler = load(plan, StoragePoolStatusHandler.class, irsProxyManager);
+            Step glusterJobsManager = load(plan, GlusterJobsManager.class, resourceManagerLoad);
+
+            // the hosts are monitored once everything that was started before the monitoring is ready
+            Step hostsMonitoring = plan.add("HostsMonitoring",
+                    () -> resourceManager.get().scheduleJobsForHosts(),
+                    engineBackupAwarenessManager,
+                    dataCenterCompatibilityChecker,
+                    hostDeviceManager,
+                    vmPropertiesUtils,
+                    kubevirtService,
+                    ovfDataUpdater,
+                    storagePoolStatusHandler,
+                    glusterJobsManager);
+
+            Step devicePropertiesUtils = plan.add("DevicePropertiesUtils", () -> {
+                try {
+                    log.info("Init device custom properties utilities");
+                    DevicePropertiesUtils.getInstance().init();
+                } catch (InitializationException e) {
+                    log.error("Initialization of device custom properties failed.", e);
+                }
+            });
+
+            Step schedulingManager = load(plan, SchedulingManager.class, clusterCpuFlagsManager, resourceManagerLoad);
+
+            plan.add("SessionsCleanup", () -> sessionDataContainer.cleanupEngineSessionsOnStartup());
+
+            load(plan, DwhHeartBeat.class);
+
+            // commands may need any of the services above, so they are handled once all of them are started
+            Step unmanagedCommands = plan.add("UnmanagedCommands",
+                    () -> commandsRepository.get().handleUnmanagedCommands(),
+                    hostsMonitoring,
+                    devicePropertiesUtils,
+                    schedulingManager);
+            Step asyncTaskManager = load(plan, AsyncTaskManager.class, unmanagedCommands);
+            Step commandCoordinatorUtil = load(plan, CommandCoordinatorUtil.class, asyncTaskManager);
+            Step commandCallbacksPoller = load(plan, CommandCallbacksPoller.class, commandCoordinatorUtil);
+            Step commands = load(plan, CommandEntityCleanupManager.class, commandCallbacksPoller);
 
             if(Config.<Boolean> getValue(ConfigValues.AffinityRulesEnforcementManagerEnabled)) {
-                serviceLoader.load(AffinityRulesEnforcementManager.class);
+                load(plan, AffinityRulesEnforcementManager.class, commands);
             }
 
-            serviceLoader.load(CertificationValidityChecker.class);
-            serviceLoader.load(HostUpdatesCheckerService.class);
-            serviceLoader.load(IPTablesDeprecationNotifier.class);
-            serviceLoader.load(ExternalNetworkSyncService.class);
+            load(plan, CertificationValidityChecker.class, commands);
+            load(plan, HostUpdatesCheckerService.class, commands);
+            load(plan, IPTablesDeprecationNotifier.class, commands);
+            load(plan, ExternalNetworkSyncService.class, commands);
+
+            plan.run(ThreadPoolUtil.getExecutorService(),
+                    Config.<Integer> getValue(ConfigValues.ServicesStartupParallelism));
         } catch (Exception ex) {
             log.error("Failed to initialize backend", ex);
             throw ex;
         }
     }
 
+    private Step load(ServiceStartupPlan plan, Class<? extends BackendService> service, Step... dependencies) {
+        return plan.add(service.getSimpleName(), () -> serviceLoader.load(service), dependencies);
+    }
+
 }
@@ -236,7 +236,7 @@ public class MigrateVmCommand<T extends MigrateVmParameters> extends RunVmComman
             setSucceeded(true);
             return;
         }
-        getVmManager().getStatistics().setMigrationProgressPercent(0);
+        getVmManager().setMigrationProgressPercent(0);
         setSucceeded(initVdss() && perform());
     }
 
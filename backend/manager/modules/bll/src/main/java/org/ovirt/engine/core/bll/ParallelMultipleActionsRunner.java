@@ -3,9 +3,9 @@ package org.ovirt.engine.core.bll;
 import java.util.List;
 
 import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.executor.MultipleActionsController;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionType;
-import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 
 public class ParallelMultipleActionsRunner extends PrevalidatingMultipleActionsRunner {
 
@@ -15,16 +15,13 @@ public class ParallelMultipleActionsRunner extends PrevalidatingMultipleActionsR
         super(actionType, parameters, commandContext, isInternal);
     }
 
-    @Override
-    protected void invokeCommands() {
-        runCommands();
-    }
-
     @Override
     protected void runCommands() {
-        for (final CommandBase<?> command : getCommands()) {
-            if (command.getReturnValue().isValid()) {
-                ThreadPoolUtil.execute(() -> executeValidatedCommand(command));
+        try (MultipleActionsController.Batch batch = startBatch()) {
+            for (final CommandBase<?> command : getCommands()) {
+                if (command.getReturnValue().isValid()) {
+                    batch.submit(command, () -> executeValidatedCommand(command));
+                }
             }
         }
     }
@@ -1,15 +1,18 @@
 package org.ovirt.engine.core.bll;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.aaa.SessionDataContainer;
 import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.executor.MultipleActionsController;
 import org.ovirt.engine.core.bll.job.ExecutionHandler;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionReturnValue;
@@ -22,7 +25,6 @@ import org.slf4j.LoggerFactory;
 public class PrevalidatingMultipleActionsRunner implements MultipleActionsRunner {
 
     private static final Logger log = LoggerFactory.getLogger(PrevalidatingMultipleActionsRunner.class);
-    private static final int CONCURRENT_ACTIONS = 10;
 
     private ActionType actionType = ActionType.Unknown;
     private final Set<ActionParametersBase> parameters;
@@ -36,6 +38,9 @@ public class PrevalidatingMultipleActionsRunner implements MultipleActionsRunner
     @Inject
     NestedCommandFactory commandFactory;
 
+    @Inject
+    private MultipleActionsController multipleActionsController;
+
     /**
      * Execute the actions only if Validate of all the requests returns true
      */
@@ -130,26 +135,34 @@ public class PrevalidatingMultipleActionsRunner implements MultipleActionsRunner
     }
 
     /**
-     * Check Validates of all commands. We perform checks for all commands at
-     * the same time the number of threads is managed by java
+     * Check Validates of all commands. The validations run concurrently, as many at a time as the multiple actions
+     * controller allows for the action type, and their results are kept in the order of the commands
      */
     private void checkValidatesAsynchronously(
             List<ActionReturnValue> returnValues) {
-        for (int i = 0; i < getCommands().size(); i += CONCURRENT_ACTIONS) {
-            int handleSize = Math.min(CONCURRENT_ACTIONS, getCommands().size() - i);
-
-            int fixedSize = i + handleSize;
-            List<Callable<ActionReturnValue>> validateTasks = new ArrayList<>();
-            for (int j = i; j < fixedSize; j++) {
-                validateTasks.add(buildValidateAsynchronously(j, fixedSize));
+        int totalSize = getCommands().size();
+        int concurrency = multipleActionsController.getValidationConcurrency(actionType);
+        ActionReturnValue[] validateResults = new ActionReturnValue[totalSize];
+        ExecutorCompletionService<Integer> completionService = ThreadPoolUtil.createCompletionService();
+        int submitted = 0;
+        try {
+            for (int completed = 0; completed < totalSize; completed++) {
+                while (submitted < totalSize && submitted - completed < concurrency) {
+                    final int currentValidateId = submitted++;
+                    completionService.submit(() -> {
+                        validateResults[currentValidateId] = runValidateOnly(currentValidateId, totalSize);
+                        return currentValidateId;
+                    });
+                }
+                completionService.take().get();
             }
-            returnValues.addAll(ThreadPoolUtil.invokeAll(validateTasks));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
         }
-    }
-
-    private Callable<ActionReturnValue> buildValidateAsynchronously(
-            final int currentValidateId, final int totalSize) {
-        return () -> runValidateOnly(currentValidateId, totalSize);
+        returnValues.addAll(Arrays.asList(validateResults));
     }
 
     protected ActionReturnValue runValidateOnly(final int currentValidateId, final int totalSize) {
@@ -171,13 +184,23 @@ public class PrevalidatingMultipleActionsRunner implements MultipleActionsRunner
     }
 
     protected void runCommands() {
-        for (CommandBase<?> command : getCommands()) {
-            if (command.getReturnValue().isValid()) {
-                executeValidatedCommand(command);
+        try (MultipleActionsController.Batch batch = startBatch()) {
+            for (CommandBase<?> command : getCommands()) {
+                if (command.getReturnValue().isValid()) {
+                    batch.execute(command, () -> executeValidatedCommand(command));
+                }
             }
         }
     }
 
+    /**
+     * Starts running the commands under the multiple actions controller, which limits the number of commands running
+     * at the same time.
+     */
+    protected MultipleActionsController.Batch startBatch() {
+        return multipleActionsController.startBatch(actionType, getCommands().size());
+    }
+
     protected void invokeCommands() {
         ThreadPoolUtil.execute(() -> runCommands());
     }
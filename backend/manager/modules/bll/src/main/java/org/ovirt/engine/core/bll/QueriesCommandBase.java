@@ -10,6 +10,8 @@ import javax.validation.Validator;
 
 import org.ovirt.engine.core.bll.aaa.SessionDataContainer;
 import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.bll.executor.CachedQuery;
+import org.ovirt.engine.core.bll.executor.QueryResultCache;
 import org.ovirt.engine.core.bll.interfaces.BackendInternal;
 import org.ovirt.engine.core.common.businessentities.aaa.DbUser;
 import org.ovirt.engine.core.common.errors.EngineException;
@@ -53,6 +55,9 @@ public abstract class QueriesCommandBase<P extends QueryParametersBase> extends
     @Inject
     protected BackendInternal backend;
 
+    @Inject
+    private QueryResultCache queryResultCache;
+
     public QueriesCommandBase(P parameters, EngineContext engineContext) {
         if (parameters.getCorrelationId() == null) {
             parameters.setCorrelationId(CorrelationIdTracker.getCorrelationId());
@@ -103,7 +108,11 @@ public abstract class QueriesCommandBase<P extends QueryParametersBase> extends
                 long start = System.currentTimeMillis();
                 try {
                     returnValue.setSucceeded(true);
-                    executeQueryCommand();
+                    if (getClass().isAnnotationPresent(CachedQuery.class)) {
+                        queryResultCache.execute(this, queryType, getUserID(), this::executeQueryCommand);
+                    } else {
+                        executeQueryCommand();
+                    }
                 } catch (RuntimeException ex) {
                     handleException(ex, true);
                 } finally {
@@ -29,6 +29,7 @@ import org.ovirt.engine.core.bll.aaa.SessionDataContainer;
 import org.ovirt.engine.core.bll.context.EngineContext;
 import org.ovirt.engine.core.bll.quota.QuotaManager;
 import org.ovirt.engine.core.bll.storage.pool.DcSingleMacPoolFinder;
+import org.ovirt.engine.core.common.VdcObjectType;
 import org.ovirt.engine.core.common.businessentities.AuditLog;
 import org.ovirt.engine.core.common.businessentities.Cluster;
 import org.ovirt.engine.core.common.businessentities.EngineSession;
@@ -56,6 +57,7 @@ import org.ovirt.engine.core.common.errors.SqlInjectionException;
 import org.ovirt.engine.core.common.queries.IdQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryType;
+import org.ovirt.engine.core.common.queries.SearchChanges;
 import org.ovirt.engine.core.common.queries.SearchParameters;
 import org.ovirt.engine.core.compat.DateTime;
 import org.ovirt.engine.core.compat.Guid;
@@ -88,9 +90,15 @@ import org.ovirt.engine.core.searchbackend.SyntaxContainer;
 import org.ovirt.engine.core.searchbackend.SyntaxError;
 import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
+import org.ovirt.engine.core.vdsbroker.EntityChangeTracker;
 
 public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<P> {
-    private static final Map<String, QueryData> queriesCache = new HashMap<>();
+    private static final Map<String, QueryData> queriesCache = Collections.synchronizedMap(new HashMap<>());
+    /**
+     * The most changed entities a search is restricted to. Above it, the restriction would be a larger statement than
+     * the search itself is worth, so the complete search is returned instead.
+     */
+    static final int MAX_RESTRICTED_IDS = 500;
     public static final String LDAP = "LDAP";
 
     @Inject
@@ -171,6 +179,10 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
     private HostLocking hostLocking;
     @Inject
     private VmNetworkInterfaceDao vmNetworkInterfaceDao;
+    @Inject
+    private EntityChangeTracker entityChangeTracker;
+
+    private Set<Guid> restrictedIds;
 
     public SearchQuery(P parameters, EngineContext engineContext) {
         super(parameters, engineContext);
@@ -178,6 +190,62 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
 
     @Override
     protected void executeQueryCommand() {
+        Long changesSince = getParameters().getChangesSince();
+        if (changesSince == null) {
+            getQueryReturnValue().setReturnValue(search());
+        } else {
+            getQueryReturnValue().setReturnValue(searchChanges(changesSince));
+        }
+    }
+
+    /**
+     * Searches for the entities that changed since the given version. Only the changed entities are read from the
+     * database, and the database is not queried at all when nothing changed. The search is restricted to the changed
+     * entities rather than replaced by reading them by id, so changed entities that no longer match the search, or
+     * that are not on the searched page any more, are left out. When too many entities changed to restrict the search
+     * to them, the complete search is returned.
+     */
+    private SearchChanges<Queryable> searchChanges(long changesSince) {
+        VdcObjectType type = getSearchObjectType();
+        long version = entityChangeTracker.getVersion();
+        Set<Guid> changedIds = type == null ? null : entityChangeTracker.getChangedSince(type, changesSince);
+        if (changedIds == null || changedIds.size() > MAX_RESTRICTED_IDS) {
+            return SearchChanges.complete(version, new ArrayList<>(search()));
+        }
+        if (changedIds.isEmpty()) {
+            return SearchChanges.changed(version, new ArrayList<>(), new ArrayList<>());
+        }
+
+        restrictedIds = changedIds;
+        return SearchChanges.changed(version, new ArrayList<>(changedIds), new ArrayList<>(search()));
+    }
+
+    private VdcObjectType getSearchObjectType() {
+        switch (getParameters().getSearchTypeValue()) {
+        case VM:
+            return VdcObjectType.VM;
+        case VDS:
+            return VdcObjectType.VDS;
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Restricts the given search query to the entities in {@link #restrictedIds}, if set. The restriction wraps the
+     * query, so the order and paging of the search are kept.
+     */
+    private String restrictQuery(String query, String idColumn) {
+        if (restrictedIds == null) {
+            return query;
+        }
+        return String.format("SELECT * FROM (%1$s) AS changed_entities WHERE %2$s IN (%3$s)",
+                query,
+                idColumn,
+                restrictedIds.stream().map(id -> "'" + id + "'").collect(Collectors.joining(",")));
+    }
+
+    private List<? extends Queryable> search() {
         List<? extends Queryable> returnValue = new ArrayList<>();
         switch (getParameters().getSearchTypeValue()) {
         case VM:
@@ -250,7 +318,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
             log.error("Search object type not handled: {}", getParameters().getSearchTypeValue());
             break;
         }
-        getQueryReturnValue().setReturnValue(returnValue);
+        return returnValue;
     }
 
     private List<VM> searchVmsFromDb() {
@@ -260,7 +328,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
         }
 
         var javaZoneIdToOffset = vmHandler.getJavaZoneIdToOffsetFuncSupplier();
-        List<VM> vms = vmDao.getAllUsingQuery(data.getQuery());
+        List<VM> vms = vmDao.getAllUsingQuery(restrictQuery(data.getQuery(), "vm_guid"));
         Map<Guid, VM> vmsById = new HashMap<>();
         for (VM vm : vms) {
             vmHandler.updateVmGuestAgentVersion(vm);
@@ -277,7 +345,12 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
     }
 
     private List<VDS> searchVDSsByDb() {
-        List<VDS> data = genericSearch(vdsDao, true);
+        QueryData queryData = initQueryData(true);
+        if (queryData == null) {
+            return new ArrayList<>();
+        }
+
+        List<VDS> data = vdsDao.getAllWithQuery(restrictQuery(queryData.getQuery(), "vds_id"));
         for (VDS vds : data) {
             List<ServerCpu> supportedCpus = cpuFlagsManagerHandler.findServerCpusByFlags(
                     vds.getCpuFlags(),
@@ -0,0 +1,171 @@
+package org.ovirt.engine.core.bll;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The steps of the engine startup and the dependencies between them.
+ * <p>
+ * A step is started once all the steps it depends on finished, so independent steps may run concurrently. Steps
+ * that are ready at the same time are started in the order they were added, so with a parallelism of 1 the steps run
+ * one after the other, on the calling thread, in the order they were added. The first failure stops the startup:
+ * no further steps are started and the failure is thrown once the running steps finish.
+ * <p>
+ * The time every step took is logged when the startup finishes.
+ */
+public class ServiceStartupPlan {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceStartupPlan.class);
+
+    private final List<Step> steps = new ArrayList<>();
+
+    /**
+     * Adds a step to the plan.
+     *
+     * @param name - Name of the step, as reported in the log.
+     * @param action - What the step does.
+     * @param dependencies - Steps that must finish before this step starts, all of them already added to the plan.
+     * @return The added step, to be used as a dependency of later steps.
+     */
+    public Step add(String name, Runnable action, Step... dependencies) {
+        Arrays.stream(dependencies).forEach(dependency -> {
+            if (!steps.contains(dependency)) {
+                throw new IllegalArgumentException(
+                        String.format("Step '%s' depends on '%s', which is not part of the plan", name, dependency));
+            }
+        });
+        Step step = new Step(name, action, Arrays.asList(dependencies));
+        steps.add(step);
+        return step;
+    }
+
+    /**
+     * Runs all the steps of the plan and waits for them to finish.
+     *
+     * @param executor - Executor running the steps, not used when the parallelism is 1.
+     * @param parallelism - Maximal number of steps running at the same time.
+     */
+    public void run(ExecutorService executor, int parallelism) {
+        long start = System.nanoTime();
+        if (parallelism <= 1) {
+            steps.forEach(Step::run);
+        } else {
+            runConcurrently(executor, parallelism);
+        }
+        logReport(System.nanoTime() - start);
+    }
+
+    private void runConcurrently(ExecutorService executor, int parallelism) {
+        ExecutorCompletionService<Step> completionService = new ExecutorCompletionService<>(executor);
+        Map<Step, Integer> pendingDependencies = new HashMap<>();
+        Deque<Step> ready = new ArrayDeque<>();
+        steps.forEach(step -> {
+            pendingDependencies.put(step, step.dependencies.size());
+            if (step.dependencies.isEmpty()) {
+                ready.add(step);
+            }
+        });
+
+        RuntimeException failure = null;
+        int running = 0;
+        int finished = 0;
+        while (finished < steps.size()) {
+            while (failure == null && running < parallelism && !ready.isEmpty()) {
+                Step step = ready.poll();
+                completionService.submit(step::run, step);
+                running++;
+            }
+            if (running == 0) {
+                break;
+            }
+
+            Step step;
+            try {
+                step = completionService.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while starting " + runningSteps(), e);
+            } catch (ExecutionException e) {
+                running--;
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new IllegalStateException(e.getCause());
+                }
+                continue;
+            }
+            running--;
+            finished++;
+            for (Step dependent : steps) {
+                if (dependent.dependencies.contains(step)
+                        && pendingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private String runningSteps() {
+        return steps.stream()
+                .filter(step -> step.startTime != 0 && step.duration == 0)
+                .map(Step::toString)
+                .collect(Collectors.joining(", "));
+    }
+
+    private void logReport(long totalDuration) {
+        String report = steps.stream()
+                .sorted(Comparator.comparingLong((Step step) -> step.duration).reversed())
+                .map(step -> String.format("%s: %d ms", step, TimeUnit.NANOSECONDS.toMillis(step.duration)))
+                .collect(Collectors.joining(", "));
+        log.info("Started {} services in {} ms ({})",
+                steps.size(),
+                TimeUnit.NANOSECONDS.toMillis(totalDuration),
+                report);
+    }
+
+    public static class Step {
+        private final String name;
+        private final Runnable action;
+        private final List<Step> dependencies;
+        private volatile long startTime;
+        private volatile long duration;
+
+        private Step(String name, Runnable action, List<Step> dependencies) {
+            this.name = name;
+            this.action = action;
+            this.dependencies = dependencies;
+        }
+
+        private void run() {
+            startTime = System.nanoTime();
+            try {
+                action.run();
+            } finally {
+                duration = Math.max(System.nanoTime() - startTime, 1);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
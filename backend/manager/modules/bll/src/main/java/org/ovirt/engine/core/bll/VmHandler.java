@@ -82,6 +82,7 @@ import org.ovirt.engine.core.common.businessentities.VmInit;
 import org.ovirt.engine.core.common.businessentities.VmNumaNode;
 import org.ovirt.engine.core.common.businessentities.VmResumeBehavior;
 import org.ovirt.engine.core.common.businessentities.VmStatic;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
 import org.ovirt.engine.core.common.businessentities.VmType;
 import org.ovirt.engine.core.common.businessentities.VmWatchdog;
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
@@ -144,6 +145,7 @@ import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.VmManager;
+import org.ovirt.engine.core.vdsbroker.VmStatisticsStore;
 import org.ovirt.engine.core.vdsbroker.builder.vminfo.VmInfoBuildUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -168,6 +170,9 @@ public class VmHandler implements BackendService {
     @Inject
     private ResourceManager resourceManager;
 
+    @Inject
+    private VmStatisticsStore vmStatisticsStore;
+
     @Inject
     private VDSBrokerFrontend vdsBrokerFrontend;
 
@@ -672,9 +677,9 @@ public class VmHandler implements BackendService {
     }
 
     public void updateVmStatistics(final VM vm) {
-        VmManager vmManager = resourceManager.getVmManager(vm.getId(), false);
-        if (vmManager != null) {
-            vm.setStatisticsData(vmManager.getStatistics());
+        VmStatistics statistics = vmStatisticsStore.get(vm.getId());
+        if (statistics != null) {
+            vm.setStatisticsData(statistics);
         }
     }
 
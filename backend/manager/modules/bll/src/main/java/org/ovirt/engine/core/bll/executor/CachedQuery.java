@@ -0,0 +1,24 @@
+package org.ovirt.engine.core.bll.executor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a query whose results may be kept by the {@link QueryResultCache}. The results are kept per query parameters
+ * and user, until a command ends or they reach their maximal age.
+ * <p>
+ * Only queries that read entities changed by commands should be marked, the maximal age covering changes written by
+ * other flows, e.g. the monitoring.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedQuery {
+    /**
+     * The time in seconds a result is kept, unless a command ends before
+     *
+     * @return the maximal age of a result in seconds
+     */
+    int maxAgeInSeconds() default 60;
+}
@@ -0,0 +1,376 @@
+package org.ovirt.engine.core.bll.executor;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.bll.CommandBase;
+import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Controls the execution of the commands of multiple actions, so mass operations neither flood the engine thread pool
+ * nor get throttled more than needed.
+ * <p>
+ * The number of commands running at the same time is limited globally, per action type and per target host or
+ * storage domain of the commands. When several multiple actions wait for a free slot, the one that started a command
+ * least recently goes first, so a large multiple action does not starve the ones that came after it.
+ * <p>
+ * The global limit adapts to the load of the engine thread pool: it is halved, at most once a second, while the queue
+ * of the pool is more than a quarter full and grows back by one with every command that finishes while it is not.
+ * <p>
+ * Commands started by a command that runs under the controller, e.g. a multiple action run by a command of another
+ * multiple action, are never made to wait, since the running command would otherwise hold its slot while waiting for
+ * the slots held by its siblings.
+ */
+@Singleton
+public class MultipleActionsController implements MultipleActionsControllerMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(MultipleActionsController.class);
+
+    private static final long BACKOFF_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+    private static final int BACKOFF_QUEUE_FRACTION = 4;
+
+    private final ThreadLocal<Boolean> runningCommand = ThreadLocal.withInitial(() -> false);
+
+    private int maxConcurrency;
+    private int maxConcurrencyPerType;
+    private int maxConcurrencyPerTarget;
+    private int concurrencyLimit;
+    private long lastBackoff = System.nanoTime() - BACKOFF_INTERVAL;
+
+    private int runningCommands;
+    private final Map<ActionType, Integer> runningCommandsByType = new EnumMap<>(ActionType.class);
+    private final Map<Guid, Integer> runningCommandsByTarget = new HashMap<>();
+    private final Set<Batch> batches = new LinkedHashSet<>();
+    private final Set<Batch> waitingBatches = new LinkedHashSet<>();
+    private long servedSequence;
+    private long startedCommands;
+    private long finishedCommands;
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    public MultipleActionsController() {
+    }
+
+    public MultipleActionsController(int maxConcurrency, int maxConcurrencyPerType, int maxConcurrencyPerTarget) {
+        setLimits(maxConcurrency, maxConcurrencyPerType, maxConcurrencyPerTarget);
+    }
+
+    @PostConstruct
+    public void init() {
+        setLimits(Config.<Integer> getValue(ConfigValues.MultipleActionsMaxConcurrentCommands),
+                Config.<Integer> getValue(ConfigValues.MultipleActionsMaxConcurrentCommandsPerType),
+                Config.<Integer> getValue(ConfigValues.MultipleActionsMaxConcurrentCommandsPerTarget));
+        try {
+            objectName = new ObjectName("MultipleActionsController:type=" + getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.warn("Failed to register the multiple actions monitoring in JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+            objectName = null;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            platformMBeanServer.unregisterMBean(objectName);
+        } catch (Exception e) {
+            log.warn("Failed to unregister the multiple actions monitoring from JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    private synchronized void setLimits(int maxConcurrency, int maxConcurrencyPerType, int maxConcurrencyPerTarget) {
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.maxConcurrencyPerType = Math.max(1, maxConcurrencyPerType);
+        this.maxConcurrencyPerTarget = Math.max(1, maxConcurrencyPerTarget);
+        concurrencyLimit = this.maxConcurrency;
+    }
+
+    /**
+     * Starts a multiple action whose commands are going to be run under the controller. The returned batch must be
+     * closed once all its commands were handed to it.
+     *
+     * @param actionType
+     *            The action type of the commands
+     * @param size
+     *            The number of commands of the multiple action, used for monitoring only
+     */
+    public synchronized Batch startBatch(ActionType actionType, int size) {
+        Batch batch = new Batch(actionType, size);
+        batches.add(batch);
+        return batch;
+    }
+
+    /**
+     * Returns the number of commands of the given action type that may be validated at the same time.
+     */
+    public synchronized int getValidationConcurrency(ActionType actionType) {
+        return Math.min(maxConcurrencyPerType, concurrencyLimit);
+    }
+
+    private Set<Guid> getTargets(CommandBase<?> command) {
+        Set<Guid> targets = new HashSet<>();
+        if (!Guid.isNullOrEmpty(command.getVdsId())) {
+            targets.add(command.getVdsId());
+        }
+        if (!Guid.isNullOrEmpty(command.getStorageDomainId())) {
+            targets.add(command.getStorageDomainId());
+        }
+        return targets;
+    }
+
+    private synchronized Permit acquire(Batch batch, Set<Guid> targets) {
+        if (!runningCommand.get()) {
+            batch.waitingTargets = targets;
+            waitingBatches.add(batch);
+            try {
+                while (!canStart(batch) || !isNext(batch)) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(
+                        String.format("Interrupted while waiting to run a command of type '%s'", batch.actionType),
+                        e);
+            } finally {
+                waitingBatches.remove(batch);
+                batch.waitingTargets = null;
+                // the batches that waited behind this one may be able to start now
+                notifyAll();
+            }
+        }
+
+        runningCommands++;
+        runningCommandsByType.merge(batch.actionType, 1, Integer::sum);
+        targets.forEach(target -> runningCommandsByTarget.merge(target, 1, Integer::sum));
+        batch.started++;
+        batch.running++;
+        batch.lastServed = ++servedSequence;
+        startedCommands++;
+        return new Permit(batch, targets);
+    }
+
+    private synchronized void release(Permit permit) {
+        Batch batch = permit.batch;
+        runningCommands--;
+        runningCommandsByType.computeIfPresent(batch.actionType, (type, count) -> count > 1 ? count - 1 : null);
+        permit.targets.forEach(target ->
+                runningCommandsByTarget.computeIfPresent(target, (id, count) -> count > 1 ? count - 1 : null));
+        batch.running--;
+        batch.finished++;
+        finishedCommands++;
+        removeIfDone(batch);
+        adaptConcurrencyLimit();
+        notifyAll();
+    }
+
+    private boolean canStart(Batch batch) {
+        return runningCommands < concurrencyLimit
+                && runningCommandsByType.getOrDefault(batch.actionType, 0) < maxConcurrencyPerType
+                && batch.waitingTargets.stream()
+                        .allMatch(target -> runningCommandsByTarget.getOrDefault(target, 0) < maxConcurrencyPerTarget);
+    }
+
+    private boolean isNext(Batch batch) {
+        return waitingBatches.stream()
+                .noneMatch(other -> other != batch && other.lastServed < batch.lastServed && canStart(other));
+    }
+
+    private void removeIfDone(Batch batch) {
+        if (batch.closed && batch.running == 0) {
+            batches.remove(batch);
+        }
+    }
+
+    private void adaptConcurrencyLimit() {
+        ExecutorService executor = ThreadPoolUtil.getExecutorService();
+        if (!(executor instanceof ThreadPoolExecutor)) {
+            return;
+        }
+
+        BlockingQueue<Runnable> queue = ((ThreadPoolExecutor) executor).getQueue();
+        int queued = queue.size();
+        long capacity = (long) queued + queue.remainingCapacity();
+        if ((long) queued * BACKOFF_QUEUE_FRACTION > capacity) {
+            long now = System.nanoTime();
+            if (now - lastBackoff >= BACKOFF_INTERVAL && concurrencyLimit > 1) {
+                concurrencyLimit = Math.max(1, concurrencyLimit / 2);
+                lastBackoff = now;
+                log.info("The engine thread pool has {} queued tasks, lowering the limit of concurrent commands of "
+                        + "multiple actions to {}", queued, concurrencyLimit);
+            }
+        } else if (concurrencyLimit < maxConcurrency) {
+            concurrencyLimit++;
+        }
+    }
+
+    @Override
+    public synchronized int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    @Override
+    public synchronized int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public synchronized int getRunningCommands() {
+        return runningCommands;
+    }
+
+    @Override
+    public synchronized Map<String, Integer> getRunningCommandsByActionType() {
+        Map<String, Integer> running = new HashMap<>();
+        runningCommandsByType.forEach((type, count) -> running.put(type.name(), count));
+        return running;
+    }
+
+    @Override
+    public synchronized int getWaitingBatches() {
+        return waitingBatches.size();
+    }
+
+    @Override
+    public synchronized List<String> showBatches() {
+        return batches.stream().map(Batch::toString).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Override
+    public synchronized long getStartedCommands() {
+        return startedCommands;
+    }
+
+    @Override
+    public synchronized long getFinishedCommands() {
+        return finishedCommands;
+    }
+
+    @Override
+    public int getEngineQueueDepth() {
+        ExecutorService executor = ThreadPoolUtil.getExecutorService();
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getQueue().size() : 0;
+    }
+
+    private static class Permit {
+        private final Batch batch;
+        private final Set<Guid> targets;
+
+        private Permit(Batch batch, Set<Guid> targets) {
+            this.batch = batch;
+            this.targets = targets;
+        }
+    }
+
+    /**
+     * The commands of a single multiple action, run under the controller.
+     */
+    public class Batch implements AutoCloseable {
+        private final ActionType actionType;
+        private final int size;
+        private int started;
+        private int running;
+        private int finished;
+        private long lastServed;
+        private boolean closed;
+        private Set<Guid> waitingTargets;
+
+        private Batch(ActionType actionType, int size) {
+            this.actionType = actionType;
+            this.size = size;
+        }
+
+        /**
+         * Runs the given action of the given command on the calling thread, once the command is allowed to run.
+         */
+        public void execute(CommandBase<?> command, Runnable action) {
+            Permit permit = acquire(this, getTargets(command));
+            try {
+                runCommand(action);
+            } finally {
+                release(permit);
+            }
+        }
+
+        /**
+         * Runs the given action of the given command on the engine thread pool, once the command is allowed to run.
+         * The calling thread waits until then.
+         */
+        public void submit(CommandBase<?> command, Runnable action) {
+            Permit permit = acquire(this, getTargets(command));
+            try {
+                ThreadPoolUtil.execute(() -> {
+                    try {
+                        runCommand(action);
+                    } finally {
+                        release(permit);
+                    }
+                });
+            } catch (RuntimeException e) {
+                release(permit);
+                throw e;
+            }
+        }
+
+        private void runCommand(Runnable action) {
+            boolean nested = runningCommand.get();
+            runningCommand.set(true);
+            try {
+                action.run();
+            } finally {
+                runningCommand.set(nested);
+            }
+        }
+
+        @Override
+        public void close() {
+            synchronized (MultipleActionsController.this) {
+                closed = true;
+                removeIfDone(this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            synchronized (MultipleActionsController.this) {
+                return String.format("%s: %d/%d started, %d running, %d finished%s",
+                        actionType,
+                        started,
+                        size,
+                        running,
+                        finished,
+                        waitingTargets != null ? ", waiting" : "");
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.ovirt.engine.core.bll.executor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The following interface is used as interface for the JMX bean monitoring the execution of multiple actions
+ */
+public interface MultipleActionsControllerMXBean {
+
+    /**
+     * Returns the number of commands of multiple actions that may run at the same time, lowered from the configured
+     * maximum while the engine thread pool is overloaded
+     */
+    int getConcurrencyLimit();
+
+    /**
+     * Returns the configured maximal number of commands of multiple actions running at the same time
+     */
+    int getMaxConcurrency();
+
+    /**
+     * Returns the number of commands of multiple actions currently running
+     */
+    int getRunningCommands();
+
+    /**
+     * Returns the number of commands currently running per action type
+     */
+    Map<String, Integer> getRunningCommandsByActionType();
+
+    /**
+     * Returns the number of multiple actions waiting for their next command to be allowed to run
+     */
+    int getWaitingBatches();
+
+    /**
+     * Returns the progress of every multiple action currently running
+     */
+    List<String> showBatches();
+
+    /**
+     * Returns the number of commands of multiple actions started since the engine started
+     */
+    long getStartedCommands();
+
+    /**
+     * Returns the number of commands of multiple actions finished since the engine started
+     */
+    long getFinishedCommands();
+
+    /**
+     * Returns the number of tasks waiting in the queue of the engine thread pool
+     */
+    int getEngineQueueDepth();
+}
@@ -0,0 +1,363 @@
+package org.ovirt.engine.core.bll.executor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.bll.QueriesCommandBase;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.ovirt.engine.core.common.queries.QueryReturnValue;
+import org.ovirt.engine.core.common.queries.QueryType;
+import org.ovirt.engine.core.compat.Guid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the results of the queries marked by {@link CachedQuery}, so read-mostly queries that are run over and over by
+ * clients do not go to the database every time.
+ * <p>
+ * A result is kept per query type, query parameters and user. The parameters that identify the caller rather than what
+ * is queried, i.e. the session, the correlation id and the refresh flag, are not part of the key. Results are kept in
+ * their serialized form, so every caller gets its own copy and the memory they take is known.
+ * <p>
+ * Every command that ends reports its changes by {@link #invalidate()}, which drops all the results, and results that
+ * were calculated while a command ended are not kept. Changes written by other flows are seen once the result reaches
+ * the maximal age of its query.
+ */
+@Singleton
+public class QueryResultCache implements QueryResultCacheMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryResultCache.class);
+
+    private static final long BYTES_IN_MB = 1024L * 1024L;
+
+    private long maxSize;
+
+    /** Entries by key, the least recently used first */
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private long version;
+    private long invalidations;
+
+    private final Map<QueryType, Statistics> statistics = new ConcurrentHashMap<>();
+    private final Set<QueryType> unserializableQueryTypes = ConcurrentHashMap.newKeySet();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    public QueryResultCache() {
+    }
+
+    public QueryResultCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    @PostConstruct
+    public void init() {
+        maxSize = Config.<Integer> getValue(ConfigValues.QueryResultCacheMaxSizeInMB) * BYTES_IN_MB;
+        try {
+            objectName = new ObjectName("QueryResultCache:type=" + getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.warn("Failed to register the query result cache monitoring in JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+            objectName = null;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            platformMBeanServer.unregisterMBean(objectName);
+        } catch (Exception e) {
+            log.warn("Failed to unregister the query result cache monitoring from JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    /**
+     * Sets the cached result of the given query as its return value, or runs the given execution of the query and
+     * keeps its result if it succeeded.
+     *
+     * @param query
+     *            The query, whose permissions and inputs were already validated
+     * @param queryType
+     *            The type of the query
+     * @param userId
+     *            The user the query runs for, or {@code null} if it runs without a user
+     * @param execution
+     *            Sets the result of the query as its return value
+     */
+    public void execute(QueriesCommandBase<?> query, QueryType queryType, Guid userId, Runnable execution) {
+        CachedQuery cachedQuery = query.getClass().getAnnotation(CachedQuery.class);
+        Key key = cachedQuery == null || maxSize <= 0 || unserializableQueryTypes.contains(queryType)
+                ? null
+                : createKey(queryType, query.getParameters(), userId);
+        if (key == null) {
+            execution.run();
+            return;
+        }
+
+        Statistics queryStatistics = statistics.computeIfAbsent(queryType, type -> new Statistics());
+        QueryReturnValue returnValue = query.getQueryReturnValue();
+        byte[] cachedResult = get(key);
+        if (cachedResult != null) {
+            try {
+                returnValue.setReturnValue(deserialize(cachedResult));
+                queryStatistics.hits.increment();
+                return;
+            } catch (IOException | ClassNotFoundException e) {
+                log.debug("Failed to read the cached result of query '{}': {}", queryType, e.getMessage());
+            }
+        }
+
+        queryStatistics.misses.increment();
+        long startVersion = getVersion();
+        execution.run();
+        if (!returnValue.getSucceeded()) {
+            return;
+        }
+
+        byte[] result;
+        try {
+            result = serialize(returnValue.getReturnValue());
+        } catch (IOException e) {
+            log.warn("The results of query '{}' cannot be cached: {}", queryType, e.getMessage());
+            log.debug("Exception", e);
+            unserializableQueryTypes.add(queryType);
+            return;
+        }
+        put(key, new Entry(queryType,
+                result,
+                startVersion,
+                System.nanoTime() + TimeUnit.SECONDS.toNanos(cachedQuery.maxAgeInSeconds())));
+    }
+
+    /**
+     * Drops all the cached results, to be called whenever entities were changed.
+     */
+    public synchronized void invalidate() {
+        version++;
+        if (!entries.isEmpty()) {
+            entries.clear();
+            size = 0;
+        }
+        invalidations++;
+    }
+
+    private synchronized long getVersion() {
+        return version;
+    }
+
+    private synchronized byte[] get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiration - System.nanoTime() <= 0) {
+            remove(key);
+            return null;
+        }
+        return entry.result;
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        // a command ended while the result was calculated, so it might not contain its changes
+        if (entry.version != version || entry.getSize(key) > maxSize) {
+            return;
+        }
+
+        remove(key);
+        entries.put(key, entry);
+        size += entry.getSize(key);
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<Key, Entry> eldest = iterator.next();
+            size -= eldest.getValue().getSize(eldest.getKey());
+            iterator.remove();
+        }
+    }
+
+    private void remove(Key key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            size -= removed.getSize(key);
+        }
+    }
+
+    private static Key createKey(QueryType queryType, QueryParametersBase parameters, Guid userId) {
+        try {
+            QueryParametersBase copy = (QueryParametersBase) deserialize(serialize(parameters));
+            copy.setSessionId(null);
+            copy.setCorrelationId(null);
+            copy.setRefresh(false);
+            return new Key(queryType, userId, serialize(copy));
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            log.debug("The parameters of query '{}' cannot be used as a cache key: {}", queryType, e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(buffer)) {
+            objectOut.writeObject(object);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static Object deserialize(byte[] serialized) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(serialized)) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass description)
+                    throws IOException, ClassNotFoundException {
+                // the business entities are not visible to the class loader of this class in the application server
+                try {
+                    return Class.forName(description.getName(),
+                            false,
+                            Thread.currentThread().getContextClassLoader());
+                } catch (ClassNotFoundException exception) {
+                    return super.resolveClass(description);
+                }
+            }
+        }) {
+            return objectIn.readObject();
+        }
+    }
+
+    @Override
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public synchronized long getSize() {
+        return size;
+    }
+
+    @Override
+    public synchronized Map<String, Long> getSizeByQueryType() {
+        Map<String, Long> sizes = new HashMap<>();
+        entries.forEach((key, entry) -> sizes.merge(entry.queryType.name(), entry.getSize(key), Long::sum));
+        return sizes;
+    }
+
+    @Override
+    public synchronized int getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public long getHits() {
+        return statistics.values().stream().mapToLong(s -> s.hits.sum()).sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return statistics.values().stream().mapToLong(s -> s.misses.sum()).sum();
+    }
+
+    @Override
+    public Map<String, Double> getHitRatioByQueryType() {
+        Map<String, Double> hitRatios = new HashMap<>();
+        statistics.forEach((queryType, queryStatistics) -> {
+            long hits = queryStatistics.hits.sum();
+            long total = hits + queryStatistics.misses.sum();
+            hitRatios.put(queryType.name(), total == 0 ? 0 : (double) hits / total);
+        });
+        return hitRatios;
+    }
+
+    @Override
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    private static class Key {
+        private final QueryType queryType;
+        private final Guid userId;
+        private final byte[] parameters;
+        private final int hashCode;
+
+        private Key(QueryType queryType, Guid userId, byte[] parameters) {
+            this.queryType = queryType;
+            this.userId = userId;
+            this.parameters = parameters;
+            hashCode = Objects.hash(queryType, userId, Arrays.hashCode(parameters));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return queryType == other.queryType
+                    && Objects.equals(userId, other.userId)
+                    && Arrays.equals(parameters, other.parameters);
+        }
+    }
+
+    private static class Entry {
+        private final QueryType queryType;
+        private final byte[] result;
+        private final long version;
+        private final long expiration;
+
+        private Entry(QueryType queryType, byte[] result, long version, long expiration) {
+            this.queryType = queryType;
+            this.result = result;
+            this.version = version;
+            this.expiration = expiration;
+        }
+
+        private long getSize(Key key) {
+            return (long) result.length + key.parameters.length;
+        }
+    }
+
+    private static class Statistics {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+}
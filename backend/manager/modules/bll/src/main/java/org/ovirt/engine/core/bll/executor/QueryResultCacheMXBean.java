@@ -0,0 +1,54 @@
+package org.ovirt.engine.core.bll.executor;
+
+import java.util.Map;
+
+/**
+ * The following interface is used as interface for the JMX bean monitoring the query result cache
+ */
+public interface QueryResultCacheMXBean {
+
+    /**
+     * Returns the configured maximal size in bytes of the cached results
+     */
+    long getMaxSize();
+
+    /**
+     * Returns the size in bytes of the cached results
+     */
+    long getSize();
+
+    /**
+     * Returns the size in bytes of the cached results per query type
+     */
+    Map<String, Long> getSizeByQueryType();
+
+    /**
+     * Returns the number of cached results
+     */
+    int getEntries();
+
+    /**
+     * Returns the number of queries answered from the cache since the engine started
+     */
+    long getHits();
+
+    /**
+     * Returns the number of cacheable queries that were executed since the engine started
+     */
+    long getMisses();
+
+    /**
+     * Returns the ratio of the queries answered from the cache per query type
+     */
+    Map<String, Double> getHitRatioByQueryType();
+
+    /**
+     * Returns the number of times the cached results were invalidated by commands since the engine started
+     */
+    long getInvalidations();
+
+    /**
+     * Drops all the cached results
+     */
+    void clear();
+}
@@ -5,11 +5,18 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -47,7 +54,7 @@ import org.ovirt.engine.core.common.businessentities.network.VdsNetworkInterface
 import org.ovirt.engine.core.common.config.Config;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.constants.gluster.GlusterConstants;
-import org.ovirt.engine.core.common.utils.gluster.GlusterCoreUtil;
+import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.common.vdscommands.RemoveVdsVDSCommandParameters;
 import org.ovirt.engine.core.common.vdscommands.VDSCommandType;
 import org.ovirt.engine.core.common.vdscommands.VDSReturnValue;
@@ -63,6 +70,7 @@ import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogable;
 import org.ovirt.engine.core.dao.gluster.GlusterDBUtils;
 import org.ovirt.engine.core.utils.lock.EngineLock;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -111,18 +119,48 @@ public class GlusterSyncJob extends GlusterJob {
     @OnTimerMethodAnnotation("refreshLightWeightData")
     public void refreshLightWeightData() {
         log.debug("Refreshing Gluster Data [lightweight]");
-        List<Cluster> clusters = clusterDao.getAll();
+        refreshClusters("lightweight", this::refreshClusterData);
+    }
 
-        for (Cluster cluster : clusters) {
-            if (cluster.supportsGlusterService()) {
-                try {
-                    refreshClusterData(cluster);
-                } catch (Exception e) {
-                    log.error("Error while refreshing Gluster lightweight data of cluster '{}': {}",
-                            cluster.getName(),
-                            e.getMessage());
-                    log.debug("Exception", e);
-                }
+    /**
+     * Refreshes the gluster clusters using the given refresher. Clusters are refreshed concurrently, up to
+     * <code>GlusterRefreshMaxConcurrentClusters</code> at a time, so that a slow cluster doesn't hold back the
+     * refresh of all the others. Failures to refresh a cluster are logged and don't affect the other clusters.
+     */
+    private void refreshClusters(String dataType, Consumer<Cluster> clusterRefresher) {
+        Queue<Cluster> clusters = clusterDao.getAll()
+                .stream()
+                .filter(Cluster::supportsGlusterService)
+                .collect(Collectors.toCollection(ConcurrentLinkedQueue::new));
+        if (clusters.size() > 1) {
+            int concurrency = Math.min(clusters.size(),
+                    Config.<Integer> getValue(ConfigValues.GlusterRefreshMaxConcurrentClusters));
+            Callable<Void> worker = () -> {
+                refreshQueuedClusters(clusters, dataType, clusterRefresher);
+                return null;
+            };
+            try {
+                ThreadPoolUtil.invokeAll(Collections.nCopies(concurrency, worker));
+            } catch (Exception e) {
+                log.warn("Failed to refresh Gluster {} data of clusters concurrently: {}", dataType, e.getMessage());
+                log.debug("Exception", e);
+            }
+        }
+        // refreshes the only cluster, or the clusters left in case the thread pool failed
+        refreshQueuedClusters(clusters, dataType, clusterRefresher);
+    }
+
+    private void refreshQueuedClusters(Queue<Cluster> clusters, String dataType, Consumer<Cluster> clusterRefresher) {
+        Cluster cluster;
+        while ((cluster = clusters.poll()) != null) {
+            try {
+                clusterRefresher.accept(cluster);
+            } catch (Exception e) {
+                log.error("Error while refreshing Gluster {} data of cluster '{}': {}",
+                        dataType,
+                        cluster.getName(),
+                        e.getMessage());
+                log.debug("Exception", e);
             }
         }
     }
@@ -174,8 +212,13 @@ public class GlusterSyncJob extends GlusterJob {
 
         boolean serverRemoved = false;
         Network glusterNetwork = findGlusterNetwork(cluster.getId());
+        Map<Guid, GlusterServer> glusterServers = serverDao.getAllByClusterId(cluster.getId())
+                .stream()
+                .collect(Collectors.toMap(GlusterServer::getId, Function.identity()));
+        Map<Guid, List<VdsNetworkInterface>> interfaces = new HashMap<>();
         for (VDS server : existingServers) {
-            GlusterServerInfo glusterServer = findGlusterServer(server, fetchedServers);
+            GlusterServer dbGlusterServer = getGlusterServer(glusterServers, server.getId());
+            GlusterServerInfo glusterServer = findGlusterServer(dbGlusterServer, fetchedServers);
             if (isSyncableStatus(server.getStatus())) {
                 if (glusterServer == null) {
                     if (cluster.supportsVirtService()) {
@@ -216,7 +259,11 @@ public class GlusterSyncJob extends GlusterJob {
                     }
                 } else {
                     // update correct status and check if all interfaces with gluster network have been peer probed.
-                    updateStatusAndpeerProbeOtherIface(glusterNetwork, server, glusterServer);
+                    updateStatusAndpeerProbeOtherIface(glusterNetwork,
+                            server,
+                            dbGlusterServer,
+                            glusterServer,
+                            interfaces);
                 }
             }
 
@@ -241,8 +288,20 @@ public class GlusterSyncJob extends GlusterJob {
         }
     }
 
-    private void updateStatusAndpeerProbeOtherIface(Network glusterNetwork, VDS host, GlusterServerInfo fetchedServerInfo) {
-        GlusterServer glusterServer = serverDao.get(host.getId());
+    /**
+     * Returns the gluster server of the given host from the ones loaded for its cluster, falling back to the database
+     * for hosts added since they were loaded.
+     */
+    private GlusterServer getGlusterServer(Map<Guid, GlusterServer> glusterServers, Guid serverId) {
+        GlusterServer glusterServer = glusterServers.get(serverId);
+        return glusterServer != null ? glusterServer : serverDao.getByServerId(serverId);
+    }
+
+    private void updateStatusAndpeerProbeOtherIface(Network glusterNetwork,
+            VDS host,
+            GlusterServer glusterServer,
+            GlusterServerInfo fetchedServerInfo,
+            Map<Guid, List<VdsNetworkInterface>> clusterInterfaces) {
         if (glusterServer == null) {
             return;
         }
@@ -254,7 +313,13 @@ public class GlusterSyncJob extends GlusterJob {
         if (glusterNetwork == null || host.getStatus() != VDSStatus.Up) {
             return;
         }
-        List<VdsNetworkInterface> interfaces = interfaceDao.getAllInterfacesForVds(host.getId());
+        if (clusterInterfaces.isEmpty()) {
+            // the interfaces of all the hosts in the cluster are loaded at once, when first required
+            clusterInterfaces.putAll(interfaceDao.getAllInterfacesByClusterId(host.getClusterId())
+                    .stream()
+                    .collect(Collectors.groupingBy(VdsNetworkInterface::getVdsId)));
+        }
+        List<VdsNetworkInterface> interfaces = clusterInterfaces.getOrDefault(host.getId(), Collections.emptyList());
         for (VdsNetworkInterface iface : interfaces) {
             if (glusterNetwork.getName().equals(iface.getNetworkName()) &&
                     StringUtils.isNotBlank(iface.getIpv4Address())
@@ -341,9 +406,8 @@ public class GlusterSyncJob extends GlusterJob {
     /**
      * Returns the equivalent GlusterServer from the list of fetched servers.
      */
-    private GlusterServerInfo findGlusterServer(VDS server, List<GlusterServerInfo> fetchedServers) {
+    private GlusterServerInfo findGlusterServer(GlusterServer glusterServer, List<GlusterServerInfo> fetchedServers) {
         // compare gluster host uuid stored in server with the ones fetched from list
-        GlusterServer glusterServer = serverDao.getByServerId(server.getId());
         for (GlusterServerInfo fetchedServer : fetchedServers) {
             if (fetchedServer.getUuid().equals(glusterServer.getGlusterServerUuid())) {
                 return fetchedServer;
@@ -457,11 +521,15 @@ public class GlusterSyncJob extends GlusterJob {
                 return;
             }
 
+            Map<Guid, GlusterVolumeEntity> existingVolumesMap = volumeDao.getByClusterId(cluster.getId())
+                    .stream()
+                    .collect(Collectors.toMap(GlusterVolumeEntity::getId, Function.identity()));
+
             // remove deleted volumes must happen before adding new ones,
             // to handle cases where user deleted a volume and created a
             // new one with same name in a very short time
-            removeDeletedVolumes(cluster.getId(), volumesMap);
-            updateExistingAndNewVolumes(cluster.getId(), volumesMap);
+            removeDeletedVolumes(cluster.getId(), existingVolumesMap.values(), volumesMap);
+            updateExistingAndNewVolumes(cluster.getId(), existingVolumesMap, volumesMap);
         } finally {
             releaseLock(cluster.getId());
         }
@@ -496,9 +564,11 @@ public class GlusterSyncJob extends GlusterJob {
         return result.getSucceeded() ? (Map<Guid, GlusterVolumeEntity>) result.getReturnValue() : null;
     }
 
-    private void removeDeletedVolumes(Guid clusterId, Map<Guid, GlusterVolumeEntity> volumesMap) {
+    private void removeDeletedVolumes(Guid clusterId,
+            Collection<GlusterVolumeEntity> existingVolumes,
+            Map<Guid, GlusterVolumeEntity> volumesMap) {
         List<Guid> idsToRemove = new ArrayList<>();
-        for (GlusterVolumeEntity volume : volumeDao.getByClusterId(clusterId)) {
+        for (GlusterVolumeEntity volume : existingVolumes) {
             if (!volumesMap.containsKey(volume.getId())) {
                 idsToRemove.add(volume.getId());
                 log.debug("Volume '{}' has been removed directly using the gluster CLI. Removing it from engine as well.",
@@ -523,14 +593,16 @@ public class GlusterSyncJob extends GlusterJob {
         }
     }
 
-    private void updateExistingAndNewVolumes(Guid clusterId, Map<Guid, GlusterVolumeEntity> volumesMap) {
+    private void updateExistingAndNewVolumes(Guid clusterId,
+            Map<Guid, GlusterVolumeEntity> existingVolumesMap,
+            Map<Guid, GlusterVolumeEntity> volumesMap) {
         Cluster cluster = clusterDao.get(clusterId);
 
         for (Entry<Guid, GlusterVolumeEntity> entry : volumesMap.entrySet()) {
             GlusterVolumeEntity volume = entry.getValue();
             log.debug("Analyzing volume '{}'", volume.getName());
 
-            GlusterVolumeEntity existingVolume = volumeDao.getById(entry.getKey());
+            GlusterVolumeEntity existingVolume = existingVolumesMap.get(entry.getKey());
             if (existingVolume == null) {
                 try {
                     createVolume(volume);
@@ -654,15 +726,16 @@ public class GlusterSyncJob extends GlusterJob {
             return;
         }
 
-        removeDeletedBricks(existingVolume, fetchedBricks);
-        updateExistingAndNewBricks(existingVolume, fetchedBricks);
+        Map<Pair<Guid, String>, GlusterBrickEntity> fetchedBricksMap = mapBricks(fetchedBricks);
+        removeDeletedBricks(existingVolume, fetchedBricksMap);
+        updateExistingAndNewBricks(existingVolume, fetchedBricksMap);
     }
 
-    @SuppressWarnings("serial")
-    private void removeDeletedBricks(GlusterVolumeEntity existingVolume, List<GlusterBrickEntity> fetchedBricks) {
+    private void removeDeletedBricks(GlusterVolumeEntity existingVolume,
+            Map<Pair<Guid, String>, GlusterBrickEntity> fetchedBricks) {
         List<Guid> idsToRemove = new ArrayList<>();
         for (final GlusterBrickEntity existingBrick : existingVolume.getBricks()) {
-            if (!GlusterCoreUtil.containsBrick(fetchedBricks, existingBrick)) {
+            if (!fetchedBricks.containsKey(getBrickKey(existingBrick))) {
                 idsToRemove.add(existingBrick.getId());
                 log.info("Detected brick '{}' removed from volume '{}'. Removing it from engine DB as well.",
                         existingBrick.getQualifiedName(),
@@ -685,10 +758,15 @@ public class GlusterSyncJob extends GlusterJob {
         }
     }
 
-    @SuppressWarnings("serial")
-    private void updateExistingAndNewBricks(GlusterVolumeEntity existingVolume, List<GlusterBrickEntity> fetchedBricks) {
-        for (final GlusterBrickEntity fetchedBrick : fetchedBricks) {
-            GlusterBrickEntity existingBrick = GlusterCoreUtil.findBrick(existingVolume.getBricks(), fetchedBrick);
+    private void updateExistingAndNewBricks(GlusterVolumeEntity existingVolume,
+            Map<Pair<Guid, String>, GlusterBrickEntity> fetchedBricks) {
+        Map<Pair<Guid, String>, GlusterBrickEntity> existingBricks = mapBricks(existingVolume.getBricks());
+        List<GlusterBrickEntity> newBricks = new ArrayList<>();
+        List<GlusterBrickEntity> bricksWithChangedOrder = new ArrayList<>();
+        List<GlusterBrickEntity> bricksWithChangedNetwork = new ArrayList<>();
+
+        for (final GlusterBrickEntity fetchedBrick : fetchedBricks.values()) {
+            GlusterBrickEntity existingBrick = existingBricks.get(getBrickKey(fetchedBrick));
             if (existingBrick == null) {
                 // server id could be null if the new brick resides on a server that is not yet added in the engine
                 // adding such servers to engine required manual approval by user, and hence can't be automated.
@@ -697,13 +775,7 @@ public class GlusterSyncJob extends GlusterJob {
                             fetchedBrick.getQualifiedName(),
                             existingVolume.getName());
                     fetchedBrick.setStatus(existingVolume.isOnline() ? GlusterStatus.UP : GlusterStatus.DOWN);
-                    brickDao.save(fetchedBrick);
-                    logUtil.logAuditMessage(existingVolume.getClusterId(),
-                            existingVolume.getClusterName(),
-                            existingVolume,
-                            null,
-                            AuditLogType.GLUSTER_VOLUME_BRICK_ADDED_FROM_CLI,
-                            Collections.singletonMap(GlusterConstants.BRICK, fetchedBrick.getQualifiedName()));
+                    newBricks.add(fetchedBrick);
                 }
             } else {
                 // brick found. update it if required. Only property that could be different is the brick order
@@ -712,17 +784,53 @@ public class GlusterSyncJob extends GlusterJob {
                             existingBrick.getQualifiedName(),
                             existingBrick.getBrickOrder(),
                             fetchedBrick.getBrickOrder());
-                    brickDao.updateBrickOrder(existingBrick.getId(), fetchedBrick.getBrickOrder());
+                    existingBrick.setBrickOrder(fetchedBrick.getBrickOrder());
+                    bricksWithChangedOrder.add(existingBrick);
                 }
                 // update network id, if different
                 if (!Objects.equals(existingBrick.getNetworkId(), fetchedBrick.getNetworkId())) {
                     log.info("Network address for brick '{}' detected as  '{}'. Updating engine DB accordingly.",
                             existingBrick.getQualifiedName(),
                             fetchedBrick.getNetworkAddress());
-                    brickDao.updateBrickNetworkId(existingBrick.getId(), fetchedBrick.getNetworkId());
+                    existingBrick.setNetworkId(fetchedBrick.getNetworkId());
+                    bricksWithChangedNetwork.add(existingBrick);
                 }
             }
         }
+
+        if (!newBricks.isEmpty()) {
+            brickDao.saveAllInBatch(newBricks);
+            for (GlusterBrickEntity newBrick : newBricks) {
+                logUtil.logAuditMessage(existingVolume.getClusterId(),
+                        existingVolume.getClusterName(),
+                        existingVolume,
+                        null,
+                        AuditLogType.GLUSTER_VOLUME_BRICK_ADDED_FROM_CLI,
+                        Collections.singletonMap(GlusterConstants.BRICK, newBrick.getQualifiedName()));
+            }
+        }
+        if (!bricksWithChangedOrder.isEmpty()) {
+            brickDao.updateBrickOrders(bricksWithChangedOrder);
+        }
+        if (!bricksWithChangedNetwork.isEmpty()) {
+            brickDao.updateBrickNetworkIds(bricksWithChangedNetwork);
+        }
+    }
+
+    /**
+     * Maps the given bricks by their server id and brick directory, which identify a brick, the same way
+     * <code>GlusterCoreUtil.findBrick</code> does.
+     */
+    private static Map<Pair<Guid, String>, GlusterBrickEntity> mapBricks(Collection<GlusterBrickEntity> bricks) {
+        Map<Pair<Guid, String>, GlusterBrickEntity> bricksMap = new LinkedHashMap<>();
+        for (GlusterBrickEntity brick : bricks) {
+            bricksMap.putIfAbsent(getBrickKey(brick), brick);
+        }
+        return bricksMap;
+    }
+
+    private static Pair<Guid, String> getBrickKey(GlusterBrickEntity brick) {
+        return new Pair<>(brick.getServerId(), brick.getBrickDirectory());
     }
 
     private void updateOptions(GlusterVolumeEntity existingVolume, GlusterVolumeEntity fetchedVolume) {
@@ -914,19 +1022,7 @@ public class GlusterSyncJob extends GlusterJob {
     @OnTimerMethodAnnotation("refreshHeavyWeightData")
     public void refreshHeavyWeightData() {
         log.debug("Refreshing Gluster Data [heavyweight]");
-
-        for (Cluster cluster : clusterDao.getAll()) {
-            if (cluster.supportsGlusterService()) {
-                try {
-                    refreshClusterHeavyWeightData(cluster);
-                } catch (Exception e) {
-                    log.error("Error while refreshing Gluster heavyweight data of cluster '{}': {}",
-                            cluster.getName(),
-                            e.getMessage());
-                    log.debug("Exception", e);
-                }
-            }
-        }
+        refreshClusters("heavyweight", this::refreshClusterHeavyWeightData);
     }
 
     private void refreshClusterHeavyWeightData(Cluster cluster) {
@@ -1111,20 +1207,7 @@ public class GlusterSyncJob extends GlusterJob {
     @OnTimerMethodAnnotation("refreshSelfHealInfo")
     public void refreshSelfHealInfo() {
         log.debug("Refreshing Gluster Self Heal Data");
-
-        for (Cluster cluster : clusterDao.getAll()) {
-            if (cluster.supportsGlusterService()) {
-                try {
-                    refreshSelfHealData(cluster);
-                } catch (Exception e) {
-                    log.error("Error while refreshing Gluster self heal data of cluster '{}': {}",
-                            cluster.getName(),
-                            e.getMessage());
-                    log.debug("Exception", e);
-                }
-            }
-        }
-
+        refreshClusters("self heal", this::refreshSelfHealData);
         log.debug("Refreshing Gluster Self Heal data is completed");
     }
 
@@ -4,6 +4,7 @@ import java.util.Collection;
 import java.util.List;
 
 import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.common.businessentities.SubjectEntity;
 import org.ovirt.engine.core.common.job.Job;
 import org.ovirt.engine.core.common.job.JobExecutionStatus;
 import org.ovirt.engine.core.common.job.Step;
@@ -13,6 +14,10 @@ import org.ovirt.engine.core.compat.Guid;
 /**
  * Represents basic CRUD operations for Job and Step objects.
  * Each modification operation is being executed in a new transaction.
+ * <p>
+ * When {@code JobStepsFlushIntervalInMillis} is set, the changes of steps are instead kept in memory and written
+ * periodically, together with the other changes of steps of the same job, and right away once the job is completed.
+ * The operations retrieving jobs and steps reflect the changes that were not written yet.
  */
 public interface JobRepository {
 
@@ -43,6 +48,16 @@ public interface JobRepository {
      */
     void updateStep(Step step);
 
+    /**
+     * Updates the progress of the {@link Step} with the given id.
+     *
+     * @param stepId
+     *            The id of the step to update.
+     * @param progress
+     *            The progress of the step.
+     */
+    void updateStepProgress(Guid stepId, Integer progress);
+
     /**
      * Persists a new instance of {@link Job} the entity.
      *
@@ -107,6 +122,55 @@ public interface JobRepository {
      */
     void loadParentStepSteps(Step step);
 
+    /**
+     * Retrieves the {@link Step} entities of the job with the given id.
+     *
+     * @param jobId
+     *            The id of the job (can't be <code>null</code>).
+     * @param loadSubjectEntities
+     *            boolean indicating whether to load the steps' {@link StepSubjectEntity} lists
+     * @return The steps of the job, not arranged as a tree.
+     */
+    List<Step> getJobSteps(Guid jobId, boolean loadSubjectEntities);
+
+    /**
+     * Retrieves the started {@link Step} entities that the given entity is a subject of.
+     *
+     * @param subjectEntity
+     *            The subject entity of the steps (can't be <code>null</code>).
+     * @return The started steps, or an empty list if there are none.
+     */
+    List<Step> getStartedStepsByStepSubjectEntity(SubjectEntity subjectEntity);
+
+    /**
+     * Persists the given {@link StepSubjectEntity} list of an existing {@link Step}.
+     *
+     * @param step
+     *            The step of the entities (can't be <code>null</code>).
+     * @param stepSubjectEntities
+     *            The {@link StepSubjectEntity} list to persist (can't be <code>null</code>).
+     */
+    void saveStepSubjectEntities(Step step, Collection<StepSubjectEntity> stepSubjectEntities);
+
+    /**
+     * Removes the {@link StepSubjectEntity} of the given entity from the given {@link Step}.
+     *
+     * @param step
+     *            The step of the entity (can't be <code>null</code>).
+     * @param entityId
+     *            The id of the subject entity to remove.
+     */
+    void removeStepSubjectEntity(Step step, Guid entityId);
+
+    /**
+     * Updates the given {@link Job} entities, retrieved directly from the database, with the changes of their steps
+     * that were not written to the database yet.
+     *
+     * @param jobs
+     *            The jobs to update.
+     */
+    void applyPendingChanges(List<Job> jobs);
+
     /**
      * Handles the status of uncompleted jobs and their steps:
      * <li>Job without Steps that have tasks will be marked as {@code ExecutionStatus.UNKNOWN}
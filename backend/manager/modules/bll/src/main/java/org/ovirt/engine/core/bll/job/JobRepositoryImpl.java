@@ -5,16 +5,27 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.VdcObjectType;
 import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.common.businessentities.SubjectEntity;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.job.Job;
 import org.ovirt.engine.core.common.job.JobExecutionStatus;
 import org.ovirt.engine.core.common.job.Step;
@@ -24,6 +35,7 @@ import org.ovirt.engine.core.dao.JobDao;
 import org.ovirt.engine.core.dao.JobSubjectEntityDao;
 import org.ovirt.engine.core.dao.StepDao;
 import org.ovirt.engine.core.dao.StepSubjectEntityDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +53,18 @@ public class JobRepositoryImpl implements JobRepository {
     private final StepDao stepDao;
     private final StepSubjectEntityDao stepSubjectEntityDao;
 
+    /** Pending changes of steps by job id, not written to the database yet when the changes are coalesced */
+    private final Map<Guid, JobChanges> pendingChanges = new HashMap<>();
+    /** Changes of steps by job id that are being written, kept visible to the readers until they are committed */
+    private final Map<Guid, JobChanges> writtenChanges = new HashMap<>();
+    /** Makes sure the changes of a job are written in the order they were made */
+    private final Object flushLock = new Object();
+    private volatile long flushIntervalInMillis;
+
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
+    private ManagedScheduledExecutorService executor;
+
     @Inject
     public JobRepositoryImpl(JobDao jobDao, JobSubjectEntityDao jobSubjectEntityDao, StepDao stepDao,
                              StepSubjectEntityDao stepSubjectEntityDao) {
@@ -50,6 +74,14 @@ public class JobRepositoryImpl implements JobRepository {
         this.stepSubjectEntityDao = stepSubjectEntityDao;
     }
 
+    @PostConstruct
+    private void init() {
+        long interval = Config.<Integer> getValue(ConfigValues.JobStepsFlushIntervalInMillis);
+        if (interval > 0) {
+            startCoalescing(interval, executor);
+        }
+    }
+
     @Override
     public void saveStep(final Step step) {
         saveStep(step, Collections.emptyList());
@@ -58,6 +90,15 @@ public class JobRepositoryImpl implements JobRepository {
     @Override
     public void saveStep(final Step step, Collection<StepSubjectEntity> stepSubjectEntities) {
         stepSubjectEntities.forEach(x -> x.setStepId(step.getId()));
+        if (isCoalesced(step)) {
+            synchronized (pendingChanges) {
+                JobChanges changes = getPendingChanges(step.getJobId());
+                changes.savedSteps.put(step.getId(), copyOf(step));
+                changes.stepSubjectEntities.addAll(stepSubjectEntities);
+            }
+            return;
+        }
+        flushJob(step.getJobId());
         TransactionSupport.executeInNewTransaction(() -> {
             try {
                 jobDao.updateJobLastUpdateTime(step.getJobId(), new Date());
@@ -76,6 +117,13 @@ public class JobRepositoryImpl implements JobRepository {
 
     @Override
     public void updateStep(final Step step) {
+        if (isCoalesced(step)) {
+            synchronized (pendingChanges) {
+                getPendingChanges(step.getJobId()).update(copyOf(step));
+            }
+            return;
+        }
+        flushJob(step.getJobId());
         TransactionSupport.executeInNewTransaction(() -> {
 
             try {
@@ -92,6 +140,20 @@ public class JobRepositoryImpl implements JobRepository {
         });
     }
 
+    @Override
+    public void updateStepProgress(Guid stepId, Integer progress) {
+        synchronized (pendingChanges) {
+            Step step = findPendingStep(stepId);
+            if (step != null) {
+                Step updatedStep = copyOf(step);
+                updatedStep.setProgress(progress);
+                getPendingChanges(step.getJobId()).update(updatedStep);
+                return;
+            }
+        }
+        stepDao.updateStepProgress(stepId, progress);
+    }
+
     @Override
     public void saveJob(final Job job) {
         TransactionSupport.executeInNewTransaction(() -> {
@@ -111,6 +173,7 @@ public class JobRepositoryImpl implements JobRepository {
             Map<Guid, VdcObjectType> jobSubjectEntity =
                     jobSubjectEntityDao.getJobSubjectEntityByJobId(jobId);
             job.setJobSubjectEntities(jobSubjectEntity);
+            applyPendingChanges(Collections.singletonList(job));
         }
         return job;
     }
@@ -119,6 +182,7 @@ public class JobRepositoryImpl implements JobRepository {
     public Job getJobWithSteps(final Guid jobId) {
         Job job = jobDao.get(jobId);
         if (job != null) {
+            applyPendingChanges(Collections.singletonList(job));
             Map<Guid, VdcObjectType> jobSubjectEntity =
                     jobSubjectEntityDao.getJobSubjectEntityByJobId(jobId);
             job.setJobSubjectEntities(jobSubjectEntity);
@@ -129,7 +193,7 @@ public class JobRepositoryImpl implements JobRepository {
 
     @Override
     public void loadJobSteps(final Job job) {
-        List<Step> steps = stepDao.getStepsByJobId(job.getId());
+        List<Step> steps = withPendingSteps(job.getId(), stepDao.getStepsByJobId(job.getId()), step -> true);
         if (!steps.isEmpty()) {
             job.setSteps(buildStepsTree(steps));
         }
@@ -137,7 +201,9 @@ public class JobRepositoryImpl implements JobRepository {
 
     @Override
     public void loadParentStepSteps(final Step step) {
-        List<Step> steps = stepDao.getStepsByParentStepId(step.getId());
+        List<Step> steps = withPendingSteps(step.getJobId(),
+                stepDao.getStepsByParentStepId(step.getId()),
+                pendingStep -> step.getId().equals(pendingStep.getParentStepId()));
         if (!steps.isEmpty()) {
             step.setSteps(steps);
         }
@@ -174,13 +240,80 @@ public class JobRepositoryImpl implements JobRepository {
 
     @Override
     public Step getStep(Guid stepId, boolean loadSubjectEntities) {
-        Step step = stepDao.get(stepId);
+        Step step;
+        synchronized (pendingChanges) {
+            step = copyOf(findPendingStep(stepId));
+        }
+        if (step == null) {
+            step = stepDao.get(stepId);
+        }
         if (step != null && loadSubjectEntities) {
-            step.setSubjectEntities(stepSubjectEntityDao.getStepSubjectEntitiesByStepId(stepId));
+            step.setSubjectEntities(getStepSubjectEntities(step));
         }
         return step;
     }
 
+    @Override
+    public List<Step> getJobSteps(Guid jobId, boolean loadSubjectEntities) {
+        List<Step> steps = withPendingSteps(jobId, stepDao.getStepsByJobId(jobId), step -> true);
+        if (loadSubjectEntities) {
+            steps.forEach(step -> step.setSubjectEntities(getStepSubjectEntities(step)));
+        }
+        return steps;
+    }
+
+    @Override
+    public List<Step> getStartedStepsByStepSubjectEntity(SubjectEntity subjectEntity) {
+        List<Step> steps = stepDao.getStartedStepsByStepSubjectEntity(subjectEntity);
+        synchronized (pendingChanges) {
+            Map<Guid, Step> result = new LinkedHashMap<>();
+            steps.forEach(step -> result.put(step.getId(), step));
+            for (JobChanges changes : getAllChanges()) {
+                result.replaceAll((stepId, step) -> {
+                    Step pendingStep = changes.getStep(stepId);
+                    return pendingStep != null ? copyOf(pendingStep) : step;
+                });
+                changes.stepSubjectEntities.stream()
+                        .filter(entity -> entity.getEntityType() == subjectEntity.getEntityType()
+                                && Objects.equals(entity.getEntityId(), subjectEntity.getEntityId()))
+                        .map(entity -> changes.getStep(entity.getStepId()))
+                        .filter(Objects::nonNull)
+                        .forEach(step -> result.put(step.getId(), copyOf(step)));
+            }
+            return result.values()
+                    .stream()
+                    .filter(step -> step.getStatus() == JobExecutionStatus.STARTED)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public void saveStepSubjectEntities(Step step, Collection<StepSubjectEntity> stepSubjectEntities) {
+        stepSubjectEntities.forEach(x -> x.setStepId(step.getId()));
+        // the step may not be written yet, and the entities reference it
+        flushJob(step.getJobId());
+        stepSubjectEntityDao.saveAll(stepSubjectEntities);
+    }
+
+    @Override
+    public void removeStepSubjectEntity(Step step, Guid entityId) {
+        // the entity may not be written yet, so removing it only from the database would not remove it
+        flushJob(step.getJobId());
+        stepSubjectEntityDao.remove(entityId, step.getId());
+    }
+
+    @Override
+    public void applyPendingChanges(List<Job> jobs) {
+        synchronized (pendingChanges) {
+            for (Job job : jobs) {
+                List<JobChanges> changes = getChanges(job.getId());
+                if (!changes.isEmpty()) {
+                    job.setLastUpdateTime(changes.get(changes.size() - 1).lastUpdateTime);
+                }
+            }
+        }
+    }
+
     @Override
     public List<Job> getJobsByEntityAndAction(Guid entityId, ActionType actionType) {
         List<Job> jobList = new ArrayList<>();
@@ -197,6 +330,15 @@ public class JobRepositoryImpl implements JobRepository {
 
     @Override
     public void updateExistingStepAndSaveNewStep(final Step existingStep, final Step newStep) {
+        if (isCoalesced(existingStep) && isCoalesced(newStep)) {
+            synchronized (pendingChanges) {
+                JobChanges changes = getPendingChanges(existingStep.getJobId());
+                changes.update(copyOf(existingStep));
+                changes.savedSteps.put(newStep.getId(), copyOf(newStep));
+            }
+            return;
+        }
+        flushJob(existingStep.getJobId());
         TransactionSupport.executeInNewTransaction(() -> {
             jobDao.updateJobLastUpdateTime(existingStep.getJobId(), new Date());
             stepDao.update(existingStep);
@@ -207,6 +349,7 @@ public class JobRepositoryImpl implements JobRepository {
 
     @Override
     public void updateCompletedJobAndSteps(final Job job) {
+        flushJob(job.getId());
         TransactionSupport.executeInNewTransaction(() -> {
             jobDao.update(job);
             stepDao.updateJobStepsCompleted(job.getId(), job.getStatus(), job.getEndTime());
@@ -216,6 +359,7 @@ public class JobRepositoryImpl implements JobRepository {
 
     @Override
     public void closeCompletedJobSteps(final Guid jobId, final JobExecutionStatus status) {
+        flushJob(jobId);
         TransactionSupport.executeInNewTransaction(() -> {
             stepDao.updateJobStepsCompleted(jobId, status, new Date());
             return null;
@@ -232,4 +376,237 @@ public class JobRepositoryImpl implements JobRepository {
 
     }
 
+    private boolean isCoalescing() {
+        return flushIntervalInMillis > 0;
+    }
+
+    /**
+     * External steps are looked up by commands and by their external id directly in the database, so they are
+     * written right away.
+     */
+    private boolean isCoalesced(Step step) {
+        return isCoalescing() && !step.isExternal() && step.getExternalSystem().getId() == null;
+    }
+
+    private JobChanges getPendingChanges(Guid jobId) {
+        JobChanges changes = pendingChanges.computeIfAbsent(jobId, JobChanges::new);
+        changes.lastUpdateTime = new Date();
+        return changes;
+    }
+
+    /**
+     * Returns the changes of the job that are being written followed by the newer pending ones, the caller must hold
+     * the lock of {@link #pendingChanges}.
+     */
+    private List<JobChanges> getChanges(Guid jobId) {
+        List<JobChanges> changes = new ArrayList<>(2);
+        JobChanges written = writtenChanges.get(jobId);
+        if (written != null) {
+            changes.add(written);
+        }
+        JobChanges pending = pendingChanges.get(jobId);
+        if (pending != null) {
+            changes.add(pending);
+        }
+        return changes;
+    }
+
+    /**
+     * Returns the changes of all the jobs that are being written followed by the newer pending ones, the caller must
+     * hold the lock of {@link #pendingChanges}.
+     */
+    private List<JobChanges> getAllChanges() {
+        List<JobChanges> changes = new ArrayList<>(writtenChanges.values());
+        changes.addAll(pendingChanges.values());
+        return changes;
+    }
+
+    private Step findPendingStep(Guid stepId) {
+        for (JobChanges changes : pendingChanges.values()) {
+            Step step = changes.getStep(stepId);
+            if (step != null) {
+                return step;
+            }
+        }
+        for (JobChanges changes : writtenChanges.values()) {
+            Step step = changes.getStep(stepId);
+            if (step != null) {
+                return step;
+            }
+        }
+        return null;
+    }
+
+    private List<StepSubjectEntity> getStepSubjectEntities(Step step) {
+        List<StepSubjectEntity> entities =
+                new ArrayList<>(stepSubjectEntityDao.getStepSubjectEntitiesByStepId(step.getId()));
+        synchronized (pendingChanges) {
+            getChanges(step.getJobId()).forEach(changes -> changes.stepSubjectEntities.stream()
+                    .filter(entity -> step.getId().equals(entity.getStepId()))
+                    .forEach(entities::add));
+        }
+        return entities;
+    }
+
+    /**
+     * Replaces the given steps, loaded from the database, with their pending changes and adds the pending new steps of
+     * the job that match the given filter.
+     */
+    private List<Step> withPendingSteps(Guid jobId, List<Step> steps, Predicate<Step> filter) {
+        synchronized (pendingChanges) {
+            List<JobChanges> jobChanges = getChanges(jobId);
+            if (jobChanges.isEmpty()) {
+                return steps;
+            }
+            Map<Guid, Step> result = new LinkedHashMap<>();
+            steps.forEach(step -> result.put(step.getId(), step));
+            for (JobChanges changes : jobChanges) {
+                result.replaceAll((stepId, step) -> {
+                    Step pendingStep = changes.getStep(stepId);
+                    return pendingStep != null ? copyOf(pendingStep) : step;
+                });
+                changes.savedSteps.values().stream()
+                        .filter(filter)
+                        .filter(step -> !result.containsKey(step.getId()))
+                        .forEach(step -> result.put(step.getId(), copyOf(step)));
+            }
+            return new ArrayList<>(result.values());
+        }
+    }
+
+    /**
+     * Copies the persisted fields of the step, so the pending changes are not affected by later changes of the step
+     * and the readers do not affect the pending changes.
+     */
+    private static Step copyOf(Step step) {
+        if (step == null) {
+            return null;
+        }
+        Step copy = new Step();
+        copy.setId(step.getId());
+        copy.setJobId(step.getJobId());
+        copy.setParentStepId(step.getParentStepId());
+        copy.setStepType(step.getStepType());
+        copy.setDescription(step.getDescription());
+        copy.setStepNumber(step.getStepNumber());
+        copy.setStatus(step.getStatus());
+        copy.setStartTime(step.getStartTime());
+        copy.setEndTime(step.getEndTime());
+        copy.setCorrelationId(step.getCorrelationId());
+        copy.setExternal(step.isExternal());
+        copy.getExternalSystem().setId(step.getExternalSystem().getId());
+        copy.getExternalSystem().setType(step.getExternalSystem().getType());
+        copy.setProgress(step.getProgress());
+        return copy;
+    }
+
+    /**
+     * Starts writing the changes of the steps to the database at the given interval, instead of right away.
+     */
+    void startCoalescing(long flushIntervalInMillis, ScheduledExecutorService executor) {
+        this.flushIntervalInMillis = flushIntervalInMillis;
+        executor.scheduleWithFixedDelay(this::flush,
+                flushIntervalInMillis,
+                flushIntervalInMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes the pending changes of the steps of all the jobs to the database, in a transaction per job.
+     */
+    void flush() {
+        try {
+            synchronized (flushLock) {
+                List<JobChanges> changes;
+                synchronized (pendingChanges) {
+                    changes = new ArrayList<>(pendingChanges.values());
+                    writtenChanges.putAll(pendingChanges);
+                    pendingChanges.clear();
+                }
+                changes.forEach(this::write);
+            }
+        } catch (Throwable t) {
+            log.error("Failed to write the changes of steps: {}", t.getMessage());
+            log.debug("Exception", t);
+        }
+    }
+
+    private void flushJob(Guid jobId) {
+        if (!isCoalescing()) {
+            return;
+        }
+        synchronized (flushLock) {
+            JobChanges changes;
+            synchronized (pendingChanges) {
+                changes = pendingChanges.remove(jobId);
+                if (changes != null) {
+                    writtenChanges.put(jobId, changes);
+                }
+            }
+            if (changes != null) {
+                write(changes);
+            }
+        }
+    }
+
+    /**
+     * Writes the given changes, which are no longer pending, and stops exposing them to the readers once they are
+     * committed.
+     */
+    private void write(JobChanges changes) {
+        try {
+            writeInNewTransaction(changes);
+        } finally {
+            synchronized (pendingChanges) {
+                writtenChanges.remove(changes.jobId);
+            }
+        }
+    }
+
+    private void writeInNewTransaction(JobChanges changes) {
+        TransactionSupport.executeInNewTransaction(() -> {
+            try {
+                jobDao.updateJobLastUpdateTime(changes.jobId, changes.lastUpdateTime);
+                changes.savedSteps.values().forEach(stepDao::save);
+                changes.updatedSteps.values().forEach(stepDao::update);
+                stepSubjectEntityDao.saveAll(changes.stepSubjectEntities);
+            } catch (Exception e) {
+                log.error("Failed to write the changes of {} steps of job '{}': {}",
+                        changes.savedSteps.size() + changes.updatedSteps.size(),
+                        changes.jobId,
+                        e.getMessage());
+                log.debug("Exception", e);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * The changes of the steps of a job that were not written to the database yet.
+     */
+    private static class JobChanges {
+        private final Guid jobId;
+        /** Steps that are not in the database yet, in the order they were added */
+        private final Map<Guid, Step> savedSteps = new LinkedHashMap<>();
+        private final Map<Guid, Step> updatedSteps = new LinkedHashMap<>();
+        private final List<StepSubjectEntity> stepSubjectEntities = new ArrayList<>();
+        private Date lastUpdateTime;
+
+        private JobChanges(Guid jobId) {
+            this.jobId = jobId;
+        }
+
+        private void update(Step step) {
+            if (savedSteps.containsKey(step.getId())) {
+                savedSteps.put(step.getId(), step);
+            } else {
+                updatedSteps.put(step.getId(), step);
+            }
+        }
+
+        private Step getStep(Guid stepId) {
+            Step step = savedSteps.get(stepId);
+            return step != null ? step : updatedSteps.get(stepId);
+        }
+    }
 }
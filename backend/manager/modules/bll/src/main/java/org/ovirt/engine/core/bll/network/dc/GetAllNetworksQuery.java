@@ -4,10 +4,12 @@ import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.QueriesCommandBase;
 import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.bll.executor.CachedQuery;
 import org.ovirt.engine.core.common.queries.IdQueryParameters;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.network.NetworkDao;
 
+@CachedQuery
 public class GetAllNetworksQuery<P extends IdQueryParameters> extends QueriesCommandBase<P> {
     @Inject
     private NetworkDao networkDao;
@@ -1,22 +1,21 @@
 package org.ovirt.engine.core.bll.network.host;
 
 
+import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.QueriesCommandBase;
 import org.ovirt.engine.core.bll.context.EngineContext;
-import org.ovirt.engine.core.common.businessentities.network.VdsNetworkInterface;
 import org.ovirt.engine.core.common.queries.IdQueryParameters;
 import org.ovirt.engine.core.compat.Guid;
-import org.ovirt.engine.core.vdsbroker.NetworkImplementationDetailsUtils;
+import org.ovirt.engine.core.vdsbroker.HostNetworkSyncStatusCache;
 
 public class GetOutOfSyncHostsForClusterQuery<P extends IdQueryParameters> extends QueriesCommandBase<P> {
 
     @Inject
-    private NetworkImplementationDetailsUtils util;
+    private HostNetworkSyncStatusCache hostNetworkSyncStatusCache;
 
     public GetOutOfSyncHostsForClusterQuery(P parameters, EngineContext engineContext) {
         super(parameters, engineContext);
@@ -24,10 +23,8 @@ public class GetOutOfSyncHostsForClusterQuery<P extends IdQueryParameters> exten
 
     @Override
     protected void executeQueryCommand() {
-        Set<Guid> outOfSyncVdsIds = util.getAllInterfacesOutOfSync(getParameters().getId())
-            .stream()
-            .map(VdsNetworkInterface::getVdsId)
-            .collect(Collectors.toSet());
+        Set<Guid> outOfSyncVdsIds =
+            new HashSet<>(hostNetworkSyncStatusCache.getOutOfSyncHosts(getParameters().getId()).keySet());
 
         getQueryReturnValue().setReturnValue(outOfSyncVdsIds);
     }
@@ -18,6 +18,9 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -44,6 +47,7 @@ import org.ovirt.engine.core.bll.scheduling.pending.PendingHugePages;
 import org.ovirt.engine.core.bll.scheduling.pending.PendingMemory;
 import org.ovirt.engine.core.bll.scheduling.pending.PendingNumaMemory;
 import org.ovirt.engine.core.bll.scheduling.pending.PendingOvercommitMemory;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResource;
 import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
 import org.ovirt.engine.core.bll.scheduling.pending.PendingVM;
 import org.ovirt.engine.core.bll.scheduling.policyunits.RankSelectorPolicyUnit;
@@ -91,6 +95,7 @@ import org.ovirt.engine.core.dao.scheduling.PolicyUnitDao;
 import org.ovirt.engine.core.di.Injector;
 import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
+import org.ovirt.engine.core.vdsbroker.ClusterResourceView;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -139,6 +144,8 @@ public class SchedulingManager implements BackendService {
     @Inject
     private RunVmDelayer runVmDelayer;
     @Inject
+    private ClusterResourceView clusterResourceView;
+    @Inject
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService executor;
 
@@ -159,13 +166,29 @@ public class SchedulingManager implements BackendService {
 
     private final ConcurrentHashMap<Guid, Semaphore> clusterLockMap = new ConcurrentHashMap<>();
 
+    /**
+     * [cluster id, number of placements in progress in the cluster] map
+     */
+    private final ConcurrentHashMap<Guid, AtomicInteger> clusterPlacementsInProgress = new ConcurrentHashMap<>();
+
+    /**
+     * [cluster id, number of placements committed in the cluster] map
+     */
+    private final ConcurrentHashMap<Guid, AtomicLong> clusterPlacementVersions = new ConcurrentHashMap<>();
+
+    /**
+     * [host id, number of placements committed on the host] map
+     */
+    private final ConcurrentHashMap<Guid, AtomicLong> hostPlacementVersions = new ConcurrentHashMap<>();
+
     private final Map<Guid, Boolean> clusterId2isHaReservationSafe = new HashMap<>();
 
     private final Guid defaultSelectorGuid = InternalPolicyUnits.getGuid(RankSelectorPolicyUnit.class);
 
     private final int vcpuLoadPerCore = Config.<Integer>getValue(ConfigValues.VcpuConsumptionPercentage);
 
-    private PendingResourceManager getPendingResourceManager() {
+    // Leaving package-private so it can be mocked in tests
+    PendingResourceManager getPendingResourceManager() {
         return pendingResourceManager;
     }
 
@@ -358,94 +381,229 @@ public class SchedulingManager implements BackendService {
             boolean delayWhenNeeded,
             String correlationId) {
         prepareClusterLock(cluster.getId());
+        AtomicInteger placementsInProgress =
+                clusterPlacementsInProgress.computeIfAbsent(cluster.getId(), id -> new AtomicInteger());
+        placementsInProgress.incrementAndGet();
+        log.debug("Scheduling started, correlation Id: {}", correlationId);
         try {
-            log.debug("Scheduling started, correlation Id: {}", correlationId);
+            BiConsumer<Placement, Boolean> place = (placement, delay) -> place(placement,
+                    cluster,
+                    vms,
+                    hostBlackList,
+                    hostWhiteList,
+                    destHostIdList,
+                    ignoreHardVmToVmAffinity,
+                    doNotGroupVms,
+                    stateless,
+                    delay,
+                    correlationId);
+
+            // Stateless scheduling does not add pending resources, so it has nothing to commit
+            if (stateless) {
+                Placement placement = new Placement();
+                place.accept(placement, delayWhenNeeded);
+                return placement.commit(messages);
+            }
+
+            // Several placements in the same cluster run in parallel, and a placement is committed only if no other
+            // placement was committed since it started on the hosts it placed VMs on, since it did not consider the
+            // pending resources of the other placement otherwise. Placements of VMs in affinity groups also depend on
+            // the VMs placed on the other hosts, so they conflict with any placement committed in the cluster.
+            boolean delay = delayWhenNeeded;
+            int optimisticAttempts = Config.<Integer>getValue(ConfigValues.SchedulingMaxOptimisticAttempts);
+            boolean inAffinityGroups = optimisticAttempts > 0 && isInAffinityGroups(vms);
+            for (int attempt = 1; attempt <= optimisticAttempts; attempt++) {
+                long clusterVersion = getPlacementVersion(cluster.getId()).get();
+                Placement placement = new Placement();
+                boolean committed = false;
+                try {
+                    place.accept(placement, delay);
+                    committed = tryCommitPlacement(cluster.getId(), placement, clusterVersion, inAffinityGroups);
+                } finally {
+                    if (!committed) {
+                        placement.rollback();
+                    }
+                }
+                if (committed) {
+                    return placement.commit(messages);
+                }
+                // The delay is executed only once
+                delay = delay && !placement.isDelayed();
+                log.debug("Placement conflicted with a concurrent placement in attempt {}, correlation Id: {}",
+                        attempt,
+                        correlationId);
+            }
+
+            // Falling back to placing while holding the cluster, which the optimistic placements wait for
             checkAllowOverbooking(cluster);
             lockCluster(cluster.getId());
-            List<VDS> hosts = fetchHosts(cluster.getId(), hostBlackList, hostWhiteList);
-            vms.forEach(vmHandler::updateVmStatistics);
-            fetchNumaNodes(vms, hosts);
-            ClusterPolicy policy = policyMap.get(cluster.getClusterPolicyId());
-            SchedulingContext context = new SchedulingContext(cluster,
-                    createClusterPolicyParameters(cluster),
-                    ignoreHardVmToVmAffinity,
-                    doNotGroupVms);
+            try {
+                Placement placement = new Placement();
+                boolean placed = false;
+                try {
+                    place.accept(placement, delay);
+                    placed = true;
+                } finally {
+                    if (!placed) {
+                        placement.rollback();
+                    }
+                }
+                markPlacementCommitted(cluster.getId(), placement);
+                return placement.commit(messages);
+            } finally {
+                releaseCluster(cluster.getId());
+            }
+        } catch (InterruptedException e) {
+            log.error("scheduling interrupted, correlation Id: {}: {}", correlationId, e.getMessage());
+            log.debug("Exception: ", e);
+            return Collections.emptyMap();
+        } finally {
+            placementsInProgress.decrementAndGet();
+            log.debug("Scheduling ended, correlation Id: {}", correlationId);
+        }
+    }
 
-            splitFilters(policy.getFilters(), policy.getFilterPositionMap(), context);
-            splitFunctions(policy.getFunctions(), context);
-            context.setShouldWeighClusterHosts(shouldWeighClusterHosts(cluster));
+    private void place(Placement placement,
+            Cluster cluster,
+            List<VM> vms,
+            List<Guid> hostBlackList,
+            List<Guid> hostWhiteList,
+            List<Guid> destHostIdList,
+            boolean ignoreHardVmToVmAffinity,
+            boolean doNotGroupVms,
+            boolean stateless,
+            boolean delayWhenNeeded,
+            String correlationId) {
+        List<VDS> hosts = fetchHosts(cluster.getId(), hostBlackList, hostWhiteList);
+        // The versions are taken before the pending resources of the hosts are read
+        hosts.forEach(host -> placement.hostVersions.put(host.getId(), getHostPlacementVersion(host.getId()).get()));
+        vms.forEach(vmHandler::updateVmStatistics);
+        fetchNumaNodes(vms, hosts);
+        ClusterPolicy policy = policyMap.get(cluster.getClusterPolicyId());
+        SchedulingContext context = new SchedulingContext(cluster,
+                createClusterPolicyParameters(cluster),
+                ignoreHardVmToVmAffinity,
+                doNotGroupVms);
+        placement.context = context;
 
-            Function<List<VM>, Optional<Guid>> findBestHost = group -> {
-                context.getMessages().clear();
-                refreshCachedPendingValues(hosts);
-                return selectHost(policy, hosts, group, destHostIdList, context, correlationId);
-            };
+        splitFilters(policy.getFilters(), policy.getFilterPositionMap(), context);
+        splitFunctions(policy.getFunctions(), context);
+        context.setShouldWeighClusterHosts(shouldWeighClusterHosts(cluster));
 
-            Map<Guid, VDS> hostsMap = hosts.stream().collect(Collectors.toMap(VDS::getId, h -> h));
+        Function<List<VM>, Optional<Guid>> findBestHost = group -> {
+            context.getMessages().clear();
+            refreshCachedPendingValues(hosts);
+            return selectHost(policy, hosts, group, destHostIdList, context, correlationId);
+        };
 
-            Set<Guid> hostsToNotifyPending = new HashSet<>();
-            List<Runnable> vfsUpdates = new ArrayList<>();
-            Map<Guid, Guid> vmToHostAssignment = new HashMap<>();
-            for (List<VM> vmGroup : groupVms(vms, context)) {
-                Optional<Guid> bestHost = findBestHost.apply(vmGroup);
-                // The delay is executed only once
-                if (delayWhenNeeded && context.isShouldDelay()) {
-                    log.debug("Delaying scheduling...");
-                    runVmDelayer.delay(hosts.stream().map(VDS::getId).collect(Collectors.toList()));
-                    context.setCanDelay(false);
-                    bestHost = findBestHost.apply(vmGroup);
-                }
+        Map<Guid, VDS> hostsMap = hosts.stream().collect(Collectors.toMap(VDS::getId, h -> h));
 
-                if (!bestHost.isPresent()) {
-                    continue;
-                }
+        for (List<VM> vmGroup : groupVms(vms, context)) {
+            Optional<Guid> bestHost = findBestHost.apply(vmGroup);
+            // The delay is executed only once
+            if (delayWhenNeeded && context.isShouldDelay()) {
+                log.debug("Delaying scheduling...");
+                runVmDelayer.delay(hosts.stream().map(VDS::getId).collect(Collectors.toList()));
+                context.setCanDelay(false);
+                placement.delayed = true;
+                bestHost = findBestHost.apply(vmGroup);
+            }
 
-                Guid bestHostId = bestHost.get();
-                vmGroup.forEach(vm -> vmToHostAssignment.put(vm.getId(), bestHostId));
+            if (!bestHost.isPresent()) {
+                continue;
+            }
 
-                // Stateless scheduling will not update the pending values or update vfs
-                if (stateless) {
-                    continue;
-                }
+            Guid bestHostId = bestHost.get();
+            vmGroup.forEach(vm -> placement.vmToHostAssignment.put(vm.getId(), bestHostId));
 
-                List<VM> vmsNotOnHost = vmGroup.stream()
-                        .filter(vm -> !bestHostId.equals(vm.getRunOnVds()))
-                        .collect(Collectors.toList());
+            // Stateless scheduling will not update the pending values or update vfs
+            if (stateless) {
+                continue;
+            }
 
-                if (vmsNotOnHost.isEmpty()) {
-                    continue;
-                }
+            List<VM> vmsNotOnHost = vmGroup.stream()
+                    .filter(vm -> !bestHostId.equals(vm.getRunOnVds()))
+                    .collect(Collectors.toList());
 
-                VDS host = hostsMap.get(bestHostId);
-                Map<Guid, Map<Integer, NumaNodeMemoryConsumption>> numaConsumptionPerVm = vmNumaRequirements(vmGroup, host);
-                Map<Integer, NumaNodeMemoryConsumption> numaConsumption = numaConsumptionPerVm.values().stream()
-                        .flatMap(m -> m.entrySet().stream())
-                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, NumaNodeMemoryConsumption::merge));
-                updateHostNumaNodes(host, numaConsumption);
-
-                for (VM vm : vmsNotOnHost) {
-                    addPendingResources(vm, bestHostId, numaConsumptionPerVm.getOrDefault(vm.getId(), Collections.emptyMap()));
-                    hostsToNotifyPending.add(bestHostId);
-                    vfsUpdates.add(() -> markVfsAsUsedByVm(vm, bestHostId));
-                }
+            if (vmsNotOnHost.isEmpty()) {
+                continue;
             }
 
-            hostsToNotifyPending.forEach(hostId -> getPendingResourceManager().notifyHostManagers(hostId));
-            vfsUpdates.forEach(Runnable::run);
-            messages.addAll(context.getMessages());
-            return vmToHostAssignment;
-        } catch (InterruptedException e) {
-            log.error("scheduling interrupted, correlation Id: {}: {}", correlationId, e.getMessage());
-            log.debug("Exception: ", e);
-            return Collections.emptyMap();
+            VDS host = hostsMap.get(bestHostId);
+            Map<Guid, Map<Integer, NumaNodeMemoryConsumption>> numaConsumptionPerVm = vmNumaRequirements(vmGroup, host);
+            Map<Integer, NumaNodeMemoryConsumption> numaConsumption = numaConsumptionPerVm.values().stream()
+                    .flatMap(m -> m.entrySet().stream())
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, NumaNodeMemoryConsumption::merge));
+            updateHostNumaNodes(host, numaConsumption);
+
+            // The pending resources are added right away, so the next groups and the concurrent placements see them
+            for (VM vm : vmsNotOnHost) {
+                placement.pendingResources.addAll(addPendingResources(vm,
+                        bestHostId,
+                        numaConsumptionPerVm.getOrDefault(vm.getId(), Collections.emptyMap())));
+                placement.hostsToNotifyPending.add(bestHostId);
+                placement.vfsUpdates.add(() -> markVfsAsUsedByVm(vm, bestHostId));
+            }
+        }
+    }
+
+    /**
+     * Commits the given placement if no other placement was committed since it started on the hosts it placed VMs on,
+     * or, when it has to be checked against the whole cluster, in the cluster since the given version of its
+     * placements was taken.
+     */
+    private boolean tryCommitPlacement(Guid clusterId,
+            Placement placement,
+            long clusterVersion,
+            boolean checkCluster) throws InterruptedException {
+        if (placement.isEmpty()) {
+            return true;
+        }
+
+        lockCluster(clusterId);
+        try {
+            if (checkCluster && getPlacementVersion(clusterId).get() != clusterVersion) {
+                return false;
+            }
+            for (Guid hostId : placement.hostsToNotifyPending) {
+                if (getHostPlacementVersion(hostId).get() != placement.hostVersions.get(hostId)) {
+                    return false;
+                }
+            }
+            markPlacementCommitted(clusterId, placement);
+            return true;
         } finally {
-            releaseCluster(cluster.getId());
+            releaseCluster(clusterId);
+        }
+    }
 
-            log.debug("Scheduling ended, correlation Id: {}", correlationId);
+    /**
+     * Marks the given placement as committed in the cluster and on the hosts it placed VMs on, while the cluster is
+     * held.
+     */
+    private void markPlacementCommitted(Guid clusterId, Placement placement) {
+        if (placement.isEmpty()) {
+            return;
         }
+        getPlacementVersion(clusterId).incrementAndGet();
+        placement.hostsToNotifyPending.forEach(hostId -> getHostPlacementVersion(hostId).incrementAndGet());
+    }
+
+    private AtomicLong getPlacementVersion(Guid clusterId) {
+        return clusterPlacementVersions.computeIfAbsent(clusterId, id -> new AtomicLong());
+    }
+
+    private AtomicLong getHostPlacementVersion(Guid hostId) {
+        return hostPlacementVersions.computeIfAbsent(hostId, id -> new AtomicLong());
     }
 
-    private Optional<Guid> selectHost(ClusterPolicy policy,
+    private boolean isInAffinityGroups(List<VM> vms) {
+        return vms.stream()
+                .anyMatch(vm -> !affinityGroupDao.getAllAffinityGroupsWithFlatLabelsByVmId(vm.getId()).isEmpty());
+    }
+
+    // Leaving package-private so it can be mocked in tests
+    Optional<Guid> selectHost(ClusterPolicy policy,
             List<VDS> hosts,
             List<VM> vmGroup,
             List<Guid> destHostIdList,
@@ -469,7 +627,10 @@ public class SchedulingManager implements BackendService {
     }
 
     private List<VDS> fetchHosts(Guid clusterId, List<Guid> blackList, List<Guid> whiteList) {
-        List<VDS> vdsList = vdsDao.getAllForClusterWithStatus(clusterId, VDSStatus.Up);
+        ClusterResourceView.ClusterSnapshot snapshot = clusterResourceView.getSnapshot(clusterId);
+        List<VDS> vdsList = snapshot != null
+                ? snapshot.getHosts(VDSStatus.Up)
+                : vdsDao.getAllForClusterWithStatus(clusterId, VDSStatus.Up);
         vdsList = removeBlacklistedHosts(vdsList, blackList);
         return keepOnlyWhitelistedHosts(vdsList, whiteList);
     }
@@ -484,7 +645,7 @@ public class SchedulingManager implements BackendService {
             host.setNumaNodeList(vdsNumaNodeDao.getAllVdsNumaNodeByVdsId(host.getId()));
 
             // Subtracting pending memory, so the scheduling units don't have to consider it
-            Map<Integer, NumaNodeMemoryConsumption> pendingNumaMemory = PendingNumaMemory.collectForHost(pendingResourceManager, host.getId());
+            Map<Integer, NumaNodeMemoryConsumption> pendingNumaMemory = PendingNumaMemory.collectForHost(getPendingResourceManager(), host.getId());
             updateHostNumaNodes(host, pendingNumaMemory);
         }
     }
@@ -501,17 +662,20 @@ public class SchedulingManager implements BackendService {
         }
     }
 
-    private void addPendingResources(VM vm, Guid hostId, Map<Integer, NumaNodeMemoryConsumption> numaConsumption) {
-        getPendingResourceManager().addPending(new PendingCpuCores(hostId, vm, vm.getNumOfCpus()));
-        getPendingResourceManager().addPending(new PendingMemory(hostId, vm, vmOverheadCalculator.getStaticOverheadInMb(vm)));
-        getPendingResourceManager().addPending(new PendingOvercommitMemory(hostId, vm, vmOverheadCalculator.getTotalRequiredMemWithoutHugePagesMb(vm)));
-        getPendingResourceManager().addPending(new PendingVM(hostId, vm));
+    private List<PendingResource> addPendingResources(VM vm,
+            Guid hostId,
+            Map<Integer, NumaNodeMemoryConsumption> numaConsumption) {
+        List<PendingResource> resources = new ArrayList<>();
+        addPending(resources, new PendingCpuCores(hostId, vm, vm.getNumOfCpus()));
+        addPending(resources, new PendingMemory(hostId, vm, vmOverheadCalculator.getStaticOverheadInMb(vm)));
+        addPending(resources, new PendingOvercommitMemory(hostId, vm, vmOverheadCalculator.getTotalRequiredMemWithoutHugePagesMb(vm)));
+        addPending(resources, new PendingVM(hostId, vm));
 
         int cpuLoad = vm.getRunOnVds() != null && vm.getStatisticsData() != null && vm.getUsageCpuPercent() != null ?
                 vm.getUsageCpuPercent() * vm.getNumOfCpus() :
                 vcpuLoadPerCore * vm.getNumOfCpus();
 
-        getPendingResourceManager().addPending(new PendingCpuLoad(hostId, vm, cpuLoad));
+        addPending(resources, new PendingCpuLoad(hostId, vm, cpuLoad));
 
         /*
          * Adds NUMA node assignment to pending resources.
@@ -525,15 +689,21 @@ public class SchedulingManager implements BackendService {
         if (vm.getvNumaNodeList().stream().map(VmNumaNode::getNumaTuneMode)
                 .allMatch(tune -> tune != NumaTuneMode.PREFERRED)) {
             numaConsumption.forEach((nodeIndex, neededMemory) -> {
-                getPendingResourceManager().addPending(new PendingNumaMemory(hostId, vm, nodeIndex, neededMemory));
+                addPending(resources, new PendingNumaMemory(hostId, vm, nodeIndex, neededMemory));
             });
         }
 
         // Add pending records for all specified hugepage sizes
         for (Map.Entry<Integer, Integer> hugepage: HugePageUtils.getHugePages(vm.getStaticData()).entrySet()) {
-            getPendingResourceManager().addPending(new PendingHugePages(hostId, vm,
+            addPending(resources, new PendingHugePages(hostId, vm,
                     hugepage.getKey(), hugepage.getValue()));
         }
+        return resources;
+    }
+
+    private void addPending(List<PendingResource> resources, PendingResource resource) {
+        getPendingResourceManager().addPending(resource);
+        resources.add(resource);
     }
 
     private  Map<Guid, Map<Integer, NumaNodeMemoryConsumption>> vmNumaRequirements(List<VM> vmGroup, VDS host) {
@@ -761,14 +931,14 @@ public class SchedulingManager implements BackendService {
      * Conditions:
      * * config option SchedulerAllowOverBooking should be enabled.
      * * cluster optimization type flag should allow over-booking.
-     * * more than than X (config.SchedulerOverBookingThreshold) pending for scheduling.
+     * * more than than X (config.SchedulerOverBookingThreshold) other placements in progress in the cluster.
      * In case all of the above conditions are met, we release all the pending scheduling
      * requests.
      */
     private void checkAllowOverbooking(Cluster cluster) {
         if (OptimizationType.ALLOW_OVERBOOKING == cluster.getOptimizationType()
                 && Config.<Boolean>getValue(ConfigValues.SchedulerAllowOverBooking)
-                && clusterLockMap.get(cluster.getId()).getQueueLength() >=
+                && getConcurrentPlacements(cluster.getId()) >=
                 Config.<Integer>getValue(ConfigValues.SchedulerOverBookingThreshold)) {
             log.info("Scheduler: cluster '{}' lock is skipped (cluster is allowed to overbook)",
                     cluster.getName());
@@ -781,15 +951,14 @@ public class SchedulingManager implements BackendService {
     /**
      * Checks whether scheduler should weigh hosts/or skip weighing:
      * * optimize for speed is enabled for the cluster, and there are less than
-     *   configurable requests pending (skip weighing in a loaded setup).
+     *   configurable other placements in progress in the cluster (skip weighing in a loaded setup).
      */
     private boolean shouldWeighClusterHosts(Cluster cluster) {
         Integer threshold = Config.<Integer>getValue(ConfigValues.SpeedOptimizationSchedulingThreshold);
         // threshold is crossed only when cluster is configured for optimized for speed
         boolean crossedThreshold =
                 OptimizationType.OPTIMIZE_FOR_SPEED == cluster.getOptimizationType()
-                        && clusterLockMap.get(cluster.getId()).getQueueLength() >
-                        threshold;
+                        && getConcurrentPlacements(cluster.getId()) > threshold;
         if (crossedThreshold) {
             log.info(
                     "Scheduler: skipping whinging hosts in cluster '{}', since there are more than '{}' parallel requests",
@@ -799,6 +968,16 @@ public class SchedulingManager implements BackendService {
         return !crossedThreshold;
     }
 
+    /**
+     * Returns the number of the placements in progress in the given cluster other than the current one. The
+     * placements run in parallel and hold the cluster only for a moment while being committed, so the ones waiting
+     * for the cluster do not tell the load.
+     */
+    private int getConcurrentPlacements(Guid clusterId) {
+        AtomicInteger placementsInProgress = clusterPlacementsInProgress.get(clusterId);
+        return placementsInProgress == null ? 0 : Math.max(0, placementsInProgress.get() - 1);
+    }
+
     // Leaving public so it can be mocked in tests
     public Map<Guid, List<VDS>> canSchedule(Cluster cluster,
             List<VM> vms,
@@ -1420,6 +1599,42 @@ public class SchedulingManager implements BackendService {
         getPendingResourceManager().clearVm(vm);
     }
 
+    /**
+     * The outcome of placing a group of VMs, whose pending resources were already added, but are not yet announced to
+     * the host managers.
+     */
+    private class Placement {
+        private SchedulingContext context;
+        /** The versions of the placements on the hosts when the placement started */
+        private final Map<Guid, Long> hostVersions = new HashMap<>();
+        private final Map<Guid, Guid> vmToHostAssignment = new HashMap<>();
+        private final List<PendingResource> pendingResources = new ArrayList<>();
+        private final Set<Guid> hostsToNotifyPending = new HashSet<>();
+        private final List<Runnable> vfsUpdates = new ArrayList<>();
+        private boolean delayed;
+
+        private boolean isEmpty() {
+            return pendingResources.isEmpty();
+        }
+
+        private boolean isDelayed() {
+            return delayed;
+        }
+
+        private Map<Guid, Guid> commit(List<String> messages) {
+            hostsToNotifyPending.forEach(hostId -> getPendingResourceManager().notifyHostManagers(hostId));
+            vfsUpdates.forEach(Runnable::run);
+            if (context != null) {
+                messages.addAll(context.getMessages());
+            }
+            return vmToHostAssignment;
+        }
+
+        private void rollback() {
+            pendingResources.forEach(resource -> getPendingResourceManager().removePending(resource));
+        }
+    }
+
     public class CallBuilder {
         private Cluster cluster;
         private List<Guid> blackList = Collections.emptyList();
@@ -145,6 +145,29 @@ public class PendingResourceManager {
         }
     }
 
+    /**
+     * Remove a resource record added by {@link #addPending(PendingResource)}, unless it was replaced
+     * by another record of the same resource since.
+     *
+     * IMPORTANT: Call notifyHostManagers if the host managers were already notified about the resource.
+     *
+     * @param resource The very instance that was added
+     */
+    public void removePending(PendingResource resource) {
+        synchronized (this) {
+            if (pendingResources.get(resource) != resource) {
+                return;
+            }
+
+            log.debug("Removing pending resource {} (host: {}, vm: {})",
+                    resource, resource.getHost(), resource.getVm());
+
+            pendingResources.remove(resource);
+            removeFromSetMap(resourcesByVm, resource.getVm(), resource);
+            removeFromSetMap(resourcesByHost, resource.getHost(), resource);
+        }
+    }
+
     /**
      * Return all currently pending resources of type "type" associated with host "vds".
      * @param host ID of a host
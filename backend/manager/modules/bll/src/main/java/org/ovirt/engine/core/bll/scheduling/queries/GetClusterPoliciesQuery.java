@@ -4,9 +4,11 @@ import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.QueriesCommandBase;
 import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.bll.executor.CachedQuery;
 import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 
+@CachedQuery
 public class GetClusterPoliciesQuery extends QueriesCommandBase<QueryParametersBase> {
     public GetClusterPoliciesQuery(QueryParametersBase parameters, EngineContext engineContext) {
         super(parameters, engineContext);
@@ -3,47 +3,55 @@ package org.ovirt.engine.core.bll.scheduling.utils;
 import static java.util.Objects.requireNonNull;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang.StringUtils;
 
 public class CpuPinningHelper {
 
-    private static Collection<Integer> parsePCpuPinningNumbers(final String text) {
+    /** Host cpu threads above this number are considered invalid, to keep the bitmaps of the pinned cpus small */
+    private static final int MAX_PCPU = 0xFFFF;
+
+    private static BitSet parsePCpuPinningNumbers(final String text) {
         try {
-            Set<Integer> include = new HashSet<>();
-            Set<Integer> exclude = new HashSet<>();
+            BitSet include = new BitSet();
+            BitSet exclude = new BitSet();
             String[] splitText = text.split(",");
             for (String section : splitText) {
                 if (section.startsWith("^")) {
-                    exclude.add(Integer.parseInt(section.substring(1)));
+                    int excluded = Integer.parseInt(section.substring(1));
+                    if (excluded >= 0 && excluded <= MAX_PCPU) {
+                        exclude.set(excluded);
+                    }
                 } else if (section.contains("-")) {
                     // include range
                     String[] numbers = section.split("-");
                     int start = Integer.parseInt(numbers[0]);
                     int end = Integer.parseInt(numbers[1]);
-                    List<Integer> range = createRange(start, end);
-                    if (range != null) {
-                        include.addAll(range);
+                    if (start >= 0 && start < end && end <= MAX_PCPU) {
+                        include.set(start, end + 1);
                     } else {
-                        return Arrays.asList();
+                        return new BitSet();
                     }
                 } else {
                     // include one
-                    include.add(Integer.parseInt(section));
+                    int included = Integer.parseInt(section);
+                    if (included > MAX_PCPU) {
+                        return new BitSet();
+                    }
+                    include.set(included);
                 }
             }
-            include.removeAll(exclude);
+            include.andNot(exclude);
             return include;
         } catch (NumberFormatException ex) {
-            return Arrays.asList();
+            return new BitSet();
         }
     }
 
@@ -54,11 +62,11 @@ public class CpuPinningHelper {
      */
     public static Set<Integer> getAllPinnedPCpus(String cpuPinning) {
         // collect all pinned cpus and merge them into one set
-        final Set<Integer> pinnedCpus = new LinkedHashSet<>();
+        final BitSet pinnedCpus = new BitSet();
         for (final String rule : cpuPinning.split("_")) {
-            pinnedCpus.addAll(CpuPinningHelper.parsePCpuPinningNumbers(rule.split("#")[1]));
+            pinnedCpus.or(CpuPinningHelper.parsePCpuPinningNumbers(rule.split("#")[1]));
         }
-        return pinnedCpus;
+        return pinnedCpus.stream().boxed().collect(Collectors.toCollection(LinkedHashSet::new));
     }
 
     /**
@@ -74,35 +82,25 @@ public class CpuPinningHelper {
         final List<PinnedCpu> rules = new ArrayList<>();
         for (final String rule : cpuPinning.split("_")) {
             String[] splitRule = rule.split("#");
-            Collection<Integer> pCpus = parsePCpuPinningNumbers(splitRule[1]);
+            BitSet pCpus = parsePCpuPinningNumbers(splitRule[1]);
             rules.add(new PinnedCpu(Integer.parseInt(splitRule[0]), pCpus));
         }
         return rules;
     }
 
-    private static List<Integer> createRange(int start, int end) {
-        if (start >= 0 && start < end) {
-            List<Integer> returnList = new LinkedList<>();
-            for (int i = start; i <= end; i++) {
-                returnList.add(i);
-            }
-            return returnList;
-        } else {
-            return null;
-        }
-    }
-
     /**
      * Represents the association between a virtual CPU in a VM to the bare metal cpu threads on a host
      */
     public static class PinnedCpu {
 
         private Integer vCpu;
+        private BitSet pCpuSet;
         private Collection<Integer> pCpus;
 
-        protected PinnedCpu(Integer vCpu, Collection<Integer> pCpus) {
+        protected PinnedCpu(Integer vCpu, BitSet pCpuSet) {
             this.vCpu = requireNonNull(vCpu);
-            this.pCpus = requireNonNull(pCpus);
+            this.pCpuSet = requireNonNull(pCpuSet);
+            this.pCpus = pCpuSet.stream().boxed().collect(Collectors.toList());
         }
 
         /**
@@ -120,5 +118,14 @@ public class CpuPinningHelper {
         public Collection<Integer> getpCpus() {
             return pCpus;
         }
+
+        /**
+         * Get host cpu threads which are associated with the virtual cpu in this class, as a bitmap indexed by the
+         * host cpu thread
+         * @return bitmap of associated host cpu threads, which must not be modified
+         */
+        public BitSet getpCpuSet() {
+            return pCpuSet;
+        }
     }
 }
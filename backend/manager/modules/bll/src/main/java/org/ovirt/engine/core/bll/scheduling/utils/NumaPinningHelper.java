@@ -2,10 +2,12 @@ package org.ovirt.engine.core.bll.scheduling.utils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -77,9 +79,9 @@ public class NumaPinningHelper {
 
         List<VmNumaNodeData> vmNodesData = vms.stream()
                 .flatMap(vm -> {
-                    Map<Integer, Collection<Integer>> cpuPinning = considerCpuPinning ?
+                    Map<Integer, BitSet> cpuPinning = considerCpuPinning ?
                             CpuPinningHelper.parseCpuPinning(vm.getCpuPinning()).stream()
-                                    .collect(Collectors.toMap(p -> p.getvCpu(), p -> p.getpCpus())) :
+                                    .collect(Collectors.toMap(p -> p.getvCpu(), p -> p.getpCpuSet())) :
                             null;
                     Optional<Integer> hugePageSize = HugePageUtils.getHugePageSize(vm.getStaticData());
                     return vm.getvNumaNodeList().stream().map(node -> new VmNumaNodeData(node, cpuPinning, hugePageSize));
@@ -100,8 +102,8 @@ public class NumaPinningHelper {
                 return;
             }
 
-            VmNumaNode vmNode = vmNumaNodesData.get(vmNumaNodeIndex).getVmNumaNode();
-            Map<Integer, Collection<Integer>> cpuPinning = vmNumaNodesData.get(vmNumaNodeIndex).getCpuPinning();
+            VmNumaNodeData vmNodeData = vmNumaNodesData.get(vmNumaNodeIndex);
+            VmNumaNode vmNode = vmNodeData.getVmNumaNode();
 
             // If the node is not pinned, skip it.
             //
@@ -117,13 +119,10 @@ public class NumaPinningHelper {
             // because this function is looking for any possible assignment
             for (Integer pinnedIndex: vmNode.getVdsNumaNodeList()) {
                 commandStack.add(() -> {
-                    if (cpuPinning != null && !vmNodeFitsHostNodeCpuPinning(vmNode,
-                            hostNumaNodesData.get(pinnedIndex).getCpuIds(),
-                            cpuPinning)) {
+                    if (!vmNodeData.fitsHostNodeCpuPinning(pinnedIndex, hostNumaNodesData.get(pinnedIndex))) {
                         return;
                     }
 
-
                     Optional<Integer> hugePageSize = vmNumaNodesData.get(vmNumaNodeIndex).getHugePageSize();
                     if (!hugePageSize.isPresent()) {
                         long hostFreeMem = hostNumaNodesData.get(pinnedIndex).getMemFree();
@@ -191,25 +190,6 @@ public class NumaPinningHelper {
         return currentAssignment;
     }
 
-    private boolean vmNodeFitsHostNodeCpuPinning(VmNumaNode vmNode,
-            List<Integer> hostNodeCpus,
-            Map<Integer, Collection<Integer>> cpuPinning) {
-        for (Integer vmCpuId: vmNode.getCpuIds()) {
-            Collection<Integer> pinnedCpus = cpuPinning.get(vmCpuId);
-            if (pinnedCpus == null) {
-                continue;
-            }
-
-            if (pinnedCpus.stream().anyMatch(hostNodeCpus::contains)) {
-                continue;
-            }
-
-            return false;
-        }
-
-        return true;
-    }
-
     public static String getSapHanaCpuPinning(VmBase vmBase, VdsDynamic vdsDynamic, List<VdsNumaNode> numaNodes) {
         int hostSockets = vdsDynamic.getCpuSockets();
         int hostThreadsPerCore = vdsDynamic.getCpuThreads() / vdsDynamic.getCpuCores();
@@ -296,7 +276,7 @@ public class NumaPinningHelper {
 
         private long memFree;
 
-        private List<Integer> cpuIds = new ArrayList<>();
+        private final BitSet cpuIds = new BitSet();
 
         private List<HugePage> hugePages;
 
@@ -316,12 +296,13 @@ public class NumaPinningHelper {
             this.memFree = memFree;
         }
 
-        public List<Integer> getCpuIds() {
+        public BitSet getCpuIds() {
             return cpuIds;
         }
 
         public void setCpuIds(List<Integer> cpuIds) {
-            this.cpuIds = new ArrayList<>(cpuIds);
+            this.cpuIds.clear();
+            cpuIds.forEach(this.cpuIds::set);
         }
 
         public List<HugePage> getHugePages() {
@@ -339,13 +320,22 @@ public class NumaPinningHelper {
 
         private VmNumaNode vmNumaNode;
 
-        private Map<Integer, Collection<Integer>> cpuPinning;
+        /** Host cpus each pinned cpu of the node is pinned to, or null if cpu pinning is not considered */
+        private List<BitSet> pinnedCpus;
+
+        /** Whether the cpu pinning of the node fits a host node, by the index of the host node */
+        private Map<Integer, Boolean> cpuPinningFits = new HashMap<>();
 
         private Optional<Integer> hugePageSize;
 
-        public VmNumaNodeData(VmNumaNode vmNumaNode, Map<Integer, Collection<Integer>> cpuPinning, Optional<Integer> hugePageSize) {
+        public VmNumaNodeData(VmNumaNode vmNumaNode, Map<Integer, BitSet> cpuPinning, Optional<Integer> hugePageSize) {
             this.vmNumaNode = vmNumaNode;
-            this.cpuPinning = cpuPinning;
+            if (cpuPinning != null) {
+                pinnedCpus = vmNumaNode.getCpuIds().stream()
+                        .map(cpuPinning::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList());
+            }
             this.hugePageSize = hugePageSize;
         }
 
@@ -353,8 +343,16 @@ public class NumaPinningHelper {
             return vmNumaNode;
         }
 
-        public Map<Integer, Collection<Integer>> getCpuPinning() {
-            return cpuPinning;
+        /**
+         * Checks that every pinned cpu of the node is pinned to at least one cpu of the given host node. The result
+         * does not change while looking for an assignment, so it is computed once per host node.
+         */
+        public boolean fitsHostNodeCpuPinning(int hostNodeIndex, HostNumaNodeData hostNode) {
+            if (pinnedCpus == null) {
+                return true;
+            }
+            return cpuPinningFits.computeIfAbsent(hostNodeIndex,
+                    index -> pinnedCpus.stream().allMatch(cpus -> cpus.intersects(hostNode.getCpuIds())));
         }
 
         public Optional<Integer> getHugePageSize() {
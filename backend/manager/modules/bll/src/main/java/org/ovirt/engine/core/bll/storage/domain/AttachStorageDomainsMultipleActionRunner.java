@@ -10,6 +10,7 @@ import javax.inject.Inject;
 import org.ovirt.engine.core.bll.CommandBase;
 import org.ovirt.engine.core.bll.SortedMultipleActionsRunnerBase;
 import org.ovirt.engine.core.bll.context.CommandContext;
+import org.ovirt.engine.core.bll.executor.MultipleActionsController;
 import org.ovirt.engine.core.bll.interfaces.BackendInternal;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionReturnValue;
@@ -20,7 +21,6 @@ import org.ovirt.engine.core.common.businessentities.StoragePool;
 import org.ovirt.engine.core.common.businessentities.StoragePoolStatus;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.StoragePoolDao;
-import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 
 public class AttachStorageDomainsMultipleActionRunner extends SortedMultipleActionsRunnerBase {
     public AttachStorageDomainsMultipleActionRunner(ActionType actionType,
@@ -75,9 +75,11 @@ public class AttachStorageDomainsMultipleActionRunner extends SortedMultipleActi
     protected void runCommands() {
         sortCommands();
 
-        for (final CommandBase<?> command : getCommands()) {
-            if (command.getReturnValue().isValid()) {
-                ThreadPoolUtil.execute(() -> executeValidatedCommand(command));
+        try (MultipleActionsController.Batch batch = startBatch()) {
+            for (final CommandBase<?> command : getCommands()) {
+                if (command.getReturnValue().isValid()) {
+                    batch.submit(command, () -> executeValidatedCommand(command));
+                }
             }
         }
     }
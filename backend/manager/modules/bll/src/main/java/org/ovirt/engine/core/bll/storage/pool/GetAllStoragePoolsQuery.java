@@ -3,9 +3,11 @@ package org.ovirt.engine.core.bll.storage.pool;
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.bll.executor.CachedQuery;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.dao.StoragePoolDao;
 
+@CachedQuery(maxAgeInSeconds = 10)
 public class GetAllStoragePoolsQuery<P extends QueryParametersBase> extends StoragePoolQueryBase<P> {
     @Inject
     private StoragePoolDao storagePoolDao;
@@ -9,9 +9,11 @@ import java.util.List;
 
 import org.assertj.core.util.Lists;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.stubbing.OngoingStubbing;
 import org.ovirt.engine.core.bll.context.CommandContext;
 import org.ovirt.engine.core.bll.context.NoOpCompensationContext;
+import org.ovirt.engine.core.bll.executor.MultipleActionsController;
 import org.ovirt.engine.core.bll.utils.PermissionSubject;
 import org.ovirt.engine.core.common.action.ActionReturnValue;
 import org.ovirt.engine.core.common.action.DiskProfileParameters;
@@ -23,6 +25,9 @@ public class MultipleActionsRunnerBaseTest extends BaseCommandTest {
     @Mock
     private NestedCommandFactory commandFactory;
 
+    @Spy
+    private MultipleActionsController multipleActionsController = new MultipleActionsController(10, 10, 10);
+
     protected static class TestCommand extends CommandBase {
 
         private ActionReturnValue validationResult;
@@ -1,14 +1,21 @@
 package org.ovirt.engine.core.bll;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.matches;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +25,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.ovirt.engine.core.bll.quota.QuotaManager;
+import org.ovirt.engine.core.common.VdcObjectType;
 import org.ovirt.engine.core.common.businessentities.Cluster;
 import org.ovirt.engine.core.common.businessentities.Quota;
 import org.ovirt.engine.core.common.businessentities.ServerCpu;
@@ -31,6 +39,7 @@ import org.ovirt.engine.core.common.businessentities.network.NetworkView;
 import org.ovirt.engine.core.common.businessentities.storage.Disk;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.interfaces.SearchType;
+import org.ovirt.engine.core.common.queries.SearchChanges;
 import org.ovirt.engine.core.common.queries.SearchParameters;
 import org.ovirt.engine.core.common.utils.CommonConstants;
 import org.ovirt.engine.core.compat.Guid;
@@ -49,6 +58,7 @@ import org.ovirt.engine.core.searchbackend.SearchObjectAutoCompleter;
 import org.ovirt.engine.core.searchbackend.SearchObjects;
 import org.ovirt.engine.core.utils.MockConfigDescriptor;
 import org.ovirt.engine.core.utils.lock.LockManager;
+import org.ovirt.engine.core.vdsbroker.EntityChangeTracker;
 
 @MockitoSettings(strictness = Strictness.LENIENT)
 public class SearchQueryTest extends AbstractQueryTest<SearchParameters, SearchQuery<SearchParameters>> {
@@ -96,6 +106,8 @@ public class SearchQueryTest extends AbstractQueryTest<SearchParameters, SearchQ
     private VmHandler vmHandler;
     @Mock
     private VmNetworkInterfaceDao vmNetworkInterfaceDao;
+    @Mock
+    private EntityChangeTracker entityChangeTracker;
 
     List<Disk> diskImageResultList = new ArrayList<>();
     List<Quota> quotaResultList = new ArrayList<>();
@@ -194,6 +206,11 @@ public class SearchQueryTest extends AbstractQueryTest<SearchParameters, SearchQ
                 .thenReturn(networkResultList);
     }
 
+    @BeforeEach
+    public void mockChangesSince() {
+        when(getQueryParameters().getChangesSince()).thenReturn(null);
+    }
+
     @BeforeEach
     void mockLockManager() {
         SearchObjectAutoCompleter search = new SearchObjectAutoCompleter();
@@ -513,4 +530,65 @@ public class SearchQueryTest extends AbstractQueryTest<SearchParameters, SearchQ
         getQuery().executeQueryCommand();
         assertEquals(networkResultList, getQuery().getQueryReturnValue().getReturnValue());
     }
+
+    @Test
+    public void testVdsChangesWhenNothingChanged() {
+        mockVdsChanges(Collections.emptySet());
+        getQuery().executeQueryCommand();
+
+        SearchChanges<VDS> changes = getQuery().getQueryReturnValue().getReturnValue();
+        assertFalse(changes.isComplete());
+        assertEquals(10L, changes.getVersion());
+        assertTrue(changes.getItems().isEmpty());
+        verify(vdsDao, never()).getAllWithQuery(anyString());
+    }
+
+    @Test
+    public void testVdsChangesSearchesChangedHosts() {
+        Guid changedId = Guid.newGuid();
+        VDS changedVds = new VDS();
+        changedVds.setId(changedId);
+        when(vdsDao.getAllWithQuery(contains("changed_entities WHERE vds_id IN ('" + changedId + "')")))
+                .thenReturn(new ArrayList<>(Collections.singletonList(changedVds)));
+        mockVdsChanges(Collections.singleton(changedId));
+        getQuery().executeQueryCommand();
+
+        SearchChanges<VDS> changes = getQuery().getQueryReturnValue().getReturnValue();
+        assertFalse(changes.isComplete());
+        assertEquals(Collections.singletonList(changedId), changes.getChangedIds());
+        assertEquals(Collections.singletonList(changedVds), changes.getItems());
+    }
+
+    @Test
+    public void testVdsChangesWhenChangesUnknown() {
+        mockVdsChanges(null);
+        getQuery().executeQueryCommand();
+
+        SearchChanges<VDS> changes = getQuery().getQueryReturnValue().getReturnValue();
+        assertTrue(changes.isComplete());
+        assertEquals(vdsResultList, changes.getItems());
+    }
+
+    @Test
+    public void testVdsChangesWhenTooManyChanged() {
+        Set<Guid> changedIds = new HashSet<>();
+        for (int i = 0; i <= SearchQuery.MAX_RESTRICTED_IDS; i++) {
+            changedIds.add(Guid.newGuid());
+        }
+        mockVdsChanges(changedIds);
+        getQuery().executeQueryCommand();
+
+        SearchChanges<VDS> changes = getQuery().getQueryReturnValue().getReturnValue();
+        assertTrue(changes.isComplete());
+        assertEquals(vdsResultList, changes.getItems());
+        verify(vdsDao, never()).getAllWithQuery(contains("changed_entities"));
+    }
+
+    private void mockVdsChanges(Set<Guid> changedIds) {
+        when(getQueryParameters().getSearchPattern()).thenReturn("Host" + CommonConstants.QUERY_RETURN_TYPE_SEPARATOR);
+        when(getQueryParameters().getSearchTypeValue()).thenReturn(SearchType.VDS);
+        when(getQueryParameters().getChangesSince()).thenReturn(5L);
+        when(entityChangeTracker.getVersion()).thenReturn(10L);
+        when(entityChangeTracker.getChangedSince(VdcObjectType.VDS, 5L)).thenReturn(changedIds);
+    }
 }
@@ -0,0 +1,118 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.bll.ServiceStartupPlan.Step;
+
+public class ServiceStartupPlanTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final ServiceStartupPlan plan = new ServiceStartupPlan();
+    private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void sequentialStartupKeepsOrder() {
+        Step a = plan.add("a", () -> started.add("a"));
+        plan.add("b", () -> started.add("b"));
+        plan.add("c", () -> started.add("c"), a);
+
+        plan.run(executor, 1);
+
+        assertEquals(Arrays.asList("a", "b", "c"), started);
+    }
+
+    @Test
+    public void dependenciesFinishFirst() {
+        Step a = plan.add("a", () -> started.add("a"));
+        Step b = plan.add("b", () -> started.add("b"), a);
+        Step c = plan.add("c", () -> started.add("c"), a);
+        plan.add("d", () -> started.add("d"), b, c);
+
+        plan.run(executor, 4);
+
+        assertEquals(4, started.size());
+        assertEquals("a", started.get(0));
+        assertEquals("d", started.get(3));
+    }
+
+    @Test
+    public void independentStepsRunConcurrently() {
+        CountDownLatch latch = new CountDownLatch(2);
+        Runnable awaitOther = () -> {
+            latch.countDown();
+            try {
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        plan.add("a", awaitOther);
+        plan.add("b", awaitOther);
+
+        plan.run(executor, 2);
+
+        assertEquals(0, latch.getCount());
+    }
+
+    @Test
+    public void parallelismIsLimited() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        for (int i = 0; i < 8; i++) {
+            plan.add("step" + i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+
+        plan.run(executor, 2);
+
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    public void failureStopsStartup() {
+        IllegalStateException failure = new IllegalStateException("failed");
+        Step a = plan.add("a", () -> {
+            throw failure;
+        });
+        plan.add("b", () -> started.add("b"), a);
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> plan.run(executor, 4)));
+        assertFalse(started.contains("b"));
+    }
+
+    @Test
+    public void unknownDependency() {
+        Step unknown = new ServiceStartupPlan().add("unknown", () -> {});
+
+        assertThrows(IllegalArgumentException.class, () -> plan.add("a", () -> {}, unknown));
+    }
+}
@@ -0,0 +1,164 @@
+package org.ovirt.engine.core.bll.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.bll.CommandBase;
+import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+
+public class MultipleActionsControllerTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void concurrencyIsLimited() throws Exception {
+        MultipleActionsController controller = new MultipleActionsController(2, 10, 10);
+
+        runConcurrently(controller, ActionType.RunVm, ActionType.RunVm, ActionType.StopVm, ActionType.StopVm);
+
+        assertTrue(maxRunning.get() <= 2);
+        assertEquals(4, controller.getFinishedCommands());
+        assertEquals(0, controller.getRunningCommands());
+    }
+
+    @Test
+    public void concurrencyPerTypeIsLimited() throws Exception {
+        MultipleActionsController controller = new MultipleActionsController(10, 1, 10);
+
+        runConcurrently(controller, ActionType.RunVm, ActionType.RunVm, ActionType.RunVm, ActionType.RunVm);
+
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void concurrencyPerTargetIsLimited() throws Exception {
+        MultipleActionsController controller = new MultipleActionsController(10, 10, 1);
+        CommandBase<?> command = mock(CommandBase.class);
+        when(command.getVdsId()).thenReturn(Guid.newGuid());
+
+        runConcurrently(controller, command, 4);
+
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void nestedCommandsDoNotWait() {
+        MultipleActionsController controller = new MultipleActionsController(1, 1, 1);
+        List<String> executed = new ArrayList<>();
+
+        try (MultipleActionsController.Batch outer = controller.startBatch(ActionType.RunVm, 1)) {
+            outer.execute(mock(CommandBase.class), () -> {
+                try (MultipleActionsController.Batch inner = controller.startBatch(ActionType.RunVm, 1)) {
+                    inner.execute(mock(CommandBase.class), () -> executed.add("inner"));
+                }
+                executed.add("outer");
+            });
+        }
+
+        assertEquals(List.of("inner", "outer"), executed);
+        assertTrue(controller.showBatches().isEmpty());
+    }
+
+    @Test
+    public void concurrencyLimitBacksOffWhenEngineQueueIsLoaded() throws Exception {
+        ExecutorService origExecutorService = ThreadPoolUtil.getExecutorService();
+        ThreadPoolExecutor engineExecutor =
+                new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(4));
+        CountDownLatch blocker = new CountDownLatch(1);
+        ThreadPoolUtil.setExecutorService(engineExecutor);
+        try {
+            MultipleActionsController controller = new MultipleActionsController(8, 8, 8);
+            for (int i = 0; i < 3; i++) {
+                engineExecutor.execute(() -> await(blocker));
+            }
+
+            try (MultipleActionsController.Batch batch = controller.startBatch(ActionType.RunVm, 1)) {
+                batch.execute(mock(CommandBase.class), () -> {});
+            }
+            assertEquals(4, controller.getConcurrencyLimit());
+
+            blocker.countDown();
+            engineExecutor.shutdown();
+            assertTrue(engineExecutor.awaitTermination(10, TimeUnit.SECONDS));
+            try (MultipleActionsController.Batch batch = controller.startBatch(ActionType.RunVm, 1)) {
+                batch.execute(mock(CommandBase.class), () -> {});
+            }
+            assertEquals(5, controller.getConcurrencyLimit());
+        } finally {
+            blocker.countDown();
+            engineExecutor.shutdownNow();
+            ThreadPoolUtil.setExecutorService(origExecutorService);
+        }
+    }
+
+    private void runConcurrently(MultipleActionsController controller, ActionType... actionTypes) throws Exception {
+        CountDownLatch done = new CountDownLatch(actionTypes.length);
+        for (ActionType actionType : actionTypes) {
+            executor.execute(() -> {
+                try (MultipleActionsController.Batch batch = controller.startBatch(actionType, 1)) {
+                    batch.execute(mock(CommandBase.class), this::runCommand);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    private void runConcurrently(MultipleActionsController controller, CommandBase<?> command, int count)
+            throws Exception {
+        CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            executor.execute(() -> {
+                try (MultipleActionsController.Batch batch = controller.startBatch(ActionType.RunVm, 1)) {
+                    batch.execute(command, this::runCommand);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    private void runCommand() {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.ovirt.engine.core.bll.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.bll.QueriesCommandBase;
+import org.ovirt.engine.core.common.queries.IdQueryParameters;
+import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.ovirt.engine.core.common.queries.QueryType;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.CorrelationIdTracker;
+
+public class QueryResultCacheTest {
+
+    private static final Guid USER_ID = Guid.newGuid();
+
+    private final QueryResultCache cache = new QueryResultCache(1024 * 1024);
+    private int executions;
+
+    @AfterEach
+    public void tearDown() {
+        CorrelationIdTracker.clean();
+    }
+
+    @Test
+    public void resultIsCached() {
+        List<String> first = execute(new CachedTestQuery(parameters("session1")), USER_ID);
+        List<String> second = execute(new CachedTestQuery(parameters("session2")), USER_ID);
+
+        assertEquals(1, executions);
+        assertEquals(first, second);
+        assertNotSame(first, second);
+        assertEquals(0.5, cache.getHitRatioByQueryType().get(QueryType.GetAllClusters.name()));
+        assertTrue(cache.getSizeByQueryType().get(QueryType.GetAllClusters.name()) > 0);
+    }
+
+    @Test
+    public void resultIsCachedPerUser() {
+        execute(new CachedTestQuery(parameters("session")), USER_ID);
+        execute(new CachedTestQuery(parameters("session")), Guid.newGuid());
+
+        assertEquals(2, executions);
+    }
+
+    @Test
+    public void resultIsCachedPerParameters() {
+        execute(new CachedTestQuery(new IdQueryParameters(Guid.newGuid())), USER_ID);
+        execute(new CachedTestQuery(new IdQueryParameters(Guid.newGuid())), USER_ID);
+        QueryParametersBase filtered = parameters("session");
+        filtered.setFiltered(true);
+        execute(new CachedTestQuery(filtered), USER_ID);
+        execute(new CachedTestQuery(parameters("session")), USER_ID);
+
+        assertEquals(4, executions);
+    }
+
+    @Test
+    public void uncachedQueryIsExecuted() {
+        execute(new TestQuery(parameters("session")), USER_ID);
+        execute(new TestQuery(parameters("session")), USER_ID);
+
+        assertEquals(2, executions);
+        assertEquals(0, cache.getEntries());
+    }
+
+    @Test
+    public void invalidatedResultIsExecutedAgain() {
+        execute(new CachedTestQuery(parameters("session")), USER_ID);
+        cache.invalidate();
+        execute(new CachedTestQuery(parameters("session")), USER_ID);
+
+        assertEquals(2, executions);
+        assertEquals(1, cache.getInvalidations());
+    }
+
+    @Test
+    public void resultCalculatedWhileInvalidatedIsNotCached() {
+        QueriesCommandBase<?> query = new CachedTestQuery(parameters("session"));
+        query.getQueryReturnValue().setSucceeded(true);
+        cache.execute(query, QueryType.GetAllClusters, USER_ID, () -> {
+            cache.invalidate();
+            query.getQueryReturnValue().setReturnValue(new ArrayList<>());
+        });
+
+        assertEquals(0, cache.getEntries());
+    }
+
+    @Test
+    public void failedResultIsNotCached() {
+        QueriesCommandBase<?> query = new CachedTestQuery(parameters("session"));
+        cache.execute(query, QueryType.GetAllClusters, USER_ID, () -> query.getQueryReturnValue().setSucceeded(false));
+
+        assertEquals(0, cache.getEntries());
+    }
+
+    @Test
+    public void resultLargerThanCacheIsNotCached() {
+        QueryResultCache smallCache = new QueryResultCache(1);
+        QueriesCommandBase<?> query = new CachedTestQuery(parameters("session"));
+        query.getQueryReturnValue().setSucceeded(true);
+        smallCache.execute(query, QueryType.GetAllClusters, USER_ID, () -> query.getQueryReturnValue()
+                .setReturnValue(new ArrayList<>()));
+
+        assertEquals(0, smallCache.getEntries());
+        assertEquals(0, smallCache.getSize());
+    }
+
+    private List<String> execute(QueriesCommandBase<?> query, Guid userId) {
+        query.getQueryReturnValue().setSucceeded(true);
+        cache.execute(query, QueryType.GetAllClusters, userId, () -> {
+            executions++;
+            List<String> result = new ArrayList<>();
+            result.add("result");
+            query.getQueryReturnValue().setReturnValue(result);
+        });
+        return query.getQueryReturnValue().getReturnValue();
+    }
+
+    private static QueryParametersBase parameters(String sessionId) {
+        return new QueryParametersBase(sessionId);
+    }
+
+    private static class TestQuery extends QueriesCommandBase<QueryParametersBase> {
+        private TestQuery(QueryParametersBase parameters) {
+            super(parameters, null);
+        }
+
+        @Override
+        protected void executeQueryCommand() {
+        }
+    }
+
+    @CachedQuery
+    private static class CachedTestQuery extends TestQuery {
+        private CachedTestQuery(QueryParametersBase parameters) {
+            super(parameters);
+        }
+    }
+}
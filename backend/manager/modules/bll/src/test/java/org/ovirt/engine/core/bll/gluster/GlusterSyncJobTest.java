@@ -14,6 +14,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.transaction.TransactionManager;
@@ -233,8 +234,10 @@ public class GlusterSyncJobTest {
         return brick;
     }
 
-    private GlusterServer getGlusterServer() {
-        return new GlusterServer(SERVER_ID_1, GLUSTER_SERVER_UUID_1);
+    private List<GlusterServer> getGlusterServers() {
+        return existingServers.stream()
+                .map(server -> new GlusterServer(server.getId(), GLUSTER_SERVER_UUID_1))
+                .collect(Collectors.toList());
     }
 
     @SuppressWarnings("unchecked")
@@ -318,7 +321,7 @@ public class GlusterSyncJobTest {
         // remove detached bricks
         inOrder.verify(brickDao, times(1)).removeAll(argThat(containsRemovedBricks()));
         // add new bricks
-        inOrder.verify(brickDao, times(2)).save(argThat(isAddedBrick()));
+        inOrder.verify(brickDao, times(1)).saveAllInBatch(argThat(areAddedBricks()));
 
         // add new options
         inOrder.verify(optionDao, times(1)).saveAll(argThat(areAddedOptions()));
@@ -368,8 +371,9 @@ public class GlusterSyncJobTest {
         return ids -> ids.size() == removedBrickIds.size() && removedBrickIds.containsAll(ids);
     }
 
-    private ArgumentMatcher<GlusterBrickEntity> isAddedBrick() {
-        return argument -> addedBrickIds.contains(argument.getId());
+    private ArgumentMatcher<Collection<GlusterBrickEntity>> areAddedBricks() {
+        return bricks -> bricks.size() == addedBrickIds.size()
+                && bricks.stream().allMatch(brick -> addedBrickIds.contains(brick.getId()));
     }
 
     private GlusterVolumeAdvancedDetails getVolumeAdvancedDetails(GlusterVolumeEntity volume) {
@@ -462,7 +466,7 @@ public class GlusterSyncJobTest {
     public void testRefreshLightWeight() {
         createCluster();
         setupMocks();
-        doReturn(getGlusterServer()).when(glusterServerDao).getByServerId(any());
+        doReturn(getGlusterServers()).when(glusterServerDao).getAllByClusterId(CLUSTER_ID);
 
         glusterManager.refreshLightWeightData();
         verifyMocksForLightWeight();
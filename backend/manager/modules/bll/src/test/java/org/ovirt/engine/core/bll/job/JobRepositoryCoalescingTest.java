@@ -0,0 +1,190 @@
+package org.ovirt.engine.core.bll.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.transaction.TransactionManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ovirt.engine.core.common.VdcObjectType;
+import org.ovirt.engine.core.common.businessentities.SubjectEntity;
+import org.ovirt.engine.core.common.job.ExternalSystemType;
+import org.ovirt.engine.core.common.job.Job;
+import org.ovirt.engine.core.common.job.JobExecutionStatus;
+import org.ovirt.engine.core.common.job.Step;
+import org.ovirt.engine.core.common.job.StepEnum;
+import org.ovirt.engine.core.common.job.StepSubjectEntity;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.JobDao;
+import org.ovirt.engine.core.dao.JobSubjectEntityDao;
+import org.ovirt.engine.core.dao.StepDao;
+import org.ovirt.engine.core.dao.StepSubjectEntityDao;
+import org.ovirt.engine.core.utils.InjectedMock;
+import org.ovirt.engine.core.utils.InjectorExtension;
+
+@ExtendWith({MockitoExtension.class, InjectorExtension.class})
+public class JobRepositoryCoalescingTest {
+
+    @InjectedMock
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    public TransactionManager transactionManager;
+
+    @Mock
+    private JobDao jobDao;
+
+    @Mock
+    private JobSubjectEntityDao jobSubjectEntityDao;
+
+    @Mock
+    private StepDao stepDao;
+
+    @Mock
+    private StepSubjectEntityDao stepSubjectEntityDao;
+
+    @Mock
+    private ScheduledExecutorService executor;
+
+    private JobRepositoryImpl jobRepository;
+
+    private Job job;
+
+    @BeforeEach
+    public void setUp() {
+        jobRepository = new JobRepositoryImpl(jobDao, jobSubjectEntityDao, stepDao, stepSubjectEntityDao);
+        jobRepository.startCoalescing(1000, executor);
+        job = new Job();
+        job.setId(Guid.newGuid());
+    }
+
+    @Test
+    public void changesAreWrittenOnFlush() {
+        Step step = createStep();
+        jobRepository.saveStep(step);
+        step.markStepEnded(true);
+        jobRepository.updateStep(step);
+        verify(stepDao, never()).save(any());
+        verify(stepDao, never()).update(any());
+
+        jobRepository.flush();
+
+        verify(stepDao).save(argThat(saved -> saved.getStatus() == JobExecutionStatus.FINISHED));
+        verify(stepDao, never()).update(any());
+        verify(stepSubjectEntityDao).saveAll(Collections.emptyList());
+    }
+
+    @Test
+    public void pendingChangesAreRead() {
+        Step step = createStep();
+        jobRepository.saveStep(step);
+        jobRepository.updateStepProgress(step.getId(), 50);
+
+        Step pendingStep = jobRepository.getStep(step.getId(), false);
+        assertEquals(step.getId(), pendingStep.getId());
+        assertEquals(Integer.valueOf(50), pendingStep.getProgress());
+        assertEquals(1, jobRepository.getJobSteps(job.getId(), false).size());
+        verify(stepDao, never()).get(any());
+    }
+
+    @Test
+    public void completedJobWritesPendingChangesFirst() {
+        Step step = createStep();
+        jobRepository.saveStep(step);
+        job.markJobEnded(true);
+
+        jobRepository.updateCompletedJobAndSteps(job);
+
+        InOrder inOrder = inOrder(stepDao, jobDao);
+        inOrder.verify(stepDao).save(any());
+        inOrder.verify(jobDao).update(job);
+        inOrder.verify(stepDao).updateJobStepsCompleted(eq(job.getId()), eq(JobExecutionStatus.FINISHED), any());
+    }
+
+    @Test
+    public void stepWithExternalIdIsWrittenRightAway() {
+        Step step = createStep();
+        jobRepository.saveStep(step);
+        step.getExternalSystem().setId(Guid.newGuid());
+        step.getExternalSystem().setType(ExternalSystemType.GLUSTER);
+
+        jobRepository.updateStep(step);
+
+        InOrder inOrder = inOrder(stepDao);
+        inOrder.verify(stepDao).save(any());
+        inOrder.verify(stepDao).update(step);
+    }
+
+    @Test
+    public void changesBeingWrittenAreReadUntilCommitted() {
+        Step step = createStep();
+        jobRepository.saveStep(step);
+        doAnswer(invocation -> {
+            assertNotNull(jobRepository.getStep(step.getId(), false));
+            return null;
+        }).when(stepDao).save(any());
+
+        jobRepository.flush();
+
+        verify(stepDao).save(any());
+        verify(stepDao, never()).get(any());
+        assertNull(jobRepository.getStep(step.getId(), false));
+    }
+
+    @Test
+    public void pendingStepsAreFoundBySubjectEntity() {
+        Guid hostId = Guid.newGuid();
+        Step startedStep = createStep();
+        jobRepository.saveStep(startedStep,
+                Collections.singletonList(new StepSubjectEntity(VdcObjectType.EXECUTION_HOST, hostId, null)));
+        Step endedStep = createStep();
+        Step storedStep = createStep();
+        storedStep.setId(endedStep.getId());
+        when(stepDao.getStartedStepsByStepSubjectEntity(any())).thenReturn(Collections.singletonList(storedStep));
+        endedStep.markStepEnded(true);
+        jobRepository.updateStep(endedStep);
+
+        List<Step> steps = jobRepository.getStartedStepsByStepSubjectEntity(
+                new SubjectEntity(VdcObjectType.EXECUTION_HOST, hostId));
+
+        assertEquals(1, steps.size());
+        assertEquals(startedStep.getId(), steps.get(0).getId());
+    }
+
+    @Test
+    public void stepIsWrittenBeforeItsSubjectEntities() {
+        Step step = createStep();
+        jobRepository.saveStep(step);
+        List<StepSubjectEntity> entities =
+                Collections.singletonList(new StepSubjectEntity(VdcObjectType.EXECUTION_HOST, Guid.newGuid(), null));
+
+        jobRepository.saveStepSubjectEntities(step, entities);
+
+        InOrder inOrder = inOrder(stepDao, stepSubjectEntityDao);
+        inOrder.verify(stepDao).save(any());
+        inOrder.verify(stepSubjectEntityDao).saveAll(entities);
+    }
+
+    private Step createStep() {
+        Step step = new Step(StepEnum.EXECUTING);
+        step.setJobId(job.getId());
+        return step;
+    }
+}
@@ -0,0 +1,270 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.VmHandler;
+import org.ovirt.engine.core.bll.network.host.VfScheduler;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingVM;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.scheduling.AffinityGroup;
+import org.ovirt.engine.core.common.scheduling.ClusterPolicy;
+import org.ovirt.engine.core.common.scheduling.OptimizationType;
+import org.ovirt.engine.core.common.scheduling.VmOverheadCalculator;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VdsDao;
+import org.ovirt.engine.core.dao.VdsNumaNodeDao;
+import org.ovirt.engine.core.dao.VmNumaNodeDao;
+import org.ovirt.engine.core.dao.scheduling.AffinityGroupDao;
+import org.ovirt.engine.core.dao.scheduling.ClusterPolicyDao;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
+import org.ovirt.engine.core.vdsbroker.ClusterResourceView;
+
+/**
+ * Tests the optimistic placements of {@link SchedulingManager}. The selection of the host is mocked, and placements
+ * that run concurrently are simulated by scheduling another VM while a host is being selected.
+ */
+@ExtendWith({MockConfigExtension.class, MockitoExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SchedulingManagerTest {
+
+    @Mock
+    private VdsDao vdsDao;
+
+    @Mock
+    private AffinityGroupDao affinityGroupDao;
+
+    @Mock
+    private ClusterPolicyDao clusterPolicyDao;
+
+    @Mock
+    private ClusterResourceView clusterResourceView;
+
+    @Mock
+    private VmNumaNodeDao vmNumaNodeDao;
+
+    @Mock
+    private VdsNumaNodeDao vdsNumaNodeDao;
+
+    @Mock
+    private VfScheduler vfScheduler;
+
+    @Mock
+    private VmHandler vmHandler;
+
+    @Mock
+    private VmOverheadCalculator vmOverheadCalculator;
+
+    @Spy
+    @InjectMocks
+    private SchedulingManager schedulingManager;
+
+    private final PendingResourceManager pendingResourceManager = new PendingResourceManager();
+
+    private Cluster cluster;
+    private VDS host1;
+    private VDS host2;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return configuration(3, 10);
+    }
+
+    public static Stream<MockConfigDescriptor<?>> fallbackConfiguration() {
+        return configuration(1, 10);
+    }
+
+    public static Stream<MockConfigDescriptor<?>> speedOptimizationConfiguration() {
+        return configuration(3, 0);
+    }
+
+    private static Stream<MockConfigDescriptor<?>> configuration(int optimisticAttempts, int speedThreshold) {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.VcpuConsumptionPercentage, 10),
+                MockConfigDescriptor.of(ConfigValues.SpeedOptimizationSchedulingThreshold, speedThreshold),
+                MockConfigDescriptor.of(ConfigValues.SchedulingMaxOptimisticAttempts, optimisticAttempts)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        ClusterPolicy policy = new ClusterPolicy();
+        policy.setId(Guid.newGuid());
+        schedulingManager.addClusterPolicy(policy);
+
+        cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        cluster.setClusterPolicyId(policy.getId());
+
+        host1 = createHost();
+        host2 = createHost();
+        when(vdsDao.getAllForClusterWithStatus(cluster.getId(), VDSStatus.Up)).thenReturn(Arrays.asList(host1, host2));
+
+        doReturn(pendingResourceManager).when(schedulingManager).getPendingResourceManager();
+    }
+
+    @Test
+    public void placementIsCommitted() {
+        VM vm = createVm();
+        doReturn(Optional.of(host1.getId())).when(schedulingManager).selectHost(any(), any(), any(), any(), any(), any());
+
+        assertEquals(Optional.of(host1.getId()), schedulingManager.prepareCall(cluster).schedule(vm));
+        assertEquals(Collections.singleton(vm.getId()), PendingVM.collectForHost(pendingResourceManager, host1.getId()));
+    }
+
+    @Test
+    public void conflictOnTheSameHostIsRetried() {
+        VM vm = createVm();
+        VM concurrentVm = createVm();
+        doAnswer(invocation -> {
+            schedulingManager.prepareCall(cluster).schedule(concurrentVm);
+            return Optional.of(host1.getId());
+        }).doReturn(Optional.of(host1.getId()))
+                .when(schedulingManager).selectHost(any(), any(), any(), any(), any(), any());
+
+        assertEquals(Optional.of(host1.getId()), schedulingManager.prepareCall(cluster).schedule(vm));
+        // the concurrent placement, the conflicting attempt and the retry
+        verify(schedulingManager, times(3)).selectHost(any(), any(), any(), any(), any(), any());
+        assertEquals(2, PendingVM.collectForHost(pendingResourceManager, host1.getId()).size());
+    }
+
+    @Test
+    public void placementOnAnotherHostDoesNotConflict() {
+        VM vm = createVm();
+        VM concurrentVm = createVm();
+        doAnswer(invocation -> {
+            schedulingManager.prepareCall(cluster).schedule(concurrentVm);
+            return Optional.of(host1.getId());
+        }).doReturn(Optional.of(host2.getId()))
+                .when(schedulingManager).selectHost(any(), any(), any(), any(), any(), any());
+
+        assertEquals(Optional.of(host1.getId()), schedulingManager.prepareCall(cluster).schedule(vm));
+        verify(schedulingManager, times(2)).selectHost(any(), any(), any(), any(), any(), any());
+        assertEquals(Collections.singleton(vm.getId()), PendingVM.collectForHost(pendingResourceManager, host1.getId()));
+    }
+
+    @Test
+    public void placementInAffinityGroupConflictsWithAnyHost() {
+        VM vm = createVm();
+        VM concurrentVm = createVm();
+        when(affinityGroupDao.getAllAffinityGroupsWithFlatLabelsByVmId(vm.getId()))
+                .thenReturn(Collections.singletonList(new AffinityGroup()));
+        doAnswer(invocation -> {
+            schedulingManager.prepareCall(cluster).schedule(concurrentVm);
+            return Optional.of(host1.getId());
+        }).doReturn(Optional.of(host2.getId()))
+                .doReturn(Optional.of(host1.getId()))
+                .when(schedulingManager).selectHost(any(), any(), any(), any(), any(), any());
+
+        assertEquals(Optional.of(host1.getId()), schedulingManager.prepareCall(cluster).schedule(vm));
+        verify(schedulingManager, times(3)).selectHost(any(), any(), any(), any(), any(), any());
+        assertEquals(Collections.singleton(vm.getId()), PendingVM.collectForHost(pendingResourceManager, host1.getId()));
+    }
+
+    @Test
+    @MockedConfig("fallbackConfiguration")
+    public void placementFallsBackToHoldingTheCluster() {
+        VM vm = createVm();
+        VM concurrentVm = createVm();
+        doAnswer(invocation -> {
+            schedulingManager.prepareCall(cluster).schedule(concurrentVm);
+            return Optional.of(host1.getId());
+        }).doReturn(Optional.of(host1.getId()))
+                .when(schedulingManager).selectHost(any(), any(), any(), any(), any(), any());
+
+        assertEquals(Optional.of(host1.getId()), schedulingManager.prepareCall(cluster).schedule(vm));
+        // the concurrent placement, the conflicting attempt and the placement holding the cluster
+        verify(schedulingManager, times(3)).selectHost(any(), any(), any(), any(), any(), any());
+        assertEquals(2, PendingVM.collectForHost(pendingResourceManager, host1.getId()).size());
+    }
+
+    @Test
+    public void failedPlacementIsRolledBack() {
+        VM vm = createVm();
+        VM otherVm = createVm();
+        doReturn(Optional.of(host1.getId()))
+                .doThrow(new IllegalStateException())
+                .when(schedulingManager).selectHost(any(), any(), any(), any(), any(), any());
+
+        assertThrows(IllegalStateException.class,
+                () -> schedulingManager.prepareCall(cluster).doNotGroupVms(true).schedule(Arrays.asList(vm, otherVm)));
+        assertEquals(Collections.emptySet(), PendingVM.collectForHost(pendingResourceManager, host1.getId()));
+    }
+
+    @Test
+    public void interruptedPlacementIsRolledBack() {
+        VM vm = createVm();
+        doAnswer(invocation -> {
+            Thread.currentThread().interrupt();
+            return Optional.of(host1.getId());
+        }).when(schedulingManager).selectHost(any(), any(), any(), any(), any(), any());
+
+        assertEquals(Optional.empty(), schedulingManager.prepareCall(cluster).schedule(vm));
+        assertFalse(Thread.interrupted());
+        assertEquals(Collections.emptySet(), PendingVM.collectForHost(pendingResourceManager, host1.getId()));
+    }
+
+    @Test
+    @MockedConfig("speedOptimizationConfiguration")
+    public void weighingIsSkippedAboveConcurrentPlacementsThreshold() {
+        cluster.setOptimizationType(OptimizationType.OPTIMIZE_FOR_SPEED);
+        VM vm = createVm();
+        VM concurrentVm = createVm();
+        doAnswer(invocation -> {
+            schedulingManager.prepareCall(cluster).schedule(concurrentVm);
+            return Optional.of(host1.getId());
+        }).doReturn(Optional.of(host1.getId()))
+                .when(schedulingManager).selectHost(any(), any(), any(), any(), any(), any());
+
+        schedulingManager.prepareCall(cluster).schedule(vm);
+
+        ArgumentCaptor<SchedulingContext> contexts = ArgumentCaptor.forClass(SchedulingContext.class);
+        verify(schedulingManager, times(3)).selectHost(any(), any(), any(), any(), contexts.capture(), any());
+        // the first placement started alone, the concurrent one started while the first was in progress
+        assertTrue(contexts.getAllValues().get(0).isShouldWeighClusterHosts());
+        assertFalse(contexts.getAllValues().get(1).isShouldWeighClusterHosts());
+    }
+
+    private VDS createHost() {
+        VDS host = new VDS();
+        host.setId(Guid.newGuid());
+        host.setClusterId(cluster.getId());
+        host.setStatus(VDSStatus.Up);
+        return host;
+    }
+
+    private static VM createVm() {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+        return vm;
+    }
+}
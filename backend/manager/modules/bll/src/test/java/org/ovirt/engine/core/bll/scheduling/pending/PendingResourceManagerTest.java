@@ -69,6 +69,32 @@ public class PendingResourceManagerTest {
         assertEquals(0, PendingMemory.collectForHost(manager, host.getId()));
     }
 
+    @Test
+    public void testRemovePending() {
+        PendingResourceManager manager = new PendingResourceManager();
+
+        VDS host = new VDS();
+        host.setId(Guid.newGuid());
+
+        VM vm1 = new VM();
+        vm1.setId(Guid.newGuid());
+
+        VM vm2 = new VM();
+        vm2.setId(Guid.newGuid());
+
+        PendingMemory removed = new PendingMemory(host, vm1, 768);
+        PendingMemory replaced = new PendingMemory(host, vm2, 512);
+        manager.addPending(removed);
+        manager.addPending(replaced);
+        manager.addPending(new PendingMemory(host, vm2, 1024));
+
+        manager.removePending(removed);
+        manager.removePending(replaced);
+
+        assertEquals(1024, PendingMemory.collectForHost(manager, host.getId()));
+        assertThat(manager.pendingVmResources(vm1.getId(), PendingMemory.class)).isEmpty();
+    }
+
     @Test
     public void testAddPending() {
         PendingResourceManager manager = new PendingResourceManager();
@@ -102,6 +102,36 @@ class NumaPinningHelperTest {
         );
     }
 
+    @Test
+    public void testFindAssignmentWithCpuPinning() {
+        List<VmNumaNode> vmNodes = Arrays.asList(
+                createVmNumaNode(0, Arrays.asList(0, 1)),
+                createVmNumaNode(1, Arrays.asList(0, 1))
+        );
+        vmNodes.get(0).setCpuIds(Arrays.asList(0, 1));
+        vmNodes.get(1).setCpuIds(Arrays.asList(2, 3));
+
+        List<VdsNumaNode> hostNodes = Arrays.asList(
+                createHostNumaNodeWithCpus(0, 2500, Arrays.asList(0, 1, 2, 3)),
+                createHostNumaNodeWithCpus(1, 2500, Arrays.asList(4, 5, 6, 7))
+        );
+
+        List<VM> vms = createVms(vmNodes);
+        vms.get(0).setCpuPinning("0#4-5_1#4-5_2#0,2_3#1-3,^2");
+
+        Optional<Map<Guid, Integer>> assignment = NumaPinningHelper.findAssignment(vms, hostNodes, true);
+
+        assertThat(assignment.isPresent()).isTrue();
+        assertThat(assignment.get().entrySet()).extracting("key", "value").containsOnly(
+                tuple(vmNodes.get(0).getId(), 1),
+                tuple(vmNodes.get(1).getId(), 0)
+        );
+
+        // the CPUs of the first VM node are pinned to different host nodes
+        vms.get(0).setCpuPinning("0#4_1#0_2#0_3#1");
+        assertThat(NumaPinningHelper.findAssignment(vms, hostNodes, true).isPresent()).isFalse();
+    }
+
     @Test
     public void testCpuPinningLowCpus() {
         VM vm = new VM();
@@ -44,6 +44,29 @@ public class VmStatistics implements BusinessEntity<Guid>, Comparable<VmStatisti
         this.vmId = vmId;
     }
 
+    public VmStatistics(VmStatistics statistics) {
+        cpuSys = statistics.getCpuSys();
+        cpuUser = statistics.getCpuUser();
+        elapsedTime = statistics.getElapsedTime();
+        usageCpuPercent = statistics.getUsageCpuPercent();
+        usageMemPercent = statistics.getUsageMemPercent();
+        usageNetworkPercent = statistics.getUsageNetworkPercent();
+        migrationProgressPercent = statistics.getMigrationProgressPercent();
+        disksUsage = statistics.getDisksUsage();
+        vmId = statistics.getId();
+        cpuUsageHistory = copyOf(statistics.getCpuUsageHistory());
+        networkUsageHistory = copyOf(statistics.getNetworkUsageHistory());
+        memoryUsageHistory = copyOf(statistics.getMemoryUsageHistory());
+        guestMemoryCached = statistics.getGuestMemoryCached();
+        guestMemoryBuffered = statistics.getGuestMemoryBuffered();
+        guestMemoryFree = statistics.getGuestMemoryFree();
+        guestMemoryUnused = statistics.getGuestMemoryUnused();
+    }
+
+    private static List<Integer> copyOf(List<Integer> history) {
+        return history != null ? new ArrayList<>(history) : null;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(
@@ -75,9 +98,18 @@ public class VmStatistics implements BusinessEntity<Guid>, Comparable<VmStatisti
             return false;
         }
         VmStatistics other = (VmStatistics) obj;
-        return Objects.equals(cpuSys, other.cpuSys)
+        return Objects.equals(elapsedTime, other.elapsedTime)
+                && equalsIgnoringElapsedTime(other);
+    }
+
+    /**
+     * Compares the statistics while ignoring the elapsed time, which changes on every report of a running VM
+     * and therefore does not indicate by itself that the statistics are worth persisting.
+     */
+    public boolean equalsIgnoringElapsedTime(VmStatistics other) {
+        return other != null
+                && Objects.equals(cpuSys, other.cpuSys)
                 && Objects.equals(cpuUser, other.cpuUser)
-                && Objects.equals(elapsedTime, other.elapsedTime)
                 && Objects.equals(usageCpuPercent, other.usageCpuPercent)
                 && Objects.equals(usageMemPercent, other.usageMemPercent)
                 && Objects.equals(migrationProgressPercent, other.migrationProgressPercent)
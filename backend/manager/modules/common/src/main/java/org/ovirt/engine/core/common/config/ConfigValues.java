@@ -55,6 +55,13 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     MaxTotalConnections,
 
+    /**
+     * Maximal number of backend services, and of host managers, that are initialized concurrently when the engine
+     * starts. The services are initialized one after the other when set to 1.
+     */
+    @TypeConverterAttribute(Integer.class)
+    ServicesStartupParallelism,
+
     @TypeConverterAttribute(Long.class)
     VdsRefreshRate,
     @TypeConverterAttribute(Long.class)
@@ -96,6 +103,9 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     CommandEntityAgingThreshold,
     @Reloadable
+    @TypeConverterAttribute(Boolean.class)
+    CommandEntityPayloadCompression,
+    @Reloadable
     @TypeConverterAttribute(String.class)
     VdsFenceType(ClientAccessLevel.Admin),
     @Reloadable
@@ -733,6 +743,39 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     JobPageSize,
 
+    /**
+     * Interval at which the changes of the steps of running jobs are written to the database, the changes are written
+     * right away when set to 0.
+     */
+    @TypeConverterAttribute(Integer.class)
+    JobStepsFlushIntervalInMillis,
+
+    /**
+     * Maximal number of commands of multiple actions running at the same time, lowered automatically while the engine
+     * thread pool is overloaded.
+     */
+    @TypeConverterAttribute(Integer.class)
+    MultipleActionsMaxConcurrentCommands,
+
+    /**
+     * Maximal number of commands of the same action type of multiple actions running at the same time, also the
+     * number of commands of a multiple action validated at the same time.
+     */
+    @TypeConverterAttribute(Integer.class)
+    MultipleActionsMaxConcurrentCommandsPerType,
+
+    /**
+     * Maximal number of commands of multiple actions running at the same time on the same host or storage domain.
+     */
+    @TypeConverterAttribute(Integer.class)
+    MultipleActionsMaxConcurrentCommandsPerTarget,
+
+    /**
+     * Maximal size in MB of the results kept by the query result cache, 0 disables the cache.
+     */
+    @TypeConverterAttribute(Integer.class)
+    QueryResultCacheMaxSizeInMB,
+
     @TypeConverterAttribute(Long.class)
     VmPoolMonitorIntervalInMinutes,
 
@@ -885,6 +928,12 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     GlusterRefreshRateHealInfo,
 
+    /**
+     * Defines the maximal number of clusters whose gluster data is refreshed concurrently by the gluster sync job
+     */
+    @TypeConverterAttribute(Integer.class)
+    GlusterRefreshMaxConcurrentClusters,
+
     /**
      * Defines the number of history values storable by the engine for unsynced entries in gluster brick
      */
@@ -1132,6 +1181,13 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     SchedulerOverBookingThreshold(ClientAccessLevel.Admin),
 
+    /**
+     * The number of times a placement is attempted without holding the cluster, before the scheduler falls back to
+     * holding the cluster for the whole placement. 0 means always holding the cluster.
+     */
+    @TypeConverterAttribute(Integer.class)
+    SchedulingMaxOptimisticAttempts,
+
     @TypeConverterAttribute(Boolean.class)
     IgnoreVmToVmAffinityForHostMaintenance,
 
@@ -1363,6 +1419,12 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     UsageHistoryLimit,
 
+    /**
+     * Defines the maximal time, in seconds, VM statistics whose only change is the elapsed time are not persisted
+     */
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsMaxPersistIntervalInSeconds,
+
     @TypeConverterAttribute(Integer.class)
     MaxCpuLimitQosValue(ClientAccessLevel.Admin),
 
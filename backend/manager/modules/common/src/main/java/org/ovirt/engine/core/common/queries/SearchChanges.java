@@ -0,0 +1,69 @@
+package org.ovirt.engine.core.common.queries;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * The result of a search for the entities that changed since a given version, see
+ * {@link SearchParameters#setChangesSince(Long)}.
+ * <p>
+ * When the changes since the given version are known, the result holds the ids of the entities that changed and those
+ * of the changed entities that are part of the search result. Otherwise, the result is complete and holds the whole
+ * search result.
+ */
+public class SearchChanges<T> implements Serializable {
+    private static final long serialVersionUID = -2840357416349850385L;
+
+    private long version;
+    private boolean complete;
+    private List<Guid> changedIds;
+    private List<T> items;
+
+    /**
+     * For GWT serialization
+     */
+    private SearchChanges() {
+    }
+
+    private SearchChanges(long version, boolean complete, List<Guid> changedIds, List<T> items) {
+        this.version = version;
+        this.complete = complete;
+        this.changedIds = changedIds;
+        this.items = items;
+    }
+
+    public static <T> SearchChanges<T> complete(long version, List<T> items) {
+        return new SearchChanges<>(version, true, new ArrayList<>(), items);
+    }
+
+    public static <T> SearchChanges<T> changed(long version,
+            List<Guid> changedIds,
+            List<T> items) {
+        return new SearchChanges<>(version, false, changedIds, items);
+    }
+
+    /**
+     * Returns the version to pass to the next search for changes.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns whether {@link #getItems()} is the whole search result rather than the changed entities.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public List<Guid> getChangedIds() {
+        return changedIds;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+}
@@ -13,6 +13,7 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
     private int _maxCount;
     private long searchFrom;
     private boolean caseSensitive;
+    private Long changesSince;
 
     public SearchParameters() {
         this (null, SearchType.VM, true);
@@ -61,6 +62,20 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
         caseSensitive = value;
     }
 
+    public Long getChangesSince() {
+        return changesSince;
+    }
+
+    /**
+     * Asks for the entities that changed since the given version, as returned by a previous search for changes,
+     * instead of the whole search result. The search then returns {@link SearchChanges} of the searched entities.
+     * Changes are tracked for VMs and hosts only, searches of other entities always return the whole result. Pass
+     * {@code null}, the default, for a regular search.
+     */
+    public void setChangesSince(Long value) {
+        changesSince = value;
+    }
+
     @Override
     protected ToStringBuilder appendAttributes(ToStringBuilder tsb) {
         return super.appendAttributes(tsb)
@@ -68,6 +83,7 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
                 .append("searchPattern", getSearchPattern())
                 .append("caseSensitive", getCaseSensitive())
                 .append("from", getSearchFrom())
-                .append("max", getMaxCount());
+                .append("max", getMaxCount())
+                .append("changesSince", getChangesSince());
     }
 }
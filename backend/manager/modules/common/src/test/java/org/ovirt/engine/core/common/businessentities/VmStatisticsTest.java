@@ -1,12 +1,16 @@
 package org.ovirt.engine.core.common.businessentities;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 
 import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.compat.Guid;
 
 public class VmStatisticsTest {
 
@@ -62,4 +66,34 @@ public class VmStatisticsTest {
     public void addToHistoryZeroLimit() {
         assertEquals(Collections.emptyList(), statistics.addToHistory(Arrays.asList(9, 10, 11, 12), 13, 0));
     }
+
+    @Test
+    public void copyIsEqualAndIndependent() {
+        VmStatistics source = new VmStatistics(Guid.newGuid());
+        source.setUsageCpuPercent(5);
+        source.setCpuUsageHistory(new ArrayList<>(Arrays.asList(1, 2)));
+        VmStatistics copy = new VmStatistics(source);
+        assertEquals(source, copy);
+        assertNotSame(source.getCpuUsageHistory(), copy.getCpuUsageHistory());
+    }
+
+    @Test
+    public void equalsIgnoringElapsedTimeWhenOnlyElapsedTimeChanged() {
+        VmStatistics other = new VmStatistics(statistics);
+        other.setElapsedTime(statistics.getElapsedTime() + 15);
+        assertTrue(statistics.equalsIgnoringElapsedTime(other));
+        assertFalse(statistics.equals(other));
+    }
+
+    @Test
+    public void equalsIgnoringElapsedTimeWhenUsageChanged() {
+        VmStatistics other = new VmStatistics(statistics);
+        other.setUsageMemPercent(42);
+        assertFalse(statistics.equalsIgnoringElapsedTime(other));
+    }
+
+    @Test
+    public void equalsIgnoringElapsedTimeNull() {
+        assertFalse(statistics.equalsIgnoringElapsedTime(null));
+    }
 }
@@ -0,0 +1,141 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A search query whose string literals were replaced by bind parameters.
+ * <p>
+ * The search backend generates SQL with the searched values inlined, so every distinct search is a distinct
+ * statement for the database. Executing the query template produced here as a prepared statement instead lets
+ * the JDBC driver and the database reuse the statement and its plan for all searches of the same shape.
+ * <p>
+ * Only literals that are compared against (following {@code =, <, >, (, ,} or {@code LIKE}/{@code ILIKE}) are
+ * replaced, other literals, e.g. typed literals such as {@code interval '1 day'}, remain inlined. The values are
+ * bound with an unspecified type, so the database resolves their type exactly as it does for inlined literals.
+ * Literals are decoded following the standard conforming strings rules, which is how they are parsed by the
+ * database.
+ */
+public final class ParameterizedSearchQuery {
+
+    private static final char QUOTE = '\'';
+    private static final char DOUBLE_QUOTE = '"';
+    private static final String BINDABLE_PRECEDING_CHARS = "=<>(,";
+    private static final List<String> BINDABLE_PRECEDING_KEYWORDS = Arrays.asList("LIKE", "ILIKE");
+
+    private final String sql;
+    private final Object[] parameters;
+    private final int[] parameterTypes;
+
+    private ParameterizedSearchQuery(String sql, List<String> parameters) {
+        this.sql = sql;
+        this.parameters = parameters.toArray();
+        this.parameterTypes = new int[parameters.size()];
+        Arrays.fill(parameterTypes, Types.OTHER);
+    }
+
+    /**
+     * Replaces the string literals of the given search query by bind parameters.
+     *
+     * @param query
+     *            a query generated by the search backend
+     * @return the query template along with the values to bind to it
+     */
+    public static ParameterizedSearchQuery parse(String query) {
+        StringBuilder sql = new StringBuilder(query.length());
+        List<String> parameters = new ArrayList<>();
+        int length = query.length();
+        int i = 0;
+        while (i < length) {
+            char c = query.charAt(i);
+            if (c == DOUBLE_QUOTE || c == QUOTE) {
+                StringBuilder value = new StringBuilder();
+                int end = findClosingQuote(query, i, c, value);
+                if (end < 0) {
+                    // unterminated, leave the rest of the query for the database to reject
+                    sql.append(query, i, length);
+                    break;
+                }
+                if (c == QUOTE && isBindable(sql)) {
+                    sql.append('?');
+                    parameters.add(value.toString());
+                } else {
+                    sql.append(query, i, end);
+                }
+                i = end;
+            } else {
+                sql.append(c);
+                i++;
+            }
+        }
+        return new ParameterizedSearchQuery(sql.toString(), parameters);
+    }
+
+    /**
+     * Finds the end of the quoted token starting at the given position, a doubled quote character within the token
+     * stands for the quote character itself.
+     *
+     * @return the position right after the closing quote, or -1 if the token is unterminated
+     */
+    private static int findClosingQuote(String query, int start, char quote, StringBuilder value) {
+        int i = start + 1;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (c == quote) {
+                if (i + 1 < query.length() && query.charAt(i + 1) == quote) {
+                    value.append(quote);
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            value.append(c);
+            i++;
+        }
+        return -1;
+    }
+
+    private static boolean isBindable(CharSequence precedingSql) {
+        int end = precedingSql.length();
+        while (end > 0 && Character.isWhitespace(precedingSql.charAt(end - 1))) {
+            end--;
+        }
+        if (end == 0) {
+            return false;
+        }
+        if (BINDABLE_PRECEDING_CHARS.indexOf(precedingSql.charAt(end - 1)) >= 0) {
+            return true;
+        }
+        int start = end;
+        while (start > 0 && Character.isLetter(precedingSql.charAt(start - 1))) {
+            start--;
+        }
+        if (start > 0 && isIdentifierPart(precedingSql.charAt(start - 1))) {
+            return false;
+        }
+        String keyword = precedingSql.subSequence(start, end).toString();
+        return BINDABLE_PRECEDING_KEYWORDS.stream().anyMatch(keyword::equalsIgnoreCase);
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '&';
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public Object[] getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the SQL types of the parameters, all of them are {@link Types#OTHER} so the database infers their
+     *         actual types
+     */
+    public int[] getParameterTypes() {
+        return parameterTypes;
+    }
+}
@@ -103,7 +103,7 @@ public class AuditLogDaoImpl extends BaseDao implements AuditLogDao {
 
     @Override
     public List<AuditLog> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, auditLogRowMapper);
+        return queryForSearch(query, auditLogRowMapper);
     }
 
     @Override
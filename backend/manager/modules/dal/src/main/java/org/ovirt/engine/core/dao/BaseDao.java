@@ -7,6 +7,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 import javax.inject.Inject;
@@ -15,6 +16,7 @@ import org.apache.commons.lang.StringUtils;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.dbbroker.CustomMapSqlParameterSource;
 import org.ovirt.engine.core.dal.dbbroker.DbEngineDialect;
+import org.ovirt.engine.core.dal.dbbroker.ParameterizedSearchQuery;
 import org.ovirt.engine.core.dal.dbbroker.SimpleJdbcCallsHandler;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -67,6 +69,20 @@ public abstract class BaseDao {
         return (rs, rowNum) -> new Guid((UUID) rs.getObject(1));
     }
 
+    /**
+     * Executes a query generated by the search backend as a prepared statement, with its string literals bound as
+     * parameters, so searches of the same shape share the statement and its plan.
+     *
+     * @see ParameterizedSearchQuery
+     */
+    protected <T> List<T> queryForSearch(String query, RowMapper<T> rowMapper) {
+        ParameterizedSearchQuery parameterizedQuery = ParameterizedSearchQuery.parse(query);
+        return getJdbcTemplate().query(parameterizedQuery.getSql(),
+                parameterizedQuery.getParameters(),
+                parameterizedQuery.getParameterTypes(),
+                rowMapper);
+    }
+
     protected SimpleJdbcCallsHandler getCallsHandler() {
         return callsHandler;
     }
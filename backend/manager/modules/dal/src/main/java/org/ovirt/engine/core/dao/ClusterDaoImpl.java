@@ -109,7 +109,7 @@ public class ClusterDaoImpl extends BaseDao implements ClusterDao {
 
     @Override
     public List<Cluster> getAllWithQuery(String query) {
-        List<Cluster> clusters = getJdbcTemplate().query(query, clusterRowMapper);
+        List<Cluster> clusters = queryForSearch(query, clusterRowMapper);
         return getHostsAndVmsForClusters(clusters);
     }
 
@@ -16,6 +16,8 @@ import org.ovirt.engine.core.common.action.ActionReturnValue;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.businessentities.CommandAssociatedEntity;
 import org.ovirt.engine.core.common.businessentities.CommandEntity;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.utils.PersistedCommandContext;
 import org.ovirt.engine.core.compat.CommandStatus;
 import org.ovirt.engine.core.compat.Guid;
@@ -24,6 +26,7 @@ import org.ovirt.engine.core.dal.dbbroker.DbFacadeUtils;
 import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
 import org.ovirt.engine.core.utils.ReflectionUtils;
 import org.ovirt.engine.core.utils.SerializationFactory;
+import org.ovirt.engine.core.utils.Serializer;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -46,7 +49,7 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
         result.setEngineSessionSeqId(resultSet.getLong("engine_session_seq_id"));
         result.setUserId(Guid.createGuidFromString(resultSet.getString("user_id")));
         result.setId(Guid.createGuidFromString(resultSet.getString("command_id")));
-        result.setCommandContext(SerializationFactory.getDeserializer().deserialize(
+        result.setCommandContext(SerializationFactory.getCompressedDeserializer().deserialize(
                 resultSet.getString("command_context"), PersistedCommandContext.class));
         result.setCreatedAt(DbFacadeUtils.fromDate(resultSet.getTimestamp("created_at")));
         result.setCommandType(ActionType.forValue(resultSet.getInt("command_type")));
@@ -58,7 +61,7 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
         result.setExecuted(resultSet.getBoolean("executed"));
         result.setCallbackEnabled(resultSet.getBoolean("callback_enabled"));
         result.setCallbackNotified(resultSet.getBoolean("callback_notified"));
-        result.setData(SerializationFactory.getDeserializer().deserialize(resultSet.getString("data"), HashMap.class));
+        result.setData(SerializationFactory.getCompressedDeserializer().deserialize(resultSet.getString("data"), HashMap.class));
         return result;
     };
 
@@ -92,7 +95,7 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
                 .addValue("command_type", entity.getCommandType().getValue())
                 .addValue("parent_command_id", entity.getParentCommandId())
                 .addValue("root_command_id", Guid.isNullOrEmpty(entity.getRootCommandId()) ? Guid.Empty : entity.getRootCommandId())
-                .addValue("command_context", SerializationFactory.getSerializer().serialize(entity.getCommandContext()))
+                .addValue("command_context", getPayloadSerializer().serialize(entity.getCommandContext()))
                 .addValue("command_parameters", serializeParameters(entity.getCommandParameters()))
                 .addValue("command_params_class", entity.getCommandParameters() == null ? null : entity.getCommandParameters().getClass().getName())
                 .addValue("created_at", entity.getCreatedAt())
@@ -101,15 +104,24 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
                 .addValue("callback_enabled", entity.isCallbackEnabled())
                 .addValue("return_value", serializeReturnValue(entity.getReturnValue()))
                 .addValue("return_value_class", entity.getReturnValue() == null ? null : entity.getReturnValue().getClass().getName())
-                .addValue("data", SerializationFactory.getSerializer().serialize(entity.getData()));
+                .addValue("data", getPayloadSerializer().serialize(entity.getData()));
     }
 
-    private String serializeReturnValue(ActionReturnValue retVal) {
-        return SerializationFactory.getSerializer().serialize(retVal);
+    /**
+     * The payloads are written in the compact form unless disabled by configuration, both forms are read.
+     */
+    private static Serializer getPayloadSerializer() {
+        return Config.<Boolean> getValue(ConfigValues.CommandEntityPayloadCompression)
+                ? SerializationFactory.getCompressedSerializer()
+                : SerializationFactory.getSerializer();
     }
 
-    private String serializeParameters(ActionParametersBase params) {
-        return SerializationFactory.getSerializer().serialize(params);
+    private Object serializeReturnValue(ActionReturnValue retVal) {
+        return getPayloadSerializer().serialize(retVal);
+    }
+
+    private Object serializeParameters(ActionParametersBase params) {
+        return getPayloadSerializer().serialize(params);
     }
 
     @SuppressWarnings("unchecked")
@@ -118,7 +130,7 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
             return null;
         }
         Class<Serializable> retValueClass = (Class<Serializable>) ReflectionUtils.getClassFor(className);
-        return (ActionReturnValue) SerializationFactory.getDeserializer().deserialize(payload,
+        return (ActionReturnValue) SerializationFactory.getCompressedDeserializer().deserialize(payload,
                 retValueClass);
     }
 
@@ -128,7 +140,7 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
             return null;
         }
         Class<Serializable> actionParamsClass = (Class<Serializable>) ReflectionUtils.getClassFor(className);
-        return (ActionParametersBase) SerializationFactory.getDeserializer().deserialize(payload,
+        return (ActionParametersBase) SerializationFactory.getCompressedDeserializer().deserialize(payload,
                 actionParamsClass);
     }
 
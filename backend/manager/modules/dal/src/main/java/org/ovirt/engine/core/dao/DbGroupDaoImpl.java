@@ -92,7 +92,7 @@ public class DbGroupDaoImpl extends BaseDao implements DbGroupDao {
 
     @Override
     public List<DbGroup> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, dbGroupRowMapper);
+        return queryForSearch(query, dbGroupRowMapper);
     }
 
     @Override
@@ -130,7 +130,7 @@ public class DbUserDaoImpl extends BaseDao implements DbUserDao {
 
     @Override
     public List<DbUser> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, dbUserRowMapper);
+        return queryForSearch(query, dbUserRowMapper);
     }
 
     @Override
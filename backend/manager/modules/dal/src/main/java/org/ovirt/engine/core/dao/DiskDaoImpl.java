@@ -171,7 +171,7 @@ public class DiskDaoImpl extends BaseDao implements DiskDao {
 
     @Override
     public List<Disk> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, diskRowMapper);
+        return queryForSearch(query, diskRowMapper);
     }
 
     private static final RowMapper<Disk> diskRowMapper = (rs, rowNum) -> {
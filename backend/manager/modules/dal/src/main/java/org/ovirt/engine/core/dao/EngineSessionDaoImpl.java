@@ -93,6 +93,6 @@ public class EngineSessionDaoImpl extends BaseDao implements EngineSessionDao {
 
     @Override
     public List<EngineSession> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, engineSessionRowMapper);
+        return queryForSearch(query, engineSessionRowMapper);
     }
 }
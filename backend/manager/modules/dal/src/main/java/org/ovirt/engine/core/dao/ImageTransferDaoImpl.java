@@ -135,7 +135,7 @@ public class ImageTransferDaoImpl extends DefaultGenericDao<ImageTransfer, Guid>
 
     @Override
     public List<ImageTransfer> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, createEntityRowMapper());
+        return queryForSearch(query, createEntityRowMapper());
     }
 
     @Override
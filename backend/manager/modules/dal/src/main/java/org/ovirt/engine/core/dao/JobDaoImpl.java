@@ -151,6 +151,6 @@ public class JobDaoImpl extends DefaultGenericDao<Job, Guid> implements JobDao {
 
     @Override
     public List<Job> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, createEntityRowMapper());
+        return queryForSearch(query, createEntityRowMapper());
     }
 }
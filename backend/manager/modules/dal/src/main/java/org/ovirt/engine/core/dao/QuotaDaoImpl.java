@@ -542,7 +542,7 @@ public class QuotaDaoImpl extends BaseDao implements QuotaDao {
 
     @Override
     public List<Quota> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, getQuotaMetaDataFromResultSet());
+        return queryForSearch(query, getQuotaMetaDataFromResultSet());
     }
 
     @Override
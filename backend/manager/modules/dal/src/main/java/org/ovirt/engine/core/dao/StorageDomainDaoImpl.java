@@ -121,7 +121,7 @@ public class StorageDomainDaoImpl extends BaseDao implements StorageDomainDao {
 
     @Override
     public List<StorageDomain> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, storageDomainRowMapper);
+        return queryForSearch(query, storageDomainRowMapper);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.dao;
 
 import java.util.List;
+import java.util.Map;
 
 import org.ovirt.engine.core.common.businessentities.StorageDomainStatic;
 import org.ovirt.engine.core.common.businessentities.StorageDomainStatus;
@@ -47,4 +48,13 @@ public interface StorageDomainStaticDao extends GenericDao<StorageDomainStatic,
      * @return The domain ids list (empty if none satisfy the terms).
      */
     List<Guid> getAllIds(Guid pool, StorageDomainStatus status);
+
+    /**
+     * Return the statuses of all the domains which belong to the given pool.
+     *
+     * @param pool
+     *            The pool id.
+     * @return The statuses of the domains by their ids (empty if the pool has no domains).
+     */
+    Map<Guid, StorageDomainStatus> getAllStatuses(Guid pool);
 }
@@ -1,6 +1,8 @@
 package org.ovirt.engine.core.dao;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -11,6 +13,7 @@ import org.ovirt.engine.core.common.businessentities.StorageDomainStatus;
 import org.ovirt.engine.core.common.businessentities.StorageDomainType;
 import org.ovirt.engine.core.common.businessentities.StorageFormatType;
 import org.ovirt.engine.core.common.businessentities.storage.StorageType;
+import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -65,6 +68,19 @@ public class StorageDomainStaticDaoImpl extends DefaultGenericDao<StorageDomainS
         return getCallsHandler().executeReadList("GetStorageDomainIdsByStoragePoolIdAndStatus", mapper, parameterSource);
     }
 
+    @Override
+    public Map<Guid, StorageDomainStatus> getAllStatuses(Guid pool) {
+        RowMapper<Pair<Guid, StorageDomainStatus>> mapper = (rs, rowNum) -> new Pair<>(
+                getGuidDefaultEmpty(rs, "storage_id"),
+                StorageDomainStatus.forValue(rs.getInt("status")));
+
+        return getCallsHandler().executeReadList("GetStorageDomainIdsAndStatusesByStoragePoolId",
+                mapper,
+                getStoragePoolIdParameterSource(pool))
+                .stream()
+                .collect(Collectors.toMap(Pair::getFirst, Pair::getSecond));
+    }
+
     @Override
     protected MapSqlParameterSource createIdParameterMapper(Guid id) {
         return getCustomMapSqlParameterSource()
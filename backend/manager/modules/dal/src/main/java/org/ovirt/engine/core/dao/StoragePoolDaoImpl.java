@@ -111,7 +111,7 @@ public class StoragePoolDaoImpl extends BaseDao implements StoragePoolDao {
 
     @Override
     public List<StoragePool> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, mapper);
+        return queryForSearch(query, mapper);
     }
 
     @Override
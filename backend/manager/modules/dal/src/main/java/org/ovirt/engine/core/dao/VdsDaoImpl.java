@@ -142,7 +142,7 @@ public class VdsDaoImpl extends BaseDao implements VdsDao {
 
     @Override
     public List<VDS> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, vdsRowMapper);
+        return queryForSearch(query, vdsRowMapper);
     }
 
     @Override
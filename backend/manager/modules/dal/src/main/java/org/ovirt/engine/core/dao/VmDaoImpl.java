@@ -185,7 +185,7 @@ public class VmDaoImpl extends BaseDao implements VmDao {
 
     @Override
     public List<VM> getAllUsingQuery(String query) {
-        return getJdbcTemplate().query(query, vmRowMapper);
+        return queryForSearch(query, vmRowMapper);
     }
 
     @Override
@@ -22,6 +22,11 @@ public interface VmDeviceDao extends GenericDao<VmDevice, VmDeviceId>, MassOpera
 
     List<VmDevice> getVmDeviceByVmId(Guid vmId, Guid userID, boolean isFiltered);
 
+    /**
+     * Retrieves the devices of all the given VMs at once.
+     */
+    List<VmDevice> getVmDevicesByVmIds(List<Guid> vmIds);
+
     List<VmDevice> getVmDevicesByDeviceId(Guid deviceId, Guid vmId);
 
     List<VmDevice> getVmDeviceByVmIdAndType(Guid vmId, VmDeviceGeneralType type);
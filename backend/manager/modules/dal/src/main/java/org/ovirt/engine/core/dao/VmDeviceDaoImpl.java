@@ -82,6 +82,13 @@ public class VmDeviceDaoImpl extends
                 createEntityRowMapper(), parameterSource);
     }
 
+    @Override
+    public List<VmDevice> getVmDevicesByVmIds(List<Guid> vmIds) {
+        return getCallsHandler().executeReadList("GetVmDevicesByVmIds",
+                createEntityRowMapper(),
+                getCustomMapSqlParameterSource().addValue("vm_ids", createArrayOfUUIDs(vmIds)));
+    }
+
     @Override
     public List<VmDevice> getVmDevicesByDeviceId(Guid deviceId, Guid vmId) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
@@ -67,7 +67,7 @@ public class VmPoolDaoImpl extends BaseDao implements VmPoolDao {
 
     @Override
     public List<VmPool> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, vmPoolFullRowMapper);
+        return queryForSearch(query, vmPoolFullRowMapper);
     }
 
     @Override
@@ -126,7 +126,7 @@ public class VmTemplateDaoImpl extends VmBaseDao<VmTemplate> implements VmTempla
 
     @Override
     public List<VmTemplate> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, VMTemplateRowMapper.instance);
+        return queryForSearch(query, VMTemplateRowMapper.instance);
     }
 
     @Override
@@ -65,6 +65,7 @@ public class GlusterBrickDaoImpl extends MassOperationsGenericDao<GlusterBrickEn
     public GlusterBrickDaoImpl() {
         super("GlusterBrick");
         setProcedureNameForGet("GetGlusterBrickById");
+        setProcedureNameForSave("InsertGlusterVolumeBrick");
         setProcedureNameForRemove("DeleteGlusterVolumeBrick");
     }
 
@@ -124,6 +125,11 @@ public class GlusterBrickDaoImpl extends MassOperationsGenericDao<GlusterBrickEn
                         .addValue("brick_order", brickOrder));
     }
 
+    @Override
+    public void updateBrickOrders(Collection<GlusterBrickEntity> bricks) {
+        updateAllInBatch("UpdateGlusterVolumeBrickOrder", bricks, getBatchMapper());
+    }
+
     @Override
     public GlusterBrickEntity getById(Guid id) {
         GlusterBrickEntity brick = getCallsHandler().executeRead(
@@ -297,6 +303,11 @@ public class GlusterBrickDaoImpl extends MassOperationsGenericDao<GlusterBrickEn
                         addValue("network_id", networkId));
     }
 
+    @Override
+    public void updateBrickNetworkIds(Collection<GlusterBrickEntity> bricks) {
+        updateAllInBatch("UpdateGlusterVolumeBrickNetworkId", bricks, getBatchMapper());
+    }
+
     @Override
     public void updateAllBrickTasksByHostIdBrickDirInBatch(Collection<GlusterBrickEntity> bricks) {
         getCallsHandler().executeStoredProcAsBatch("UpdateGlusterBrickTaskByServerIdBrickDir",
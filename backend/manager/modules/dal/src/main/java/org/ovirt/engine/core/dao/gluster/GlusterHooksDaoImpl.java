@@ -129,7 +129,7 @@ public class GlusterHooksDaoImpl extends MassOperationsGenericDao<GlusterHookEnt
     @Override
     @SuppressWarnings("deprecation")
     public List<GlusterHookEntity> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, glusterHookRowMapper);
+        return queryForSearch(query, glusterHookRowMapper);
     }
 
     @Override
@@ -14,6 +14,8 @@ public interface GlusterServerDao extends Dao, GenericDao<GlusterServer, Guid> {
 
     public GlusterServer getByGlusterServerUuid(Guid glusterServerUuid);
 
+    public List<GlusterServer> getAllByClusterId(Guid clusterId);
+
     public void removeByGlusterServerUuid(Guid glusterServerUuid);
 
     public void addKnownAddress(Guid serverId, String address);
@@ -52,6 +52,13 @@ public class GlusterServerDaoImpl extends DefaultGenericDao<GlusterServer, Guid>
                 getCustomMapSqlParameterSource().addValue("gluster_server_uuid", glusterServerUuid));
     }
 
+    @Override
+    public List<GlusterServer> getAllByClusterId(Guid clusterId) {
+        return getCallsHandler().executeReadList("GetGlusterServersByClusterId",
+                glusterServerRowMapper,
+                getCustomMapSqlParameterSource().addValue("cluster_id", clusterId));
+    }
+
     @Override
     public void removeByGlusterServerUuid(Guid glusterServerUuid) {
         getCallsHandler().executeModification("DeleteGlusterServerByGlusterServerUUID",
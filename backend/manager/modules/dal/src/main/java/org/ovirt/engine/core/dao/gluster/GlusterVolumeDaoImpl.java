@@ -213,7 +213,7 @@ public class GlusterVolumeDaoImpl extends MassOperationsGenericDao<GlusterVolume
 
     @Override
     public List<GlusterVolumeEntity> getAllWithQuery(String query) {
-        List<GlusterVolumeEntity> volumes = getJdbcTemplate().query(query, volumeRowMapper);
+        List<GlusterVolumeEntity> volumes = queryForSearch(query, volumeRowMapper);
         fetchRelatedEntities(volumes);
         return volumes;
     }
@@ -72,7 +72,7 @@ public class GlusterVolumeSnapshotConfigDaoImpl extends BaseDao implements Glust
 
     @Override
     public List<GlusterVolumeSnapshotConfig> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, snapshotConfigRowMapper);
+        return queryForSearch(query, snapshotConfigRowMapper);
     }
 
     @Override
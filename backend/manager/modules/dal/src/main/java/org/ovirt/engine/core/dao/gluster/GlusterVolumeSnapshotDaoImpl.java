@@ -120,7 +120,7 @@ public class GlusterVolumeSnapshotDaoImpl extends MassOperationsGenericDao<Glust
 
     @Override
     public List<GlusterVolumeSnapshotEntity> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, snapshotRowMapper);
+        return queryForSearch(query, snapshotRowMapper);
     }
 
     @Override
@@ -57,7 +57,7 @@ public class GlusterVolumeSnapshotScheduleDaoImpl extends BaseDao implements Glu
 
     @Override
     public List<GlusterVolumeSnapshotSchedule> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, snapshotScheduleRowMapper);
+        return queryForSearch(query, snapshotScheduleRowMapper);
     }
 
     @Override
@@ -30,7 +30,7 @@ public class NetworkViewDaoImpl extends BaseDao implements NetworkViewDao {
 
     @Override
     public List<NetworkView> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, networkViewRowMapper);
+        return queryForSearch(query, networkViewRowMapper);
     }
 
     @Override
@@ -204,6 +204,6 @@ public class ProviderDaoImpl extends DefaultGenericDao<Provider<?>, Guid> implem
     }
 
     public List<Provider<?>> getAllWithQuery(String query) {
-        return getJdbcTemplate().query(query, ProviderRowMapper.INSTANCE);
+        return queryForSearch(query, ProviderRowMapper.INSTANCE);
     }
 }
@@ -0,0 +1,64 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Types;
+
+import org.junit.jupiter.api.Test;
+
+/** A test case for the {@link ParameterizedSearchQuery} */
+public class ParameterizedSearchQueryTest {
+
+    @Test
+    public void queryWithoutLiterals() {
+        String query = "SELECT * FROM vms WHERE mem_size_mb > 1024";
+        ParameterizedSearchQuery parameterizedQuery = ParameterizedSearchQuery.parse(query);
+        assertEquals(query, parameterizedQuery.getSql());
+        assertArrayEquals(new Object[0], parameterizedQuery.getParameters());
+    }
+
+    @Test
+    public void comparedLiteralsAreBound() {
+        ParameterizedSearchQuery parameterizedQuery = ParameterizedSearchQuery.parse(
+                "SELECT * FROM vms WHERE vm_name ILIKE 'vm%' AND status = '1' AND vm_guid IN ('a','b')");
+        assertEquals("SELECT * FROM vms WHERE vm_name ILIKE ? AND status = ? AND vm_guid IN (?,?)",
+                parameterizedQuery.getSql());
+        assertArrayEquals(new Object[] { "vm%", "1", "a", "b" }, parameterizedQuery.getParameters());
+        assertArrayEquals(new int[] { Types.OTHER, Types.OTHER, Types.OTHER, Types.OTHER },
+                parameterizedQuery.getParameterTypes());
+    }
+
+    @Test
+    public void doubledQuotesAreDecoded() {
+        ParameterizedSearchQuery parameterizedQuery =
+                ParameterizedSearchQuery.parse("SELECT * FROM vms WHERE description = 'it''s'");
+        assertEquals("SELECT * FROM vms WHERE description = ?", parameterizedQuery.getSql());
+        assertArrayEquals(new Object[] { "it's" }, parameterizedQuery.getParameters());
+    }
+
+    @Test
+    public void typedAndEscapeLiteralsAreInlined() {
+        String query = "SELECT * FROM audit_log WHERE log_time > now() - interval '1 day' "
+                + "AND message LIKE E'a\\\\b' ESCAPE '\\'";
+        ParameterizedSearchQuery parameterizedQuery = ParameterizedSearchQuery.parse(query);
+        assertEquals(query, parameterizedQuery.getSql());
+        assertArrayEquals(new Object[0], parameterizedQuery.getParameters());
+    }
+
+    @Test
+    public void quotedIdentifiersAreKept() {
+        ParameterizedSearchQuery parameterizedQuery =
+                ParameterizedSearchQuery.parse("SELECT \"it's\" FROM vms WHERE vm_name = 'vm'");
+        assertEquals("SELECT \"it's\" FROM vms WHERE vm_name = ?", parameterizedQuery.getSql());
+        assertArrayEquals(new Object[] { "vm" }, parameterizedQuery.getParameters());
+    }
+
+    @Test
+    public void unterminatedLiteralIsKept() {
+        String query = "SELECT * FROM vms WHERE vm_name = 'vm";
+        ParameterizedSearchQuery parameterizedQuery = ParameterizedSearchQuery.parse(query);
+        assertEquals(query, parameterizedQuery.getSql());
+        assertArrayEquals(new Object[0], parameterizedQuery.getParameters());
+    }
+}
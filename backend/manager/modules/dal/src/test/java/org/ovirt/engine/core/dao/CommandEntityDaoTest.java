@@ -15,17 +15,27 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
+import org.apache.commons.lang.StringUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.ovirt.engine.core.common.VdcObjectType;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.businessentities.CommandAssociatedEntity;
 import org.ovirt.engine.core.common.businessentities.CommandEntity;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.compat.CommandStatus;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
 
+@ExtendWith(MockConfigExtension.class)
 public class CommandEntityDaoTest extends BaseGenericDaoTestCase<Guid, CommandEntity, CommandEntityDao> {
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.CommandEntityPayloadCompression, true));
+    }
 
     @Override
     protected CommandEntity generateNewEntity() {
@@ -116,4 +126,16 @@ public class CommandEntityDaoTest extends BaseGenericDaoTestCase<Guid, CommandEn
         assertEquals(2, entities.size());
         assertThat(entities, hasItems(cocoCmdEntities.toArray(new CommandAssociatedEntity[cocoCmdEntities.size()])));
     }
+
+    @Test
+    public void testSaveCompressedPayloads() {
+        CommandEntity cmdEntity = generateNewEntity();
+        String correlationId = StringUtils.repeat("correlation", 100);
+        cmdEntity.getCommandParameters().setCorrelationId(correlationId);
+        dao.save(cmdEntity);
+
+        CommandEntity result = dao.get(cmdEntity.getId());
+        assertEquals(correlationId, result.getCommandParameters().getCorrelationId());
+        assertEquals(ActionType.DestroyImage, result.getData().get("NEXT_COMMAND_TYPE"));
+    }
 }
@@ -6,7 +6,10 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.ovirt.engine.core.common.businessentities.StorageDomainStatic;
@@ -131,4 +134,20 @@ public class StorageDomainStaticDaoTest
             assertTrue(!Guid.Empty.equals(id));
         }
     }
+
+    @Test
+    public void testGetAllStatuses() {
+        Map<Guid, StorageDomainStatus> result = dao.getAllStatuses(FixturesTool.DATA_CENTER);
+
+        assertEquals(new HashSet<>(dao.getAllIds(FixturesTool.DATA_CENTER, StorageDomainStatus.Active)),
+                result.entrySet().stream()
+                        .filter(e -> e.getValue() == StorageDomainStatus.Active)
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void testGetAllStatusesForNonExistingStoragePoolId() {
+        assertTrue(dao.getAllStatuses(Guid.newGuid()).isEmpty());
+    }
 }
@@ -398,6 +398,29 @@ public class GlusterBrickDaoTest extends BaseDaoTestCase<GlusterBrickDao> {
         assertNotNull(bricks);
     }
 
+    @Test
+    public void testUpdateBrickOrdersAndNetworkIds() {
+        GlusterBrickEntity brick1 = dao.getById(FixturesTool.GLUSTER_BRICK_UUID1);
+        GlusterBrickEntity brick2 = dao.getById(FixturesTool.GLUSTER_BRICK_UUID2);
+        brick1.setBrickOrder(1);
+        brick1.setNetworkId(FixturesTool.NETWORK_ENGINE);
+        brick2.setBrickOrder(0);
+        brick2.setNetworkId(FixturesTool.NETWORK_ENGINE);
+
+        List<GlusterBrickEntity> bricks = new ArrayList<>();
+        bricks.add(brick1);
+        bricks.add(brick2);
+        dao.updateBrickOrders(bricks);
+        dao.updateBrickNetworkIds(bricks);
+
+        GlusterBrickEntity updatedBrick1 = dao.getById(FixturesTool.GLUSTER_BRICK_UUID1);
+        GlusterBrickEntity updatedBrick2 = dao.getById(FixturesTool.GLUSTER_BRICK_UUID2);
+        assertEquals(Integer.valueOf(1), updatedBrick1.getBrickOrder());
+        assertEquals(Integer.valueOf(0), updatedBrick2.getBrickOrder());
+        assertEquals(FixturesTool.NETWORK_ENGINE, updatedBrick1.getNetworkId());
+        assertEquals(FixturesTool.NETWORK_ENGINE, updatedBrick2.getNetworkId());
+    }
+
     @Test
     public void testGetAllByClusterAndNetworkId() {
         dao.updateBrickNetworkId(FixturesTool.GLUSTER_BRICK_UUID1, FixturesTool.NETWORK_ENGINE);
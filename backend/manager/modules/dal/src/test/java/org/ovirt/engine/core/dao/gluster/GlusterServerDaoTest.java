@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.ovirt.engine.core.common.businessentities.gluster.GlusterServer;
@@ -42,6 +43,15 @@ public class GlusterServerDaoTest extends BaseDaoTestCase<GlusterServerDao> {
         assertEquals(FixturesTool.GLUSTER_SERVER_UUID1, entity.getGlusterServerUuid());
     }
 
+    @Test
+    public void testGetAllByClusterId() {
+        List<GlusterServer> servers = dao.getAllByClusterId(FixturesTool.GLUSTER_CLUSTER_ID);
+        assertNotNull(servers);
+        assertEquals(1, servers.size());
+        assertEquals(FixturesTool.GLUSTER_BRICK_SERVER1, servers.get(0).getId());
+        assertEquals(FixturesTool.GLUSTER_SERVER_UUID1, servers.get(0).getGlusterServerUuid());
+    }
+
     @Test
     public void testRemove() {
         dao.remove(FixturesTool.GLUSTER_BRICK_SERVER1);
@@ -0,0 +1,100 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.common.action.AddVmTemplateParameters;
+import org.ovirt.engine.core.common.businessentities.VmStatic;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImage;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.SerializationFactory;
+
+/**
+ * <p> Benchmark's the serialization of persisted command parameters.</p>
+ * <p> The parameters are those of adding a template from a VM with the given number of disks.<br/>
+ * <b>json</b> benchmarks use the indented JSON the parameters were always persisted with,
+ * <b>compressed</b> benchmarks use the compact form they are persisted with by default.
+ * The sizes of both forms are printed when the state is set up.</p>
+ */
+@BenchmarkMode(Mode.All)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CommandParametersSerializationBenchmark {
+
+    @Benchmark
+    public void jsonSerialize(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(SerializationFactory.getSerializer().serialize(state.parameters));
+    }
+
+    @Benchmark
+    public void compressedSerialize(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(SerializationFactory.getCompressedSerializer().serialize(state.parameters));
+    }
+
+    @Benchmark
+    public void jsonDeserialize(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(SerializationFactory.getDeserializer()
+                .deserialize(state.json, AddVmTemplateParameters.class));
+    }
+
+    @Benchmark
+    public void compressedDeserialize(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(SerializationFactory.getCompressedDeserializer()
+                .deserialize(state.compressed, AddVmTemplateParameters.class));
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "1", "32" })
+        private int disks;
+
+        private AddVmTemplateParameters parameters;
+        private String json;
+        private Object compressed;
+
+        @Setup
+        public void setup() {
+            VmStatic vm = new VmStatic();
+            vm.setId(Guid.newGuid());
+            vm.setClusterId(Guid.newGuid());
+            vm.setName("benchmark-vm");
+            vm.setDescription("benchmark vm");
+
+            Map<Guid, DiskImage> diskInfoDestinationMap = new HashMap<>();
+            for (int i = 0; i < disks; i++) {
+                DiskImage disk = new DiskImage();
+                disk.setId(Guid.newGuid());
+                disk.setImageId(Guid.newGuid());
+                disk.setStoragePoolId(Guid.newGuid());
+                disk.setStorageIds(new ArrayList<>(Collections.singletonList(Guid.newGuid())));
+                disk.setDiskAlias("benchmark-vm_Disk" + i);
+                disk.setSize(10L * 1024 * 1024 * 1024);
+                diskInfoDestinationMap.put(disk.getId(), disk);
+            }
+
+            parameters = new AddVmTemplateParameters(vm, "benchmark-template", "benchmark template");
+            parameters.setDiskInfoDestinationMap(diskInfoDestinationMap);
+            json = SerializationFactory.getSerializer().serialize(parameters);
+            compressed = SerializationFactory.getCompressedSerializer().serialize(parameters);
+            System.out.printf("%nJSON: %d characters, compressed: %d characters%n",
+                    json.length(),
+                    compressed.toString().length());
+        }
+    }
+}
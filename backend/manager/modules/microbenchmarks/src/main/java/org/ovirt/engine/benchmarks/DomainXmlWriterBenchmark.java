@@ -0,0 +1,163 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.utils.ovf.xml.XmlTextWriter;
+
+/**
+ * <p> Benchmark's the {@link XmlTextWriter} the way the libvirt domain XML of a VM with many devices is written.</p>
+ * <p> The written document mimics the structure produced by <code>LibvirtVmXmlBuilder</code> for a VM with
+ * the given number of disks and network interfaces, including their metadata section.<br/>
+ * <b>presized</b> writes into a writer whose buffer is sized up-front like the builder does,
+ * <b>growing</b> writes into a writer that starts with a minimal buffer.</p>
+ *
+ * @see XmlTextWriter
+ */
+@BenchmarkMode(Mode.All)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DomainXmlWriterBenchmark {
+
+    private static final String OVIRT_VM_PREFIX = "ovirt-vm";
+    private static final String OVIRT_VM_URI = "http://ovirt.org/vm/1.0";
+
+    @Benchmark
+    public void presized(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(writeDomain(new XmlTextWriter(16 * 1024 + state.devices * 1024), state));
+    }
+
+    @Benchmark
+    public void growing(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(writeDomain(new XmlTextWriter(16), state));
+    }
+
+    private static String writeDomain(XmlTextWriter writer, BenchmarkState state) {
+        writer.writeStartElement("domain");
+        writer.writeAttributeString("type", "kvm");
+        writer.writeElement("name", "benchmark-vm");
+        writer.writeElement("uuid", state.vmId);
+        writer.writeStartElement("memory");
+        writer.writeRaw("4194304");
+        writer.writeEndElement();
+
+        writer.writeStartElement("devices");
+        for (int i = 0; i < state.devices; i++) {
+            writeDisk(writer, state, i);
+            writeInterface(writer, state, i);
+        }
+        writer.writeEndElement();
+
+        writer.writeStartElement("metadata");
+        writer.setPrefix(OVIRT_VM_PREFIX, OVIRT_VM_URI);
+        writer.writeStartElement(OVIRT_VM_URI, "vm");
+        writer.writeNamespace(OVIRT_VM_PREFIX, OVIRT_VM_URI);
+        for (int i = 0; i < state.devices; i++) {
+            writer.writeStartElement(OVIRT_VM_URI, "device");
+            writer.writeAttributeString("devtype", "disk");
+            writer.writeAttributeString("name", state.diskNames[i]);
+            writer.writeElement(OVIRT_VM_URI, "domainID", state.ids[i]);
+            writer.writeElement(OVIRT_VM_URI, "imageID", state.ids[i]);
+            writer.writeElement(OVIRT_VM_URI, "poolID", state.vmId);
+            writer.writeElement(OVIRT_VM_URI, "volumeID", state.ids[i]);
+            writer.writeEndElement();
+        }
+        writer.writeEndElement();
+        writer.writeEndElement();
+        return writer.getStringXML();
+    }
+
+    private static void writeDisk(XmlTextWriter writer, BenchmarkState state, int index) {
+        writer.writeStartElement("disk");
+        writer.writeAttributeString("type", "block");
+        writer.writeAttributeString("device", "disk");
+        writer.writeAttributeString("snapshot", "no");
+
+        writer.writeStartElement("target");
+        writer.writeAttributeString("dev", state.diskNames[index]);
+        writer.writeAttributeString("bus", "scsi");
+        writer.writeEndElement();
+
+        writer.writeStartElement("source");
+        writer.writeAttributeString("dev", "/rhev/data-center/mnt/blockSD/" + state.ids[index]);
+        writer.writeEndElement();
+
+        writer.writeStartElement("driver");
+        writer.writeAttributeString("name", "qemu");
+        writer.writeAttributeString("io", "native");
+        writer.writeAttributeString("type", "qcow2");
+        writer.writeAttributeString("error_policy", "stop");
+        writer.writeAttributeString("cache", "none");
+        writer.writeEndElement();
+
+        writer.writeStartElement("alias");
+        writer.writeAttributeString("name", "ua-" + state.ids[index]);
+        writer.writeEndElement();
+
+        writer.writeElement("serial", state.ids[index]);
+        writer.writeEndElement();
+    }
+
+    private static void writeInterface(XmlTextWriter writer, BenchmarkState state, int index) {
+        writer.writeStartElement("interface");
+        writer.writeAttributeString("type", "bridge");
+
+        writer.writeStartElement("model");
+        writer.writeAttributeString("type", "virtio");
+        writer.writeEndElement();
+
+        writer.writeStartElement("mac");
+        writer.writeAttributeString("address", state.macs[index]);
+        writer.writeEndElement();
+
+        writer.writeStartElement("source");
+        writer.writeAttributeString("bridge", "ovirtmgmt");
+        writer.writeEndElement();
+
+        writer.writeStartElement("filterref");
+        writer.writeAttributeString("filter", "vdsm-no-mac-spoofing");
+        writer.writeEndElement();
+
+        writer.writeStartElement("alias");
+        writer.writeAttributeString("name", "ua-" + state.ids[index]);
+        writer.writeEndElement();
+        writer.writeEndElement();
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "256" })
+        private int devices;
+
+        private String vmId;
+        private String[] ids;
+        private String[] diskNames;
+        private String[] macs;
+
+        @Setup
+        public void setup() {
+            vmId = UUID.randomUUID().toString();
+            ids = new String[devices];
+            diskNames = new String[devices];
+            macs = new String[devices];
+            for (int i = 0; i < devices; i++) {
+                ids[i] = UUID.randomUUID().toString();
+                diskNames[i] = "sd" + i;
+                macs[i] = String.format("56:6f:00:00:%02x:%02x", i / 256, i % 256);
+            }
+        }
+    }
+}
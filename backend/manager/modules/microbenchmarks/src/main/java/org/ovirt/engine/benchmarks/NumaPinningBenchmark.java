@@ -0,0 +1,134 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.scheduling.utils.CpuPinningHelper;
+import org.ovirt.engine.core.bll.scheduling.utils.NumaPinningHelper;
+import org.ovirt.engine.core.common.businessentities.NumaNodeStatistics;
+import org.ovirt.engine.core.common.businessentities.NumaTuneMode;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.businessentities.VdsNumaNode;
+import org.ovirt.engine.core.common.businessentities.VmNumaNode;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * <p> Benchmark's the NUMA and CPU pinning checks the scheduler does for hosts with many CPUs.</p>
+ * <p> The host has the given number of NUMA nodes and CPU threads. Every VM has one virtual NUMA node
+ * per host node, pinned to all the host nodes, and every virtual CPU is pinned to all the CPUs of
+ * the host node its virtual NUMA node is placed on, which is how high performance VMs are usually
+ * configured.</p>
+ */
+@BenchmarkMode(Mode.All)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NumaPinningBenchmark {
+
+    @Benchmark
+    public void findAssignment(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(NumaPinningHelper.findAssignment(state.vms, state.hostNodes, true));
+    }
+
+    @Benchmark
+    public void parseCpuPinning(BenchmarkState state, Blackhole blackhole) {
+        for (VM vm : state.vms) {
+            blackhole.consume(CpuPinningHelper.parseCpuPinning(vm.getCpuPinning()));
+        }
+    }
+
+    @Benchmark
+    public void getAllPinnedPCpus(BenchmarkState state, Blackhole blackhole) {
+        for (VM vm : state.vms) {
+            blackhole.consume(CpuPinningHelper.getAllPinnedPCpus(vm.getCpuPinning()));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "2", "8" })
+        private int nodes;
+
+        @Param({ "384" })
+        private int threads;
+
+        @Param({ "4" })
+        private int vmCount;
+
+        private List<VdsNumaNode> hostNodes;
+        private List<VM> vms;
+
+        @Setup
+        public void setup() {
+            int threadsPerNode = threads / nodes;
+            List<Integer> nodeIndices = IntStream.range(0, nodes).boxed().collect(Collectors.toList());
+
+            hostNodes = new ArrayList<>();
+            for (int i = 0; i < nodes; i++) {
+                VdsNumaNode node = new VdsNumaNode();
+                node.setId(Guid.newGuid());
+                node.setIndex(i);
+                node.setMemTotal(256 * 1024);
+                node.setCpuIds(IntStream.range(i * threadsPerNode, (i + 1) * threadsPerNode)
+                        .boxed()
+                        .collect(Collectors.toList()));
+                node.setNumaNodeStatistics(new NumaNodeStatistics());
+                node.getNumaNodeStatistics().setMemFree(256 * 1024);
+                hostNodes.add(node);
+            }
+
+            int vCpusPerNode = threadsPerNode / vmCount;
+            vms = new ArrayList<>();
+            for (int v = 0; v < vmCount; v++) {
+                List<VmNumaNode> vmNodes = new ArrayList<>();
+                StringBuilder cpuPinning = new StringBuilder();
+                for (int i = 0; i < nodes; i++) {
+                    VmNumaNode vmNode = new VmNumaNode();
+                    vmNode.setId(Guid.newGuid());
+                    vmNode.setIndex(i);
+                    vmNode.setMemTotal(1024);
+                    vmNode.setNumaTuneMode(NumaTuneMode.STRICT);
+                    vmNode.setVdsNumaNodeList(new ArrayList<>(nodeIndices));
+                    List<Integer> vCpus = new ArrayList<>();
+                    for (int c = 0; c < vCpusPerNode; c++) {
+                        int vCpu = i * vCpusPerNode + c;
+                        vCpus.add(vCpu);
+                        if (cpuPinning.length() > 0) {
+                            cpuPinning.append('_');
+                        }
+                        cpuPinning.append(vCpu)
+                                .append('#')
+                                .append(i * threadsPerNode)
+                                .append('-')
+                                .append((i + 1) * threadsPerNode - 1);
+                    }
+                    vmNode.setCpuIds(vCpus);
+                    vmNodes.add(vmNode);
+                }
+
+                VM vm = new VM();
+                vm.setId(Guid.newGuid());
+                vm.setvNumaNodeList(vmNodes);
+                vm.setCpuPinning(cpuPinning.toString());
+                vms.add(vm);
+            }
+            Collections.shuffle(vms);
+        }
+    }
+}
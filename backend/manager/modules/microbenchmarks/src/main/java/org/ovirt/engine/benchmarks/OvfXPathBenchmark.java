@@ -0,0 +1,117 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.utils.ovf.xml.XmlDocument;
+import org.ovirt.engine.core.utils.ovf.xml.XmlNamespaceManager;
+import org.ovirt.engine.core.utils.ovf.xml.XmlNode;
+
+/**
+ * <p> Benchmark's reading an OVF through {@link XmlDocument} the way <code>OvfReader</code> does.</p>
+ * <p> The document mimics an OVF of a VM with the given number of devices, and the selections mimic the ones
+ * used to read the general data and the hardware section of the VM.<br/>
+ * <b>parseAndRead</b> parses the document and reads it, <b>read</b> only reads the already parsed document.</p>
+ *
+ * @see XmlDocument
+ */
+@BenchmarkMode(Mode.All)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OvfXPathBenchmark {
+
+    private static final String OVF_URI = "http://schemas.dmtf.org/ovf/envelope/1/";
+    private static final String RASD_URI =
+            "http://schemas.dmtf.org/wbem/wscim/1/cim-schema/2/CIM_ResourceAllocationSettingData";
+    private static final String VSSD_URI =
+            "http://schemas.dmtf.org/wbem/wscim/1/cim-schema/2/CIM_VirtualSystemSettingData";
+    private static final String XSI_URI = "http://www.w3.org/2001/XMLSchema-instance";
+
+    private static final String[] GENERAL_DATA_ELEMENTS =
+            { "Name", "Description", "Comment", "CreationDate", "ExportDate", "Origin", "IsStateless", "VmType" };
+
+    @Benchmark
+    public void parseAndRead(BenchmarkState state, Blackhole blackhole) throws Exception {
+        read(new XmlDocument(state.ovf), state.xmlns, blackhole);
+    }
+
+    @Benchmark
+    public void read(BenchmarkState state, Blackhole blackhole) {
+        read(state.document, state.xmlns, blackhole);
+    }
+
+    private static void read(XmlDocument document, XmlNamespaceManager xmlns, Blackhole blackhole) {
+        XmlNode content = document.selectSingleNode("//*/Content");
+        for (String element : GENERAL_DATA_ELEMENTS) {
+            blackhole.consume(content.selectSingleNode(element));
+        }
+        XmlNode hardwareSection = content.selectSingleNode("Section[@xsi:type=\"ovf:VirtualHardwareSection_Type\"]",
+                xmlns);
+        for (XmlNode item : hardwareSection.selectNodes("Item")) {
+            blackhole.consume(item.selectSingleNode("rasd:ResourceType", xmlns));
+            blackhole.consume(item.selectSingleNode("rasd:InstanceId", xmlns));
+            blackhole.consume(item.selectSingleNode("rasd:Address", xmlns));
+            blackhole.consume(item.selectSingleNode("BootOrder", xmlns));
+            blackhole.consume(item.selectSingleNode("IsPlugged", xmlns));
+            blackhole.consume(item.selectSingleNode("Alias", xmlns));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "256" })
+        private int devices;
+
+        private String ovf;
+        private XmlDocument document;
+        private XmlNamespaceManager xmlns;
+
+        @Setup
+        public void setup() throws Exception {
+            StringBuilder builder = new StringBuilder();
+            builder.append("<ovf:Envelope xmlns:ovf=\"").append(OVF_URI)
+                    .append("\" xmlns:rasd=\"").append(RASD_URI)
+                    .append("\" xmlns:vssd=\"").append(VSSD_URI)
+                    .append("\" xmlns:xsi=\"").append(XSI_URI)
+                    .append("\" ovf:version=\"4.4.0.0\">");
+            builder.append("<Content ovf:id=\"out\" xsi:type=\"ovf:VirtualSystem_Type\">");
+            for (String element : GENERAL_DATA_ELEMENTS) {
+                builder.append('<').append(element).append(">value</").append(element).append('>');
+            }
+            builder.append("<Section xsi:type=\"ovf:VirtualHardwareSection_Type\">");
+            for (int i = 0; i < devices; i++) {
+                builder.append("<Item>")
+                        .append("<rasd:ResourceType>").append(i % 2 == 0 ? 17 : 10).append("</rasd:ResourceType>")
+                        .append("<rasd:InstanceId>").append(UUID.randomUUID()).append("</rasd:InstanceId>")
+                        .append("<rasd:Address>{bus=0, controller=0, type=drive, target=0, unit=")
+                        .append(i).append("}</rasd:Address>")
+                        .append("<BootOrder>0</BootOrder>")
+                        .append("<IsPlugged>true</IsPlugged>")
+                        .append("<Alias>ua-").append(i).append("</Alias>")
+                        .append("</Item>");
+            }
+            builder.append("</Section></Content></ovf:Envelope>");
+            ovf = builder.toString();
+            document = new XmlDocument(ovf);
+
+            xmlns = new XmlNamespaceManager();
+            xmlns.addNamespace("ovf", OVF_URI);
+            xmlns.addNamespace("rasd", RASD_URI);
+            xmlns.addNamespace("vssd", VSSD_URI);
+            xmlns.addNamespace("xsi", XSI_URI);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsBrokerObjectsBuilder;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
+
+/**
+ * <p> Benchmark's the decoding of the VM statistics reported by <code>Host.getAllVmStats</code> of a host.</p>
+ * <p> Every VM is reported the way VDSM reports a running VM, with its numbers as strings,
+ * and is decoded the way the monitoring does it for every VM in every cycle.<br/>
+ * Run with <code>-prof gc</code> to see the memory allocated per decoded host.</p>
+ *
+ * @see VdsBrokerObjectsBuilder
+ */
+@BenchmarkMode(Mode.All)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VmStatsDecodingBenchmark {
+
+    @Benchmark
+    public void decode(BenchmarkState state, Blackhole blackhole) {
+        VdsBrokerObjectsBuilder builder = state.builder;
+        for (Map<String, Object> struct : state.vms) {
+            blackhole.consume(builder.buildVMDynamicData(struct, state.host));
+            blackhole.consume(builder.buildVMStatisticsData(struct));
+            blackhole.consume(builder.buildInterfaceStatisticsData(struct));
+            blackhole.consume(builder.buildVmBalloonInfo(struct));
+            blackhole.consume(builder.buildVmDiskStatistics(struct));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "100", "500" })
+        private int vmCount;
+
+        private final VdsBrokerObjectsBuilder builder = new VdsBrokerObjectsBuilder();
+        private final VDS host = new VDS();
+        private final List<Map<String, Object>> vms = new ArrayList<>();
+
+        @Setup
+        public void setUp() {
+            host.setHostName("host.example.com");
+            for (int i = 0; i < vmCount; i++) {
+                vms.add(createVm(i));
+            }
+        }
+
+        private static Map<String, Object> createVm(int index) {
+            Map<String, Object> struct = new HashMap<>();
+            struct.put(VdsProperties.vm_guid, Guid.newGuid().toString());
+            struct.put(VdsProperties.status, "Up");
+            struct.put(VdsProperties.statusTime, "4295234590");
+            struct.put(VdsProperties.elapsed_time, "86400.52");
+            struct.put(VdsProperties.utc_diff, "0");
+            struct.put(VdsProperties.monitorResponse, "0");
+            struct.put(VdsProperties.acpiEnable, "true");
+            struct.put(VdsProperties.session, "Unknown");
+            struct.put(VdsProperties.vm_host, "vm" + index);
+            struct.put(VdsProperties.GUEST_CPU_COUNT, 4);
+            struct.put(VdsProperties.cpu_sys, "0.53");
+            struct.put(VdsProperties.cpu_user, "2.47");
+            struct.put(VdsProperties.vm_usage_mem_percent, "37");
+            struct.put(VdsProperties.vm_migration_progress_percent, "0");
+            struct.put(VdsProperties.hash, "-1288396473");
+
+            Map<String, Object> memoryStats = new HashMap<>();
+            memoryStats.put(VdsProperties.vm_guest_mem_buffered, "89236");
+            memoryStats.put(VdsProperties.vm_guest_mem_cached, "1263400");
+            memoryStats.put(VdsProperties.vm_guest_mem_free, "2354584");
+            memoryStats.put(VdsProperties.vm_guest_mem_unused, "2198412");
+            struct.put(VdsProperties.vm_guest_mem_stats, memoryStats);
+
+            Map<String, Object> balloonInfo = new HashMap<>();
+            balloonInfo.put(VdsProperties.vm_balloon_cur, "4194304");
+            balloonInfo.put(VdsProperties.vm_balloon_max, "4194304");
+            balloonInfo.put(VdsProperties.vm_balloon_target, "4194304");
+            balloonInfo.put(VdsProperties.vm_balloon_min, "4194304");
+            struct.put(VdsProperties.vm_balloonInfo, balloonInfo);
+
+            Map<String, Object> network = new HashMap<>();
+            for (int i = 0; i < 2; i++) {
+                Map<String, Object> nic = new HashMap<>();
+                nic.put(VdsProperties.VM_INTERFACE_NAME, "vnet" + i);
+                nic.put(VdsProperties.MAC_ADDR, "56:6f:1a:2b:00:0" + i);
+                nic.put(VdsProperties.rx_total, "8412375561");
+                nic.put(VdsProperties.tx_total, "1245338764");
+                nic.put(VdsProperties.rx_dropped, "0");
+                nic.put(VdsProperties.tx_dropped, "0");
+                nic.put(VdsProperties.sample_time, "4295234.59");
+                nic.put(VdsProperties.INTERFACE_SPEED, "1000");
+                network.put("vnet" + i, nic);
+            }
+            struct.put(VdsProperties.VM_NETWORK, network);
+
+            Map<String, Object> disks = new HashMap<>();
+            for (int i = 0; i < 2; i++) {
+                Map<String, Object> disk = new HashMap<>();
+                disk.put(VdsProperties.image_group_id, Guid.newGuid().toString());
+                disk.put(VdsProperties.vm_disk_read_rate, "1024.0");
+                disk.put(VdsProperties.vm_disk_read_ops, "13");
+                disk.put(VdsProperties.vm_disk_write_rate, "40960.0");
+                disk.put(VdsProperties.vm_disk_write_ops, "21");
+                disk.put(VdsProperties.disk_true_size, "5368709120");
+                disk.put(VdsProperties.vm_disk_read_latency, "153450");
+                disk.put(VdsProperties.vm_disk_write_latency, "1201450");
+                disk.put(VdsProperties.vm_disk_flush_latency, "0");
+                disks.put("sd" + (char) ('a' + i), disk);
+            }
+            struct.put(VdsProperties.vm_disks, disks);
+            return struct;
+        }
+    }
+}
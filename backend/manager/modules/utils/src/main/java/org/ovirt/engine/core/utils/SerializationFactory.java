@@ -1,5 +1,7 @@
 package org.ovirt.engine.core.utils;
 
+import org.ovirt.engine.core.utils.serialization.json.CompressedJsonDeserializer;
+import org.ovirt.engine.core.utils.serialization.json.CompressedJsonSerializer;
 import org.ovirt.engine.core.utils.serialization.json.JsonObjectDeserializer;
 import org.ovirt.engine.core.utils.serialization.json.JsonObjectSerializer;
 
@@ -8,6 +10,9 @@ public class SerializationFactory {
 
     private static final JsonObjectSerializer serializer = new JsonObjectSerializer();
     private static final JsonObjectDeserializer deserializer = new JsonObjectDeserializer();
+    private static final CompressedJsonSerializer compressedSerializer = new CompressedJsonSerializer(serializer);
+    private static final CompressedJsonDeserializer compressedDeserializer =
+            new CompressedJsonDeserializer(deserializer);
 
     public static JsonObjectSerializer getSerializer() {
         return serializer;
@@ -16,4 +21,20 @@ public class SerializationFactory {
     public static JsonObjectDeserializer getDeserializer() {
         return deserializer;
     }
+
+    /**
+     * @return a serializer producing compact, possibly compressed, JSON content, to be read by the
+     *         {@link #getCompressedDeserializer()}
+     */
+    public static Serializer getCompressedSerializer() {
+        return compressedSerializer;
+    }
+
+    /**
+     * @return a deserializer reading content produced by both the {@link #getSerializer()} and the
+     *         {@link #getCompressedSerializer()}
+     */
+    public static Deserializer getCompressedDeserializer() {
+        return compressedDeserializer;
+    }
 }
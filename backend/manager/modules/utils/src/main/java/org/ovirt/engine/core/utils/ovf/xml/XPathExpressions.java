@@ -0,0 +1,77 @@
+package org.ovirt.engine.core.utils.ovf.xml;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.ovirt.engine.core.common.utils.Pair;
+
+/**
+ * Evaluates XPath expressions using compiled expressions that are cached per thread.
+ * <p>
+ * Creating an {@link XPathFactory} and compiling an expression is much more expensive than evaluating it, and the
+ * same few expressions are evaluated over and over while reading OVFs and domain XMLs. Compiled expressions are not
+ * thread safe, hence each thread keeps its own. Prefixes are resolved when an expression is compiled, so expressions
+ * are cached along with the namespaces they were compiled with.
+ */
+final class XPathExpressions {
+
+    private static final int MAX_CACHED_EXPRESSIONS = 512;
+
+    private static final ThreadLocal<XPathExpressions> INSTANCE = ThreadLocal.withInitial(XPathExpressions::new);
+
+    private final XPathFactory factory = XPathFactory.newInstance();
+    private final Map<Pair<String, Map<String, String>>, XPathExpression> expressions =
+            new LinkedHashMap<Pair<String, Map<String, String>>, XPathExpression>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Pair<String, Map<String, String>>, XPathExpression> eldest) {
+                    return size() > MAX_CACHED_EXPRESSIONS;
+                }
+            };
+
+    private XPathExpressions() {
+    }
+
+    /**
+     * Evaluates the given expression on the given item.
+     *
+     * @param item
+     *            the node or document to evaluate the expression on
+     * @param expression
+     *            the XPath expression
+     * @param namespaceManager
+     *            the namespaces used by the expression, may be null
+     * @param returnType
+     *            the expected result type, one of the {@link javax.xml.xpath.XPathConstants}
+     */
+    static Object evaluate(Object item, String expression, XmlNamespaceManager namespaceManager, QName returnType) {
+        try {
+            return INSTANCE.get().get(expression, namespaceManager).evaluate(item, returnType);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to evaluate xpath: " + expression, e);
+        }
+    }
+
+    private XPathExpression get(String expression, XmlNamespaceManager namespaceManager)
+            throws XPathExpressionException {
+        Map<String, String> namespaces =
+                namespaceManager != null ? namespaceManager.getNamespaces() : Collections.emptyMap();
+        Pair<String, Map<String, String>> key = new Pair<>(expression, namespaces);
+        XPathExpression compiled = expressions.get(key);
+        if (compiled == null) {
+            XPath xPath = factory.newXPath();
+            if (namespaceManager != null) {
+                xPath.setNamespaceContext(namespaceManager);
+            }
+            compiled = xPath.compile(expression);
+            expressions.put(key, compiled);
+        }
+        return compiled;
+    }
+}
@@ -10,13 +10,29 @@ import javax.xml.stream.XMLStreamWriter;
 
 public class XmlTextWriter {
 
+    /**
+     * Looking up the factory implementation is expensive, so it is done once. The factory is not modified after its
+     * creation and creating writers from it is safe from concurrent threads.
+     */
+    private static final XMLOutputFactory factory = XMLOutputFactory.newInstance();
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16 * 1024;
+
     private XMLStreamWriter writer;
     private StringWriter stream;
 
     public XmlTextWriter() {
-        stream = new StringWriter();
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param initialCapacity
+     *            the expected length of the produced XML, used to avoid growing the underlying buffer repeatedly
+     *            while writing large documents
+     */
+    public XmlTextWriter(int initialCapacity) {
+        stream = new StringWriter(initialCapacity);
         try {
-            XMLOutputFactory factory = XMLOutputFactory.newInstance();
             writer = factory.createXMLStreamWriter(stream);
             writer.writeStartDocument("UTF-8", "1.0");
         } catch (Exception e) {
@@ -0,0 +1,51 @@
+package org.ovirt.engine.core.utils.serialization.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+
+import org.ovirt.engine.core.utils.Deserializer;
+import org.ovirt.engine.core.utils.SerializationException;
+
+/**
+ * {@link Deserializer} implementation for content produced by the {@link CompressedJsonSerializer}.
+ * <p>
+ * Content that does not start with the {@link CompressedJsonSerializer#HEADER} is plain JSON, either because it was
+ * too small to be compressed or because it was written by the {@link JsonObjectSerializer}, and is passed as is to
+ * the {@link JsonObjectDeserializer}.
+ */
+public class CompressedJsonDeserializer implements Deserializer {
+
+    private final JsonObjectDeserializer jsonDeserializer;
+
+    public CompressedJsonDeserializer(JsonObjectDeserializer jsonDeserializer) {
+        this.jsonDeserializer = jsonDeserializer;
+    }
+
+    @Override
+    public <T extends Serializable> T deserialize(Object source, Class<T> type) throws SerializationException {
+        if (source == null) {
+            return null;
+        }
+        String content = source.toString();
+        if (content.startsWith(CompressedJsonSerializer.HEADER)) {
+            content = decompress(content);
+        }
+        return jsonDeserializer.deserialize(content, type);
+    }
+
+    private static String decompress(String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.US_ASCII);
+        int offset = CompressedJsonSerializer.HEADER.length();
+        try (InputStream in = new GZIPInputStream(
+                Base64.getDecoder().wrap(new ByteArrayInputStream(bytes, offset, bytes.length - offset)))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SerializationException(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.ovirt.engine.core.utils.serialization.json;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPOutputStream;
+
+import org.ovirt.engine.core.utils.SerializationException;
+import org.ovirt.engine.core.utils.Serializer;
+
+/**
+ * {@link Serializer} implementation that produces compact JSON content.
+ * <p>
+ * The payload is serialized by the {@link JsonObjectSerializer} without indentation. Content that is larger than
+ * {@link #COMPRESSION_THRESHOLD} characters is gzipped and Base64 encoded behind the {@link #HEADER}, which carries
+ * the version of the format. Smaller content is kept as plain JSON, since compressing it would hardly save anything.
+ * The result is read by the {@link CompressedJsonDeserializer}, which reads plain JSON content as well.
+ */
+public class CompressedJsonSerializer implements Serializer {
+
+    static final String HEADER = "gzjson1:";
+    static final int COMPRESSION_THRESHOLD = 512;
+
+    private final JsonObjectSerializer jsonSerializer;
+
+    public CompressedJsonSerializer(JsonObjectSerializer jsonSerializer) {
+        this.jsonSerializer = jsonSerializer;
+    }
+
+    @Override
+    public String serialize(Object payload) throws SerializationException {
+        String json = jsonSerializer.serializeCompact(payload);
+        if (json == null || json.length() < COMPRESSION_THRESHOLD) {
+            return json;
+        }
+        return compress(json);
+    }
+
+    private static String compress(String json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length() / 4);
+        try {
+            bytes.write(HEADER.getBytes(StandardCharsets.US_ASCII));
+            try (OutputStream out = new GZIPOutputStream(Base64.getEncoder().wrap(bytes))) {
+                out.write(json.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new SerializationException(e);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.US_ASCII);
+    }
+}
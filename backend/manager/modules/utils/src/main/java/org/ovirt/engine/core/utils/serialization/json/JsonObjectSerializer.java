@@ -10,7 +10,9 @@ import java.util.Map;
 
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectWriter;
 import org.codehaus.jackson.map.SerializationConfig.Feature;
+import org.codehaus.jackson.util.MinimalPrettyPrinter;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.AddVmTemplateParameters;
 import org.ovirt.engine.core.common.action.DestroyImageParameters;
@@ -35,6 +37,7 @@ public class JsonObjectSerializer implements Serializer {
 
     private static final ObjectMapper unformattedMapper = new ObjectMapper();
     private static final ObjectMapper formattedMapper;
+    private static final ObjectWriter compactWriter;
     static {
         formattedMapper = new ObjectMapper();
         formattedMapper.getSerializationConfig().addMixInAnnotations(Guid.class, JsonGuidMixIn.class);
@@ -60,6 +63,7 @@ public class JsonObjectSerializer implements Serializer {
 
         formattedMapper.configure(Feature.INDENT_OUTPUT, true);
         formattedMapper.enableDefaultTyping();
+        compactWriter = formattedMapper.writer(new MinimalPrettyPrinter());
     }
 
     @Override
@@ -71,6 +75,24 @@ public class JsonObjectSerializer implements Serializer {
         }
     }
 
+    /**
+     * Serializes the payload the same way as {@link #serialize(Object)}, but without indentation.
+     *
+     * @param payload
+     *            - The payload to be serialized.
+     * @return The serialized payload, or <code>null</code> if the payload is <code>null</code>.
+     */
+    public String serializeCompact(Object payload) throws SerializationException {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return compactWriter.writeValueAsString(payload);
+        } catch (IOException e) {
+            throw new org.apache.commons.lang.SerializationException(e);
+        }
+    }
+
     /**
      * Use the ObjectMapper to parse the payload to String.
      *
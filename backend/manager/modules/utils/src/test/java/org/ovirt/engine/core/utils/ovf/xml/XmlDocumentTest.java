@@ -0,0 +1,83 @@
+package org.ovirt.engine.core.utils.ovf.xml;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class XmlDocumentTest {
+
+    private static final String OVF_URI = "http://schemas.dmtf.org/ovf/envelope/1/";
+    private static final String RASD_URI =
+            "http://schemas.dmtf.org/wbem/wscim/1/cim-schema/2/CIM_ResourceAllocationSettingData";
+
+    private static final String XML = "<ovf:Envelope xmlns:ovf=\"" + OVF_URI + "\" xmlns:rasd=\"" + RASD_URI + "\">"
+            + "<Content><Name>vm</Name>"
+            + "<Section><Item><rasd:ResourceType>3</rasd:ResourceType></Item>"
+            + "<Item><rasd:ResourceType>10</rasd:ResourceType></Item></Section>"
+            + "</Content></ovf:Envelope>";
+
+    private XmlDocument document;
+    private XmlNamespaceManager xmlns;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        document = new XmlDocument(XML);
+        xmlns = new XmlNamespaceManager();
+        xmlns.addNamespace("ovf", OVF_URI);
+        xmlns.addNamespace("rasd", RASD_URI);
+    }
+
+    @Test
+    public void selectWithoutNamespaces() {
+        assertEquals("vm", document.selectSingleNode("//Content/Name").innerText);
+        assertNull(document.selectSingleNode("//Content/Description"));
+    }
+
+    @Test
+    public void selectWithNamespaces() {
+        assertNotNull(document.selectSingleNode("//ovf:Envelope", xmlns));
+        assertEquals(Arrays.asList("3", "10"), resourceTypes(document.selectNodes("//Item", xmlns)));
+    }
+
+    @Test
+    public void repeatedSelectionsAreEvaluatedOnTheGivenNode() {
+        XmlNodeList items = document.selectNodes("//Item");
+        assertEquals(Arrays.asList("3", "10"), resourceTypes(items));
+        assertEquals(Arrays.asList("3", "10"), resourceTypes(items));
+    }
+
+    @Test
+    public void sameExpressionWithDifferentNamespaces() {
+        assertNotNull(document.selectSingleNode("//x:Envelope", namespaceManager("x", OVF_URI)));
+        assertNull(document.selectSingleNode("//x:Envelope", namespaceManager("x", RASD_URI)));
+    }
+
+    @Test
+    public void namespaceAddedAfterSelection() {
+        XmlNamespaceManager manager = namespaceManager("x", RASD_URI);
+        assertNull(document.selectSingleNode("//x:Envelope", manager));
+        manager.addNamespace("x", OVF_URI);
+        assertNotNull(document.selectSingleNode("//x:Envelope", manager));
+    }
+
+    private List<String> resourceTypes(XmlNodeList items) {
+        List<String> resourceTypes = new ArrayList<>();
+        for (XmlNode item : items) {
+            resourceTypes.add(item.selectSingleNode("rasd:ResourceType", xmlns).innerText);
+        }
+        return resourceTypes;
+    }
+
+    private static XmlNamespaceManager namespaceManager(String prefix, String uri) {
+        XmlNamespaceManager manager = new XmlNamespaceManager();
+        manager.addNamespace(prefix, uri);
+        return manager;
+    }
+}
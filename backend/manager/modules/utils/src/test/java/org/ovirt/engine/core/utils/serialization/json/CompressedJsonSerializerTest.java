@@ -0,0 +1,65 @@
+package org.ovirt.engine.core.utils.serialization.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.commons.lang.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.action.ActionParametersBase;
+import org.ovirt.engine.core.common.action.ActionType;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Tests for {@link CompressedJsonSerializer} and {@link CompressedJsonDeserializer}.
+ */
+public class CompressedJsonSerializerTest {
+
+    private final JsonObjectSerializer jsonSerializer = new JsonObjectSerializer();
+    private final CompressedJsonSerializer serializer = new CompressedJsonSerializer(jsonSerializer);
+    private final CompressedJsonDeserializer deserializer =
+            new CompressedJsonDeserializer(new JsonObjectDeserializer());
+
+    @Test
+    public void nullPayload() {
+        assertNull(serializer.serialize(null));
+        assertNull(deserializer.deserialize(null, ActionParametersBase.class));
+    }
+
+    @Test
+    public void smallPayloadIsNotCompressed() {
+        String serialized = serializer.serialize("payload");
+        assertEquals("\"payload\"", serialized);
+        assertEquals("payload", deserializer.deserialize(serialized, String.class));
+    }
+
+    @Test
+    public void largePayloadIsCompressed() {
+        ActionParametersBase params = createParameters();
+        String serialized = serializer.serialize(params);
+        assertTrue(serialized.startsWith(CompressedJsonSerializer.HEADER));
+        assertTrue(serialized.length() < jsonSerializer.serialize(params).length());
+        assertParameters(params, deserializer.deserialize(serialized, ActionParametersBase.class));
+    }
+
+    @Test
+    public void plainJsonIsRead() {
+        ActionParametersBase params = createParameters();
+        String serialized = jsonSerializer.serialize(params);
+        assertParameters(params, deserializer.deserialize(serialized, ActionParametersBase.class));
+    }
+
+    private static ActionParametersBase createParameters() {
+        ActionParametersBase params = new ActionParametersBase();
+        params.setCorrelationId(StringUtils.repeat("correlation", 100));
+        params.setJobId(Guid.newGuid());
+        params.setParentCommand(ActionType.AddVm);
+        return params;
+    }
+
+    private static void assertParameters(ActionParametersBase expected, ActionParametersBase actual) {
+        assertEquals(expected.getCorrelationId(), actual.getCorrelationId());
+        assertEquals(expected.getJobId(), actual.getJobId());
+        assertEquals(expected.getParentCommand(), actual.getParentCommand());
+    }
+}
@@ -0,0 +1,161 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.compat.Guid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps an in-memory view of the hosts of every cluster, so the scheduler can read them without going to the
+ * database.
+ * <p>
+ * The view is fed by the {@link VdsManager} of every host: whenever it loads the host from the database at the
+ * beginning of a monitoring cycle, and whenever it saves the dynamic data or the statistics of the host. Changes that
+ * are written to the database directly are therefore seen once the host is refreshed next.
+ * <p>
+ * The hosts of a cluster are kept in an immutable snapshot that is replaced as a whole when one of them changes, so a
+ * snapshot is a consistent view of the cluster and can be read without locking. The hosts are kept as private copies
+ * and every read gets copies of its own, which it may change freely.
+ */
+@Singleton
+public class ClusterResourceView {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterResourceView.class);
+
+    private final Map<Guid, ClusterSnapshot> snapshots = new HashMap<>();
+    private final Map<Guid, Guid> clusterIdByHostId = new HashMap<>();
+    private long version;
+
+    /**
+     * Stores the given state of a host, moving it to its new cluster if it was moved.
+     */
+    public void update(VDS host) {
+        VDS copy;
+        try {
+            copy = copy(host);
+        } catch (IOException | ClassNotFoundException e) {
+            log.error("Failed to copy host '{}' to the cluster resource view: {}", host.getName(), e.getMessage());
+            log.debug("Exception", e);
+            remove(host.getId());
+            return;
+        }
+
+        synchronized (this) {
+            Guid previousClusterId = clusterIdByHostId.put(host.getId(), host.getClusterId());
+            version++;
+            if (previousClusterId != null && !previousClusterId.equals(host.getClusterId())) {
+                snapshots.computeIfPresent(previousClusterId, (id, snapshot) -> snapshot.without(host.getId(), version));
+            }
+            snapshots.compute(host.getClusterId(),
+                    (id, snapshot) -> (snapshot == null ? new ClusterSnapshot() : snapshot).with(copy, version));
+        }
+    }
+
+    /**
+     * Removes the given host from the view.
+     */
+    public synchronized void remove(Guid hostId) {
+        Guid clusterId = clusterIdByHostId.remove(hostId);
+        if (clusterId != null) {
+            version++;
+            snapshots.computeIfPresent(clusterId, (id, snapshot) -> snapshot.without(hostId, version));
+        }
+    }
+
+    /**
+     * Returns the current snapshot of the hosts of the given cluster, or {@code null} if no host of the cluster was
+     * ever stored.
+     */
+    public synchronized ClusterSnapshot getSnapshot(Guid clusterId) {
+        return snapshots.get(clusterId);
+    }
+
+    private static VDS copy(VDS host) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(buffer)) {
+            objectOut.writeObject(host);
+        }
+
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray())) {
+            @Override
+            protected Class<?> resolveClass(ObjectStreamClass description)
+                    throws IOException, ClassNotFoundException {
+                try {
+                    return Class.forName(description.getName(),
+                            false,
+                            Thread.currentThread().getContextClassLoader());
+                } catch (ClassNotFoundException exception) {
+                    return super.resolveClass(description);
+                }
+            }
+        }) {
+            return (VDS) objectIn.readObject();
+        }
+    }
+
+    /**
+     * The hosts of a cluster at a certain version of the view.
+     */
+    public static class ClusterSnapshot {
+        private final long version;
+        private final Map<Guid, VDS> hosts;
+
+        private ClusterSnapshot() {
+            this(0, Collections.emptyMap());
+        }
+
+        private ClusterSnapshot(long version, Map<Guid, VDS> hosts) {
+            this.version = version;
+            this.hosts = hosts;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Returns copies of the hosts of the cluster that have the given status.
+         */
+        public List<VDS> getHosts(VDSStatus status) {
+            return hosts.values()
+                    .stream()
+                    .filter(host -> host.getStatus() == status)
+                    .map(host -> {
+                        try {
+                            return copy(host);
+                        } catch (IOException | ClassNotFoundException e) {
+                            // the host was copied once already when it was stored
+                            throw new IllegalStateException(e);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        }
+
+        private ClusterSnapshot with(VDS host, long version) {
+            Map<Guid, VDS> newHosts = new HashMap<>(hosts);
+            newHosts.put(host.getId(), host);
+            return new ClusterSnapshot(version, Collections.unmodifiableMap(newHosts));
+        }
+
+        private ClusterSnapshot without(Guid hostId, long version) {
+            Map<Guid, VDS> newHosts = new HashMap<>(hosts);
+            newHosts.remove(hostId);
+            return new ClusterSnapshot(version, Collections.unmodifiableMap(newHosts));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.VdcObjectType;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Keeps track of the VMs and hosts that changed, so clients that refresh their view periodically can ask for the
+ * entities that changed since their previous refresh instead of fetching all of them again.
+ * <p>
+ * Every change gets a version from a single counter, and the version of the latest change of every entity is kept.
+ * The counter starts from the time the engine started, so versions handed out before a restart are always older than
+ * the versions of the running engine and are answered with {@code null}, meaning the changes are unknown. Changes are
+ * forgotten after about an hour, and versions older than the forgotten changes are answered with {@code null} too.
+ * <p>
+ * A change must be reported after it is written to the database: a client that got a version and then read the
+ * database will see the change again in its next refresh, which is harmless, but a change reported before it is
+ * committed might be missed.
+ */
+@Singleton
+public class EntityChangeTracker {
+
+    private static final long PRUNE_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+    /** Leaves room for about a million changes per millisecond the engine was down between restarts */
+    private static final int START_VERSION_SHIFT = 20;
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() << START_VERSION_SHIFT);
+    private final Map<VdcObjectType, Map<Guid, Long>> changes = new EnumMap<>(VdcObjectType.class);
+    private volatile long oldestVersion = version.get();
+    private long pruneVersion = version.get();
+    private long pruneTime = System.currentTimeMillis();
+
+    public EntityChangeTracker() {
+        changes.put(VdcObjectType.VM, new ConcurrentHashMap<>());
+        changes.put(VdcObjectType.VDS, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Returns whether changes of entities of the given type are tracked.
+     */
+    public boolean isTracked(VdcObjectType type) {
+        return changes.containsKey(type);
+    }
+
+    /**
+     * Reports a change of the given entity, empty ids and entities of types that are not tracked are ignored.
+     */
+    public void changed(VdcObjectType type, Guid id) {
+        Map<Guid, Long> entityChanges = changes.get(type);
+        if (entityChanges != null && !Guid.isNullOrEmpty(id)) {
+            entityChanges.put(id, version.incrementAndGet());
+        }
+    }
+
+    /**
+     * Reports a change of the given entities, using a single version for all of them.
+     */
+    public void changed(VdcObjectType type, Collection<Guid> ids) {
+        Map<Guid, Long> entityChanges = changes.get(type);
+        if (entityChanges != null && !ids.isEmpty()) {
+            long changeVersion = version.incrementAndGet();
+            ids.forEach(id -> entityChanges.put(id, changeVersion));
+        }
+    }
+
+    /**
+     * Returns the version of the latest change, to be passed to {@link #getChangedSince(VdcObjectType, long)} in
+     * order to get the changes that follow it. The version must be taken before the entities are read.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns the ids of the entities of the given type that changed after the given version, or {@code null} when
+     * these changes are not known.
+     */
+    public Set<Guid> getChangedSince(VdcObjectType type, long sinceVersion) {
+        Map<Guid, Long> entityChanges = changes.get(type);
+        pruneIfNeeded();
+        if (entityChanges == null || sinceVersion < oldestVersion || sinceVersion > version.get()) {
+            return null;
+        }
+
+        Set<Guid> changedIds = new HashSet<>();
+        entityChanges.forEach((id, changeVersion) -> {
+            if (changeVersion > sinceVersion) {
+                changedIds.add(id);
+            }
+        });
+        return changedIds;
+    }
+
+    private synchronized void pruneIfNeeded() {
+        long now = System.currentTimeMillis();
+        if (now - pruneTime < PRUNE_INTERVAL) {
+            return;
+        }
+
+        // the changes that happened up to the previous pruning are forgotten, so the version they ended at becomes
+        // the oldest version for which changes are known
+        long pruneBelow = pruneVersion;
+        oldestVersion = pruneBelow;
+        changes.values().forEach(entityChanges -> entityChanges.values().removeIf(v -> v <= pruneBelow));
+        pruneVersion = version.get();
+        pruneTime = now;
+    }
+}
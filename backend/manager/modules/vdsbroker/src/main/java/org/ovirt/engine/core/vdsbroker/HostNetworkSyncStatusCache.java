@@ -0,0 +1,245 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VdsStatic;
+import org.ovirt.engine.core.common.businessentities.network.HostNetworkQos;
+import org.ovirt.engine.core.common.businessentities.network.Network;
+import org.ovirt.engine.core.common.businessentities.network.NetworkCluster;
+import org.ovirt.engine.core.common.businessentities.network.VdsNetworkInterface;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.ClusterDao;
+import org.ovirt.engine.core.dao.VdsStaticDao;
+import org.ovirt.engine.core.dao.network.InterfaceDao;
+import org.ovirt.engine.core.dao.network.NetworkDao;
+
+/**
+ * Keeps which networks of every host are out of sync with their definitions, so the sync status of a cluster does not
+ * have to be calculated again for all its hosts whenever it is asked for.
+ * <p>
+ * The status of a host is calculated when the network topology it reports is persisted, and is kept as long as the
+ * definitions it was calculated for, i.e. the networks of the cluster, their QoS and the switch type of the cluster,
+ * stay the same. The definitions are compared with the ones in the database whenever the status of a cluster is
+ * asked for, and the status of all the hosts of the cluster is calculated again once they changed.
+ */
+@Singleton
+public class HostNetworkSyncStatusCache {
+
+    /** Above this number of hosts to calculate, the interfaces of the whole cluster are loaded at once */
+    private static final int MAX_HOSTS_LOADED_SEPARATELY = 10;
+
+    private final NetworkImplementationDetailsUtils networkImplementationDetailsUtils;
+    private final NetworkDao networkDao;
+    private final ClusterDao clusterDao;
+    private final VdsStaticDao vdsStaticDao;
+    private final InterfaceDao interfaceDao;
+
+    private final AtomicLong definitionsVersions = new AtomicLong();
+    private final Map<Guid, ClusterNetworks> clusters = new ConcurrentHashMap<>();
+    private final Map<Guid, HostNetworkSyncStatus> hosts = new ConcurrentHashMap<>();
+
+    @Inject
+    public HostNetworkSyncStatusCache(NetworkImplementationDetailsUtils networkImplementationDetailsUtils,
+            NetworkDao networkDao,
+            ClusterDao clusterDao,
+            VdsStaticDao vdsStaticDao,
+            InterfaceDao interfaceDao) {
+        this.networkImplementationDetailsUtils = Objects.requireNonNull(networkImplementationDetailsUtils);
+        this.networkDao = Objects.requireNonNull(networkDao);
+        this.clusterDao = Objects.requireNonNull(clusterDao);
+        this.vdsStaticDao = Objects.requireNonNull(vdsStaticDao);
+        this.interfaceDao = Objects.requireNonNull(interfaceDao);
+    }
+
+    /**
+     * Returns the hosts of the given cluster that have networks out of sync, their names by their ids, ordered by
+     * name.
+     */
+    public Map<Guid, String> getOutOfSyncHosts(Guid clusterId) {
+        ClusterNetworks clusterNetworks = loadClusterNetworks(clusterId);
+        if (clusterNetworks == null) {
+            return new LinkedHashMap<>();
+        }
+
+        List<VdsStatic> clusterHosts = vdsStaticDao.getAllForCluster(clusterId);
+        Map<Guid, HostNetworkSyncStatus> statuses = new HashMap<>();
+        Map<Guid, HostNetworkSyncStatus> staleStatuses = new HashMap<>();
+        for (VdsStatic host : clusterHosts) {
+            HostNetworkSyncStatus status = hosts.get(host.getId());
+            if (status != null && status.isCalculatedFor(clusterNetworks)) {
+                statuses.put(host.getId(), status);
+            } else {
+                // the stale status is kept to detect that the host was updated while it is calculated
+                staleStatuses.put(host.getId(), status);
+            }
+        }
+        if (!staleStatuses.isEmpty()) {
+            statuses.putAll(calculate(clusterId, staleStatuses, clusterNetworks));
+        }
+
+        return clusterHosts.stream()
+                .filter(host -> statuses.get(host.getId()).isOutOfSync())
+                .sorted(Comparator.comparing(VdsStatic::getName))
+                .collect(Collectors.toMap(VdsStatic::getId, VdsStatic::getName, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    /**
+     * Calculates the sync status of the networks the given host reports. The status should be stored by
+     * {@link #update(Guid, HostNetworkSyncStatus)} once the reported topology is committed.
+     */
+    public HostNetworkSyncStatus calculate(VDS host) {
+        ClusterNetworks clusterNetworks = loadClusterNetworks(host.getClusterId());
+        if (clusterNetworks == null) {
+            return new HostNetworkSyncStatus(null, new ArrayList<>());
+        }
+        return new HostNetworkSyncStatus(clusterNetworks, getOutOfSyncNetworks(host.getInterfaces(), clusterNetworks));
+    }
+
+    /**
+     * Stores the sync status calculated for the networks the given host reported.
+     */
+    public void update(Guid hostId, HostNetworkSyncStatus status) {
+        hosts.put(hostId, status);
+    }
+
+    /**
+     * Forgets the sync status of the given host, so it is calculated again when it is next asked for.
+     */
+    public void invalidate(Guid hostId) {
+        // a new status object rather than a removal, so a calculation that started before is not stored
+        hosts.put(hostId, new HostNetworkSyncStatus(null, new ArrayList<>()));
+    }
+
+    private Map<Guid, HostNetworkSyncStatus> calculate(Guid clusterId,
+            Map<Guid, HostNetworkSyncStatus> staleStatuses,
+            ClusterNetworks clusterNetworks) {
+        Map<Guid, List<VdsNetworkInterface>> interfacesByHost;
+        if (staleStatuses.size() > MAX_HOSTS_LOADED_SEPARATELY) {
+            interfacesByHost = interfaceDao.getAllInterfacesByClusterId(clusterId)
+                    .stream()
+                    .collect(Collectors.groupingBy(VdsNetworkInterface::getVdsId));
+        } else {
+            interfacesByHost = new HashMap<>();
+            staleStatuses.keySet().forEach(hostId -> interfacesByHost.put(hostId,
+                    interfaceDao.getAllInterfacesForVds(hostId)));
+        }
+
+        Map<Guid, HostNetworkSyncStatus> statuses = new HashMap<>();
+        staleStatuses.forEach((hostId, staleStatus) -> {
+            HostNetworkSyncStatus status = new HostNetworkSyncStatus(clusterNetworks,
+                    getOutOfSyncNetworks(interfacesByHost.getOrDefault(hostId, new ArrayList<>()), clusterNetworks));
+            hosts.compute(hostId, (id, current) -> current == staleStatus ? status : current);
+            statuses.put(hostId, status);
+        });
+        return statuses;
+    }
+
+    private List<String> getOutOfSyncNetworks(Collection<VdsNetworkInterface> interfaces,
+            ClusterNetworks clusterNetworks) {
+        return interfaces.stream()
+                .filter(iface -> {
+                    Network network = clusterNetworks.networksByName.get(iface.getNetworkName());
+                    return network != null && networkImplementationDetailsUtils.isNetworkOutOfSync(iface,
+                            network,
+                            clusterNetworks.cluster,
+                            clusterNetworks.qosByNetworkId.get(network.getId()));
+                })
+                .map(VdsNetworkInterface::getNetworkName)
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private ClusterNetworks loadClusterNetworks(Guid clusterId) {
+        Cluster cluster = clusterDao.get(clusterId);
+        if (cluster == null) {
+            clusters.remove(clusterId);
+            return null;
+        }
+
+        Map<String, Network> networksByName = networkDao.getNetworksForCluster(clusterId);
+        ClusterNetworks loaded = new ClusterNetworks(cluster,
+                networksByName,
+                networkImplementationDetailsUtils.calcQosByNetworkIdMap(networksByName.values()));
+        return clusters.compute(clusterId, (id, cached) -> {
+            if (cached != null && cached.hasSameDefinitions(loaded)) {
+                return cached;
+            }
+            loaded.version = definitionsVersions.incrementAndGet();
+            return loaded;
+        });
+    }
+
+    /**
+     * The definitions the sync status of the networks of the hosts of a cluster depends on.
+     */
+    private static class ClusterNetworks {
+        private final Cluster cluster;
+        private final Map<String, Network> networksByName;
+        private final Map<Guid, NetworkCluster> networkClusters;
+        private final Map<Guid, HostNetworkQos> qosByNetworkId;
+        private long version;
+
+        private ClusterNetworks(Cluster cluster,
+                Map<String, Network> networksByName,
+                Map<Guid, HostNetworkQos> qosByNetworkId) {
+            this.cluster = cluster;
+            this.networksByName = networksByName;
+            this.qosByNetworkId = qosByNetworkId;
+            // the attachments of the networks to the cluster are not part of the equality of the networks
+            networkClusters = new HashMap<>();
+            networksByName.values().forEach(network -> networkClusters.put(network.getId(), network.getCluster()));
+        }
+
+        private boolean hasSameDefinitions(ClusterNetworks other) {
+            return Objects.equals(cluster.getId(), other.cluster.getId())
+                    && Objects.equals(cluster.getRequiredSwitchTypeForCluster(),
+                            other.cluster.getRequiredSwitchTypeForCluster())
+                    && networksByName.equals(other.networksByName)
+                    && networkClusters.equals(other.networkClusters)
+                    && qosByNetworkId.equals(other.qosByNetworkId);
+        }
+    }
+
+    /**
+     * The networks of a host that are out of sync, and the definitions they were compared with.
+     */
+    public static class HostNetworkSyncStatus {
+        private final ClusterNetworks clusterNetworks;
+        private final List<String> outOfSyncNetworks;
+
+        private HostNetworkSyncStatus(ClusterNetworks clusterNetworks, List<String> outOfSyncNetworks) {
+            this.clusterNetworks = clusterNetworks;
+            this.outOfSyncNetworks = outOfSyncNetworks;
+        }
+
+        public List<String> getOutOfSyncNetworks() {
+            return outOfSyncNetworks;
+        }
+
+        public boolean isOutOfSync() {
+            return !outOfSyncNetworks.isEmpty();
+        }
+
+        private boolean isCalculatedFor(ClusterNetworks current) {
+            return clusterNetworks != null
+                    && clusterNetworks.cluster.getId().equals(current.cluster.getId())
+                    && clusterNetworks.version == current.version;
+        }
+    }
+}
@@ -5,8 +5,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -24,9 +22,7 @@ import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.ClusterDao;
 import org.ovirt.engine.core.dao.VdsStaticDao;
 import org.ovirt.engine.core.dao.network.DnsResolverConfigurationDao;
-import org.ovirt.engine.core.dao.network.InterfaceDao;
 import org.ovirt.engine.core.dao.network.NetworkAttachmentDao;
-import org.ovirt.engine.core.dao.network.NetworkDao;
 import org.ovirt.engine.core.utils.NetworkInSyncWithVdsNetworkInterface;
 
 @Singleton
@@ -36,8 +32,6 @@ public class NetworkImplementationDetailsUtils {
     private final EffectiveHostNetworkQos effectiveHostNetworkQos;
     private final VdsStaticDao vdsStaticDao;
     private final ClusterDao clusterDao;
-    private final InterfaceDao interfaceDao;
-    private final NetworkDao networkDao;
     private final DnsResolverConfigurationDao dnsResolverConfigurationDao;
     private final CalculateBaseNic calculateBaseNic;
 
@@ -46,8 +40,6 @@ public class NetworkImplementationDetailsUtils {
             NetworkAttachmentDao networkAttachmentDao,
             VdsStaticDao vdsStaticDao,
             ClusterDao clusterDao,
-            InterfaceDao interfaceDao,
-            NetworkDao networkDao,
             DnsResolverConfigurationDao dnsResolverConfigurationDao,
             CalculateBaseNic calculateBaseNic,
             DefaultRouteUtil defaultRouteUtil) {
@@ -55,31 +47,16 @@ public class NetworkImplementationDetailsUtils {
         this.effectiveHostNetworkQos = Objects.requireNonNull(effectiveHostNetworkQos);
         this.vdsStaticDao = Objects.requireNonNull(vdsStaticDao);
         this.clusterDao = Objects.requireNonNull(clusterDao);
-        this.interfaceDao = Objects.requireNonNull(interfaceDao);
-        this.networkDao = Objects.requireNonNull(networkDao);
         this.dnsResolverConfigurationDao = Objects.requireNonNull(dnsResolverConfigurationDao);
         this.calculateBaseNic = Objects.requireNonNull(calculateBaseNic);
         this.networkAttachmentDao = Objects.requireNonNull(networkAttachmentDao);
         this.defaultRouteUtil = Objects.requireNonNull(defaultRouteUtil);
     }
 
-    public Set<VdsNetworkInterface> getAllInterfacesOutOfSync(Guid clusterId) {
-        Map<String, Network> clusterNetworksByName = networkDao.getNetworksForCluster(clusterId);
-        Map<Guid, HostNetworkQos> qosByNetworkId = calcQosByNetworkIdMap(clusterNetworksByName.values());
-        Cluster cluster = clusterDao.get(clusterId);
-        return interfaceDao.getAllInterfacesByClusterId(clusterId)
-                .stream()
-                .filter(iface -> clusterNetworksByName.get(iface.getNetworkName()) != null)
-                .filter(iface -> {
-                    Network network = clusterNetworksByName.get(iface.getNetworkName());
-                    HostNetworkQos qos = qosByNetworkId.get(network.getId());
-                    return isNetworkOutOfSync(iface, network, cluster, qos);
-                })
-                .collect(Collectors.toSet());
-
-    }
-
-    private Map<Guid, HostNetworkQos> calcQosByNetworkIdMap(Collection<Network> networks) {
+    /**
+     * Returns the host network QoS of every network that has one, by the id of the network.
+     */
+    public Map<Guid, HostNetworkQos> calcQosByNetworkIdMap(Collection<Network> networks) {
         Map<Guid, HostNetworkQos> qosByNetworkId = new HashMap<>();
         List<HostNetworkQos> allQos = effectiveHostNetworkQos.getAll();
         networks.forEach(net -> {
@@ -89,7 +66,11 @@ public class NetworkImplementationDetailsUtils {
         return qosByNetworkId;
     }
 
-    private boolean isNetworkOutOfSync(VdsNetworkInterface iface, Network network, Cluster cluster, HostNetworkQos hostNetworkQos) {
+    /**
+     * Returns whether the given managed network is configured on the given network device differently than it is
+     * defined.
+     */
+    public boolean isNetworkOutOfSync(VdsNetworkInterface iface, Network network, Cluster cluster, HostNetworkQos hostNetworkQos) {
         return isNetworkOutOfSync(calculateNetworkImplementationDetails(iface, network, cluster, hostNetworkQos));
     }
 
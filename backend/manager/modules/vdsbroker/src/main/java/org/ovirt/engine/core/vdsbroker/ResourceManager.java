@@ -1,34 +1,46 @@
 package org.ovirt.engine.core.vdsbroker;
 
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Constructor;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.apache.commons.lang.StringUtils;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.common.BackendService;
+import org.ovirt.engine.core.common.businessentities.Cluster;
 import org.ovirt.engine.core.common.businessentities.IVdsEventListener;
 import org.ovirt.engine.core.common.businessentities.VDS;
 import org.ovirt.engine.core.common.businessentities.VDSStatus;
 import org.ovirt.engine.core.common.businessentities.VM;
 import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.businessentities.VmDevice;
 import org.ovirt.engine.core.common.businessentities.VmDynamic;
 import org.ovirt.engine.core.common.businessentities.VmExitReason;
 import org.ovirt.engine.core.common.businessentities.VmExitStatus;
 import org.ovirt.engine.core.common.businessentities.VmPauseStatus;
+import org.ovirt.engine.core.common.businessentities.VmStatic;
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
 import org.ovirt.engine.core.common.config.Config;
@@ -47,11 +59,15 @@ import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogDirector;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogable;
 import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AuditLogableImpl;
+import org.ovirt.engine.core.dao.ClusterDao;
 import org.ovirt.engine.core.dao.VdsDao;
+import org.ovirt.engine.core.dao.VmDeviceDao;
 import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.dao.VmStaticDao;
 import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
 import org.ovirt.engine.core.di.Injector;
 import org.ovirt.engine.core.utils.ReflectionUtils;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.utils.threadpool.ThreadPools;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.FutureVDSCommand;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsCommandExecutor;
@@ -62,15 +78,25 @@ import org.slf4j.LoggerFactory;
 
 @InvocationLogger
 @Singleton
-public class ResourceManager implements BackendService {
+public class ResourceManager implements BackendService, ResourceManagerMXBean {
 
     private final Map<Guid, Set<Guid>> vdsAndVmsList = new ConcurrentHashMap<>();
     private final Map<Guid, VdsManager> vdsManagersDict = new ConcurrentHashMap<>();
     private final Set<Guid> asyncRunningVms =
             Collections.newSetFromMap(new ConcurrentHashMap<>());
     private final ConcurrentHashMap<Guid, VmManager> vmManagers = new ConcurrentHashMap<>();
+    private final Set<Guid> hostsMonitoredSinceStart = ConcurrentHashMap.newKeySet();
+    private volatile boolean firstMonitoringCycleFinished;
+    private volatile int vmManagersToWarmUp;
+    private volatile int warmedUpVmManagers;
+    private List<Guid> vmIdsToWarmUp;
+    private long startTime;
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
 
     private static final String VDSCommandPrefix = "VDSCommand";
+    static final int WARM_UP_BATCH_SIZE = 1000;
 
     private static final Logger log = LoggerFactory.getLogger(ResourceManager.class);
     private int parallelism = Config.getValue(ConfigValues.EventProcessingPoolSize);
@@ -97,20 +123,131 @@ public class ResourceManager implements BackendService {
     @Inject
     private VdsManagerFactory vdsManagerFactory;
 
+    @Inject
+    private VmStaticDao vmStaticDao;
+
+    @Inject
+    private VmDeviceDao vmDeviceDao;
+
+    @Inject
+    private ClusterDao clusterDao;
+
     @PostConstruct
     private void init() {
         log.info("Start initializing {}", getClass().getSimpleName());
+        startTime = System.nanoTime();
         populateVdsAndVmsList();
 
         // Populate the VDS dictionary
-        final List<VDS> allVdsList = hostDao.getAll();
-        for (VDS curVds : allVdsList) {
-            addVds(curVds, true, false);
+        Queue<VDS> hosts = new ConcurrentLinkedQueue<>(hostDao.getAll());
+        int concurrency = Math.min(hosts.size(), Config.<Integer> getValue(ConfigValues.ServicesStartupParallelism));
+        if (concurrency > 1) {
+            // the host managers are created concurrently, since each of them sets up the connection to its host
+            Callable<Void> worker = () -> {
+                addQueuedHosts(hosts);
+                return null;
+            };
+            ThreadPoolUtil.invokeAll(Collections.nCopies(concurrency, worker));
+        } else {
+            addQueuedHosts(hosts);
         }
 
+        vmIdsToWarmUp = vdsAndVmsList.values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toList());
+        vmManagersToWarmUp = vmIdsToWarmUp.size();
+        registerInJmx();
+
         log.info("Finished initializing {}", getClass().getSimpleName());
     }
 
+    private void registerInJmx() {
+        try {
+            objectName = new ObjectName("ResourceManager:type=" + ResourceManager.class.getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            log.warn("Failed to register the resource manager monitoring in JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+            objectName = null;
+        }
+    }
+
+    @PreDestroy
+    private void destroy() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            platformMBeanServer.unregisterMBean(objectName);
+        } catch (Exception e) {
+            log.warn("Failed to unregister the resource manager monitoring from JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    /**
+     * Creates the managers of the given VMs from data loaded in bulk, instead of loading the data of every VM on its
+     * own once the VM is first reported by the monitoring. Managers the monitoring created meanwhile are kept.
+     */
+    void warmUpVmManagers(List<Guid> vmIds) {
+        Map<Guid, Cluster> clusters = clusterDao.getAll().stream()
+                .collect(Collectors.toMap(Cluster::getId, Function.identity()));
+        for (int from = 0; from < vmIds.size(); from += WARM_UP_BATCH_SIZE) {
+            List<Guid> batch = vmIds.subList(from, Math.min(from + WARM_UP_BATCH_SIZE, vmIds.size()));
+            Map<Guid, List<VmDevice>> devices = vmDeviceDao.getVmDevicesByVmIds(batch).stream()
+                    .collect(Collectors.groupingBy(VmDevice::getVmId));
+            for (VmStatic vmStatic : vmStaticDao.getByIds(batch)) {
+                Cluster cluster = clusters.get(vmStatic.getClusterId());
+                if (cluster != null) {
+                    vmManagers.computeIfAbsent(vmStatic.getId(), vmId -> Injector.injectMembers(new VmManager(
+                            vmStatic, cluster, devices.getOrDefault(vmId, Collections.emptyList()))));
+                }
+            }
+            warmedUpVmManagers = Math.min(from + WARM_UP_BATCH_SIZE, vmIds.size());
+            log.info("Created {} of {} VM managers", warmedUpVmManagers, vmManagersToWarmUp);
+        }
+    }
+
+    @Override
+    public int getVmManagersToWarmUp() {
+        return vmManagersToWarmUp;
+    }
+
+    @Override
+    public int getWarmedUpVmManagers() {
+        return warmedUpVmManagers;
+    }
+
+    @Override
+    public int getVmManagersWarmUpProgress() {
+        return vmManagersToWarmUp == 0 ? 100 : warmedUpVmManagers * 100 / vmManagersToWarmUp;
+    }
+
+    /**
+     * Reports that a cycle of VM monitoring completed on the given host, or was skipped since the VMs of the host are
+     * not monitored in its status, in order to log how long it took since the engine started until the VMs of all the
+     * hosts were monitored.
+     */
+    public void vmsMonitoringCycleFinished(Guid vdsId) {
+        if (firstMonitoringCycleFinished || !hostsMonitoredSinceStart.add(vdsId)) {
+            return;
+        }
+        if (hostsMonitoredSinceStart.containsAll(vdsManagersDict.keySet())) {
+            firstMonitoringCycleFinished = true;
+            log.info("The VMs of all the {} hosts were monitored {} seconds after the engine started",
+                    hostsMonitoredSinceStart.size(),
+                    TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime));
+        }
+    }
+
+    private void addQueuedHosts(Queue<VDS> hosts) {
+        VDS host;
+        while ((host = hosts.poll()) != null) {
+            addVds(host, true, false);
+        }
+    }
+
     private void populateVdsAndVmsList() {
         final List<VmDynamic> vms = vmDynamicDao.getAll();
         vdsAndVmsList.putAll(vms.stream()
@@ -202,8 +339,27 @@ public class ResourceManager implements BackendService {
 
     }
 
+    /**
+     * Schedules the monitoring of the hosts, and then creates the managers of the VMs that ran on the hosts when the
+     * engine started in the background, so the startup does not wait for them.
+     */
     public void scheduleJobsForHosts() {
         vdsManagersDict.values().forEach(VdsManager::scheduleJobs);
+
+        List<Guid> vmIds = vmIdsToWarmUp;
+        vmIdsToWarmUp = null;
+        if (vmIds != null && !vmIds.isEmpty()) {
+            ThreadPoolUtil.execute(() -> {
+                try {
+                    warmUpVmManagers(vmIds);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to create the VM managers on startup, they are created on demand: {}",
+                            e.getMessage());
+                    log.debug("Exception", e);
+                    warmedUpVmManagers = vmManagersToWarmUp;
+                }
+            });
+        }
     }
 
     public void removeVds(Guid vdsId) {
@@ -0,0 +1,22 @@
+package org.ovirt.engine.core.vdsbroker;
+
+/**
+ * The following interface is used as interface for the JMX bean monitoring the startup of the resource manager
+ */
+public interface ResourceManagerMXBean {
+
+    /**
+     * Returns the number of managers of the VMs that ran on hosts when the engine started, which are created in bulk
+     */
+    int getVmManagersToWarmUp();
+
+    /**
+     * Returns the number of the managers of the VMs that ran on hosts when the engine started that were created
+     */
+    int getWarmedUpVmManagers();
+
+    /**
+     * Returns the percentage of the managers of the VMs that ran on hosts when the engine started that were created
+     */
+    int getVmManagersWarmUpProgress();
+}
@@ -3,6 +3,7 @@ package org.ovirt.engine.core.vdsbroker;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +23,7 @@ import javax.inject.Inject;
 
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.common.VdcObjectType;
 import org.ovirt.engine.core.common.businessentities.NonOperationalReason;
 import org.ovirt.engine.core.common.businessentities.SELinuxMode;
 import org.ovirt.engine.core.common.businessentities.V2VJobInfo;
@@ -130,6 +132,12 @@ public class VdsManager {
     @Inject
     private VdsStatisticsDao vdsStatisticsDao;
 
+    @Inject
+    private EntityChangeTracker entityChangeTracker;
+
+    @Inject
+    private ClusterResourceView clusterResourceView;
+
     @Inject
     private VdsNumaNodeDao vdsNumaNodeDao;
 
@@ -178,6 +186,7 @@ public class VdsManager {
     protected final int NUMBER_HOST_REFRESHES_BEFORE_SAVE;
     private HostConnectionRefresherInterface hostRefresher;
     private volatile boolean inServerRebootTimeout;
+    private volatile boolean disposed;
 
     VdsManager(VDS vds, ResourceManager resourceManager) {
         this.resourceManager = resourceManager;
@@ -199,6 +208,7 @@ public class VdsManager {
         handlePreviousStatus();
         handleSecureSetup();
         initVdsBroker();
+        publishCachedVds();
     }
 
     public void handleSecureSetup() {
@@ -268,6 +278,14 @@ public class VdsManager {
                 resourceManager.getExecutor());
     }
 
+    /**
+     * Called whenever a cycle of VM monitoring completed on this host, or was skipped since the VMs of the host are
+     * not monitored in its status. Cycles that failed are not reported.
+     */
+    public void vmsMonitoringCycleFinished() {
+        resourceManager.vmsMonitoringCycleFinished(getVdsId());
+    }
+
     public void refresh() {
         try {
             refreshImpl();
@@ -404,6 +422,18 @@ public class VdsManager {
 
     private void refreshCachedVds() {
         cachedVds = vdsDao.get(getVdsId());
+        if (cachedVds != null) {
+            publishCachedVds();
+        }
+    }
+
+    /**
+     * Publishes the current state of the host to the view the scheduler reads the hosts from.
+     */
+    private void publishCachedVds() {
+        if (!disposed) {
+            clusterResourceView.update(cachedVds);
+        }
     }
 
     /**
@@ -470,6 +500,7 @@ public class VdsManager {
         if (cachedVds.getStatus() != VDSStatus.Initializing && cachedVds.getStatus() != VDSStatus.NonOperational) {
             setStatus(VDSStatus.Initializing, cachedVds);
             vdsDynamicDao.updateStatus(cachedVds.getId(), VDSStatus.Initializing);
+            entityChangeTracker.changed(VdcObjectType.VDS, cachedVds.getId());
             AuditLogable logable = createAuditLogableForHost(cachedVds);
             logable.addCustomValue("ErrorMessage", ex.getMessage());
             logable.updateCallStackFromThrowable(ex);
@@ -516,17 +547,23 @@ public class VdsManager {
     public void updateDynamicData(VdsDynamic dynamicData) {
         vdsDynamicDao.updateIfNeeded(dynamicData);
         cachedVds.setDynamicData(dynamicData);
+        entityChangeTracker.changed(VdcObjectType.VDS, dynamicData.getId());
+        publishCachedVds();
     }
 
     public void updatePartialDynamicData(NonOperationalReason nonOperationalReason, String maintenanceReason) {
         cachedVds.getDynamicData().setNonOperationalReason(nonOperationalReason);
         cachedVds.getDynamicData().setMaintenanceReason(maintenanceReason);
         vdsDynamicDao.updateStatusAndReasons(cachedVds.getDynamicData());
+        entityChangeTracker.changed(VdcObjectType.VDS, cachedVds.getId());
+        publishCachedVds();
     }
 
     public void updateUpdateAvailable(boolean updatesAvailable) {
         cachedVds.getDynamicData().setUpdateAvailable(updatesAvailable);
         vdsDynamicDao.updateUpdateAvailable(cachedVds.getId(), updatesAvailable);
+        entityChangeTracker.changed(VdcObjectType.VDS, cachedVds.getId());
+        publishCachedVds();
     }
 
     /**
@@ -535,6 +572,8 @@ public class VdsManager {
     public void updateStatisticsData(VdsStatistics statisticsData) {
         vdsStatisticsDao.update(statisticsData);
         cachedVds.setStatisticsData(statisticsData);
+        entityChangeTracker.changed(VdcObjectType.VDS, statisticsData.getId());
+        publishCachedVds();
     }
 
     /**
@@ -570,22 +609,25 @@ public class VdsManager {
         final List<VdsNumaNode> numaNodesToUpdate = new ArrayList<>();
         final List<Guid> numaNodesToRemove = new ArrayList<>();
 
-        List<VdsNumaNode> dbVdsNumaNodes = vdsNumaNodeDao.getAllVdsNumaNodeByVdsId(vds.getId());
+        // a node is kept per index, and any other node stored with the same index is removed
+        Map<Integer, VdsNumaNode> dbVdsNumaNodes = new HashMap<>();
+        for (VdsNumaNode node : vdsNumaNodeDao.getAllVdsNumaNodeByVdsId(vds.getId())) {
+            if (dbVdsNumaNodes.putIfAbsent(node.getIndex(), node) != null) {
+                numaNodesToRemove.add(node.getId());
+            }
+        }
         for (VdsNumaNode node : vds.getNumaNodeList()) {
-            VdsNumaNode searchNode = dbVdsNumaNodes.stream()
-                    .filter(n -> n.getIndex() == node.getIndex())
-                    .findAny().orElse(null);
+            VdsNumaNode searchNode = dbVdsNumaNodes.remove(node.getIndex());
 
             if (searchNode != null) {
                 node.setId(searchNode.getId());
                 numaNodesToUpdate.add(node);
-                dbVdsNumaNodes.remove(searchNode);
             } else {
                 node.setId(Guid.newGuid());
                 numaNodesToSave.add(node);
             }
         }
-        for (VdsNumaNode node : dbVdsNumaNodes) {
+        for (VdsNumaNode node : dbVdsNumaNodes.values()) {
             numaNodesToRemove.add(node.getId());
         }
 
@@ -1015,6 +1057,8 @@ public class VdsManager {
 
     public void dispose() {
         log.info("vdsManager::disposing");
+        disposed = true;
+        clusterResourceView.remove(vdsId);
         for (ScheduledFuture job : registeredJobs) {
             job.cancel(true);
         }
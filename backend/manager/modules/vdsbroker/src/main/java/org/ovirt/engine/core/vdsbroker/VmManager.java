@@ -1,6 +1,9 @@
 package org.ovirt.engine.core.vdsbroker;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
@@ -65,6 +68,10 @@ public class VmManager {
     private Double lastStatusEventTimestamp;
     private Guid lastStatusEventReporterId;
     private VmStatistics statistics;
+    /** A copy of the statistics as they were last written to the database */
+    private VmStatistics persistedStatistics;
+    /** When the statistics were last written to the database, in nanoseconds */
+    private long persistedStatisticsTime;
 
     private boolean coldReboot;
 
@@ -79,6 +86,11 @@ public class VmManager {
 
     private VMStatus lastStatusBeforeMigration;
 
+    /** Data loaded in bulk before the manager was created, used only when the manager is initialized */
+    private VmStatic prefetchedVmStatic;
+    private Cluster prefetchedCluster;
+    private List<VmDevice> prefetchedDevices;
+
     @Inject
     private VmDeviceDao vmDeviceDao;
     @Inject
@@ -93,6 +105,8 @@ public class VmManager {
     private ClusterDao clusterDao;
     @Inject
     private VmOverheadCalculator vmOverheadCalculator;
+    @Inject
+    private VmStatisticsStore vmStatisticsStore;
 
     VmManager(Guid vmId) {
         this.vmId = vmId;
@@ -104,14 +118,28 @@ public class VmManager {
         externalDataStatus = new ExternalDataStatus();
     }
 
+    /**
+     * Creates the manager of a VM whose data was already loaded, so it is not loaded again when the manager is
+     * initialized.
+     */
+    VmManager(VmStatic vmStatic, Cluster cluster, List<VmDevice> devices) {
+        this(vmStatic.getId());
+        prefetchedVmStatic = vmStatic;
+        prefetchedCluster = cluster;
+        prefetchedDevices = devices;
+    }
+
     @PostConstruct
     public void init() {
         setPowerOffTimeout(System.nanoTime());
-        VmStatic vmStatic = vmStaticDao.get(vmId);
+        VmStatic vmStatic = prefetchedVmStatic != null ? prefetchedVmStatic : vmStaticDao.get(vmId);
         // vmStatic is null for externally managed VMs
         if (vmStatic != null) {
             updateStaticFields(vmStatic);
         }
+        prefetchedVmStatic = null;
+        prefetchedCluster = null;
+        prefetchedDevices = null;
     }
 
     private void updateStaticFields(VmStatic vmStatic) {
@@ -121,7 +149,7 @@ public class VmManager {
         memSizeMb = vmStatic.getMemSizeMb();
         minAllocatedMem = vmStatic.getMinAllocatedMem();
         numOfCpus = vmStatic.getNumOfCpus();
-        final Cluster cluster = clusterDao.get(vmStatic.getClusterId());
+        final Cluster cluster = prefetchedCluster != null ? prefetchedCluster : clusterDao.get(vmStatic.getClusterId());
         clusterCompatibilityVersion = cluster.getCompatibilityVersion();
         clusterArchitecture = cluster.getArchitecture();
         clusterBiosType = cluster.getBiosType();
@@ -135,7 +163,8 @@ public class VmManager {
                 clusterArchitecture, clusterCompatibilityVersion, clusterBiosType);
 
         // Load device list, TODO ignores unmanaged devices for now
-        Map<Guid, VmDevice> devices = vmDeviceDao.getVmDeviceByVmId(vmId).stream()
+        List<VmDevice> allDevices = prefetchedDevices != null ? prefetchedDevices : vmDeviceDao.getVmDeviceByVmId(vmId);
+        Map<Guid, VmDevice> devices = allDevices.stream()
                 .filter(VmDevice::isManaged)
                 .collect(Collectors.toMap(d -> d.getId().getDeviceId(), Function.identity()));
         vmStatic.setManagedDeviceMap(devices);
@@ -166,6 +195,7 @@ public class VmManager {
     public void update(VmStatistics statistics) {
         vmStatisticsDao.update(statistics);
         setStatistics(statistics);
+        statisticsPersisted(statistics);
     }
 
     public void update(VmNetworkStatistics networkStatistics) {
@@ -262,6 +292,35 @@ public class VmManager {
 
     public void setStatistics(VmStatistics statistics) {
         this.statistics = statistics;
+        vmStatisticsStore.update(statistics);
+    }
+
+    public void setMigrationProgressPercent(int migrationProgressPercent) {
+        statistics.setMigrationProgressPercent(migrationProgressPercent);
+        vmStatisticsStore.update(statistics);
+    }
+
+    /**
+     * Checks whether the given statistics differ from the ones that were last written to the database.
+     * The elapsed time alone is not considered a change unless the persisted value is older than the given
+     * interval, so the reported uptime is still refreshed periodically.
+     *
+     * @param statistics the statistics that are about to be persisted
+     * @param maxPersistIntervalInSeconds the maximal time the persisted statistics may remain unchanged
+     */
+    public boolean isStatisticsChanged(VmStatistics statistics, int maxPersistIntervalInSeconds) {
+        return !statistics.equalsIgnoringElapsedTime(persistedStatistics)
+                || !Objects.equals(statistics.getElapsedTime(), persistedStatistics.getElapsedTime())
+                        && System.nanoTime() - persistedStatisticsTime
+                                >= TimeUnit.SECONDS.toNanos(maxPersistIntervalInSeconds);
+    }
+
+    /**
+     * Records the given statistics as the ones that were last written to the database.
+     */
+    public void statisticsPersisted(VmStatistics statistics) {
+        persistedStatistics = new VmStatistics(statistics);
+        persistedStatisticsTime = System.nanoTime();
     }
 
     public String getName() {
@@ -0,0 +1,252 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.enterprise.event.Observes;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.qualifiers.VmDeleted;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Holds the latest statistics of the VMs, as reported by the monitoring, for the queries that present them.
+ * <p>
+ * The statistics are kept column by column in primitive arrays, split into fixed size pages that never move, where
+ * every VM owns a slot. Every slot is guarded by a sequence number: a writer makes it odd while it updates the slot
+ * and readers retry when the sequence number was odd or changed while they read it. Readers therefore never block
+ * the monitoring and always get a consistent copy of the statistics of a VM, which they are free to modify.
+ * <p>
+ * The statistics in the database are written by the monitoring as well, but only when they change significantly,
+ * and are used by the queries only for VMs that were not reported since the engine started.
+ */
+@Singleton
+public class VmStatisticsStore {
+
+    private static final int PAGE_SIZE = 1024;
+
+    private static final int CPU_SYS = 0;
+    private static final int CPU_USER = 1;
+    private static final int ELAPSED_TIME = 2;
+    private static final int DOUBLE_COLUMNS = 3;
+
+    private static final int USAGE_CPU_PERCENT = 0;
+    private static final int USAGE_MEM_PERCENT = 1;
+    private static final int USAGE_NETWORK_PERCENT = 2;
+    private static final int MIGRATION_PROGRESS_PERCENT = 3;
+    private static final int INT_COLUMNS = 4;
+
+    private static final int GUEST_MEMORY_CACHED = 0;
+    private static final int GUEST_MEMORY_BUFFERED = 1;
+    private static final int GUEST_MEMORY_FREE = 2;
+    private static final int GUEST_MEMORY_UNUSED = 3;
+    private static final int LONG_COLUMNS = 4;
+
+    private static final int VM_ID = 0;
+    private static final int DISKS_USAGE = 1;
+    private static final int CPU_USAGE_HISTORY = 2;
+    private static final int MEMORY_USAGE_HISTORY = 3;
+    private static final int NETWORK_USAGE_HISTORY = 4;
+    private static final int OBJECT_COLUMNS = 5;
+
+    /** Stands for a missing integer value, which is not a valid percentage */
+    private static final int NO_INT = Integer.MIN_VALUE;
+    /** Stands for a missing long value, which is not a valid amount of memory */
+    private static final long NO_LONG = Long.MIN_VALUE;
+
+    private final Map<Guid, Integer> slots = new ConcurrentHashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final Object allocationLock = new Object();
+    private volatile Page[] pages = new Page[0];
+    private int nextSlot;
+
+    /**
+     * Stores the given statistics as the latest statistics of their VM.
+     */
+    public void update(VmStatistics statistics) {
+        Guid vmId = statistics.getId();
+        int slot = slots.computeIfAbsent(vmId, id -> allocateSlot());
+        Page page = pages[slot / PAGE_SIZE];
+        int index = slot % PAGE_SIZE;
+
+        long version = page.beginWrite(index);
+        try {
+            page.doubles[CPU_SYS][index] = toDouble(statistics.getCpuSys());
+            page.doubles[CPU_USER][index] = toDouble(statistics.getCpuUser());
+            page.doubles[ELAPSED_TIME][index] = toDouble(statistics.getElapsedTime());
+            page.ints[USAGE_CPU_PERCENT][index] = toInt(statistics.getUsageCpuPercent());
+            page.ints[USAGE_MEM_PERCENT][index] = toInt(statistics.getUsageMemPercent());
+            page.ints[USAGE_NETWORK_PERCENT][index] = toInt(statistics.getUsageNetworkPercent());
+            page.ints[MIGRATION_PROGRESS_PERCENT][index] = toInt(statistics.getMigrationProgressPercent());
+            page.longs[GUEST_MEMORY_CACHED][index] = toLong(statistics.getGuestMemoryCached());
+            page.longs[GUEST_MEMORY_BUFFERED][index] = toLong(statistics.getGuestMemoryBuffered());
+            page.longs[GUEST_MEMORY_FREE][index] = toLong(statistics.getGuestMemoryFree());
+            page.longs[GUEST_MEMORY_UNUSED][index] = toLong(statistics.getGuestMemoryUnused());
+            page.objects[VM_ID][index] = vmId;
+            page.objects[DISKS_USAGE][index] = statistics.getDisksUsage();
+            page.objects[CPU_USAGE_HISTORY][index] = copyOf(statistics.getCpuUsageHistory());
+            page.objects[MEMORY_USAGE_HISTORY][index] = copyOf(statistics.getMemoryUsageHistory());
+            page.objects[NETWORK_USAGE_HISTORY][index] = copyOf(statistics.getNetworkUsageHistory());
+        } finally {
+            page.endWrite(index, version);
+        }
+    }
+
+    /**
+     * @return A copy of the latest statistics of the given VM, or <code>null</code> if none were stored.
+     */
+    @SuppressWarnings("unchecked")
+    public VmStatistics get(Guid vmId) {
+        Integer slot = slots.get(vmId);
+        if (slot == null) {
+            return null;
+        }
+        Page page = pages[slot / PAGE_SIZE];
+        int index = slot % PAGE_SIZE;
+
+        while (true) {
+            long version = page.versions.get(index);
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            Object id = page.objects[VM_ID][index];
+            VmStatistics statistics = new VmStatistics(vmId);
+            statistics.setCpuSys(toDouble(page.doubles[CPU_SYS][index]));
+            statistics.setCpuUser(toDouble(page.doubles[CPU_USER][index]));
+            statistics.setElapsedTime(toDouble(page.doubles[ELAPSED_TIME][index]));
+            statistics.setUsageCpuPercent(toInteger(page.ints[USAGE_CPU_PERCENT][index]));
+            statistics.setUsageMemPercent(toInteger(page.ints[USAGE_MEM_PERCENT][index]));
+            statistics.setUsageNetworkPercent(toInteger(page.ints[USAGE_NETWORK_PERCENT][index]));
+            statistics.setMigrationProgressPercent(toInteger(page.ints[MIGRATION_PROGRESS_PERCENT][index]));
+            statistics.setGuestMemoryCached(toLong(page.longs[GUEST_MEMORY_CACHED][index]));
+            statistics.setGuestMemoryBuffered(toLong(page.longs[GUEST_MEMORY_BUFFERED][index]));
+            statistics.setGuestMemoryFree(toLong(page.longs[GUEST_MEMORY_FREE][index]));
+            statistics.setGuestMemoryUnused(toLong(page.longs[GUEST_MEMORY_UNUSED][index]));
+            statistics.setDisksUsage((String) page.objects[DISKS_USAGE][index]);
+            List<Integer> cpuUsageHistory = (List<Integer>) page.objects[CPU_USAGE_HISTORY][index];
+            List<Integer> memoryUsageHistory = (List<Integer>) page.objects[MEMORY_USAGE_HISTORY][index];
+            List<Integer> networkUsageHistory = (List<Integer>) page.objects[NETWORK_USAGE_HISTORY][index];
+
+            VarHandle.acquireFence();
+            if (page.versions.get(index) != version) {
+                continue;
+            }
+            if (!vmId.equals(id)) {
+                // the slot was released, and possibly taken by another VM, while it was looked up
+                return null;
+            }
+
+            statistics.setCpuUsageHistory(copyOf(cpuUsageHistory));
+            statistics.setMemoryUsageHistory(copyOf(memoryUsageHistory));
+            statistics.setNetworkUsageHistory(copyOf(networkUsageHistory));
+            return statistics;
+        }
+    }
+
+    /**
+     * Discards the statistics of the given VM.
+     */
+    public void remove(Guid vmId) {
+        Integer slot = slots.remove(vmId);
+        if (slot == null) {
+            return;
+        }
+        Page page = pages[slot / PAGE_SIZE];
+        int index = slot % PAGE_SIZE;
+        long version = page.beginWrite(index);
+        try {
+            for (Object[] column : page.objects) {
+                column[index] = null;
+            }
+        } finally {
+            page.endWrite(index, version);
+        }
+        synchronized (allocationLock) {
+            freeSlots.push(slot);
+        }
+    }
+
+    void onVmDelete(@Observes @VmDeleted Guid vmId) {
+        remove(vmId);
+    }
+
+    private int allocateSlot() {
+        synchronized (allocationLock) {
+            Integer freeSlot = freeSlots.poll();
+            if (freeSlot != null) {
+                return freeSlot;
+            }
+            int slot = nextSlot++;
+            if (slot / PAGE_SIZE == pages.length) {
+                Page[] newPages = Arrays.copyOf(pages, pages.length + 1);
+                newPages[pages.length] = new Page();
+                pages = newPages;
+            }
+            return slot;
+        }
+    }
+
+    private static List<Integer> copyOf(List<Integer> history) {
+        return history != null ? new ArrayList<>(history) : null;
+    }
+
+    private static double toDouble(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private static Double toDouble(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static int toInt(Integer value) {
+        return value != null ? value : NO_INT;
+    }
+
+    private static Integer toInteger(int value) {
+        return value != NO_INT ? value : null;
+    }
+
+    private static long toLong(Long value) {
+        return value != null ? value : NO_LONG;
+    }
+
+    private static Long toLong(long value) {
+        return value != NO_LONG ? value : null;
+    }
+
+    private static class Page {
+        private final AtomicLongArray versions = new AtomicLongArray(PAGE_SIZE);
+        private final double[][] doubles = new double[DOUBLE_COLUMNS][PAGE_SIZE];
+        private final int[][] ints = new int[INT_COLUMNS][PAGE_SIZE];
+        private final long[][] longs = new long[LONG_COLUMNS][PAGE_SIZE];
+        private final Object[][] objects = new Object[OBJECT_COLUMNS][PAGE_SIZE];
+
+        /**
+         * Makes the sequence number of the slot odd, waiting for a concurrent writer of the slot to finish first.
+         */
+        private long beginWrite(int index) {
+            while (true) {
+                long version = versions.get(index);
+                if ((version & 1) == 0 && versions.compareAndSet(index, version, version + 1)) {
+                    VarHandle.releaseFence();
+                    return version;
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        private void endWrite(int index, long version) {
+            versions.set(index, version + 2);
+        }
+    }
+}
@@ -107,6 +107,11 @@ public class LibvirtVmXmlBuilder {
     public static final String OVIRT_VM_PREFIX = "ovirt-vm";
     public static final String QEMU_PREFIX = "qemu";
 
+    /** Expected length of the XML of a VM without devices, in characters */
+    private static final int BASE_XML_LENGTH = 16 * 1024;
+    /** Expected length of the XML (including metadata) of a single disk or network interface, in characters */
+    private static final int DEVICE_XML_LENGTH = 1024;
+
     /** Timeout for the boot menu, in milliseconds */
     public static final int BOOT_MENU_TIMEOUT = 30000;
     private static final int LIBVIRT_PORT_AUTOSELECT = -1;
@@ -237,7 +242,7 @@ public class LibvirtVmXmlBuilder {
                 vm.getOs(),
                 vm.getCompatibilityVersion(),
                 ChipsetType.fromMachineType(emulatedMachine));
-        writer = new XmlTextWriter();
+        writer = new XmlTextWriter(estimateXmlLength(vm));
         qosCache = new HashMap<>();
         vmCustomProperties = VmPropertiesUtils.getInstance().getVMProperties(
                 vm.getCompatibilityVersion(),
@@ -270,6 +275,16 @@ public class LibvirtVmXmlBuilder {
         legacyVirtio = vmInfoBuildUtils.isLegacyVirtio(vm.getVmOsId(), ChipsetType.fromMachineType(emulatedMachine));
     }
 
+    /**
+     * Estimates the length of the generated XML so the writer does not need to grow its buffer repeatedly
+     * for VMs with many devices.
+     */
+    private static int estimateXmlLength(VM vm) {
+        int numOfDevices = (vm.getDiskMap() != null ? vm.getDiskMap().size() : 0)
+                + (vm.getInterfaces() != null ? vm.getInterfaces().size() : 0);
+        return BASE_XML_LENGTH + numOfDevices * DEVICE_XML_LENGTH;
+    }
+
     public String buildCreateVm() {
         writeHeader();
         writeName();
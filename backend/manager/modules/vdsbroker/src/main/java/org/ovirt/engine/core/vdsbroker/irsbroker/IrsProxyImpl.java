@@ -17,6 +17,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -1186,7 +1187,35 @@ public class IrsProxyImpl implements IrsProxy {
     private final Map<Guid, Set<Guid>> _domainsInMaintenance = new ConcurrentHashMap<>();
     private final Map<Guid, Guid> vdsReportsOnUnseenDomain = new ConcurrentHashMap<>();
     private final Map<Guid, Guid> vdsHandeledReportsOnUnseenDomains = new ConcurrentHashMap<>();
-    private final Map<Guid, ScheduledFuture> timersMap = new HashMap<>();
+    private final Map<Guid, ScheduledFuture> timersMap = new ConcurrentHashMap<>();
+    private final Map<Guid, HostDomainsReport> appliedHostReports = new ConcurrentHashMap<>();
+    private final AtomicLong domainsCacheGeneration = new AtomicLong();
+
+    /**
+     * The domains report of a host as last applied to the domains caches. It is valid only as long as the caches
+     * were not changed by anything but the hosts reports, which is when the generation of the caches changes.
+     */
+    private static class HostDomainsReport {
+        private final Map<Guid, DomainMonitoringResult> problematicDomains;
+        private final Set<Guid> domainsInMaintenance;
+        private final long generation;
+
+        private HostDomainsReport(Map<Guid, DomainMonitoringResult> problematicDomains,
+                Set<Guid> domainsInMaintenance,
+                long generation) {
+            this.problematicDomains = problematicDomains;
+            this.domainsInMaintenance = domainsInMaintenance;
+            this.generation = generation;
+        }
+
+        private boolean sameAs(Map<Guid, DomainMonitoringResult> problematicDomains,
+                Set<Guid> domainsInMaintenance,
+                long generation) {
+            return this.generation == generation
+                    && this.problematicDomains.equals(problematicDomains)
+                    && this.domainsInMaintenance.equals(domainsInMaintenance);
+        }
+    }
 
     @Override
     public void updateVdsDomainsData(VDS vds,
@@ -1208,6 +1237,7 @@ public class IrsProxyImpl implements IrsProxy {
                 for (VDSDomainsData tempData : data) {
                     monitoredDomains.add(tempData.getDomainId());
                 }
+                Map<Guid, StorageDomainStatus> domainStatuses = storageDomainStaticDao.getAllStatuses(storagePoolId);
 
                 Map<Guid, DomainMonitoringResult> domainsProblematicReportInfo = Collections.emptyMap();
 
@@ -1216,12 +1246,13 @@ public class IrsProxyImpl implements IrsProxy {
                             handleMonitoredDomainsForHost(vdsId,
                                     vdsName,
                                     data,
-                                    monitoredDomains);
+                                    monitoredDomains,
+                                    domainStatuses);
                 }
 
                 Set<Guid> domainsInMaintenance = Collections.emptySet();
                 if (StoragePoolDomainHelper.vdsDomainsMaintenanceMonitoringStatus.contains(vds.getStatus())) {
-                    domainsInMaintenance = handleDomainsInMaintenanceForHost(monitoredDomains);
+                    domainsInMaintenance = handleDomainsInMaintenanceForHost(monitoredDomains, domainStatuses);
                 }
 
                 updateDomainInProblem(vdsId, vdsName, domainsProblematicReportInfo, domainsInMaintenance);
@@ -1245,56 +1276,43 @@ public class IrsProxyImpl implements IrsProxy {
      * The methods inspects which domains status can be changed to Maintenance according to the host
      * domains report.
      * @param monitoredDomains domains that the host monitors
+     * @param domainStatuses the statuses of the domains in the pool
      * @return domains that are not monitored by the host and are in
      * @link StorageDomainStatus#Maintenance or @link StorageDomainStatus#PreparingForMaintenance.
      */
-    private Set<Guid> handleDomainsInMaintenanceForHost(Collection<Guid> monitoredDomains) {
+    private Set<Guid> handleDomainsInMaintenanceForHost(Collection<Guid> monitoredDomains,
+            Map<Guid, StorageDomainStatus> domainStatuses) {
         Set<Guid>  domainsInMaintenance = new HashSet<>();
-        Set<Guid> maintInPool = new HashSet<>(
-                storageDomainStaticDao.getAllIds(
-                        storagePoolId, StorageDomainStatus.Maintenance));
-        maintInPool.addAll(storageDomainStaticDao.getAllIds(
-                storagePoolId, StorageDomainStatus.PreparingForMaintenance));
-
-        for (Guid tempDomainId : maintInPool) {
-            if (!monitoredDomains.contains(tempDomainId)) {
-                domainsInMaintenance.add(tempDomainId);
+        for (Map.Entry<Guid, StorageDomainStatus> entry : domainStatuses.entrySet()) {
+            if ((entry.getValue() == StorageDomainStatus.Maintenance
+                    || entry.getValue() == StorageDomainStatus.PreparingForMaintenance)
+                    && !monitoredDomains.contains(entry.getKey())) {
+                domainsInMaintenance.add(entry.getKey());
             }
         }
 
         return domainsInMaintenance;
     }
 
+    private static boolean isActiveOrUnknown(StorageDomainStatus status) {
+        return status == StorageDomainStatus.Active || status == StorageDomainStatus.Unknown;
+    }
+
     /**
      * Provides handling for the domains that are monitored by the given host.
      * @return map between the domain id and the reason for domains that
      * the host reporting is problematic for.
      */
     private Map<Guid, DomainMonitoringResult> handleMonitoredDomainsForHost(final Guid vdsId, final String vdsName,
-            final ArrayList<VDSDomainsData> data, Collection<Guid> monitoredDomains) {
+            final ArrayList<VDSDomainsData> data, Collection<Guid> monitoredDomains,
+            Map<Guid, StorageDomainStatus> domainStatuses) {
         Map<Guid, DomainMonitoringResult> domainsProblematicReportInfo = new HashMap<>();
-        // build a list of all domains in pool
-        // which are in status Active or Unknown
-        Set<Guid> activeDomainsInPool = new HashSet<>(
-                storageDomainStaticDao.getAllIds(
-                        storagePoolId, StorageDomainStatus.Active));
-        Set<Guid> unknownDomainsInPool = new HashSet<>(storageDomainStaticDao.getAllIds(
-                storagePoolId, StorageDomainStatus.Unknown));
-        Set<Guid> inActiveDomainsInPool =
-                new HashSet<>(storageDomainStaticDao.getAllIds(storagePoolId, StorageDomainStatus.Inactive));
-
         // build a list of all the domains in
-        // pool (activeDomainsInPool and unknownDomainsInPool) that are not
+        // pool in status Active or Unknown that are not
         // visible by the host.
-        for (Guid tempDomainId : activeDomainsInPool) {
-            if (!monitoredDomains.contains(tempDomainId)) {
-                domainsProblematicReportInfo.put(tempDomainId, DomainMonitoringResult.NOT_REPORTED);
-            }
-        }
-
-        for (Guid tempDomainId : unknownDomainsInPool) {
-            if (!monitoredDomains.contains(tempDomainId)) {
-                domainsProblematicReportInfo.put(tempDomainId, DomainMonitoringResult.NOT_REPORTED);
+        for (Map.Entry<Guid, StorageDomainStatus> entry : domainStatuses.entrySet()) {
+            if (isActiveOrUnknown(entry.getValue()) && !monitoredDomains.contains(entry.getKey())) {
+                domainsProblematicReportInfo.put(entry.getKey(), DomainMonitoringResult.NOT_REPORTED);
             }
         }
 
@@ -1306,16 +1324,19 @@ public class IrsProxyImpl implements IrsProxy {
         // and are contained in the Active or
         // Unknown domains in pool
         for (VDSDomainsData tempData : data) {
-            StorageDomainStatic storageDomain = storageDomainStaticDao.get(tempData.getDomainId());
-            if (activeDomainsInPool.contains(tempData.getDomainId()) || unknownDomainsInPool.contains(tempData.getDomainId())) {
+            StorageDomainStatus domainStatus = domainStatuses.get(tempData.getDomainId());
+            if (isActiveOrUnknown(domainStatus)) {
                 DomainMonitoringResult domainMonitoringResult = analyzeDomainReport(tempData, false);
                 if (domainMonitoringResult.invalidAndActual()) {
                     domainsProblematicReportInfo.put(tempData.getDomainId(), domainMonitoringResult);
                 } else if (domainMonitoringResult.actual() && tempData.getDelay() > Config.<Double> getValue(ConfigValues.MaxStorageVdsDelayCheckSec)) {
-                    logDelayedDomain(vdsName, storageDomain.getName(), tempData.getDelay());
+                    logDelayedDomain(vdsName,
+                            storageDomainStaticDao.get(tempData.getDomainId()).getName(),
+                            tempData.getDelay());
                 }
-            } else if (inActiveDomainsInPool.contains(tempData.getDomainId())
+            } else if (domainStatus == StorageDomainStatus.Inactive
                     && analyzeDomainReport(tempData, false).validAndActual()) {
+                StorageDomainStatic storageDomain = storageDomainStaticDao.get(tempData.getDomainId());
                 log.warn("Storage Domain '{}' was reported by Host '{}' as Active in Pool '{}', moving to active status",
                         getDomainIdTuple(tempData.getDomainId()),
                         vdsName,
@@ -1341,16 +1362,41 @@ public class IrsProxyImpl implements IrsProxy {
 
     private void updateDomainInProblem(final Guid vdsId, final String vdsName, final Map<Guid, DomainMonitoringResult> domainsInProblem,
                                        final Set<Guid> domainsInMaintenance) {
+        // reports of a host rarely change, there is nothing to update as long as the
+        // caches still reflect the last report of the host
+        HostDomainsReport lastReport = appliedHostReports.get(vdsId);
+        if (lastReport != null
+                && lastReport.sameAs(domainsInProblem, domainsInMaintenance, domainsCacheGeneration.get())) {
+            log.debug("Domains report of host '{}' has not changed, skipping it", vdsName);
+            return;
+        }
+
         getEventQueue().submitEventSync(new Event(storagePoolId,
                 null, vdsId, EventType.DOMAINMONITORING, ""),
                 () -> {
                     EventResult result = new EventResult(true, EventType.DOMAINMONITORING);
-                    updateProblematicVdsData(vdsId, vdsName, domainsInProblem);
-                    updateMaintenanceVdsData(vdsId, vdsName, domainsInMaintenance);
+                    long generation = domainsCacheGeneration.get();
+                    HostDomainsReport previousReport = appliedHostReports.get(vdsId);
+                    if (previousReport != null && previousReport.generation != generation) {
+                        previousReport = null;
+                    }
+                    updateProblematicVdsData(vdsId, vdsName, domainsInProblem,
+                            previousReport != null ? previousReport.problematicDomains.keySet() : null);
+                    updateMaintenanceVdsData(vdsId, vdsName, domainsInMaintenance,
+                            previousReport != null ? previousReport.domainsInMaintenance : null);
+                    appliedHostReports.put(vdsId, new HostDomainsReport(domainsInProblem, domainsInMaintenance, generation));
                     return result;
                 });
     }
 
+    /**
+     * Invalidates the last applied hosts reports, must be called whenever the domains caches are changed by anything
+     * but a host report.
+     */
+    private void domainsCacheChanged() {
+        domainsCacheGeneration.incrementAndGet();
+    }
+
     private void logDelayedDomain(String vdsName, String domainName, double delay) {
         AuditLogable logable = new AuditLogableImpl();
         logable.setVdsName(vdsName);
@@ -1447,7 +1493,12 @@ public class IrsProxyImpl implements IrsProxy {
         return vdsReportsOnUnseenDomain.remove(vdsId);
     }
 
-    private void updateMaintenanceVdsData(final Guid vdsId, final String vdsName, Set<Guid> domainsInMaintenance) {
+    /**
+     * @param previousDomainsInMaintenance the domains in maintenance of the last report of the host applied to the
+     *            cache, or <code>null</code> if the cache may have changed since it was applied
+     */
+    private void updateMaintenanceVdsData(final Guid vdsId, final String vdsName, Set<Guid> domainsInMaintenance,
+            Set<Guid> previousDomainsInMaintenance) {
         for (Guid domainId : domainsInMaintenance) {
             Set<Guid> vdsSet = _domainsInMaintenance.get(domainId);
             if (vdsSet == null) {
@@ -1457,7 +1508,8 @@ public class IrsProxyImpl implements IrsProxy {
                 vdsSet.add(vdsId);
             }
         }
-        Set<Guid> maintenanceDomainsByHost = new HashSet<>(_domainsInMaintenance.keySet());
+        Set<Guid> maintenanceDomainsByHost = new HashSet<>(
+                previousDomainsInMaintenance != null ? previousDomainsInMaintenance : _domainsInMaintenance.keySet());
         maintenanceDomainsByHost.removeAll(domainsInMaintenance);
         for (Guid domainId : maintenanceDomainsByHost) {
             Set<Guid> vdsForDomain = _domainsInMaintenance.get(domainId);
@@ -1471,7 +1523,12 @@ public class IrsProxyImpl implements IrsProxy {
         }
     }
 
-    private void updateProblematicVdsData(final Guid vdsId, final String vdsName, Map<Guid, DomainMonitoringResult> problematicDomains) {
+    /**
+     * @param previousProblematicDomains the problematic domains of the last report of the host applied to the cache,
+     *            or <code>null</code> if the cache may have changed since it was applied
+     */
+    private void updateProblematicVdsData(final Guid vdsId, final String vdsName,
+            Map<Guid, DomainMonitoringResult> problematicDomains, Set<Guid> previousProblematicDomains) {
         // for all problematic domains
         // update cache of domainsInProblem
         // and _vdssInProblem and add a new
@@ -1519,7 +1576,9 @@ public class IrsProxyImpl implements IrsProxy {
             vdsReportsOnUnseenDomain.put(vdsId, newReportId);
         }
 
-        Set<Guid> notReportedDomainsByHost = new HashSet<>(domainsInProblem.keySet());
+        // only domains the host reported as problematic before may have recovered
+        Set<Guid> notReportedDomainsByHost = new HashSet<>(
+                previousProblematicDomains != null ? previousProblematicDomains : domainsInProblem.keySet());
         notReportedDomainsByHost.removeAll(problematicDomains.keySet());
         for (Guid domainId : notReportedDomainsByHost) {
             Set<Guid> vdsForDomain = domainsInProblem.get(domainId);
@@ -1804,6 +1863,8 @@ public class IrsProxyImpl implements IrsProxy {
      * @param nonOpVdss - passed vdss that non operational
      */
     private void clearDomainFromCache(Guid domainId, List<Guid> nonOpVdss) {
+        domainsCacheChanged();
+        nonOpVdss.forEach(appliedHostReports::remove);
         if (domainId != null) {
             domainsInProblem.remove(domainId);
         }
@@ -1855,6 +1916,8 @@ public class IrsProxyImpl implements IrsProxy {
         // clear lists
         timersMap.clear();
         domainsInProblem.clear();
+        domainsCacheChanged();
+        appliedHostReports.clear();
     }
 
     @Override
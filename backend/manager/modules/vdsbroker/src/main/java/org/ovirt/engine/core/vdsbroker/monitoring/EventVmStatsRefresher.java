@@ -1,9 +1,15 @@
 package org.ovirt.engine.core.vdsbroker.monitoring;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -16,13 +22,25 @@ import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.VmDynamicDao;
 import org.ovirt.engine.core.di.Injector;
 import org.ovirt.engine.core.utils.ObjectDescriptor;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsBrokerObjectsBuilder;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
 import org.ovirt.vdsm.jsonrpc.client.events.EventSubscriber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Processes the VM status events pushed by VDSM.
+ * <p>
+ * Events are not analyzed on the thread that delivers them. They are queued in a per-host buffer and a single
+ * task per host drains the buffer. Consecutive events that report the same status of a VM are merged into one,
+ * the fields of the newer event, by the notification time VDSM attaches to every event, overriding those of the
+ * older one, so bursts of events about the same VMs, e.g. on mass start or migration, result in one monitoring
+ * cycle per VM instead of one per event. Events that report a different status, e.g. along with a pause code or
+ * an exit reason, are still processed one after the other.
+ */
 public class EventVmStatsRefresher extends VmStatsRefresher {
 
     private static final Logger log = LoggerFactory.getLogger(EventVmStatsRefresher.class);
@@ -34,6 +52,11 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
     private final ResourceManager resourceManager;
     private final PollVmStatsRefresher allVmStatsOnlyRefresher;
 
+    /** The events per VM that were not processed yet, in the order they were received */
+    private final Map<Guid, Deque<PendingEvent>> pendingVms = new LinkedHashMap<>();
+    /** Whether a task that processes the pending VMs is scheduled or running, guarded by {@link #pendingVms} */
+    private boolean processingScheduled;
+
     public EventVmStatsRefresher(VdsManager manager, ResourceManager resourceManager) {
         super(manager);
         // we still want to fetch GetAllVmStats as we did before
@@ -56,14 +79,8 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
             @Override
             public void onNext(Map<String, Object> map) {
                 try {
-                    long fetchTime = System.nanoTime();
                     printEventInDebug(map);
-                    List<Pair<VmDynamic, VdsmVm>> vms = convertEvent(map);
-                    if (!vms.isEmpty()) {
-                        addVmsToVdsManager(vms); // Prevent missing VMs on VdsManager::lastVmsList
-                        getVmsMonitoring().perform(vms, fetchTime, vdsManager, false);
-                        processDevices(vms.stream().map(Pair::getSecond), fetchTime);
-                    }
+                    enqueueEvent(map);
                 } catch (Throwable t) {
                     log.error("Error processing VM stats monitoring event: {}", ExceptionUtils.getRootCauseMessage(t));
                     log.debug("Exception", t);
@@ -82,68 +99,169 @@ public class EventVmStatsRefresher extends VmStatsRefresher {
                 log.debug("processing event for host {} data:\n{}", vdsManager.getVdsName(), sb);
             }
 
-            @SuppressWarnings("unchecked")
-            private List<Pair<VmDynamic, VdsmVm>> convertEvent(Map<String, Object> map) {
-                Double notifyTime = vdsBrokerObjectsBuilder.removeNotifyTimeFromVmStatusEvent(map);
-                return map.entrySet().stream()
-                        .map(idToMap -> toMonitoredVm(
-                                new Guid(idToMap.getKey()),
-                                (Map<String, Object>) idToMap.getValue(),
-                                notifyTime))
-                        .collect(Collectors.toList());
+            @Override
+            public void onError(Throwable t) {
+                // communication issue is delivered as a message so we need to request for more
+                subscription.request(1);
             }
 
-            private Pair<VmDynamic, VdsmVm> toMonitoredVm(Guid vmId, Map<String, Object> vmMap, Double notifyTime) {
-                VmDynamic dbVm = vmDynamicDao.get(vmId);
-                VdsmVm vdsmVm = dbVm == null ?
-                        createVdsmVm(vmId, vmMap, notifyTime)
-                        : createVdsmVm(dbVm, vmMap, notifyTime);
-                return new Pair<>(dbVm, vdsmVm);
+            @Override
+            public void onComplete() {
             }
+        });
+    }
 
-            private VdsmVm createVdsmVm(Guid vmId, Map<String, Object> struct, Double notifyTime) {
-                VmDynamic fakeVm = new VmDynamic();
-                fakeVm.setId(vmId);
-                return createVdsmVm(fakeVm, struct, notifyTime);
+    @SuppressWarnings("unchecked")
+    private void enqueueEvent(Map<String, Object> map) {
+        long receiveTime = System.nanoTime();
+        Double notifyTime = vdsBrokerObjectsBuilder.removeNotifyTimeFromVmStatusEvent(map);
+        synchronized (pendingVms) {
+            map.forEach((vmId, vmMap) -> {
+                PendingEvent reported = new PendingEvent(notifyTime, (Map<String, Object>) vmMap, receiveTime);
+                Deque<PendingEvent> events = pendingVms.computeIfAbsent(new Guid(vmId), id -> new ArrayDeque<>());
+                PendingEvent last = events.peekLast();
+                if (last != null && last.hasSameStatus(reported)) {
+                    last.merge(reported);
+                } else {
+                    events.addLast(reported);
+                }
+            });
+            if (processingScheduled || pendingVms.isEmpty()) {
+                return;
             }
+            processingScheduled = true;
+        }
 
-            private VdsmVm createVdsmVm(VmDynamic dbVmDynamic, Map<String, Object> struct, Double notifyTime) {
-                // send a clone of vm dynamic to be overridden with new data
-                VmDynamic clonedVmDynamic = new VmDynamic(dbVmDynamic);
-                vdsBrokerObjectsBuilder.updateVMDynamicData(clonedVmDynamic, struct, vdsManager.getCopyVds());
-                return new VdsmVm(notifyTime)
-                        .setVmDynamic(clonedVmDynamic)
-                        .setDevicesHash(vdsBrokerObjectsBuilder.getVmDevicesHash(struct));
-            }
+        try {
+            ThreadPoolUtil.execute(this::processPendingVms);
+        } catch (RejectedExecutionException e) {
+            processPendingVms();
+        }
+    }
+
+    private static boolean isNewer(Double notifyTime, Double otherNotifyTime) {
+        return notifyTime == null || otherNotifyTime == null || notifyTime >= otherNotifyTime;
+    }
 
-            private void addVmsToVdsManager(List<Pair<VmDynamic, VdsmVm>> vms) {
-                // We can assume that it's the first time the VMs will be on list in PoweringUp status.
-                Map<Guid, VMStatus> poweringUpVms = vms
-                        .stream()
-                        .map(Pair::getSecond)
-                        .filter(Objects::nonNull)
-                        .map(VdsmVm::getVmDynamic)
-                        .filter(v -> v.getStatus() == VMStatus.PoweringUp)
-                        .collect(Collectors.toMap(VmDynamic::getId, VmDynamic::getStatus));
-                vdsManager.addVmsToLastVmsList(poweringUpVms);
+    /**
+     * Processes the pending VMs until no more VMs are reported while processing them. Every round processes the
+     * oldest pending event of each VM.
+     */
+    private void processPendingVms() {
+        while (true) {
+            Map<Guid, PendingEvent> vmsToProcess = new LinkedHashMap<>();
+            synchronized (pendingVms) {
+                if (pendingVms.isEmpty()) {
+                    processingScheduled = false;
+                    return;
+                }
+                Iterator<Map.Entry<Guid, Deque<PendingEvent>>> iterator = pendingVms.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<Guid, Deque<PendingEvent>> entry = iterator.next();
+                    vmsToProcess.put(entry.getKey(), entry.getValue().pollFirst());
+                    if (entry.getValue().isEmpty()) {
+                        iterator.remove();
+                    }
+                }
             }
 
-            @Override
-            public void onError(Throwable t) {
-                // communication issue is delivered as a message so we need to request for more
-                subscription.request(1);
+            try {
+                // the data is as old as the earliest event it was reported by
+                long fetchTime = vmsToProcess.values().stream()
+                        .mapToLong(event -> event.receiveTime)
+                        .reduce((a, b) -> a - b < 0 ? a : b)
+                        .getAsLong();
+                List<Pair<VmDynamic, VdsmVm>> vms = vmsToProcess.entrySet().stream()
+                        .map(entry -> toMonitoredVm(
+                                entry.getKey(),
+                                entry.getValue().vmMap,
+                                entry.getValue().notifyTime))
+                        .collect(Collectors.toList());
+                addVmsToVdsManager(vms); // Prevent missing VMs on VdsManager::lastVmsList
+                getVmsMonitoring().perform(vms, fetchTime, vdsManager, false);
+                processDevices(vms.stream().map(Pair::getSecond), fetchTime);
+            } catch (Throwable t) {
+                log.error("Error processing VM stats monitoring event: {}", ExceptionUtils.getRootCauseMessage(t));
+                log.debug("Exception", t);
             }
+        }
+    }
 
-            @Override
-            public void onComplete() {
+    private Pair<VmDynamic, VdsmVm> toMonitoredVm(Guid vmId, Map<String, Object> vmMap, Double notifyTime) {
+        VmDynamic dbVm = vmDynamicDao.get(vmId);
+        VdsmVm vdsmVm = dbVm == null ?
+                createVdsmVm(vmId, vmMap, notifyTime)
+                : createVdsmVm(dbVm, vmMap, notifyTime);
+        return new Pair<>(dbVm, vdsmVm);
+    }
+
+    private VdsmVm createVdsmVm(Guid vmId, Map<String, Object> struct, Double notifyTime) {
+        VmDynamic fakeVm = new VmDynamic();
+        fakeVm.setId(vmId);
+        return createVdsmVm(fakeVm, struct, notifyTime);
+    }
+
+    private VdsmVm createVdsmVm(VmDynamic dbVmDynamic, Map<String, Object> struct, Double notifyTime) {
+        // send a clone of vm dynamic to be overridden with new data
+        VmDynamic clonedVmDynamic = new VmDynamic(dbVmDynamic);
+        vdsBrokerObjectsBuilder.updateVMDynamicData(clonedVmDynamic, struct, vdsManager.getCopyVds());
+        return new VdsmVm(notifyTime)
+                .setVmDynamic(clonedVmDynamic)
+                .setDevicesHash(vdsBrokerObjectsBuilder.getVmDevicesHash(struct));
+    }
+
+    private void addVmsToVdsManager(List<Pair<VmDynamic, VdsmVm>> vms) {
+        // We can assume that it's the first time the VMs will be on list in PoweringUp status.
+        Map<Guid, VMStatus> poweringUpVms = vms
+                .stream()
+                .map(Pair::getSecond)
+                .filter(Objects::nonNull)
+                .map(VdsmVm::getVmDynamic)
+                .filter(v -> v.getStatus() == VMStatus.PoweringUp)
+                .collect(Collectors.toMap(VmDynamic::getId, VmDynamic::getStatus));
+        vdsManager.addVmsToLastVmsList(poweringUpVms);
+    }
+
+    /**
+     * An event about a VM that was not processed yet.
+     */
+    private static class PendingEvent {
+        private Double notifyTime;
+        private final Map<String, Object> vmMap;
+        /** The time the earliest of the merged events was received, in nanoseconds */
+        private final long receiveTime;
+
+        private PendingEvent(Double notifyTime, Map<String, Object> vmMap, long receiveTime) {
+            this.notifyTime = notifyTime;
+            this.vmMap = new HashMap<>(vmMap);
+            this.receiveTime = receiveTime;
+        }
+
+        private boolean hasSameStatus(PendingEvent other) {
+            return Objects.equals(vmMap.get(VdsProperties.status), other.vmMap.get(VdsProperties.status));
+        }
+
+        /**
+         * Merges the fields of the given event, received after this one, into this event. The fields of the event
+         * that was reported last override the other's.
+         */
+        private void merge(PendingEvent other) {
+            if (isNewer(other.notifyTime, notifyTime)) {
+                vmMap.putAll(other.vmMap);
+                notifyTime = other.notifyTime;
+            } else {
+                other.vmMap.forEach(vmMap::putIfAbsent);
             }
-        });
+        }
     }
 
     @Override
     public void stopMonitoring() {
         allVmStatsOnlyRefresher.stopMonitoring();
         subscription.cancel();
+        synchronized (pendingVms) {
+            pendingVms.clear();
+        }
     }
 
 }
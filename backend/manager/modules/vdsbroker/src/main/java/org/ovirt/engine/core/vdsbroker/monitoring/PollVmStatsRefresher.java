@@ -64,6 +64,8 @@ public class PollVmStatsRefresher extends VmStatsRefresher {
                 processDevices(filterVmsToDevicesMonitoring(fetchedVms), fetchTime);
                 processExternalData(filterVmsToDevicesMonitoring(fetchedVms));
             }
+            // a host whose VMs are not monitored in its status has nothing to wait for
+            vdsManager.vmsMonitoringCycleFinished();
         } catch (Throwable t) {
             log.error("Failed during vms monitoring on host '{}'({}) error is: {}",
                     vdsManager.getVdsName(),
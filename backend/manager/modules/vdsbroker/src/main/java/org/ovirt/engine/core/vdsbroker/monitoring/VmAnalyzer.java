@@ -640,7 +640,7 @@ public class VmAnalyzer {
             rerun = true;
             log.info("Adding VM '{}'({}) to re-run list", dbVm.getId(), getVmManager().getName());
             dbVm.setMigratingToVds(null);
-            getVmManager().getStatistics().setMigrationProgressPercent(0);
+            getVmManager().setMigrationProgressPercent(0);
         }
 
         if (dbVm.getStatus() != VMStatus.NotResponding
@@ -1,10 +1,12 @@
 package org.ovirt.engine.core.vdsbroker.monitoring;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -23,7 +25,6 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.apache.commons.lang.StringUtils;
-import org.ovirt.engine.core.common.businessentities.Entities;
 import org.ovirt.engine.core.common.businessentities.VmDevice;
 import org.ovirt.engine.core.common.businessentities.VmDeviceGeneralType;
 import org.ovirt.engine.core.common.businessentities.VmDeviceId;
@@ -69,13 +70,15 @@ public class VmDevicesMonitoring {
      *         in the DB to detect individual changes. (<b>Note</b>: this works only if <code>vdsId</code> was set).
      *     </li>
      * </ul>
-     * After adding all the changes, call {@link #flush} to process them and store the result in the DB.
+     * After adding all the changes, call {@link #flush} to process them and store the result in the DB. The devices
+     * of all the VMs of the change are read from the DB at once, and the result is stored in a single transaction.
      */
     public class Change {
 
         private Guid vdsId;
 
         private List<Guid> vmsToProcess;
+        private List<Map<String, Object>> vmInfosToProcess;
         private List<VmDevice> devicesToProcess;
 
         private List<VmDevice> devicesToAdd;
@@ -118,6 +121,14 @@ public class VmDevicesMonitoring {
             vmsToProcess = addToOptionalList(vmsToProcess, vmId);
         }
 
+        private List<Map<String, Object>> getVmInfosToProcess() {
+            return getOptionalList(vmInfosToProcess);
+        }
+
+        private void addVmInfoToProcess(Map<String, Object> vmInfo) {
+            vmInfosToProcess = addToOptionalList(vmInfosToProcess, vmInfo);
+        }
+
         private List<VmDevice> getDevicesToProcess() {
             return getOptionalList(devicesToProcess);
         }
@@ -194,7 +205,8 @@ public class VmDevicesMonitoring {
         }
 
         /**
-         * Process FullList VDSM command result and add/remove/update devices in accordance to the information in it.
+         * Mark FullList VDSM command result to be processed on {@link #flush}, when devices are added/removed/updated
+         * in accordance to the information in it.
          *
          * @param vmInfo FullList VDSM command result
          */
@@ -206,7 +218,7 @@ public class VmDevicesMonitoring {
             }
 
             lockTouchedVm(vmId);
-            processVmDevices(this, vmInfo);
+            addVmInfoToProcess(vmInfo);
         }
 
         public void updateDevice(VmDevice device) {
@@ -233,7 +245,11 @@ public class VmDevicesMonitoring {
                 if (vmInfos != null) {
                     Stream.of(vmInfos).forEach(this::processFullList);
                 }
-                getDevicesToProcess().forEach(device -> processDevice(this, device));
+                Map<Guid, Map<VmDeviceId, VmDevice>> dbDevices = getDbDevices(this);
+                getVmInfosToProcess().forEach(vmInfo -> processVmDevices(this,
+                        vmInfo,
+                        dbDevices.getOrDefault(getVmId(vmInfo), Collections.emptyMap())));
+                getDevicesToProcess().forEach(device -> processDevice(this, device, dbDevices));
                 saveDevicesToDb(this);
             } catch (RuntimeException ex) {
                 log.error("Failed during vm devices monitoring on host {} error is: {}", vdsId, ex);
@@ -462,15 +478,33 @@ public class VmDevicesMonitoring {
             : new Map[0];
     }
 
+    /**
+     * Reads the devices of all the VMs processed by the <code>change</code> from the DB at once, indexed by VM and
+     * device id.
+     */
+    private Map<Guid, Map<VmDeviceId, VmDevice>> getDbDevices(Change change) {
+        Set<Guid> vmIds = new HashSet<>();
+        change.getVmInfosToProcess().forEach(vmInfo -> vmIds.add(getVmId(vmInfo)));
+        change.getDevicesToProcess().forEach(device -> vmIds.add(device.getVmId()));
+        if (vmIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<Guid, Map<VmDeviceId, VmDevice>> dbDevices = new HashMap<>();
+        getVmDeviceDao().getVmDevicesByVmIds(new ArrayList<>(vmIds)).forEach(device ->
+                dbDevices.computeIfAbsent(device.getVmId(), vmId -> new LinkedHashMap<>()).put(device.getId(), device));
+        return dbDevices;
+    }
+
     /**
      * Actually process the VM device update and store individual device additions/updates/removals
      * in the <code>change</code>.
      */
-    private void processVmDevices(Change change, Map<String, Object> vmInfo) {
+    private void processVmDevices(Change change, Map<String, Object> vmInfo, Map<VmDeviceId, VmDevice> dbDeviceMap) {
         Guid vmId = getVmId(vmInfo);
         Set<Guid> processedDeviceIds = new HashSet<>();
-        List<VmDevice> dbDevices = getVmDeviceDao().getVmDeviceByVmId(vmId);
-        Map<VmDeviceId, VmDevice> dbDeviceMap = Entities.businessEntitiesById(dbDevices);
+        Collection<VmDevice> dbDevices = dbDeviceMap.values();
+        Map<String, VmDevice> unmanagedDbDevicesByAddress = getUnmanagedDevicesByAddress(dbDevices);
 
         for (Object o: (Object[]) vmInfo.get(VdsProperties.Devices)) {
             Map<String, Object> vdsmDevice = (Map<String, Object>) o;
@@ -483,8 +517,16 @@ public class VmDevicesMonitoring {
             VmDevice dbDevice = dbDeviceMap.get(new VmDeviceId(deviceId, vmId));
             if (dbDevice == null) {
                 dbDevice = getByDeviceType((String) vdsmDevice.get(VdsProperties.Device), dbDeviceMap);
+                if (dbDevice == null) {
+                    dbDevice = unmanagedDbDevicesByAddress.remove(getAddressKey(
+                            (String) vdsmDevice.get(VdsProperties.Device),
+                            vdsmDevice.get(VdsProperties.Address).toString()));
+                }
                 deviceId = dbDevice != null ? dbDevice.getDeviceId() : deviceId;
             }
+            if (dbDevice != null) {
+                unmanagedDbDevicesByAddress.remove(getAddressKey(dbDevice.getDevice(), dbDevice.getAddress()), dbDevice);
+            }
             String logicalName = getDeviceLogicalName(vmInfo, vdsmDevice);
 
             if (deviceId == null || dbDevice == null) {
@@ -507,6 +549,23 @@ public class VmDevicesMonitoring {
         handleRemovedDevices(change, vmId, processedDeviceIds, dbDevices);
     }
 
+    /**
+     * Unmanaged devices reported without an id get a new id whenever they are added to the DB, so they are matched
+     * by their address instead, to update them rather than removing and adding them again.
+     */
+    private static Map<String, VmDevice> getUnmanagedDevicesByAddress(Collection<VmDevice> dbDevices) {
+        Map<String, VmDevice> devicesByAddress = new HashMap<>();
+        dbDevices.stream()
+                .filter(device -> !device.isManaged() && StringUtils.isNotEmpty(device.getAddress()))
+                .forEach(device -> devicesByAddress.putIfAbsent(
+                        getAddressKey(device.getDevice(), device.getAddress()), device));
+        return devicesByAddress;
+    }
+
+    private static String getAddressKey(String device, String address) {
+        return device + '@' + address;
+    }
+
     /**
      * Some of the devices need special treatment:
      * virtio-serial: this device was unmanaged before 3.6 and since 3.6 it is managed.
@@ -524,9 +583,8 @@ public class VmDevicesMonitoring {
         return null;
     }
 
-    private void processDevice(Change change, VmDevice device) {
-        List<VmDevice> dbDevices = getVmDeviceDao().getVmDevicesByDeviceId(device.getDeviceId(), device.getVmId());
-        if (dbDevices.isEmpty()) {
+    private void processDevice(Change change, VmDevice device, Map<Guid, Map<VmDeviceId, VmDevice>> dbDevices) {
+        if (!dbDevices.getOrDefault(device.getVmId(), Collections.emptyMap()).containsKey(device.getId())) {
             change.addDeviceToAdd(device);
         } else {
             change.addDeviceToUpdate(device);
@@ -586,7 +644,10 @@ public class VmDevicesMonitoring {
      * @param libvirtDevices list of IDs of devices that were returned by libvirt
      * @param dbDevices list of all devices present in the DB
      */
-    private void handleRemovedDevices(Change change, Guid vmId, Set<Guid> libvirtDevices, List<VmDevice> dbDevices) {
+    private void handleRemovedDevices(Change change,
+            Guid vmId,
+            Set<Guid> libvirtDevices,
+            Collection<VmDevice> dbDevices) {
         for (VmDevice device : dbDevices) {
             if (libvirtDevices.contains(device.getDeviceId())) {
                 continue;
@@ -685,34 +746,37 @@ public class VmDevicesMonitoring {
     }
 
     private void saveDevicesToDb(Change change) {
-        if (!change.getDevicesToUpdate().isEmpty()) {
-            getVmDeviceDao().updateAllInBatch(change.getDevicesToUpdate());
+        if (change.getDevicesToUpdate().isEmpty()
+                && change.getDeviceIdsToRemove().isEmpty()
+                && change.getDevicesToAdd().isEmpty()
+                && change.getVmsToSaveHash().isEmpty()) {
+            return;
         }
 
-        if (!change.getDeviceIdsToRemove().isEmpty()) {
-            TransactionSupport.executeInScope(TransactionScopeOption.Required, () -> {
+        TransactionSupport.executeInScope(TransactionScopeOption.Required, () -> {
+            if (!change.getDevicesToUpdate().isEmpty()) {
+                getVmDeviceDao().updateAllInBatch(change.getDevicesToUpdate());
+            }
+
+            if (!change.getDeviceIdsToRemove().isEmpty()) {
                 getVmDeviceDao().removeAll(change.getDeviceIdsToRemove());
-                return null;
-            });
-        }
+            }
 
-        if (!change.getDevicesToAdd().isEmpty()) {
-            TransactionSupport.executeInScope(TransactionScopeOption.Required, () -> {
+            if (!change.getDevicesToAdd().isEmpty()) {
                 getVmDeviceDao().saveAll(change.getDevicesToAdd());
-                return null;
-            });
-        }
+            }
+
+            if (!change.getVmsToSaveHash().isEmpty()) {
+                getVmDynamicDao().updateDevicesHashes(change.getVmsToSaveHash().stream()
+                        .map(vmId -> new Pair<>(vmId, vmDevicesStatuses.get(vmId).getHash()))
+                        .collect(Collectors.toList()));
+            }
+            return null;
+        });
 
         if (!change.getVmsToSaveHash().isEmpty()) {
-            TransactionSupport.executeInScope(TransactionScopeOption.Required, () -> {
-                        getVmDynamicDao().updateDevicesHashes(change.getVmsToSaveHash().stream()
-                                .map(vmId -> new Pair<>(vmId, vmDevicesStatuses.get(vmId).getHash()))
-                                .collect(Collectors.toList()));
-                return null;
-            });
             getVmStaticDao().incrementDbGenerationForVms(change.getVmsToSaveHash());
         }
-
     }
 
     private boolean shouldLogDeviceDetails(String deviceType) {
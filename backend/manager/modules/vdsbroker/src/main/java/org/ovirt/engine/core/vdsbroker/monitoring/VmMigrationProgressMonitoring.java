@@ -8,7 +8,6 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.ovirt.engine.core.common.BackendService;
-import org.ovirt.engine.core.common.businessentities.VmStatistics;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
@@ -49,8 +48,7 @@ public class VmMigrationProgressMonitoring extends EventSubscriber implements Ba
                 Guid vmId = new Guid(vmInfo.getKey());
                 Map<?, ?> properties = (Map<?, ?>) vmInfo.getValue();
                 int progress = Integer.parseInt(properties.get(VdsProperties.vm_migration_progress).toString());
-                VmStatistics vmStatistics = resourceManager.getVmManager(vmId).getStatistics();
-                vmStatistics.setMigrationProgressPercent(progress);
+                resourceManager.getVmManager(vmId).setMigrationProgressPercent(progress);
                 resourceManager.getEventListener().migrationProgressReported(vmId, progress);
                 Integer actualDowntime = (Integer) properties.get(VdsProperties.MIGRATION_DOWNTIME);
                 if (actualDowntime != null) {
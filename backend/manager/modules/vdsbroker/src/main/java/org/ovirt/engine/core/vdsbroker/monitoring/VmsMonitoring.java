@@ -6,14 +6,18 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import org.ovirt.engine.core.common.VdcObjectType;
 import org.ovirt.engine.core.common.businessentities.IVdsEventListener;
 import org.ovirt.engine.core.common.businessentities.VmDynamic;
 import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.TransactionScopeOption;
@@ -26,6 +30,7 @@ import org.ovirt.engine.core.dao.VmStatisticsDao;
 import org.ovirt.engine.core.dao.network.VmNetworkInterfaceDao;
 import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.ovirt.engine.core.vdsbroker.EntityChangeTracker;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.VdsManager;
 import org.ovirt.engine.core.vdsbroker.VmManager;
@@ -50,6 +55,8 @@ public class VmsMonitoring {
     private LunDisksMonitoring lunDisksMonitoring;
     @Inject
     private VmJobsMonitoring vmJobsMonitoring;
+    @Inject
+    private EntityChangeTracker entityChangeTracker;
 
     @Inject
     private DiskImageDynamicDao diskImageDynamicDao;
@@ -68,6 +75,9 @@ public class VmsMonitoring {
 
     private static final Logger log = LoggerFactory.getLogger(VmsMonitoring.class);
 
+    private final AtomicLong skippedVmDynamicWrites = new AtomicLong();
+    private final AtomicLong skippedVmStatisticsWrites = new AtomicLong();
+
     /**
      * analyze and react upon changes on the monitoredVms. relevant changes would
      * be persisted and state transitions and internal commands would
@@ -296,10 +306,16 @@ public class VmsMonitoring {
     }
 
     private void saveVmDynamic(List<VmAnalyzer> vmAnalyzers) {
-        vmDynamicDao.updateAllInBatch(vmAnalyzers.stream()
+        List<VmDynamic> vmDynamics = vmAnalyzers.stream()
                 .map(VmAnalyzer::getVmDynamicToSave)
                 .filter(Objects::nonNull)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
+        if (!vmDynamics.isEmpty()) {
+            vmDynamicDao.updateAllInBatch(vmDynamics);
+            entityChangeTracker.changed(VdcObjectType.VM,
+                    vmDynamics.stream().map(VmDynamic::getId).collect(Collectors.toList()));
+        }
+        reportSkippedWrites("dynamic data", vmDynamics.size(), vmAnalyzers.size(), skippedVmDynamicWrites);
     }
 
     private void saveVmInterfaceStatistics(List<VmAnalyzer> vmAnalyzers) {
@@ -314,8 +330,39 @@ public class VmsMonitoring {
                 .map(VmAnalyzer::getVmStatisticsToSave)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        vmStatisticsDao.updateAllInBatch(statistics);
-        statistics.forEach(stats -> getVmManager(stats.getId()).setStatistics(stats));
+        int maxPersistInterval = Config.<Integer> getValue(ConfigValues.VmStatisticsMaxPersistIntervalInSeconds);
+        List<VmStatistics> changedStatistics = new ArrayList<>(statistics.size());
+        statistics.forEach(stats -> {
+            VmManager vmManager = getVmManager(stats.getId());
+            if (vmManager.isStatisticsChanged(stats, maxPersistInterval)) {
+                changedStatistics.add(stats);
+            }
+            vmManager.setStatistics(stats);
+        });
+        if (!changedStatistics.isEmpty()) {
+            vmStatisticsDao.updateAllInBatch(changedStatistics);
+            changedStatistics.forEach(stats -> getVmManager(stats.getId()).statisticsPersisted(stats));
+            entityChangeTracker.changed(VdcObjectType.VM,
+                    changedStatistics.stream().map(VmStatistics::getId).collect(Collectors.toList()));
+        }
+        reportSkippedWrites("statistics", changedStatistics.size(), statistics.size(), skippedVmStatisticsWrites);
+    }
+
+    /**
+     * Logs how many of the analyzed VMs did not need to be written to the database in this cycle, along with the
+     * total number of writes that were skipped since the engine started.
+     */
+    private void reportSkippedWrites(String dataType, int written, int analyzed, AtomicLong skippedTotal) {
+        int skipped = analyzed - written;
+        long total = skippedTotal.addAndGet(skipped);
+        if (analyzed > 0) {
+            log.debug("VM {} written for {} out of {} VMs, skip ratio {}% ({} writes skipped in total)",
+                    dataType,
+                    written,
+                    analyzed,
+                    skipped * 100 / analyzed,
+                    total);
+        }
     }
 
     protected void addUnmanagedVms(List<VmAnalyzer> vmAnalyzers, Guid vdsId) {
@@ -97,9 +97,12 @@ public class CreateBrokerVDSCommand<P extends CreateVDSCommandParameters> extend
                 getParameters().getPassthroughVnicToVfMap(),
                 vmInfoBuildUtils);
         String libvirtXml = builder.buildCreateVm();
-        String prettyLibvirtXml = XmlUtils.prettify(libvirtXml);
-        if (prettyLibvirtXml != null) {
-            log.info("VM {}", prettyLibvirtXml);
+        // prettifying re-parses the whole document, so it is done only when it is going to be logged
+        if (log.isInfoEnabled()) {
+            String prettyLibvirtXml = XmlUtils.prettify(libvirtXml);
+            if (prettyLibvirtXml != null) {
+                log.info("VM {}", prettyLibvirtXml);
+            }
         }
         return libvirtXml;
     }
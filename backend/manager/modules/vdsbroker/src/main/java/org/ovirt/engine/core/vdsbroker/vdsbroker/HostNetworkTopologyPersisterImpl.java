@@ -21,7 +21,6 @@ import org.ovirt.engine.core.common.businessentities.VDS;
 import org.ovirt.engine.core.common.businessentities.VDSStatus;
 import org.ovirt.engine.core.common.businessentities.network.Network;
 import org.ovirt.engine.core.common.businessentities.network.VdsNetworkInterface;
-import org.ovirt.engine.core.common.businessentities.network.VdsNetworkInterface.NetworkImplementationDetails;
 import org.ovirt.engine.core.common.vdscommands.UserConfiguredNetworkData;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.TransactionScopeOption;
@@ -34,8 +33,10 @@ import org.ovirt.engine.core.dao.network.InterfaceDao;
 import org.ovirt.engine.core.dao.network.NetworkAttachmentDao;
 import org.ovirt.engine.core.dao.network.NetworkDao;
 import org.ovirt.engine.core.dao.provider.HostProviderBindingDao;
+import org.ovirt.engine.core.utils.transaction.TransactionCompletionListener;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
-import org.ovirt.engine.core.vdsbroker.NetworkImplementationDetailsUtils;
+import org.ovirt.engine.core.vdsbroker.HostNetworkSyncStatusCache;
+import org.ovirt.engine.core.vdsbroker.HostNetworkSyncStatusCache.HostNetworkSyncStatus;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.monitoring.NetworkMonitoringHelper;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.predicates.DisplayInterfaceEqualityPredicate;
@@ -51,7 +52,7 @@ final class HostNetworkTopologyPersisterImpl implements HostNetworkTopologyPersi
     private final ManagementNetworkUtil managementNetworkUtil;
     private final AuditLogDirector auditLogDirector;
     private final NetworkAttachmentDao networkAttachmentDao;
-    private final NetworkImplementationDetailsUtils networkImplementationDetailsUtils;
+    private final HostNetworkSyncStatusCache hostNetworkSyncStatusCache;
     private final VdsDynamicDao vdsDynamicDao;
     private final HostProviderBindingDao hostProviderBindingDao;
 
@@ -61,7 +62,7 @@ final class HostNetworkTopologyPersisterImpl implements HostNetworkTopologyPersi
                                      NetworkAttachmentDao networkAttachmentDao,
                                      NetworkDao networkDao,
                                      Instance<ResourceManager> resourceManager,
-                                     NetworkImplementationDetailsUtils networkImplementationDetailsUtils,
+                                     HostNetworkSyncStatusCache hostNetworkSyncStatusCache,
                                      ManagementNetworkUtil managementNetworkUtil,
                                      AuditLogDirector auditLogDirector,
                                      VdsDynamicDao vdsDynamicDao,
@@ -71,7 +72,7 @@ final class HostNetworkTopologyPersisterImpl implements HostNetworkTopologyPersi
         Validate.notNull(interfaceDao, "interfaceDao can not be null");
         Validate.notNull(vmDynamicDao, "vmDynamicDao can not be null");
         Validate.notNull(resourceManager, "resourceManager can not be null");
-        Validate.notNull(networkImplementationDetailsUtils, "networkImplementationDetailsUtils can not be null");
+        Validate.notNull(hostNetworkSyncStatusCache, "hostNetworkSyncStatusCache can not be null");
         Validate.notNull(managementNetworkUtil, "managementNetworkUtil can not be null");
         Validate.notNull(auditLogDirector, "auditLogDirector can not be null");
         Validate.notNull(vdsDynamicDao, "vdsDynamicDao can not be null");
@@ -83,7 +84,7 @@ final class HostNetworkTopologyPersisterImpl implements HostNetworkTopologyPersi
         this.resourceManager = resourceManager;
         this.managementNetworkUtil = managementNetworkUtil;
         this.networkAttachmentDao = networkAttachmentDao;
-        this.networkImplementationDetailsUtils = networkImplementationDetailsUtils;
+        this.hostNetworkSyncStatusCache = hostNetworkSyncStatusCache;
         this.auditLogDirector = auditLogDirector;
         this.vdsDynamicDao = vdsDynamicDao;
         this.hostProviderBindingDao = hostProviderBindingDao;
@@ -98,9 +99,10 @@ final class HostNetworkTopologyPersisterImpl implements HostNetworkTopologyPersi
             List<Network> clusterNetworks = networkDao.getAllForCluster(host.getClusterId());
 
             persistTopology(host, dbIfaces, clusterNetworks, userConfiguredData);
+            HostNetworkSyncStatus syncStatus = updateNetworkSyncStatus(host);
             NonOperationalReason nonOperationalReason =
                     enforceNetworkCompliance(host, skipManagementNetwork, clusterNetworks);
-            auditNetworkCompliance(host, dbIfaces, clusterNetworks);
+            auditNetworkCompliance(host, dbIfaces, clusterNetworks, syncStatus);
             return nonOperationalReason;
         });
     }
@@ -140,9 +142,30 @@ final class HostNetworkTopologyPersisterImpl implements HostNetworkTopologyPersi
         return NonOperationalReason.NONE;
     }
 
+    /**
+     * Calculates the sync status of the reported networks of the host, and stores it once the reported topology is
+     * committed.
+     */
+    private HostNetworkSyncStatus updateNetworkSyncStatus(VDS host) {
+        HostNetworkSyncStatus syncStatus = hostNetworkSyncStatusCache.calculate(host);
+        TransactionSupport.registerRollbackHandler(new TransactionCompletionListener() {
+            @Override
+            public void onSuccess() {
+                hostNetworkSyncStatusCache.update(host.getId(), syncStatus);
+            }
+
+            @Override
+            public void onRollback() {
+                hostNetworkSyncStatusCache.invalidate(host.getId());
+            }
+        });
+        return syncStatus;
+    }
+
     private void auditNetworkCompliance(VDS host,
             List<VdsNetworkInterface> dbIfaces,
-            List<Network> clusterNetworks) {
+            List<Network> clusterNetworks,
+            HostNetworkSyncStatus syncStatus) {
         if (host.getStatus() == VDSStatus.Maintenance) {
             return;
         }
@@ -150,7 +173,7 @@ final class HostNetworkTopologyPersisterImpl implements HostNetworkTopologyPersi
         final Map<String, Network> clusterNetworksByName = Entities.entitiesByName(clusterNetworks);
         final Collection<Network> dbHostNetworks = findNetworksOnInterfaces(dbIfaces, clusterNetworksByName);
         logChangedDisplayNetwork(host, dbHostNetworks, dbIfaces);
-        logUnsynchronizedNetworks(host, clusterNetworksByName);
+        logUnsynchronizedNetworks(host, syncStatus.getOutOfSyncNetworks());
     }
 
     @Override
@@ -241,22 +264,7 @@ final class HostNetworkTopologyPersisterImpl implements HostNetworkTopologyPersi
         return managementNetwork;
     }
 
-    private void logUnsynchronizedNetworks(VDS host, Map<String, Network> networks) {
-        List<String> networkNames = new ArrayList<>();
-
-        for (VdsNetworkInterface iface : host.getInterfaces()) {
-            Network network = networks.get(iface.getNetworkName());
-
-            NetworkImplementationDetails networkImplementationDetails =
-                networkImplementationDetailsUtils.calculateNetworkImplementationDetails(iface, network);
-
-            if (networkImplementationDetails != null
-                && !networkImplementationDetails.isInSync()
-                && networkImplementationDetails.isManaged()) {
-                networkNames.add(iface.getNetworkName());
-            }
-        }
-
+    private void logUnsynchronizedNetworks(VDS host, List<String> networkNames) {
         if (!networkNames.isEmpty()) {
             final AuditLogable logable = createAuditLogForHost(host);
             logable.addCustomValue("Networks", StringUtils.join(networkNames, ","));
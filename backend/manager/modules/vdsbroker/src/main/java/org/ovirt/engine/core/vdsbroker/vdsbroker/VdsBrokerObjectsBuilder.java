@@ -18,6 +18,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -142,6 +143,11 @@ public class VdsBrokerObjectsBuilder {
     private static final Pattern IPV6_ADDRESS_CAPTURE_PREFIX_PATTERN = Pattern.compile("^.*?/(\\d+)?$");
     private static final Pattern IPV6_ADDRESS_CAPTURE_PATTERN = Pattern.compile("^([^/]+)(:?/\\d{1,3})?$");
 
+    /**
+     * The statuses reported by VDSM that were already resolved, since they are parsed for every VM in every cycle
+     */
+    private static final Map<String, VMStatus> vmStatusByReportedStatus = new ConcurrentHashMap<>();
+
     @Inject
     private AuditLogDirector auditLogDirector;
     @Inject
@@ -540,14 +546,12 @@ public class VdsBrokerObjectsBuilder {
         adjustDisplayIp(vm.getGraphicsInfos(), host);
 
         if (struct.containsKey(VdsProperties.utc_diff)) {
-            String utc_diff = struct.get(VdsProperties.utc_diff).toString();
-            if (utc_diff.startsWith("+")) {
-                utc_diff = utc_diff.substring(1);
-            }
+            // a leading '+' is accepted by the parsing
+            Object utcDiff = struct.get(VdsProperties.utc_diff);
             try {
-                vm.setUtcDiff(Integer.parseInt(utc_diff));
+                vm.setUtcDiff(toInt(utcDiff));
             } catch (NumberFormatException e) {
-                log.error("Illegal vm offset (utc_diff) '{}'.", utc_diff);
+                log.error("Illegal vm offset (utc_diff) '{}'.", utcDiff);
             }
         }
 
@@ -577,18 +581,17 @@ public class VdsBrokerObjectsBuilder {
         }
 
         if (struct.containsKey(VdsProperties.exit_code)) {
-            String exitCodeStr = struct.get(VdsProperties.exit_code).toString();
-            vm.setExitStatus(VmExitStatus.forValue(Integer.parseInt(exitCodeStr)));
+            vm.setExitStatus(VmExitStatus.forValue(toInt(struct.get(VdsProperties.exit_code))));
         }
         if (struct.containsKey(VdsProperties.exit_message)) {
             String exitMsg = (String) struct.get(VdsProperties.exit_message);
             vm.setExitMessage(exitMsg);
         }
         if (struct.containsKey(VdsProperties.exit_reason)) {
-            String exitReasonStr = struct.get(VdsProperties.exit_reason).toString();
-            VmExitReason exitReason = VmExitReason.forValue(Integer.parseInt(exitReasonStr));
+            Object exitReasonValue = struct.get(VdsProperties.exit_reason);
+            VmExitReason exitReason = VmExitReason.forValue(toInt(exitReasonValue));
             if (exitReason == null) {
-                log.warn("Illegal exit reason: {}, replacing with Unknown", exitReasonStr);
+                log.warn("Illegal exit reason: {}, replacing with Unknown", exitReasonValue);
                 exitReason = VmExitReason.Unknown;
             }
             vm.setExitReason(exitReason);
@@ -596,7 +599,7 @@ public class VdsBrokerObjectsBuilder {
 
         // negative monitorResponse means it is erroneous
         if (struct.containsKey(VdsProperties.monitorResponse)) {
-            int response = Integer.parseInt(struct.get(VdsProperties.monitorResponse).toString());
+            int response = toInt(struct.get(VdsProperties.monitorResponse));
             if (response < 0 && vm.getStatus().isGuestCpuRunning()) {
                 vm.setStatus(VMStatus.NotResponding);
             }
@@ -841,12 +844,10 @@ public class VdsBrokerObjectsBuilder {
             VmNetworkInterface stats = new VmNetworkInterface();
 
             if (nic.containsKey(VdsProperties.VM_INTERFACE_NAME)) {
-                stats.setName((String) ((nic.get(VdsProperties.VM_INTERFACE_NAME) instanceof String) ? nic
-                        .get(VdsProperties.VM_INTERFACE_NAME) : null));
+                stats.setName(assignStringValue(nic, VdsProperties.VM_INTERFACE_NAME));
             }
             extractInterfaceStatistics(nic, stats);
-            stats.setMacAddress((String) ((nic.get(VdsProperties.MAC_ADDR) instanceof String) ? nic
-                    .get(VdsProperties.MAC_ADDR) : null));
+            stats.setMacAddress(assignStringValue(nic, VdsProperties.MAC_ADDR));
             interfaceStatistics.add(stats);
         }
         return interfaceStatistics;
@@ -873,16 +874,16 @@ public class VdsBrokerObjectsBuilder {
         if (struct.containsKey(VdsProperties.vm_guest_mem_stats)) {
             Map<String, Object> sub = (Map<String, Object>)struct.get(VdsProperties.vm_guest_mem_stats);
             if (sub.containsKey(VdsProperties.vm_guest_mem_buffered)) {
-                vm.setGuestMemoryBuffered(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_buffered).toString()));
+                vm.setGuestMemoryBuffered(toLong(sub.get(VdsProperties.vm_guest_mem_buffered)));
             }
             if (sub.containsKey(VdsProperties.vm_guest_mem_cached)) {
-                vm.setGuestMemoryCached(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_cached).toString()));
+                vm.setGuestMemoryCached(toLong(sub.get(VdsProperties.vm_guest_mem_cached)));
             }
             if (sub.containsKey(VdsProperties.vm_guest_mem_free)) {
-                vm.setGuestMemoryFree(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_free).toString()));
+                vm.setGuestMemoryFree(toLong(sub.get(VdsProperties.vm_guest_mem_free)));
             }
             if (sub.containsKey(VdsProperties.vm_guest_mem_unused)) {
-                vm.setGuestMemoryUnused(Long.parseLong(sub.get(VdsProperties.vm_guest_mem_unused).toString()));
+                vm.setGuestMemoryUnused(toLong(sub.get(VdsProperties.vm_guest_mem_unused)));
             }
         }
 
@@ -1609,9 +1610,9 @@ public class VdsBrokerObjectsBuilder {
     private static InterfaceStatus assignInterfaceStatusValue(Map<String, Object> input, String name) {
         InterfaceStatus ifaceStatus = InterfaceStatus.NONE;
         if (input.containsKey(name)) {
-            String stringValue = (String) ((input.get(name) instanceof String) ? input.get(name) : null);
+            String stringValue = assignStringValue(input, name);
             if (!StringUtils.isEmpty(stringValue)) {
-                if (stringValue.toLowerCase().trim().equals("up")) {
+                if ("up".equalsIgnoreCase(stringValue.trim())) {
                     ifaceStatus = InterfaceStatus.UP;
                 } else {
                     ifaceStatus = InterfaceStatus.DOWN;
@@ -1643,52 +1644,61 @@ public class VdsBrokerObjectsBuilder {
     }
 
     private static Integer assignIntValue(Map input, String name) {
-        if (input.containsKey(name)) {
-            if (input.get(name) instanceof Integer) {
-                return (Integer) input.get(name);
-            }
-            String stringValue = (String) input.get(name);
-            if (StringUtils.isNotEmpty(stringValue)) { // in case the input
-                                                       // is decimal and we
-                                                       // need int.
-                stringValue = stringValue.split("[.]", -1)[0];
-
-                try {
-                    return Integer.parseInt(stringValue);
-                } catch (NumberFormatException nfe) {
-                    log.error("Failed to parse '{}' value '{}' to integer: {}", name, stringValue, nfe.getMessage());
-                }
+        Object value = input.get(name);
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        String stringValue = (String) value;
+        if (StringUtils.isNotEmpty(stringValue)) {
+            try {
+                // in case the input is decimal and we need int
+                return Integer.parseInt(stringValue, 0, integerPartLength(stringValue), 10);
+            } catch (NumberFormatException nfe) {
+                log.error("Failed to parse '{}' value '{}' to integer: {}", name, stringValue, nfe.getMessage());
             }
         }
         return null;
     }
 
     private static Long assignLongValue(Map<String, Object> input, String name) {
-        if (input.containsKey(name)) {
-            if (input.get(name) instanceof Long || input.get(name) instanceof Integer) {
-                return Long.parseLong(input.get(name).toString());
-            }
-            String stringValue = (String) ((input.get(name) instanceof String) ? input.get(name) : null);
-            if (!StringUtils.isEmpty(stringValue)) { // in case the input
-                                                     // is decimal and we
-                                                     // need int.
-                stringValue = stringValue.split("[.]", -1)[0];
-
-                try {
-                    return Long.parseLong(stringValue);
-                } catch (NumberFormatException e) {
-                    log.error("Failed to parse '{}' value '{}' to long: {}", name, stringValue, e.getMessage());
-                }
+        Object value = input.get(name);
+        if (value instanceof Long || value instanceof Integer) {
+            return ((Number) value).longValue();
+        }
+        String stringValue = value instanceof String ? (String) value : null;
+        if (!StringUtils.isEmpty(stringValue)) {
+            try {
+                // in case the input is decimal and we need long
+                return Long.parseLong(stringValue, 0, integerPartLength(stringValue), 10);
+            } catch (NumberFormatException e) {
+                log.error("Failed to parse '{}' value '{}' to long: {}", name, stringValue, e.getMessage());
             }
         }
         return null;
     }
 
+    /**
+     * Returns the length of the part of the given number that precedes its decimal point, so it can be parsed in place
+     * rather than split.
+     */
+    private static int integerPartLength(String number) {
+        int decimalPoint = number.indexOf('.');
+        return decimalPoint < 0 ? number.length() : decimalPoint;
+    }
+
+    private static int toInt(Object value) {
+        return value instanceof Integer ? (Integer) value : Integer.parseInt(value.toString());
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Long || value instanceof Integer
+                ? ((Number) value).longValue()
+                : Long.parseLong(value.toString());
+    }
+
     private static String assignStringValue(Map<String, Object> input, String name) {
-        if (input.containsKey(name)) {
-            return (String) ((input.get(name) instanceof String) ? input.get(name) : null);
-        }
-        return null;
+        Object value = input.get(name);
+        return value instanceof String ? (String) value : null;
     }
 
     private static String[] assignStringArrayValue(Map<String, Object> input, String name) {
@@ -1734,10 +1744,11 @@ public class VdsBrokerObjectsBuilder {
 
     private static Boolean assignBoolValue(Map<String, Object> input, String name) {
         if (input.containsKey(name)) {
-            if (input.get(name) instanceof Boolean) {
-                return (Boolean) input.get(name);
+            Object value = input.get(name);
+            if (value instanceof Boolean) {
+                return (Boolean) value;
             }
-            return Boolean.parseBoolean(input.get(name).toString());
+            return Boolean.parseBoolean(value.toString());
         }
         return Boolean.FALSE;
     }
@@ -1850,11 +1861,17 @@ public class VdsBrokerObjectsBuilder {
             return VMStatus.MigratingTo;
 
         default:
-            status = status.replace(" ", "");
+            VMStatus vmStatus = vmStatusByReportedStatus.get(status);
+            if (vmStatus != null) {
+                return vmStatus;
+            }
+            String statusName = status.replace(" ", "");
             try {
-                return EnumUtils.valueOf(VMStatus.class, status, true);
+                vmStatus = EnumUtils.valueOf(VMStatus.class, statusName, true);
+                vmStatusByReportedStatus.put(status, vmStatus);
+                return vmStatus;
             } catch (Exception e) {
-                log.error("Illegal VM status: '{}'.", status);
+                log.error("Illegal VM status: '{}'.", statusName);
                 return VMStatus.Unassigned;
             }
         }
@@ -2552,7 +2569,7 @@ public class VdsBrokerObjectsBuilder {
         if (struct.containsKey(propertyName)){
             Object[] items = (Object[]) struct.get(propertyName);
             if (items.length > 0) {
-                return Arrays.stream(items).map(item -> (T) item).collect(Collectors.toList());
+                return new ArrayList<>(Arrays.asList((T[]) items));
             }
         }
         return Collections.emptyList();
@@ -31,9 +31,7 @@ import org.ovirt.engine.core.dao.VdsDynamicDao;
 import org.ovirt.engine.core.dao.VdsStaticDao;
 import org.ovirt.engine.core.dao.network.DnsResolverConfigurationDao;
 import org.ovirt.engine.core.dao.network.HostNetworkQosDao;
-import org.ovirt.engine.core.dao.network.InterfaceDao;
 import org.ovirt.engine.core.dao.network.NetworkAttachmentDao;
-import org.ovirt.engine.core.dao.network.NetworkDao;
 import org.ovirt.engine.core.utils.MockConfigDescriptor;
 import org.ovirt.engine.core.utils.MockConfigExtension;
 import org.ovirt.engine.core.utils.RandomUtils;
@@ -57,12 +55,6 @@ public abstract class BaseNetworkImplementationDetailsUtilsTest {
     @Mock
     private ClusterDao clusterDaoMock;
 
-    @Mock
-    private InterfaceDao interfaceDaoMock;
-
-    @Mock
-    private NetworkDao networkDaoMock;
-
     @Mock
     private DnsResolverConfigurationDao dnsResolverConfigurationDaoMock;
 
@@ -116,8 +108,6 @@ public abstract class BaseNetworkImplementationDetailsUtilsTest {
                 networkAttachmentDaoMock,
                 vdsStaticDaoMock,
                 clusterDaoMock,
-                interfaceDaoMock,
-                networkDaoMock,
                 dnsResolverConfigurationDaoMock,
                 calculateBaseNic,
                 this.defaultRouteUtil);
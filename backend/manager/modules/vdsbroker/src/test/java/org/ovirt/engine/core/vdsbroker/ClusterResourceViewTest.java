@@ -0,0 +1,99 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.compat.Guid;
+
+public class ClusterResourceViewTest {
+
+    private final ClusterResourceView view = new ClusterResourceView();
+
+    @Test
+    public void unknownCluster() {
+        assertNull(view.getSnapshot(Guid.newGuid()));
+    }
+
+    @Test
+    public void hostsAreReadByStatus() {
+        Guid clusterId = Guid.newGuid();
+        VDS upHost = createHost(clusterId, VDSStatus.Up);
+        view.update(upHost);
+        view.update(createHost(clusterId, VDSStatus.Maintenance));
+
+        List<VDS> hosts = view.getSnapshot(clusterId).getHosts(VDSStatus.Up);
+        assertEquals(1, hosts.size());
+        assertEquals(upHost.getId(), hosts.get(0).getId());
+    }
+
+    @Test
+    public void readersGetCopies() {
+        Guid clusterId = Guid.newGuid();
+        VDS host = createHost(clusterId, VDSStatus.Up);
+        view.update(host);
+        host.setStatus(VDSStatus.Maintenance);
+
+        ClusterResourceView.ClusterSnapshot snapshot = view.getSnapshot(clusterId);
+        VDS first = snapshot.getHosts(VDSStatus.Up).get(0);
+        first.setPendingVmemSize(1024);
+        VDS second = snapshot.getHosts(VDSStatus.Up).get(0);
+
+        assertNotSame(first, second);
+        assertEquals(0, second.getPendingVmemSize());
+    }
+
+    @Test
+    public void snapshotIsNotAffectedByLaterUpdates() {
+        Guid clusterId = Guid.newGuid();
+        VDS host = createHost(clusterId, VDSStatus.Up);
+        view.update(host);
+        ClusterResourceView.ClusterSnapshot snapshot = view.getSnapshot(clusterId);
+
+        host.setStatus(VDSStatus.NonResponsive);
+        view.update(host);
+
+        assertEquals(1, snapshot.getHosts(VDSStatus.Up).size());
+        assertTrue(view.getSnapshot(clusterId).getHosts(VDSStatus.Up).isEmpty());
+        assertTrue(view.getSnapshot(clusterId).getVersion() > snapshot.getVersion());
+    }
+
+    @Test
+    public void movedHostLeavesItsPreviousCluster() {
+        Guid clusterId = Guid.newGuid();
+        Guid newClusterId = Guid.newGuid();
+        VDS host = createHost(clusterId, VDSStatus.Up);
+        view.update(host);
+
+        host.setClusterId(newClusterId);
+        view.update(host);
+
+        assertTrue(view.getSnapshot(clusterId).getHosts(VDSStatus.Up).isEmpty());
+        assertEquals(1, view.getSnapshot(newClusterId).getHosts(VDSStatus.Up).size());
+    }
+
+    @Test
+    public void removedHost() {
+        Guid clusterId = Guid.newGuid();
+        VDS host = createHost(clusterId, VDSStatus.Up);
+        view.update(host);
+
+        view.remove(host.getId());
+
+        assertTrue(view.getSnapshot(clusterId).getHosts(VDSStatus.Up).isEmpty());
+    }
+
+    private static VDS createHost(Guid clusterId, VDSStatus status) {
+        VDS host = new VDS();
+        host.setId(Guid.newGuid());
+        host.setClusterId(clusterId);
+        host.setStatus(status);
+        return host;
+    }
+}
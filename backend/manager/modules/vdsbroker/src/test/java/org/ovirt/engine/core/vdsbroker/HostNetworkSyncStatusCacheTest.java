@@ -0,0 +1,181 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VdsStatic;
+import org.ovirt.engine.core.common.businessentities.network.Network;
+import org.ovirt.engine.core.common.businessentities.network.NetworkCluster;
+import org.ovirt.engine.core.common.businessentities.network.VdsNetworkInterface;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.ClusterDao;
+import org.ovirt.engine.core.dao.VdsStaticDao;
+import org.ovirt.engine.core.dao.network.InterfaceDao;
+import org.ovirt.engine.core.dao.network.NetworkDao;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class HostNetworkSyncStatusCacheTest {
+
+    private static final Guid CLUSTER_ID = Guid.newGuid();
+    private static final String NETWORK_NAME = "net";
+
+    @Mock
+    private NetworkImplementationDetailsUtils networkImplementationDetailsUtils;
+
+    @Mock
+    private NetworkDao networkDao;
+
+    @Mock
+    private ClusterDao clusterDao;
+
+    @Mock
+    private VdsStaticDao vdsStaticDao;
+
+    @Mock
+    private InterfaceDao interfaceDao;
+
+    private HostNetworkSyncStatusCache cache;
+    private VdsStatic inSyncHost;
+    private VdsStatic outOfSyncHost;
+    private VdsNetworkInterface outOfSyncIface;
+    private Network network;
+
+    @BeforeEach
+    public void setUp() {
+        Cluster cluster = new Cluster();
+        cluster.setId(CLUSTER_ID);
+        when(clusterDao.get(CLUSTER_ID)).thenReturn(cluster);
+
+        network = createNetwork(1500);
+        Map<String, Network> networks = new HashMap<>();
+        networks.put(NETWORK_NAME, network);
+        when(networkDao.getNetworksForCluster(CLUSTER_ID)).thenReturn(networks);
+        when(networkImplementationDetailsUtils.calcQosByNetworkIdMap(any())).thenReturn(new HashMap<>());
+
+        inSyncHost = createHost("b");
+        outOfSyncHost = createHost("a");
+        when(vdsStaticDao.getAllForCluster(CLUSTER_ID)).thenReturn(Arrays.asList(inSyncHost, outOfSyncHost));
+
+        VdsNetworkInterface inSyncIface = createIface(inSyncHost.getId());
+        outOfSyncIface = createIface(outOfSyncHost.getId());
+        when(interfaceDao.getAllInterfacesForVds(inSyncHost.getId()))
+                .thenReturn(Collections.singletonList(inSyncIface));
+        when(interfaceDao.getAllInterfacesForVds(outOfSyncHost.getId()))
+                .thenReturn(Collections.singletonList(outOfSyncIface));
+        when(networkImplementationDetailsUtils.isNetworkOutOfSync(eq(outOfSyncIface), any(), any(), any()))
+                .thenReturn(true);
+
+        cache = new HostNetworkSyncStatusCache(networkImplementationDetailsUtils,
+                networkDao,
+                clusterDao,
+                vdsStaticDao,
+                interfaceDao);
+    }
+
+    @Test
+    public void statusIsCalculatedOnce() {
+        assertOutOfSyncHost();
+        assertOutOfSyncHost();
+
+        verify(interfaceDao).getAllInterfacesForVds(inSyncHost.getId());
+        verify(interfaceDao).getAllInterfacesForVds(outOfSyncHost.getId());
+    }
+
+    @Test
+    public void statusIsCalculatedAgainWhenNetworksChange() {
+        assertOutOfSyncHost();
+
+        Map<String, Network> networks = new HashMap<>();
+        networks.put(NETWORK_NAME, createNetwork(9000));
+        when(networkDao.getNetworksForCluster(CLUSTER_ID)).thenReturn(networks);
+        assertOutOfSyncHost();
+
+        verify(interfaceDao, times(2)).getAllInterfacesForVds(outOfSyncHost.getId());
+    }
+
+    @Test
+    public void reportedStatusIsUsed() {
+        VDS host = new VDS();
+        host.setId(outOfSyncHost.getId());
+        host.setClusterId(CLUSTER_ID);
+        host.getInterfaces().add(outOfSyncIface);
+
+        HostNetworkSyncStatusCache.HostNetworkSyncStatus status = cache.calculate(host);
+        assertEquals(Collections.singletonList(NETWORK_NAME), status.getOutOfSyncNetworks());
+        cache.update(host.getId(), status);
+
+        assertOutOfSyncHost();
+        verify(interfaceDao, never()).getAllInterfacesForVds(outOfSyncHost.getId());
+    }
+
+    @Test
+    public void invalidatedStatusIsCalculatedAgain() {
+        assertOutOfSyncHost();
+
+        cache.invalidate(outOfSyncHost.getId());
+        assertOutOfSyncHost();
+
+        verify(interfaceDao).getAllInterfacesForVds(inSyncHost.getId());
+        verify(interfaceDao, times(2)).getAllInterfacesForVds(outOfSyncHost.getId());
+    }
+
+    @Test
+    public void removedCluster() {
+        when(clusterDao.get(CLUSTER_ID)).thenReturn(null);
+
+        assertTrue(cache.getOutOfSyncHosts(CLUSTER_ID).isEmpty());
+    }
+
+    private void assertOutOfSyncHost() {
+        Map<Guid, String> outOfSyncHosts = cache.getOutOfSyncHosts(CLUSTER_ID);
+        assertEquals(List.of(outOfSyncHost.getId()), List.copyOf(outOfSyncHosts.keySet()));
+        assertEquals(outOfSyncHost.getName(), outOfSyncHosts.get(outOfSyncHost.getId()));
+    }
+
+    private Network createNetwork(int mtu) {
+        Network network = new Network();
+        network.setId(this.network == null ? Guid.newGuid() : this.network.getId());
+        network.setName(NETWORK_NAME);
+        network.setMtu(mtu);
+        network.setCluster(new NetworkCluster());
+        return network;
+    }
+
+    private VdsStatic createHost(String name) {
+        VdsStatic host = new VdsStatic();
+        host.setId(Guid.newGuid());
+        host.setName(name);
+        host.setClusterId(CLUSTER_ID);
+        return host;
+    }
+
+    private VdsNetworkInterface createIface(Guid hostId) {
+        VdsNetworkInterface iface = new VdsNetworkInterface();
+        iface.setId(Guid.newGuid());
+        iface.setVdsId(hostId);
+        iface.setNetworkName(NETWORK_NAME);
+        return iface;
+    }
+}
@@ -0,0 +1,134 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VmDevice;
+import org.ovirt.engine.core.common.businessentities.VmDeviceId;
+import org.ovirt.engine.core.common.businessentities.VmStatic;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.ClusterDao;
+import org.ovirt.engine.core.dao.VmDeviceDao;
+import org.ovirt.engine.core.dao.VmStaticDao;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+
+/**
+ * Tests the creation of the managers of the VMs that ran on hosts when the engine started, from data loaded in bulk.
+ */
+@ExtendWith({MockConfigExtension.class, MockitoExtension.class, InjectorExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ResourceManagerTest {
+
+    @Mock
+    private ClusterDao clusterDao;
+
+    @Mock
+    private VmStaticDao vmStaticDao;
+
+    @Mock
+    private VmDeviceDao vmDeviceDao;
+
+    @InjectMocks
+    private ResourceManager resourceManager;
+
+    private Cluster cluster;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.EventProcessingPoolSize, 10),
+                MockConfigDescriptor.of(ConfigValues.EventPurgeTimeoutInHours, 3)
+        );
+    }
+
+    @BeforeEach
+    public void setUp() {
+        cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        when(clusterDao.getAll()).thenReturn(Collections.singletonList(cluster));
+        when(vmStaticDao.getByIds(anyList())).thenAnswer(invocation -> invocation.<List<Guid>> getArgument(0)
+                .stream()
+                .map(this::createVmStatic)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void vmManagersAreCreatedInBatches() {
+        List<Guid> vmIds = createVmIds(ResourceManager.WARM_UP_BATCH_SIZE + 1);
+        when(vmDeviceDao.getVmDevicesByVmIds(anyList())).thenReturn(Collections.emptyList());
+
+        resourceManager.warmUpVmManagers(vmIds);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Guid>> batches = ArgumentCaptor.forClass(List.class);
+        verify(vmStaticDao, times(2)).getByIds(batches.capture());
+        assertEquals(ResourceManager.WARM_UP_BATCH_SIZE, batches.getAllValues().get(0).size());
+        assertEquals(Collections.singletonList(vmIds.get(ResourceManager.WARM_UP_BATCH_SIZE)),
+                batches.getAllValues().get(1));
+        verify(vmDeviceDao, times(2)).getVmDevicesByVmIds(anyList());
+        assertEquals(vmIds.size(), resourceManager.getWarmedUpVmManagers());
+        vmIds.forEach(vmId -> assertNotNull(resourceManager.getVmManager(vmId, false)));
+    }
+
+    @Test
+    public void vmManagerIsCreatedForVmWithoutDevices() {
+        List<Guid> vmIds = createVmIds(2);
+        VmDevice device = new VmDevice();
+        device.setId(new VmDeviceId(Guid.newGuid(), vmIds.get(0)));
+        when(vmDeviceDao.getVmDevicesByVmIds(vmIds)).thenReturn(Collections.singletonList(device));
+
+        resourceManager.warmUpVmManagers(vmIds);
+
+        verify(vmDeviceDao, times(1)).getVmDevicesByVmIds(anyList());
+        assertNotNull(resourceManager.getVmManager(vmIds.get(0), false));
+        assertNotNull(resourceManager.getVmManager(vmIds.get(1), false));
+    }
+
+    @Test
+    public void vmManagerIsNotCreatedForVmOfUnknownCluster() {
+        List<Guid> vmIds = createVmIds(1);
+        when(clusterDao.getAll()).thenReturn(Collections.emptyList());
+
+        resourceManager.warmUpVmManagers(vmIds);
+
+        assertNull(resourceManager.getVmManager(vmIds.get(0), false));
+    }
+
+    private VmStatic createVmStatic(Guid vmId) {
+        VmStatic vmStatic = new VmStatic();
+        vmStatic.setId(vmId);
+        vmStatic.setClusterId(cluster.getId());
+        return vmStatic;
+    }
+
+    private static List<Guid> createVmIds(int count) {
+        List<Guid> vmIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            vmIds.add(Guid.newGuid());
+        }
+        return vmIds;
+    }
+}
@@ -0,0 +1,76 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VmStatic;
+import org.ovirt.engine.core.common.scheduling.VmOverheadCalculator;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.compat.Version;
+import org.ovirt.engine.core.dao.ClusterDao;
+import org.ovirt.engine.core.dao.VmDeviceDao;
+import org.ovirt.engine.core.dao.VmStaticDao;
+
+@ExtendWith(MockitoExtension.class)
+public class VmManagerTest {
+
+    private final Cluster cluster = createCluster();
+
+    private final VmStatic vmStatic = createVmStatic(cluster);
+
+    @Mock
+    private VmStaticDao vmStaticDao;
+
+    @Mock
+    private ClusterDao clusterDao;
+
+    @Mock
+    private VmDeviceDao vmDeviceDao;
+
+    @Mock
+    private VmOverheadCalculator vmOverheadCalculator;
+
+    /** The manager of a VM whose data was loaded in bulk, without any devices */
+    @InjectMocks
+    private VmManager vmManager = new VmManager(vmStatic, cluster, Collections.emptyList());
+
+    @Test
+    public void prefetchedDataIsNotLoadedAgain() {
+        when(vmOverheadCalculator.getTotalRequiredMemMb(any())).thenReturn(1088);
+
+        vmManager.init();
+
+        verifyNoInteractions(vmStaticDao, clusterDao, vmDeviceDao);
+        assertEquals(vmStatic.getName(), vmManager.getName());
+        assertEquals(cluster.getCompatibilityVersion(), vmManager.getClusterCompatibilityVersion());
+        assertEquals(1088, vmManager.getVmMemoryWithOverheadInMB());
+        assertTrue(vmStatic.getManagedDeviceMap().isEmpty());
+    }
+
+    private static Cluster createCluster() {
+        Cluster cluster = new Cluster();
+        cluster.setId(Guid.newGuid());
+        cluster.setCompatibilityVersion(Version.getLast());
+        return cluster;
+    }
+
+    private static VmStatic createVmStatic(Cluster cluster) {
+        VmStatic vmStatic = new VmStatic();
+        vmStatic.setId(Guid.newGuid());
+        vmStatic.setName("vm");
+        vmStatic.setClusterId(cluster.getId());
+        vmStatic.setMemSizeMb(1024);
+        return vmStatic;
+    }
+}
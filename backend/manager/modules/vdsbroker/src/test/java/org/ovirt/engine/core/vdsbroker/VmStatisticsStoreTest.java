@@ -0,0 +1,118 @@
+package org.ovirt.engine.core.vdsbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.compat.Guid;
+
+public class VmStatisticsStoreTest {
+
+    private final VmStatisticsStore store = new VmStatisticsStore();
+
+    @Test
+    public void statisticsAreStored() {
+        VmStatistics statistics = createStatistics(Guid.newGuid(), 1.5);
+        store.update(statistics);
+
+        VmStatistics stored = store.get(statistics.getId());
+        assertEquals(statistics, stored);
+        assertEquals(statistics.getGuestMemoryFree(), stored.getGuestMemoryFree());
+        assertNotSame(statistics.getCpuUsageHistory(), stored.getCpuUsageHistory());
+    }
+
+    @Test
+    public void missingValuesAreStored() {
+        VmStatistics statistics = new VmStatistics(Guid.newGuid());
+        statistics.setCpuSys(null);
+        store.update(statistics);
+
+        VmStatistics stored = store.get(statistics.getId());
+        assertEquals(statistics, stored);
+        assertNull(stored.getCpuSys());
+        assertNull(stored.getUsageMemPercent());
+        assertNull(stored.getGuestMemoryCached());
+    }
+
+    @Test
+    public void statisticsAreReplaced() {
+        Guid vmId = Guid.newGuid();
+        store.update(createStatistics(vmId, 1));
+        VmStatistics statistics = createStatistics(vmId, 2);
+        store.update(statistics);
+        assertEquals(statistics, store.get(vmId));
+    }
+
+    @Test
+    public void unknownVm() {
+        assertNull(store.get(Guid.newGuid()));
+    }
+
+    @Test
+    public void removedSlotIsReused() {
+        Guid removedVmId = Guid.newGuid();
+        store.update(createStatistics(removedVmId, 1));
+        store.remove(removedVmId);
+        VmStatistics statistics = createStatistics(Guid.newGuid(), 2);
+        store.update(statistics);
+
+        assertNull(store.get(removedVmId));
+        assertEquals(statistics, store.get(statistics.getId()));
+    }
+
+    @Test
+    public void manyVms() {
+        List<VmStatistics> statistics = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            VmStatistics vmStatistics = createStatistics(Guid.newGuid(), i);
+            statistics.add(vmStatistics);
+            store.update(vmStatistics);
+        }
+        statistics.forEach(vmStatistics -> assertEquals(vmStatistics, store.get(vmStatistics.getId())));
+    }
+
+    @Test
+    public void readersGetConsistentStatistics() throws InterruptedException {
+        Guid vmId = Guid.newGuid();
+        store.update(createStatistics(vmId, 0));
+        AtomicReference<VmStatistics> inconsistent = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                VmStatistics statistics = store.get(vmId);
+                if (!statistics.getCpuSys().equals(statistics.getCpuUser())
+                        || statistics.getCpuSys().intValue() != statistics.getUsageMemPercent()) {
+                    inconsistent.set(statistics);
+                }
+            }
+        });
+
+        reader.start();
+        for (int i = 1; reader.isAlive(); i++) {
+            store.update(createStatistics(vmId, i % 100));
+        }
+        reader.join();
+        assertNull(inconsistent.get());
+    }
+
+    private static VmStatistics createStatistics(Guid vmId, double value) {
+        VmStatistics statistics = new VmStatistics(vmId);
+        statistics.setCpuSys(value);
+        statistics.setCpuUser(value);
+        statistics.setElapsedTime(value * 10);
+        statistics.setUsageCpuPercent((int) value);
+        statistics.setUsageMemPercent((int) value);
+        statistics.setUsageNetworkPercent((int) value);
+        statistics.setMigrationProgressPercent(0);
+        statistics.setGuestMemoryFree((long) value * 1024);
+        statistics.setDisksUsage("[]");
+        statistics.setCpuUsageHistory(new ArrayList<>(Arrays.asList(1, 2, 3)));
+        return statistics;
+    }
+}
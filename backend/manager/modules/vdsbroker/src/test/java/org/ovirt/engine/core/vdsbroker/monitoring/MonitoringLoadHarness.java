@@ -0,0 +1,547 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.mockito.internal.configuration.plugins.Plugins;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.plugins.MemberAccessor;
+import org.ovirt.engine.core.common.businessentities.ArchitectureType;
+import org.ovirt.engine.core.common.businessentities.BiosType;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.IVdsEventListener;
+import org.ovirt.engine.core.common.businessentities.LogMaxMemoryUsedThresholdType;
+import org.ovirt.engine.core.common.businessentities.OriginType;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VDSStatus;
+import org.ovirt.engine.core.common.businessentities.VDSType;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.businessentities.VmStatic;
+import org.ovirt.engine.core.common.vdscommands.VDSCommandType;
+import org.ovirt.engine.core.common.vdscommands.VDSReturnValue;
+import org.ovirt.engine.core.common.vdscommands.VdsIdAndVdsVDSCommandParametersBase;
+import org.ovirt.engine.core.common.vdscommands.VdsIdVDSCommandParametersBase;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.compat.Version;
+import org.ovirt.engine.core.dao.ClusterDao;
+import org.ovirt.engine.core.dao.VdsDao;
+import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.utils.lock.EngineLock;
+import org.ovirt.engine.core.utils.lock.LockManager;
+import org.ovirt.engine.core.utils.lock.LockingResult;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+import org.ovirt.engine.core.vdsbroker.ResourceManager;
+import org.ovirt.engine.core.vdsbroker.VdsManager;
+import org.ovirt.engine.core.vdsbroker.VmManager;
+import org.ovirt.engine.core.vdsbroker.VmStatisticsStore;
+import org.ovirt.engine.core.vdsbroker.jsonrpc.JsonRpcVdsServer;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.GetAllVmStatsVDSCommand;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.IVdsServer;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VDSInfoReturn;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsBrokerObjectsBuilder;
+import org.ovirt.vdsm.jsonrpc.client.events.EventSubscriber;
+
+/**
+ * Drives the monitoring of many simulated hosts and measures what every monitoring cycle costs.
+ * <p>
+ * Each host is backed by a {@link VdsmSimulator} that is reached through a real {@link JsonRpcVdsServer}, and is
+ * monitored by a real {@link VdsManager}: the scheduled refresh of the host runs {@link HostMonitoring}, the
+ * <code>VM_status</code> events are delivered to the {@link EventVmStatsRefresher} the manager subscribes and the
+ * scheduled poll runs {@link PollVmStatsRefresher}, both of which analyze and save the VMs by
+ * {@link VmsMonitoring}. A cycle delivers the events of every host and then runs the jobs the host scheduled.
+ * <p>
+ * The CDI container is stood in by injecting the <code>@Inject</code> fields of the monitoring classes, where every
+ * dependency that is not given explicitly is a mock, and the VDS commands are run directly rather than by the
+ * command executor. The database is stood in by an in-memory {@link VmDynamicDao}, and every call made to a DAO is
+ * counted as a database call. The processing of the events is run on the calling thread, so allocation is measured
+ * on the only thread doing the work.
+ */
+public class MonitoringLoadHarness {
+
+    private final MemberAccessor accessor = Plugins.getMemberAccessor();
+    private final ResourceManager resourceManager;
+    private final Map<Class<?>, Object> beans = new HashMap<>();
+    private final Map<Guid, VmDynamic> db = new HashMap<>();
+    private final Map<Guid, VmManager> vmManagers = new HashMap<>();
+    private final List<Runnable> scheduledJobs = new ArrayList<>();
+    private final List<EventSubscriber> subscribers = new ArrayList<>();
+    private final List<SimulatedHost> hosts = new ArrayList<>();
+    private final Map<Guid, SimulatedHost> hostsById = new HashMap<>();
+    private final Cluster cluster = new Cluster();
+    private final VmDynamicDao vmDynamicDao = mock(VmDynamicDao.class);
+    private VdsBrokerObjectsBuilder vdsBrokerObjectsBuilder;
+    private long eventVms;
+
+    /**
+     * @param resourceManager - The resource manager the VDS commands get the host managers from, expected to be a
+     *            mock that is returned by <code>Injector.get(ResourceManager.class)</code>.
+     * @param hostCount - Number of simulated hosts.
+     * @param vmsPerHost - Number of VMs running on each host.
+     * @param churnRate - Fraction of the VMs of a host that change their status on every cycle.
+     * @param eventRate - Fraction of the status changes that are reported as events.
+     */
+    public MonitoringLoadHarness(ResourceManager resourceManager,
+            int hostCount,
+            int vmsPerHost,
+            double churnRate,
+            double eventRate) {
+        this.resourceManager = resourceManager;
+        cluster.setId(Guid.newGuid());
+        cluster.setCompatibilityVersion(Version.getLast());
+        cluster.setArchitecture(ArchitectureType.x86_64);
+        cluster.setBiosType(BiosType.Q35_SEA_BIOS);
+        cluster.setLogMaxMemoryUsedThresholdType(LogMaxMemoryUsedThresholdType.PERCENTAGE);
+        cluster.setLogMaxMemoryUsedThreshold(95);
+
+        registerBeans();
+        mockResourceManager();
+        for (int i = 0; i < hostCount; i++) {
+            VdsmSimulator simulator = new VdsmSimulator("host" + i, vmsPerHost, churnRate, eventRate, i);
+            SimulatedHost host = new SimulatedHost(Guid.newGuid(), simulator);
+            hosts.add(host);
+            hostsById.put(host.id, host);
+            simulator.getVmIds().forEach(vmId -> addVm(vmId, host.id));
+        }
+        hosts.forEach(SimulatedHost::startMonitoring);
+    }
+
+    public List<VdsmSimulator> getSimulators() {
+        return hosts.stream().map(host -> host.simulator).collect(Collectors.toList());
+    }
+
+    public VmDynamic getDbVm(Guid vmId) {
+        return db.get(vmId);
+    }
+
+    /**
+     * Runs the given number of monitoring cycles.
+     *
+     * @return The measurements of the cycles.
+     */
+    public Report run(int cycles) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        ExecutorService origExecutorService = ThreadPoolUtil.getExecutorService();
+        ThreadPoolUtil.setExecutorService(createDirectExecutorService());
+        Report report = new Report();
+        try {
+            for (int i = 0; i < cycles; i++) {
+                hosts.forEach(host -> host.simulator.advance());
+                clearDbCalls();
+                long gcCount = gcCount();
+                long gcTime = gcTime();
+                long allocated = threads.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+
+                hosts.forEach(SimulatedHost::monitor);
+
+                report.add(System.nanoTime() - start,
+                        countDbCalls(),
+                        threads.getThreadAllocatedBytes(threadId) - allocated,
+                        gcCount() - gcCount,
+                        gcTime() - gcTime);
+            }
+        } finally {
+            ThreadPoolUtil.setExecutorService(origExecutorService);
+        }
+        report.eventVms = eventVms;
+        return report;
+    }
+
+    private void registerBeans() {
+        mockVmDynamicDao();
+        beans.put(VmDynamicDao.class, vmDynamicDao);
+        beans.put(ResourceManager.class, resourceManager);
+
+        ClusterDao clusterDao = mock(ClusterDao.class);
+        when(clusterDao.get(any())).thenReturn(cluster);
+        beans.put(ClusterDao.class, clusterDao);
+
+        VdsDao vdsDao = mock(VdsDao.class);
+        when(vdsDao.get(any())).thenAnswer(invocation -> {
+            SimulatedHost host = hostsById.get(invocation.<Guid> getArgument(0));
+            return host == null ? null : host.vds.clone();
+        });
+        beans.put(VdsDao.class, vdsDao);
+
+        LockManager lockManager = mock(LockManager.class);
+        when(lockManager.acquireLock(any())).thenReturn(LockingResult.success());
+        beans.put(LockManager.class, lockManager);
+
+        ManagedScheduledExecutorService executor = mock(ManagedScheduledExecutorService.class);
+        when(executor.scheduleWithFixedDelay(any(), anyLong(), anyLong(), any())).thenAnswer(invocation -> {
+            scheduledJobs.add(invocation.getArgument(0));
+            return null;
+        });
+        beans.put(ManagedScheduledExecutorService.class, executor);
+
+        RefresherFactory refresherFactory = mock(RefresherFactory.class);
+        when(refresherFactory.createVmStatsRefresher(any(), any())).thenAnswer(invocation -> {
+            EventVmStatsRefresher refresher =
+                    new EventVmStatsRefresher(invocation.getArgument(0), invocation.getArgument(1));
+            injectMembers(refresher);
+            injectMembers(get(EventVmStatsRefresher.class, "allVmStatsOnlyRefresher", refresher));
+            return refresher;
+        });
+        when(refresherFactory.createHostConnectionRefresher(any(), any()))
+                .thenReturn(mock(HostConnectionRefresherInterface.class));
+        beans.put(RefresherFactory.class, refresherFactory);
+
+        // the devices are not reported by the simulator, so they are never processed
+        VmDevicesMonitoring vmDevicesMonitoring = mock(VmDevicesMonitoring.class);
+        when(vmDevicesMonitoring.createChange(any(), anyLong()))
+                .thenAnswer(invocation -> mock(VmDevicesMonitoring.Change.class));
+        beans.put(VmDevicesMonitoring.class, vmDevicesMonitoring);
+
+        beans.put(VmStatisticsStore.class, new VmStatisticsStore());
+        vdsBrokerObjectsBuilder = new VdsBrokerObjectsBuilder();
+        beans.put(VdsBrokerObjectsBuilder.class, vdsBrokerObjectsBuilder);
+        VmsMonitoring vmsMonitoring = new VmsMonitoring();
+        beans.put(VmsMonitoring.class, vmsMonitoring);
+
+        injectMembers(vdsBrokerObjectsBuilder);
+        injectMembers(vmsMonitoring);
+    }
+
+    private void mockResourceManager() {
+        when(resourceManager.getVdsManager(any())).thenAnswer(invocation -> {
+            SimulatedHost host = hostsById.get(invocation.<Guid> getArgument(0));
+            return host == null ? null : host.vdsManager;
+        });
+        when(resourceManager.getVmManager(any())).thenAnswer(invocation -> vmManagers.get(invocation.getArgument(0)));
+        when(resourceManager.getEventListener()).thenReturn(mock(IVdsEventListener.class));
+        when(resourceManager.runVdsCommand(any(), any())).thenAnswer(this::runVdsCommand);
+        doAnswer(invocation -> {
+            EventSubscriber subscriber = invocation.getArgument(0);
+            subscribers.add(subscriber);
+            subscriber.onSubscribe(mock(Flow.Subscription.class));
+            return null;
+        }).when(resourceManager).subscribe(any());
+    }
+
+    private VDSReturnValue runVdsCommand(InvocationOnMock invocation) {
+        VDSCommandType commandType = invocation.getArgument(0);
+        switch (commandType) {
+        case GetAllVmStats:
+            return getAllVmStats(invocation.getArgument(1));
+        case GetStatsAsync:
+            return getStatsAsync(invocation.getArgument(1));
+        default:
+            VDSReturnValue returnValue = new VDSReturnValue();
+            returnValue.setSucceeded(true);
+            return returnValue;
+        }
+    }
+
+    private VDSReturnValue getAllVmStats(VdsIdVDSCommandParametersBase parameters) {
+        GetAllVmStatsVDSCommand<VdsIdVDSCommandParametersBase> command = new GetAllVmStatsVDSCommand<>(parameters);
+        injectMembers(command);
+        command.execute();
+        return command.getVDSReturnValue();
+    }
+
+    /**
+     * Answers the asynchronous statistics request of the host by the synchronous variant of the same verb and
+     * invokes the callback as the asynchronous command does once the response arrives.
+     */
+    private VDSReturnValue getStatsAsync(VdsIdAndVdsVDSCommandParametersBase parameters) {
+        VDSReturnValue returnValue = new VDSReturnValue();
+        try {
+            VDSInfoReturn infoReturn = hostsById.get(parameters.getVdsId()).server.getVdsStats();
+            vdsBrokerObjectsBuilder.updateVDSStatisticsData(parameters.getVds(), infoReturn.info);
+            returnValue.setSucceeded(true);
+            parameters.getCallback().onResponse(Collections.singletonMap("result", returnValue));
+        } catch (RuntimeException e) {
+            parameters.getCallback().onFailure(e);
+        }
+        return returnValue;
+    }
+
+    private void mockVmDynamicDao() {
+        when(vmDynamicDao.get(any())).thenAnswer(invocation -> copy(db.get(invocation.<Guid> getArgument(0))));
+        when(vmDynamicDao.getAllRunningForVds(any())).thenAnswer(invocation -> db.values().stream()
+                .filter(vm -> Objects.equals(vm.getRunOnVds(), invocation.getArgument(0)))
+                .map(VmDynamic::new)
+                .collect(Collectors.toList()));
+        doAnswer(invocation -> {
+            Collection<VmDynamic> vms = invocation.getArgument(0);
+            vms.forEach(vm -> db.put(vm.getId(), new VmDynamic(vm)));
+            return null;
+        }).when(vmDynamicDao).updateAllInBatch(anyCollection());
+    }
+
+    private static VmDynamic copy(VmDynamic vm) {
+        return vm == null ? null : new VmDynamic(vm);
+    }
+
+    private void addVm(Guid vmId, Guid hostId) {
+        VmDynamic vm = new VmDynamic();
+        vm.setId(vmId);
+        vm.setStatus(VMStatus.Up);
+        vm.setRunOnVds(hostId);
+        db.put(vmId, vm);
+
+        VmStatic vmStatic = new VmStatic();
+        vmStatic.setId(vmId);
+        vmStatic.setName(vmId.toString());
+        vmStatic.setClusterId(cluster.getId());
+        vmStatic.setOrigin(OriginType.OVIRT);
+        vmStatic.setNumOfSockets(1);
+        vmStatic.setCpuPerSocket(1);
+        vmStatic.setThreadsPerCpu(1);
+        vmStatic.setMemSizeMb(1024);
+        VmManager vmManager = newInstance(VmManager.class,
+                new Class<?>[] { VmStatic.class, Cluster.class, List.class },
+                vmStatic, cluster, Collections.emptyList());
+        injectMembers(vmManager);
+        vmManager.init();
+        vmManagers.put(vmId, vmManager);
+    }
+
+    /**
+     * Sets the <code>@Inject</code> fields of the given instance, as the CDI container does. The dependencies are
+     * taken from the registered beans, the missing ones are registered as mocks. Unlike the container, the
+     * <code>@PostConstruct</code> methods are not invoked.
+     */
+    private <T> T injectMembers(T instance) {
+        for (Class<?> type = instance.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(Inject.class) && !Modifier.isStatic(field.getModifiers())) {
+                    set(field, instance, resolve(field));
+                }
+            }
+        }
+        return instance;
+    }
+
+    private Object resolve(Field field) {
+        if (field.getType() != Instance.class) {
+            return getBean(field.getType());
+        }
+        // not stubbed, as the members may be injected while answering a call to another mock
+        Class<?> beanType = (Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0];
+        return mock(Instance.class,
+                invocation -> "get".equals(invocation.getMethod().getName()) ? getBean(beanType) : null);
+    }
+
+    private Object getBean(Class<?> type) {
+        return beans.computeIfAbsent(type, t -> mock(t));
+    }
+
+    private void clearDbCalls() {
+        daos().forEach(dao -> clearInvocations(dao));
+    }
+
+    private long countDbCalls() {
+        return daos().mapToLong(dao -> mockingDetails(dao).getInvocations().size()).sum();
+    }
+
+    private Stream<Object> daos() {
+        return beans.entrySet().stream()
+                .filter(bean -> bean.getKey().getSimpleName().endsWith("Dao"))
+                .map(Map.Entry::getValue);
+    }
+
+    private static ExecutorService createDirectExecutorService() {
+        ExecutorService executorService = mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable> getArgument(0).run();
+            return null;
+        }).when(executorService).submit(any(Runnable.class));
+        return executorService;
+    }
+
+    private <T> T newInstance(Class<T> type, Class<?>[] parameterTypes, Object... args) {
+        try {
+            return type.cast(accessor.newInstance(type.getDeclaredConstructor(parameterTypes), args));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void set(Field field, Object target, Object value) {
+        try {
+            accessor.set(field, target, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void set(Class<?> type, String fieldName, Object target, Object value) {
+        try {
+            set(type.getDeclaredField(fieldName), target, value);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Object get(Class<?> type, String fieldName, Object target) {
+        try {
+            return accessor.get(type.getDeclaredField(fieldName), target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long gcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+
+    private class SimulatedHost {
+        private final Guid id;
+        private final VdsmSimulator simulator;
+        private final JsonRpcVdsServer server;
+        private final VDS vds;
+        private final VdsManager vdsManager;
+        private List<Runnable> jobs;
+        private EventSubscriber subscriber;
+
+        private SimulatedHost(Guid id, VdsmSimulator simulator) {
+            this.id = id;
+            this.simulator = simulator;
+            this.server = new JsonRpcVdsServer(simulator.createClient(), null);
+            this.vds = new VDS();
+            vds.setId(id);
+            vds.setVdsName(simulator.getHostname());
+            vds.setHostName(simulator.getHostname());
+            vds.setClusterId(cluster.getId());
+            vds.setClusterCompatibilityVersion(cluster.getCompatibilityVersion());
+            vds.setVdsType(VDSType.VDS);
+            vds.setStatus(VDSStatus.Up);
+
+            MonitoringStrategy monitoringStrategy = mock(MonitoringStrategy.class);
+            when(monitoringStrategy.isMonitoringNeeded(any())).thenReturn(true);
+            vdsManager = newInstance(VdsManager.class,
+                    new Class<?>[] { VDS.class, ResourceManager.class },
+                    vds.clone(), resourceManager);
+            injectMembers(vdsManager);
+            // what the initialization of the manager does, without connecting to the host
+            set(VdsManager.class, "monitoringStrategy", vdsManager, monitoringStrategy);
+            set(VdsManager.class, "monitoringLock", vdsManager, new EngineLock());
+            set(VdsManager.class, "registeredJobs", vdsManager, new ArrayList<>());
+            set(VdsManager.class, "vdsProxy", vdsManager, (IVdsServer) server);
+            vdsManager.setbeforeFirstRefresh(false);
+        }
+
+        private void startMonitoring() {
+            int firstJob = scheduledJobs.size();
+            int firstSubscriber = subscribers.size();
+            vdsManager.scheduleJobs();
+            // the refresh of the host, then the poll of its VMs
+            jobs = new ArrayList<>(scheduledJobs.subList(firstJob, scheduledJobs.size()));
+            subscriber = subscribers.get(firstSubscriber);
+        }
+
+        private void monitor() {
+            simulator.drainEvents().forEach(event -> {
+                // all the entries but the notification time are VMs
+                eventVms += event.size() - 1;
+                subscriber.onNext(event);
+            });
+            jobs.forEach(Runnable::run);
+        }
+    }
+
+    /**
+     * The measurements of monitoring cycles, each cycle covers all the hosts.
+     */
+    public static class Report {
+        private final List<Long> latencies = new ArrayList<>();
+        private long dbCalls;
+        private long allocatedBytes;
+        private long gcCount;
+        private long gcTimeMillis;
+        private long eventVms;
+
+        private void add(long latency, long dbCalls, long allocatedBytes, long gcCount, long gcTimeMillis) {
+            latencies.add(latency);
+            this.dbCalls += dbCalls;
+            this.allocatedBytes += allocatedBytes;
+            this.gcCount += gcCount;
+            this.gcTimeMillis += gcTimeMillis;
+        }
+
+        public int getCycles() {
+            return latencies.size();
+        }
+
+        public double getMeanCycleMillis() {
+            return latencies.stream().mapToLong(Long::longValue).average().orElse(0) / 1_000_000;
+        }
+
+        public double getMaxCycleMillis() {
+            return latencies.stream().mapToLong(Long::longValue).max().orElse(0) / 1_000_000d;
+        }
+
+        public double getDbCallsPerCycle() {
+            return latencies.isEmpty() ? 0 : (double) dbCalls / latencies.size();
+        }
+
+        public long getAllocatedBytesPerCycle() {
+            return latencies.isEmpty() ? 0 : allocatedBytes / latencies.size();
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        public long getGcTimeMillis() {
+            return gcTimeMillis;
+        }
+
+        public long getEventVms() {
+            return eventVms;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("cycles: %d, cycle latency mean/max: %.2f/%.2f ms, DB calls per cycle: %.1f, "
+                            + "allocated per cycle: %d KB, GC: %d collections in %d ms, VMs reported by events: %d",
+                    getCycles(),
+                    getMeanCycleMillis(),
+                    getMaxCycleMillis(),
+                    getDbCallsPerCycle(),
+                    getAllocatedBytesPerCycle() / 1024,
+                    gcCount,
+                    gcTimeMillis,
+                    eventVms);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import javax.transaction.TransactionManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.utils.InjectedMock;
+import org.ovirt.engine.core.utils.InjectorExtension;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.vdsbroker.ResourceManager;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsBrokerObjectsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the {@link MonitoringLoadHarness} at a small scale by default. The scale can be raised to reproduce the load
+ * of large setups, e.g. with <code>-Dmonitoring.load.hosts=1000 -Dmonitoring.load.vms=30</code>.
+ */
+@ExtendWith({MockitoExtension.class, MockConfigExtension.class, InjectorExtension.class})
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class MonitoringLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitoringLoadTest.class);
+
+    private static final int HOSTS = Integer.getInteger("monitoring.load.hosts", 10);
+    private static final int VMS_PER_HOST = Integer.getInteger("monitoring.load.vms", 20);
+    private static final int CYCLES = Integer.getInteger("monitoring.load.cycles", 3);
+
+    @InjectedMock
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    public TransactionManager transactionManager;
+
+    @InjectedMock
+    @Mock
+    public ResourceManager resourceManager;
+
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(
+                MockConfigDescriptor.of(ConfigValues.VdsRefreshRate, 2L),
+                MockConfigDescriptor.of(ConfigValues.NumberVmRefreshesBeforeSave, 1),
+                MockConfigDescriptor.of(ConfigValues.DebugTimerLogging, false),
+                MockConfigDescriptor.of(ConfigValues.VmStatisticsMaxPersistIntervalInSeconds, 60),
+                MockConfigDescriptor.of(ConfigValues.UsageHistoryLimit, 40),
+                MockConfigDescriptor.of(ConfigValues.GuestNicNamesBlacklist, Collections.emptyList()),
+                MockConfigDescriptor.of(ConfigValues.LogMaxCpuUsedThresholdInPercentage, 95),
+                MockConfigDescriptor.of(ConfigValues.LogMaxNetworkUsedThresholdInPercentage, 95),
+                MockConfigDescriptor.of(ConfigValues.LogSwapMemoryThresholdInMB, 1024),
+                MockConfigDescriptor.of(ConfigValues.LogMaxSwapMemoryUsedThresholdInPercentage, 95)
+        );
+    }
+
+    @Test
+    public void monitoringCycles() {
+        MonitoringLoadHarness harness = new MonitoringLoadHarness(resourceManager, HOSTS, VMS_PER_HOST, 0.1, 0.5);
+
+        MonitoringLoadHarness.Report report = harness.run(CYCLES);
+        log.info("Monitoring {} hosts with {} VMs each: {}", HOSTS, VMS_PER_HOST, report);
+
+        assertEquals(CYCLES, report.getCycles());
+        // at least one query of the running VMs per host on every cycle
+        assertTrue(report.getDbCallsPerCycle() >= HOSTS);
+        harness.getSimulators().forEach(simulator -> {
+            assertEquals(CYCLES, simulator.getRequestCount("Host.getAllVmStats"));
+            assertEquals(CYCLES, simulator.getRequestCount("Host.getStats"));
+            simulator.getVmIds().forEach(vmId -> assertEquals(
+                    new VdsBrokerObjectsBuilder().convertToVmStatus(simulator.getVmStatus(vmId)),
+                    harness.getDbVm(vmId).getStatus()));
+        });
+    }
+}
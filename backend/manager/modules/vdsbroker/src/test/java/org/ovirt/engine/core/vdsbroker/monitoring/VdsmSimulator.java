@@ -0,0 +1,290 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.vdsbroker.vdsbroker.VdsProperties;
+import org.ovirt.vdsm.jsonrpc.client.ClientConnectionException;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcClient;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcRequest;
+import org.ovirt.vdsm.jsonrpc.client.JsonRpcResponse;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * In-process simulation of the JSON-RPC API of a single VDSM host, limited to the verbs used for monitoring.
+ * <p>
+ * The simulated host runs the given number of VMs. Every call to {@link #advance()} changes the status of a
+ * <code>churnRate</code> fraction of the VMs between <code>Up</code> and <code>Paused</code> and refreshes the
+ * statistics of all of them. A <code>eventRate</code> fraction of the status changes is also reported as a
+ * <code>VM_status</code> event, as VDSM does for the changes it notifies about.
+ * <p>
+ * Requests are answered synchronously by the client returned from {@link #createClient()}, so it can be passed to
+ * {@link org.ovirt.engine.core.vdsbroker.jsonrpc.JsonRpcVdsServer} in place of a connected client.
+ */
+public class VdsmSimulator {
+
+    private static final String UP = "Up";
+    private static final String PAUSED = "Paused";
+    private static final int METHOD_NOT_FOUND = -32601;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final String hostname;
+    private final double churnRate;
+    private final double eventRate;
+    private final Random random;
+    private final Map<Guid, SimulatedVm> vms = new LinkedHashMap<>();
+    private final List<Map<String, Object>> pendingEvents = new ArrayList<>();
+    private final Map<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+    private long monotonicTime = 4_000_000L;
+
+    /**
+     * @param hostname - Name the simulated host reports.
+     * @param vmCount - Number of VMs running on the host.
+     * @param churnRate - Fraction of the VMs that change their status on every {@link #advance()}.
+     * @param eventRate - Fraction of the status changes that are reported as events.
+     * @param seed - Seed of the simulation, the same seed produces the same sequence of changes.
+     */
+    public VdsmSimulator(String hostname, int vmCount, double churnRate, double eventRate, long seed) {
+        this.hostname = hostname;
+        this.churnRate = churnRate;
+        this.eventRate = eventRate;
+        this.random = new Random(seed);
+        for (int i = 0; i < vmCount; i++) {
+            SimulatedVm vm = new SimulatedVm(new Guid(new UUID(seed, i)), hostname + "-vm" + i);
+            vms.put(vm.id, vm);
+        }
+    }
+
+    public String getHostname() {
+        return hostname;
+    }
+
+    public Set<Guid> getVmIds() {
+        return vms.keySet();
+    }
+
+    public String getVmStatus(Guid vmId) {
+        return vms.get(vmId).status;
+    }
+
+    /**
+     * @return How many requests of the given verb were answered.
+     */
+    public long getRequestCount(String method) {
+        AtomicLong count = requestCounts.get(method);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * Advances the simulation by one monitoring cycle.
+     *
+     * @return The number of VMs whose status changed.
+     */
+    public synchronized int advance() {
+        monotonicTime += 15_000;
+        vms.values().forEach(SimulatedVm::refreshStatistics);
+
+        int changes = (int) Math.round(vms.size() * churnRate);
+        List<SimulatedVm> allVms = new ArrayList<>(vms.values());
+        Set<SimulatedVm> changedVms = new HashSet<>();
+        while (changedVms.size() < Math.min(changes, allVms.size())) {
+            changedVms.add(allVms.get(random.nextInt(allVms.size())));
+        }
+
+        Map<String, Object> event = new HashMap<>();
+        for (SimulatedVm vm : changedVms) {
+            vm.status = UP.equals(vm.status) ? PAUSED : UP;
+            vm.statusTime = monotonicTime;
+            if (random.nextDouble() < eventRate) {
+                event.put(vm.id.toString(), vm.toEventStruct());
+            }
+        }
+        if (!event.isEmpty()) {
+            event.put(VdsProperties.notify_time, monotonicTime);
+            pendingEvents.add(event);
+        }
+        return changedVms.size();
+    }
+
+    /**
+     * @return The <code>VM_status</code> events emitted since the previous call, in the format they are delivered
+     *         to the engine's subscribers.
+     */
+    public synchronized List<Map<String, Object>> drainEvents() {
+        List<Map<String, Object>> events = new ArrayList<>(pendingEvents);
+        pendingEvents.clear();
+        return events;
+    }
+
+    /**
+     * @return A client that answers every request by this simulator.
+     */
+    public JsonRpcClient createClient() {
+        JsonRpcClient client = mock(JsonRpcClient.class);
+        try {
+            when(client.getHostname()).thenReturn(hostname);
+            when(client.call(any(JsonRpcRequest.class))).thenAnswer(
+                    invocation -> CompletableFuture.completedFuture(respond(invocation.getArgument(0))));
+            when(client.batchCall(anyList())).thenAnswer(invocation -> {
+                List<JsonRpcRequest> requests = invocation.getArgument(0);
+                return CompletableFuture.completedFuture(
+                        requests.stream().map(this::respond).collect(Collectors.toList()));
+            });
+        } catch (ClientConnectionException e) {
+            throw new IllegalStateException(e);
+        }
+        return client;
+    }
+
+    private synchronized JsonRpcResponse respond(JsonRpcRequest request) {
+        String method = request.getMethod();
+        requestCounts.computeIfAbsent(method, m -> new AtomicLong()).incrementAndGet();
+        switch (method) {
+        case "Host.getAllVmStats":
+            return result(request, vmList(vms.values(), true));
+        case "Host.getVMList":
+            return result(request, vmList(vms.values(), false));
+        case "Host.getVMFullList":
+            return result(request, vmList(requestedVms(request), true));
+        case "VM.getStats":
+            return result(request, vmList(requestedVms(request), true));
+        case "Host.getStats":
+            return result(request, hostStats());
+        default:
+            return error(request, METHOD_NOT_FOUND, "Method not found: " + method);
+        }
+    }
+
+    private List<SimulatedVm> requestedVms(JsonRpcRequest request) {
+        JsonNode params = request.getParams();
+        List<SimulatedVm> requested = new ArrayList<>();
+        if (params != null && params.has("vmID")) {
+            SimulatedVm vm = vms.get(new Guid(params.get("vmID").asText()));
+            if (vm != null) {
+                requested.add(vm);
+            }
+        } else if (params != null && params.has("vmList") && params.get("vmList").size() > 0) {
+            params.get("vmList").forEach(vmId -> {
+                SimulatedVm vm = vms.get(new Guid(vmId.asText()));
+                if (vm != null) {
+                    requested.add(vm);
+                }
+            });
+        } else {
+            requested.addAll(vms.values());
+        }
+        return requested;
+    }
+
+    private ArrayNode vmList(Iterable<SimulatedVm> vmsToReport, boolean withStats) {
+        ArrayNode list = mapper.createArrayNode();
+        vmsToReport.forEach(vm -> list.add(withStats ? vm.toStatsNode() : vm.toListNode()));
+        return list;
+    }
+
+    private ObjectNode hostStats() {
+        ObjectNode stats = mapper.createObjectNode();
+        int running = (int) vms.values().stream().filter(vm -> UP.equals(vm.status)).count();
+        stats.put("cpuUser", String.format(Locale.ROOT, "%.2f", random.nextDouble() * 50));
+        stats.put("cpuSys", String.format(Locale.ROOT, "%.2f", random.nextDouble() * 10));
+        stats.put("cpuIdle", String.format(Locale.ROOT, "%.2f", 40 + random.nextDouble() * 50));
+        stats.put("memUsed", String.valueOf(random.nextInt(100)));
+        stats.put("vmCount", vms.size());
+        stats.put("vmActive", running);
+        stats.put("vmMigrating", 0);
+        stats.put("elapsedTime", String.valueOf(monotonicTime / 1000));
+        return stats;
+    }
+
+    private JsonRpcResponse result(JsonRpcRequest request, JsonNode result) {
+        ObjectNode node = mapper.createObjectNode();
+        node.put("jsonrpc", "2.0");
+        node.set("id", request.getId());
+        node.set("result", result);
+        return JsonRpcResponse.fromJsonNode(node);
+    }
+
+    private JsonRpcResponse error(JsonRpcRequest request, int code, String message) {
+        ObjectNode error = mapper.createObjectNode();
+        error.put("code", code);
+        error.put("message", message);
+        ObjectNode node = mapper.createObjectNode();
+        node.put("jsonrpc", "2.0");
+        node.set("id", request.getId());
+        node.set("error", error);
+        return JsonRpcResponse.fromJsonNode(node);
+    }
+
+    private class SimulatedVm {
+        private final Guid id;
+        private final String name;
+        private final String hash;
+        private String status = UP;
+        private long statusTime = monotonicTime;
+        private double cpuUser;
+        private double cpuSys;
+        private int memUsage;
+
+        private SimulatedVm(Guid id, String name) {
+            this.id = id;
+            this.name = name;
+            this.hash = String.valueOf(id.hashCode());
+        }
+
+        private void refreshStatistics() {
+            cpuUser = random.nextDouble() * 100;
+            cpuSys = random.nextDouble() * 10;
+            memUsage = random.nextInt(100);
+        }
+
+        private ObjectNode toListNode() {
+            ObjectNode node = mapper.createObjectNode();
+            node.put(VdsProperties.vm_guid, id.toString());
+            node.put(VdsProperties.status, status);
+            return node;
+        }
+
+        private ObjectNode toStatsNode() {
+            ObjectNode node = toListNode();
+            node.put("vmName", name);
+            node.put(VdsProperties.statusTime, String.valueOf(statusTime));
+            node.put(VdsProperties.hash, hash);
+            node.put(VdsProperties.monitorResponse, "0");
+            node.put(VdsProperties.elapsed_time, String.valueOf((monotonicTime - 4_000_000L) / 1000));
+            node.put(VdsProperties.cpu_user, String.format(Locale.ROOT, "%.2f", cpuUser));
+            node.put(VdsProperties.cpu_sys, String.format(Locale.ROOT, "%.2f", cpuSys));
+            node.put(VdsProperties.vm_usage_mem_percent, String.valueOf(memUsage));
+            return node;
+        }
+
+        private Map<String, Object> toEventStruct() {
+            Map<String, Object> struct = new HashMap<>();
+            struct.put(VdsProperties.status, status);
+            struct.put(VdsProperties.statusTime, String.valueOf(statusTime));
+            struct.put(VdsProperties.hash, hash);
+            return struct;
+        }
+    }
+}
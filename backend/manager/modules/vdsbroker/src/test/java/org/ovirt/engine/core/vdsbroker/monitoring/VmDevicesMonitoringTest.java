@@ -126,6 +126,7 @@ public class VmDevicesMonitoringTest {
 
     private void initDevices(VmDevice... devices) {
         doReturn(Arrays.asList(devices)).when(vmDeviceDao).getVmDeviceByVmId(VM_ID);
+        doReturn(Arrays.asList(devices)).when(vmDeviceDao).getVmDevicesByVmIds(any());
         for (VmDevice device : devices) {
             doReturn(Collections.singletonList(device)).when(vmDeviceDao)
                     .getVmDevicesByDeviceId(device.getDeviceId(), device.getVmId());
@@ -231,6 +232,28 @@ public class VmDevicesMonitoringTest {
         assertEquals(NEW_HASH, hashInfo.getSecond());
     }
 
+    @Test
+    public void testUnmanagedDeviceMatchedByAddress() {
+        final Guid usbControllerId = Guid.newGuid();
+        VmDevice usbController = getVmDevice(usbControllerId, VM_ID, VmDeviceGeneralType.CONTROLLER, "usb", false);
+        usbController.setAddress(SERIAL_DEVICE_ADDRESS);
+        initDevices(usbController);
+        initDumpXmls(getDeviceInfo(null, "controller", "usb", SERIAL_DEVICE_ADDRESS));
+
+        vmDevicesMonitoring.initDevicesStatuses(1L);
+
+        VmDevicesMonitoring.Change change = vmDevicesMonitoring.createChange(VDS_ID, 2L);
+        change.updateVm(VM_ID, NEW_HASH);
+        change.flush();
+
+        ArgumentCaptor<Collection> updateCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(vmDeviceDao, times(1)).updateAllInBatch(updateCaptor.capture());
+        assertEquals(Collections.singletonList(usbController), new ArrayList<>(updateCaptor.getValue()));
+        verify(vmDeviceDao, never()).removeAll(any());
+        verify(vmDeviceDao, never()).saveAll(any());
+        verify(vmDeviceDao, times(1)).getVmDevicesByVmIds(any());
+    }
+
     @Test
     public void testUpdateVmFromFullList() {
         initDevices();
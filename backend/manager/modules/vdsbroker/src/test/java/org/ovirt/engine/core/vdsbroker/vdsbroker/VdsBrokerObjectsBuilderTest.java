@@ -19,6 +19,9 @@ import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.ovirt.engine.core.common.businessentities.LeaseStatus;
 import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VMStatus;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.businessentities.VmExitStatus;
 import org.ovirt.engine.core.common.businessentities.VmStatistics;
 import org.ovirt.engine.core.common.businessentities.network.VmInterfaceType;
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
@@ -72,6 +75,103 @@ public class VdsBrokerObjectsBuilderTest {
         assertNull(vmStatistics.getDisksUsage());
     }
 
+    @Test
+    public void testStatisticsReportedAsStrings() {
+        Map<String, Object> memoryStats = new HashMap<>();
+        memoryStats.put(VdsProperties.vm_guest_mem_buffered, "1024");
+        memoryStats.put(VdsProperties.vm_guest_mem_free, "-1");
+        Map<String, Object> struct = new HashMap<>();
+        struct.put(VdsProperties.vm_usage_mem_percent, "42.7");
+        struct.put(VdsProperties.vm_migration_progress_percent, "");
+        struct.put(VdsProperties.vm_guest_mem_stats, memoryStats);
+
+        VmStatistics vmStatistics = vdsBrokerObjectsBuilder.buildVMStatisticsData(struct);
+
+        assertEquals(Integer.valueOf(42), vmStatistics.getUsageMemPercent());
+        assertEquals(Integer.valueOf(0), vmStatistics.getMigrationProgressPercent());
+        assertEquals(Long.valueOf(1024), vmStatistics.getGuestMemoryBuffered());
+        assertEquals(Long.valueOf(-1), vmStatistics.getGuestMemoryFree());
+    }
+
+    @Test
+    public void testStatisticsReportedAsNumbers() {
+        Map<String, Object> memoryStats = new HashMap<>();
+        memoryStats.put(VdsProperties.vm_guest_mem_buffered, 1024);
+        memoryStats.put(VdsProperties.vm_guest_mem_free, 12345678901L);
+        Map<String, Object> struct = new HashMap<>();
+        struct.put(VdsProperties.vm_usage_mem_percent, 42);
+        struct.put(VdsProperties.vm_migration_progress_percent, 50);
+        struct.put(VdsProperties.vm_guest_mem_stats, memoryStats);
+
+        VmStatistics vmStatistics = vdsBrokerObjectsBuilder.buildVMStatisticsData(struct);
+
+        assertEquals(Integer.valueOf(42), vmStatistics.getUsageMemPercent());
+        assertEquals(Integer.valueOf(50), vmStatistics.getMigrationProgressPercent());
+        assertEquals(Long.valueOf(1024), vmStatistics.getGuestMemoryBuffered());
+        assertEquals(Long.valueOf(12345678901L), vmStatistics.getGuestMemoryFree());
+    }
+
+    @Test
+    public void testInvalidStatisticIsIgnored() {
+        Map<String, Object> struct = new HashMap<>();
+        struct.put(VdsProperties.vm_usage_mem_percent, "a.1");
+        struct.put(VdsProperties.vm_migration_progress_percent, ".5");
+
+        VmStatistics vmStatistics = vdsBrokerObjectsBuilder.buildVMStatisticsData(struct);
+
+        assertNull(vmStatistics.getUsageMemPercent());
+        assertEquals(Integer.valueOf(0), vmStatistics.getMigrationProgressPercent());
+    }
+
+    @Test
+    public void testInterfaceStatistics() {
+        Map<String, Object> nic = new HashMap<>();
+        nic.put(VdsProperties.VM_INTERFACE_NAME, "vnet0");
+        nic.put(VdsProperties.rx_total, "123456789012.0");
+        nic.put(VdsProperties.tx_total, 12345);
+        Map<String, Object> network = new HashMap<>();
+        network.put("vnet0", nic);
+        Map<String, Object> struct = new HashMap<>();
+        struct.put(VdsProperties.VM_NETWORK, network);
+
+        List<VmNetworkInterface> interfaces = vdsBrokerObjectsBuilder.buildInterfaceStatisticsData(struct);
+
+        assertEquals(1, interfaces.size());
+        assertEquals("vnet0", interfaces.get(0).getName());
+        assertEquals(Long.valueOf(123456789012L), interfaces.get(0).getStatistics().getReceivedBytes());
+        assertEquals(Long.valueOf(12345), interfaces.get(0).getStatistics().getTransmittedBytes());
+        assertNull(interfaces.get(0).getMacAddress());
+    }
+
+    @Test
+    public void testDynamicData() {
+        Map<String, Object> struct = new HashMap<>();
+        struct.put(VdsProperties.vm_guid, VM_ID.toString());
+        struct.put(VdsProperties.status, "Powering up");
+        struct.put(VdsProperties.utc_diff, "+3600");
+        struct.put(VdsProperties.exit_code, 1);
+        struct.put(VdsProperties.monitorResponse, "-1");
+
+        VmDynamic vmDynamic = vdsBrokerObjectsBuilder.buildVMDynamicData(struct, getVds());
+
+        assertEquals(VM_ID, vmDynamic.getId());
+        assertEquals(VMStatus.NotResponding, vmDynamic.getStatus());
+        assertEquals(Integer.valueOf(3600), vmDynamic.getUtcDiff());
+        assertEquals(VmExitStatus.Error, vmDynamic.getExitStatus());
+    }
+
+    @Test
+    public void testConvertToVmStatus() {
+        // the second conversion of every status is resolved by the cache
+        for (int i = 0; i < 2; i++) {
+            assertEquals(VMStatus.PoweringUp, vdsBrokerObjectsBuilder.convertToVmStatus("Powering up"));
+            assertEquals(VMStatus.Up, vdsBrokerObjectsBuilder.convertToVmStatus("Up"));
+            assertEquals(VMStatus.MigratingFrom,
+                    vdsBrokerObjectsBuilder.convertToVmStatus(VdsProperties.MIGRATION_SOURCE));
+            assertEquals(VMStatus.Unassigned, vdsBrokerObjectsBuilder.convertToVmStatus("Bogus"));
+        }
+    }
+
     @Test
     public void testFlushLatency() {
         String doubleValue = "1";
@@ -1,7 +1,7 @@
 package org.ovirt.engine.core.notifier;
 
 import java.sql.SQLException;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.Executors;
@@ -29,6 +29,8 @@ public class NotificationService implements Runnable {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
 
+    private static final long HISTORY_CLEANUP_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
     private final NotificationProperties prop;
 
     private final EventsManager eventsManager;
@@ -41,6 +43,8 @@ public class NotificationService implements Runnable {
 
     private int failedQueries = 0;
 
+    private long lastHistoryCleanupTime;
+
     public NotificationService(NotificationProperties prop) throws NotificationServiceException {
         this.prop = prop;
         this.eventsManager = new EventsManager();
@@ -64,17 +68,20 @@ public class NotificationService implements Runnable {
         return !transports.isEmpty();
     }
 
+    /**
+     * Starts dispatching the events and, on a separate thread so that sending e-mails doesn't hold back the reading
+     * and the dispatching of events, the idle tasks of the transports.
+     */
     @Override
     public void run() {
         markOldEventsAsProcessed();
         ShutdownHook shutdownHook = ShutdownHook.getInstance();
-        ScheduledExecutorService exec = Executors.newSingleThreadScheduledExecutor();
+        ScheduledExecutorService exec = Executors.newScheduledThreadPool(2);
         shutdownHook.addScheduledExecutorService(exec);
         shutdownHook.addServiceHandler(
-                exec.scheduleWithFixedDelay(
-                        () -> mainLogic(),
+                exec.schedule(
+                        () -> dispatchEvents(),
                         1,
-                        prop.getLong(NotificationProperties.INTERVAL_IN_SECONDS),
                         TimeUnit.SECONDS
                 )
         );
@@ -88,19 +95,36 @@ public class NotificationService implements Runnable {
         );
     }
 
+    /**
+     * Dispatches the events as they are added, until the service is shut down. Waits for new events for at most the
+     * configured interval, so events are still dispatched when notifications of new events are not received.
+     */
+    private void dispatchEvents() {
+        long intervalInMillis = TimeUnit.SECONDS.toMillis(prop.getLong(NotificationProperties.INTERVAL_IN_SECONDS));
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (!mainLogic()) {
+                    eventsManager.awaitEvents(intervalInMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Executes event notification to subscribers
+     *
+     * @return <code>true</code> if there may be more events to dispatch right away.
      */
-    private void mainLogic() {
+    private boolean mainLogic() {
         try {
             try {
                 log.debug("Start event notification service iteration");
 
-                // Clear filter chain
-                firstMatchSimpleFilter.clearFilterEntries();
-
                 // Read Database subscriptions first
-                firstMatchSimpleFilter.addFilterEntries(eventsManager.getAuditLogEventSubscribers());
+                List<FirstMatchSimpleFilter.FilterEntry> filterEntries =
+                        new ArrayList<>(eventsManager.getAuditLogEventSubscribers());
 
                 // Backward compatibility, aim to remove (can be replaced by "FILTER")
                 String dbDownSubscribers =
@@ -113,22 +137,27 @@ public class NotificationService implements Runnable {
                                 false,
                                 EventNotificationMethod.SMTP.getAsString(),
                                 subscriber);
-                        List<FirstMatchSimpleFilter.FilterEntry> subscriberEntries = Collections.singletonList(subscriberEntry);
-                        firstMatchSimpleFilter.addFilterEntries(subscriberEntries);
+                        filterEntries.add(subscriberEntry);
                     }
                 }
 
                 // Add configurations subscription
-                firstMatchSimpleFilter.addFilterEntries(
-                        configurationFilters
-                        );
+                filterEntries.addAll(configurationFilters);
+
+                // Rebuild the filter chain only when the subscriptions change, to keep the filter index
+                if (!firstMatchSimpleFilter.hasFilterEntries(filterEntries)) {
+                    firstMatchSimpleFilter.clearFilterEntries();
+                    firstMatchSimpleFilter.addFilterEntries(filterEntries);
+                }
 
-                for (AuditLogEvent event : eventsManager.getAuditLogEvents()) {
+                List<AuditLogEvent> events = eventsManager.getAuditLogEvents();
+                for (AuditLogEvent event : events) {
                     firstMatchSimpleFilter.processEvent(event);
-                    eventsManager.updateAuditLogEventProcessed(event.getId());
                 }
+                eventsManager.updateAuditLogEventsProcessed(events);
                 deleteObsoleteHistoryData();
                 log.debug("Finished event notification service iteration");
+                return events.size() >= EventsManager.EVENTS_BATCH_SIZE;
             } catch (SQLException se) {
                 distributeDbDownEvent();
                 throw se;
@@ -136,6 +165,7 @@ public class NotificationService implements Runnable {
         } catch (Throwable t) {
             log.error("Failed to run the service.", t);
         }
+        return false;
     }
 
     private void idle() {
@@ -147,7 +177,10 @@ public class NotificationService implements Runnable {
     }
 
     private void deleteObsoleteHistoryData() throws SQLException {
-        eventsManager.deleteObsoleteHistoryData(prop.getInteger(NotificationProperties.DAYS_TO_KEEP_HISTORY));
+        if (System.currentTimeMillis() - lastHistoryCleanupTime >= HISTORY_CLEANUP_INTERVAL) {
+            eventsManager.deleteObsoleteHistoryData(prop.getInteger(NotificationProperties.DAYS_TO_KEEP_HISTORY));
+            lastHistoryCleanupTime = System.currentTimeMillis();
+        }
     }
 
     private void distributeDbDownEvent() {
@@ -5,6 +5,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -13,7 +14,10 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
@@ -26,19 +30,52 @@ import org.ovirt.engine.core.notifier.filter.FirstMatchSimpleFilter;
 import org.ovirt.engine.core.notifier.transport.Observable;
 import org.ovirt.engine.core.notifier.transport.Observer;
 import org.ovirt.engine.core.utils.db.StandaloneDataSource;
+import org.postgresql.PGConnection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Reads the events to dispatch from the <code>audit_log</code> table and records their dispatching.
+ * <p>
+ * Events are read in batches, in the order of their ids. Since events are added by transactions that may commit
+ * after events with higher ids were read, each read starts from the last event that had been read
+ * {@link #LATE_COMMIT_WINDOW} before, so these events are picked up within that window. Events of transactions that
+ * took even longer are picked up by a scan from the first event, done periodically. The notifier is woken up by a
+ * notification on the <code>audit_log</code> channel, sent by the database when events are added while there are
+ * subscribers, so it does not have to wait for its polling interval.
+ */
 public class EventsManager implements Observer {
 
     public static final String DATABASE_UNREACHABLE = "DATABASE_UNREACHABLE";
 
+    /** Maximal number of events read at once */
+    public static final int EVENTS_BATCH_SIZE = 1000;
+
+    private static final String AUDIT_LOG_CHANNEL = "audit_log";
+
+    private static final long FULL_SCAN_INTERVAL = TimeUnit.MINUTES.toMillis(10);
+
+    /** The time within which events that were committed late are still read by the incremental reads */
+    private static final long LATE_COMMIT_WINDOW = TimeUnit.MINUTES.toMillis(1);
+
     private static final Logger log = LoggerFactory.getLogger(EventsManager.class);
 
     private DataSource ds;
 
+    /** Data source of the connection waiting for notifications, which blocks the connection while waiting */
+    private DataSource listenDs;
+
+    private Connection listeningConnection;
+
     private Map<String, String> eventMap;
 
+    private long lastAuditLogId;
+
+    /** The last event read before each of the recent reads, by the time of the read */
+    private final NavigableMap<Long, Long> recentAuditLogIds = new TreeMap<>();
+
+    private long lastFullScanTime;
+
     public EventsManager() throws NotificationServiceException {
         try {
             ds = new StandaloneDataSource();
@@ -62,7 +99,7 @@ public class EventsManager implements Observer {
         return eventMap;
     }
 
-    public List<FirstMatchSimpleFilter.FilterEntry> getAuditLogEventSubscribers() throws SQLException {
+    public synchronized List<FirstMatchSimpleFilter.FilterEntry> getAuditLogEventSubscribers() throws SQLException {
         List<FirstMatchSimpleFilter.FilterEntry> eventSubscribers = new ArrayList<>();
         try (Connection connection = ds.getConnection();
              PreparedStatement ps = connection.prepareStatement(
@@ -95,7 +132,16 @@ public class EventsManager implements Observer {
         return eventSubscribers;
     }
 
-    public List<AuditLogEvent> getAuditLogEvents() throws SQLException {
+    /**
+     * @return The next batch of events that were not processed yet, up to {@link #EVENTS_BATCH_SIZE} events.
+     */
+    public synchronized List<AuditLogEvent> getAuditLogEvents() throws SQLException {
+        long now = System.currentTimeMillis();
+        long scanFromAuditLogId = getScanFromAuditLogId(now);
+        if (now - lastFullScanTime >= FULL_SCAN_INTERVAL) {
+            lastFullScanTime = now;
+            scanFromAuditLogId = 0;
+        }
         Set<String> downEvents = new HashSet<>(eventMap.values());
         List<AuditLogEvent> auditLogEvents = new ArrayList<>();
         try (Connection connection = ds.getConnection();
@@ -107,12 +153,20 @@ public class EventsManager implements Observer {
                             "       al.storage_domain_id, al.storage_domain_name, " +
                             "       al.log_time, al.severity, al.message " +
                             "FROM audit_log al " +
-                            "WHERE al.processed = FALSE ;");
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                auditLogEvents.add(extractAuditLogEvent(rs, downEvents));
+                            "WHERE al.audit_log_id > ? AND al.processed = FALSE " +
+                            "ORDER BY al.audit_log_id " +
+                            "LIMIT ? ;")) {
+            ps.setLong(1, scanFromAuditLogId);
+            ps.setInt(2, EVENTS_BATCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    auditLogEvents.add(extractAuditLogEvent(rs, downEvents));
+                }
             }
         }
+        if (!auditLogEvents.isEmpty()) {
+            lastAuditLogId = Math.max(lastAuditLogId, auditLogEvents.get(auditLogEvents.size() - 1).getId());
+        }
         if (log.isDebugEnabled()) {
             log.debug("{} unprocessed events read from audit_log database table.", auditLogEvents.size());
             for (int i = 0; i < auditLogEvents.size(); i++) {
@@ -123,6 +177,19 @@ public class EventsManager implements Observer {
 
     }
 
+    /**
+     * @return The id of the last event that had been read {@link #LATE_COMMIT_WINDOW} ago, after which the events are
+     *         read. The processed events are not read again, so only events that were committed late are added.
+     */
+    private long getScanFromAuditLogId(long now) {
+        recentAuditLogIds.put(now, lastAuditLogId);
+        Long windowStart = recentAuditLogIds.floorKey(now - LATE_COMMIT_WINDOW);
+        if (windowStart != null) {
+            recentAuditLogIds.headMap(windowStart, false).clear();
+        }
+        return recentAuditLogIds.firstEntry().getValue();
+    }
+
     private AuditLogEvent extractAuditLogEvent(ResultSet rs, Set<String> downEvents) throws SQLException {
         AuditLogEvent auditLogEvent = new AuditLogEvent();
         auditLogEvent.setId(rs.getLong("audit_log_id"));
@@ -160,7 +227,7 @@ public class EventsManager implements Observer {
         return dbDownEvent;
     }
 
-    public void markOldEventsAsProcessed(int daysToSendOnStartup) {
+    public synchronized void markOldEventsAsProcessed(int daysToSendOnStartup) {
         Calendar calendar = Calendar.getInstance();
         calendar.add(Calendar.DATE, -daysToSendOnStartup);
         Timestamp ts = new Timestamp(calendar.getTimeInMillis());
@@ -180,7 +247,7 @@ public class EventsManager implements Observer {
         }
     }
 
-    public void deleteObsoleteHistoryData(int daysToKeepHistory) throws SQLException {
+    public synchronized void deleteObsoleteHistoryData(int daysToKeepHistory) throws SQLException {
         if (daysToKeepHistory > 0) {
             Calendar cal = Calendar.getInstance();
             cal.setTime(new Date());
@@ -202,24 +269,60 @@ public class EventsManager implements Observer {
 
     }
 
-    public void updateAuditLogEventProcessed(long auditLogId)
+    public synchronized void updateAuditLogEventsProcessed(List<AuditLogEvent> events)
             throws SQLException {
+        if (events.isEmpty()) {
+            return;
+        }
+        Long[] auditLogIds = events.stream().map(AuditLogEvent::getId).toArray(Long[]::new);
         try (Connection connection = ds.getConnection();
              PreparedStatement ps = connection.prepareStatement(
                     "UPDATE audit_log " +
                     "SET processed = 'true' " +
-                    "WHERE audit_log_id = ? ;")) {
-            ps.setLong(1, auditLogId);
+                    "WHERE audit_log_id = ANY(?) ;")) {
+            ps.setArray(1, connection.createArrayOf("bigint", auditLogIds));
             int updated = ps.executeUpdate();
-            if (updated != 1) {
-                log.error("Failed to mark audit_log entry as processed for audit_log_id: {}",
-                        auditLogId);
+            if (updated != auditLogIds.length) {
+                log.error("Failed to mark {} of {} audit_log entries as processed",
+                        auditLogIds.length - updated,
+                        auditLogIds.length);
+            }
+        }
+    }
+
+    /**
+     * Waits until events are added or the given timeout passes. When notifications can't be received from the
+     * database, just waits for the timeout to pass.
+     */
+    public void awaitEvents(long timeoutInMillis) throws InterruptedException {
+        try {
+            getListeningConnection().getNotifications((int) Math.max(timeoutInMillis, 1));
+            return;
+        } catch (SQLException e) {
+            log.warn("Failed to wait for notifications of new events, polling instead: {}", e.getMessage());
+            log.debug("Exception", e);
+            listeningConnection = null;
+        }
+        Thread.sleep(timeoutInMillis);
+    }
+
+    private PGConnection getListeningConnection() throws SQLException {
+        if (listenDs == null) {
+            listenDs = new StandaloneDataSource();
+        }
+        // the data source replaces its connection when it fails, which ends the listening
+        Connection connection = listenDs.getConnection();
+        if (connection != listeningConnection) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + AUDIT_LOG_CHANNEL);
             }
+            listeningConnection = connection;
         }
+        return connection.unwrap(PGConnection.class);
     }
 
     @Override
-    public void update(Observable o, DispatchResult dispatchResult) {
+    public synchronized void update(Observable o, DispatchResult dispatchResult) {
         AuditLogEvent event = dispatchResult.getEvent();
         try (Connection connection = ds.getConnection();
              CallableStatement cs = connection.prepareCall("{call Insertevent_notification_hist(?,?,?,?,?,?)}")) {
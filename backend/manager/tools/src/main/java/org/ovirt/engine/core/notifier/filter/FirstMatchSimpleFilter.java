@@ -1,7 +1,9 @@
 package org.ovirt.engine.core.notifier.filter;
 
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -42,7 +44,12 @@ public class FirstMatchSimpleFilter {
     private static final Logger log = LoggerFactory.getLogger(FirstMatchSimpleFilter.class);
     private Map<String, Transport> transports = new HashMap<>();
     private List<FilterEntry> notify = new LinkedList<>();
-    private Set<Recipient> recipients = new HashSet<>();
+    private Set<Recipient> recipients = new LinkedHashSet<>();
+    /**
+     * The entries that may match the events of a name, by event name and recipient, in the order they were added.
+     * Built when an event of the name is first processed, and dropped whenever the entries change.
+     */
+    private Map<String, Map<Recipient, List<FilterEntry>>> entriesByEvent = new HashMap<>();
 
     public void registerTransport(Transport transport) {
         transports.put(transport.getName(), transport);
@@ -57,6 +64,7 @@ public class FirstMatchSimpleFilter {
     }
 
     public void addFilterEntries(List<FilterEntry> entries) {
+        entriesByEvent.clear();
         for (FilterEntry entry : entries) {
             log.debug("addFilterEntry: {}", entry);
             notify.add(entry);
@@ -69,25 +77,26 @@ public class FirstMatchSimpleFilter {
     public void clearFilterEntries() {
         notify.clear();
         recipients.clear();
+        entriesByEvent.clear();
+    }
+
+    /**
+     * @return <code>true</code> if the filter holds exactly the given entries, in the same order.
+     */
+    public boolean hasFilterEntries(List<FilterEntry> entries) {
+        return notify.equals(entries);
     }
 
     public void processEvent(AuditLogEvent event) {
         log.debug("Event: {}", event.getName());
-        for (Recipient recipient : recipients) {
+        Map<Recipient, List<FilterEntry>> entriesByRecipient =
+                entriesByEvent.computeIfAbsent(event.getName(), this::indexEntries);
+        for (Map.Entry<Recipient, List<FilterEntry>> recipientEntries : entriesByRecipient.entrySet()) {
+            Recipient recipient = recipientEntries.getKey();
             log.debug("Recipient: {}", recipient);
-            for (FilterEntry entry : notify) {
-                if ((
-                        entry.getEventName() == null ||
-                        entry.getEventName().equals(event.getName())
-                        ) &&
-                        (
-                        entry.getSeverity() == null ||
-                        (entry.isExclude() ? -1 : 1) * event.getSeverity().compareTo(entry.getSeverity()) >= 0
-                        ) &&
-                        (
-                        entry.getRecipient() == null ||
-                        entry.getRecipient().equals(recipient)
-                        )) {
+            for (FilterEntry entry : recipientEntries.getValue()) {
+                if (entry.getSeverity() == null ||
+                        (entry.isExclude() ? -1 : 1) * event.getSeverity().compareTo(entry.getSeverity()) >= 0) {
                     log.debug("Entry match(({})): {}", entry.isExclude() ? "exclude" : "include", entry);
                     if (!entry.isExclude()) {
                         Transport transport = transports.get(recipient.getTransport());
@@ -103,6 +112,31 @@ public class FirstMatchSimpleFilter {
         }
     }
 
+    /**
+     * Collects, for every recipient, the entries that match the events of the given name regardless of their
+     * severity. Entries after the first one that matches events of any severity are never reached, so they are left
+     * out, as are recipients with no such entries.
+     */
+    private Map<Recipient, List<FilterEntry>> indexEntries(String eventName) {
+        Map<Recipient, List<FilterEntry>> entriesByRecipient = new LinkedHashMap<>();
+        for (Recipient recipient : recipients) {
+            List<FilterEntry> entries = new ArrayList<>();
+            for (FilterEntry entry : notify) {
+                if ((entry.getEventName() == null || entry.getEventName().equals(eventName)) &&
+                        (entry.getRecipient() == null || entry.getRecipient().equals(recipient))) {
+                    entries.add(entry);
+                    if (entry.getSeverity() == null) {
+                        break;
+                    }
+                }
+            }
+            if (!entries.isEmpty()) {
+                entriesByRecipient.put(recipient, entries);
+            }
+        }
+        return entriesByRecipient;
+    }
+
     public static List<FilterEntry> parse(String filters) {
         List<FilterEntry> ret = new LinkedList<>();
         if (!PATTERN_BLANK.matcher(filters).matches()) {
@@ -225,6 +259,31 @@ public class FirstMatchSimpleFilter {
             return recipient;
         }
 
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof FilterEntry)) {
+                return false;
+            }
+            FilterEntry other = (FilterEntry) obj;
+            return Objects.equals(eventName, other.eventName)
+                    && severity == other.severity
+                    && exclude == other.exclude
+                    && Objects.equals(recipient, other.recipient);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                    eventName,
+                    severity,
+                    exclude,
+                    recipient
+            );
+        }
+
         @Override
         public String toString() {
             return ToStringBuilder.forInstance(this)
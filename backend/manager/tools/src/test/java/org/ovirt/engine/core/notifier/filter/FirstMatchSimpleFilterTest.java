@@ -269,6 +269,26 @@ public class FirstMatchSimpleFilterTest {
         assertEquals(4, smtp.getEvents().size());
     }
 
+    @Test
+    public void testEntriesChangedAfterEvents() {
+        String expected = "test@example.com";
+        List<FirstMatchSimpleFilter.FilterEntry> entries =
+                FirstMatchSimpleFilter.parse("include:message1(smtp:" + expected + ")");
+        filter.clearFilterEntries();
+        filter.addFilterEntries(entries);
+        filter.processEvent(new E("message1"));
+        filter.processEvent(new E("message2"));
+        assertTrue(filter.hasFilterEntries(FirstMatchSimpleFilter.parse("include:message1(smtp:" + expected + ")")));
+
+        filter.addFilterEntries(
+                FirstMatchSimpleFilter.parse("exclude:message1 include:message2(smtp:" + expected + ")"));
+        filter.processEvent(new E("message1"));
+        filter.processEvent(new E("message2"));
+        assertEquals(3, smtp.getEvents().size());
+        assertEquals(2, Collections.frequency(smtp.getEvents(), "message1-->" + expected));
+        assertTrue(smtp.getEvents().contains("message2-->" + expected));
+    }
+
     @Test
     public void testParsePositive() {
         // Should parse
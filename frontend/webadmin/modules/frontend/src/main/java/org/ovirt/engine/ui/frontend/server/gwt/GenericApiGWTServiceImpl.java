@@ -1,12 +1,29 @@
 package org.ovirt.engine.ui.frontend.server.gwt;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
+import javax.annotation.Resource;
 import javax.ejb.EJB;
+import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -39,8 +56,14 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
     private static final String CORRELATION_ID_HEADER = "Correlation-Id"; //$NON-NLS-1$
     private static final Pattern INVALID_CORRELATION_ID_CHARACTERS_RE = Pattern.compile("[^0-9a-zA-Z_-]+"); //$NON-NLS-1$
 
+    /** Maximal number of queries of a single batch that run at the same time */
+    private static final int MAX_PARALLEL_QUERIES = 4;
+
     private BackendLocal backend;
 
+    @Resource
+    private ManagedExecutorService executor;
+
     @EJB(beanInterface = BackendLocal.class,
             mappedName = "java:global/engine/bll/Backend!org.ovirt.engine.core.common.interfaces.BackendLocal")
     public void setBackend(BackendLocal backend) {
@@ -101,6 +124,11 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
         return getBackend().runPublicQuery(queryType, params);
     }
 
+    /**
+     * Runs the queries of the batch, each distinct query only once, with up to {@link #MAX_PARALLEL_QUERIES} of them
+     * running at the same time. Queries that are repeated in the batch get copies of the result of the first one, so
+     * the callers can't affect each other's results.
+     */
     @Override
     public ArrayList<QueryReturnValue> runMultipleQueries(
             ArrayList<QueryType> queryTypeList,
@@ -112,14 +140,41 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
         if (queryTypeList != null
                 && queryParamsList != null
                 && queryTypeList.size() == queryParamsList.size()) {
+            long start = System.nanoTime();
             String correlationId = CorrelationIdTracker.getCorrelationId();
-            for (int i = 0; i < queryTypeList.size(); i++) {
-                if (queryParamsList.get(i).getCorrelationId() == null) {
-                    queryParamsList.get(i).setCorrelationId(correlationId);
+            String sessionId = getEngineSessionId();
+            Map<QueryKey, Integer> firstQueryIndexes = new HashMap<>();
+            List<Integer> distinctQueryIndexes = new ArrayList<>();
+            int[] resultIndexes = new int[size];
+            for (int i = 0; i < size; i++) {
+                QueryParametersBase params = queryParamsList.get(i);
+                if (params.getCorrelationId() == null) {
+                    params.setCorrelationId(correlationId);
+                }
+                params.setSessionId(sessionId);
+                debugQuery(queryTypeList.get(i), params);
+
+                QueryKey key = QueryKey.of(queryTypeList.get(i), params);
+                Integer firstIndex = key != null ? firstQueryIndexes.putIfAbsent(key, i) : null;
+                if (firstIndex == null) {
+                    resultIndexes[i] = distinctQueryIndexes.size();
+                    distinctQueryIndexes.add(i);
+                } else {
+                    resultIndexes[i] = resultIndexes[firstIndex];
                 }
-                debugQuery(queryTypeList.get(i), queryParamsList.get(i));
-                ret.add(runQuery(queryTypeList.get(i), queryParamsList.get(i)));
             }
+
+            QueryReturnValue[] results = runQueries(queryTypeList, queryParamsList, distinctQueryIndexes);
+            boolean[] used = new boolean[results.length];
+            for (int i = 0; i < size; i++) {
+                int resultIndex = resultIndexes[i];
+                ret.add(used[resultIndex] ? copyOf(results[resultIndex]) : results[resultIndex]);
+                used[resultIndex] = true;
+            }
+            log.debug("Server: RunMultipleQuery ran {} distinct queries of {} in {} ms", //$NON-NLS-1$
+                    results.length,
+                    size,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
         } else {
             log.error(
                     "Wrong multi query usage: the query types and parameters must not be null " //$NON-NLS-1$
@@ -138,6 +193,72 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
         return ret;
     }
 
+    /**
+     * Runs the queries at the given indexes, on the calling thread and on up to {@link #MAX_PARALLEL_QUERIES} - 1
+     * threads of the executor, which take the next query to run when they finish one.
+     */
+    private QueryReturnValue[] runQueries(List<QueryType> queryTypes,
+            List<QueryParametersBase> queryParams,
+            List<Integer> queryIndexes) {
+        QueryReturnValue[] results = new QueryReturnValue[queryIndexes.size()];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < results.length; i = next.getAndIncrement()) {
+                int queryIndex = queryIndexes.get(i);
+                results[i] = getBackend().runQuery(queryTypes.get(queryIndex), queryParams.get(queryIndex));
+            }
+        };
+
+        List<Future<?>> futures = new ArrayList<>();
+        if (executor != null) {
+            String correlationId = CorrelationIdTracker.getCorrelationId();
+            int threads = Math.min(MAX_PARALLEL_QUERIES, results.length) - 1;
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    CorrelationIdTracker.setCorrelationId(correlationId);
+                    try {
+                        worker.run();
+                    } finally {
+                        CorrelationIdTracker.clean();
+                    }
+                }));
+            }
+        }
+        worker.run();
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException
+                        ? (RuntimeException) e.getCause()
+                        : new RuntimeException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Copies the value through serialization, as it is copied when it is sent to the client.
+     */
+    private static QueryReturnValue copyOf(QueryReturnValue value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            }
+            try (ObjectInputStream in = new CommonObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return (QueryReturnValue) in.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            log.debug("Failed to copy the result of a repeated query, sharing it: {}", e.getMessage()); //$NON-NLS-1$
+            return value;
+        }
+    }
+
     @Override
     public List<ActionReturnValue> runMultipleActions(ActionType actionType,
             ArrayList<ActionParametersBase> multipleParams, boolean isRunOnlyIfAllValidationPass) {
@@ -220,4 +341,67 @@ public class GenericApiGWTServiceImpl extends OvirtXsrfProtectedServiceServlet i
         log.debug("Action type '{}', Parameters '{}'", actionType, params); //$NON-NLS-1$
     }
 
+    /**
+     * Identifies a query by its type and the serialized form of its parameters, which have no equality of their own.
+     */
+    private static class QueryKey {
+        private final QueryType queryType;
+        private final byte[] params;
+        private final int hashCode;
+
+        private QueryKey(QueryType queryType, byte[] params) {
+            this.queryType = queryType;
+            this.params = params;
+            this.hashCode = Objects.hash(queryType, Arrays.hashCode(params));
+        }
+
+        /**
+         * @return The key of the query, or <code>null</code> if its parameters can't be serialized.
+         */
+        static QueryKey of(QueryType queryType, Serializable params) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(params);
+            } catch (IOException e) {
+                return null;
+            }
+            return new QueryKey(queryType, bytes.toByteArray());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof QueryKey)) {
+                return false;
+            }
+            QueryKey other = (QueryKey) obj;
+            return queryType == other.queryType && Arrays.equals(params, other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Resolves the classes of the query results, which are defined in the common module, with its class loader.
+     */
+    private static class CommonObjectInputStream extends ObjectInputStream {
+        CommonObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, QueryReturnValue.class.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+
 }
@@ -1,5 +1,7 @@
 package org.ovirt.engine.ui.frontend.server.gwt;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -21,8 +23,11 @@ import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.ovirt.engine.core.common.interfaces.BackendLocal;
+import org.ovirt.engine.core.common.queries.IdQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
+import org.ovirt.engine.core.common.queries.QueryReturnValue;
 import org.ovirt.engine.core.common.queries.QueryType;
+import org.ovirt.engine.core.compat.Guid;
 
 @ExtendWith(MockitoExtension.class)
 public class GenericApiGWTServiceImplTest {
@@ -79,12 +84,32 @@ public class GenericApiGWTServiceImplTest {
                 QueryType.Search,
                 QueryType.Search));
         ArrayList<QueryParametersBase> queryParamsList = new ArrayList<>(Arrays.asList(
-                new QueryParametersBase(),
-                new QueryParametersBase()));
+                new IdQueryParameters(Guid.newGuid()),
+                new IdQueryParameters(Guid.newGuid())));
 
         underTest.runMultipleQueries(queryTypeList, queryParamsList);
 
         verify(backendLocal, times(2)).runQuery(any(), any());
     }
 
+    @Test
+    public void multiQueryDuplicates() {
+        when(backendLocal.runQuery(any(), any())).thenReturn(new QueryReturnValue());
+        Guid id = Guid.newGuid();
+        ArrayList<QueryType> queryTypeList = new ArrayList<>(Arrays.asList(
+                QueryType.GetVmByVmId,
+                QueryType.GetVmByVmId,
+                QueryType.GetVdsByVdsId));
+        ArrayList<QueryParametersBase> queryParamsList = new ArrayList<>(Arrays.asList(
+                new IdQueryParameters(id),
+                new IdQueryParameters(id),
+                new IdQueryParameters(id)));
+
+        ArrayList<QueryReturnValue> results = underTest.runMultipleQueries(queryTypeList, queryParamsList);
+
+        verify(backendLocal, times(2)).runQuery(any(), any());
+        assertEquals(3, results.size());
+        assertNotSame(results.get(0), results.get(1));
+    }
+
 }
@@ -4,16 +4,21 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.SortedSet;
 import java.util.logging.Logger;
 
 import org.ovirt.engine.core.common.businessentities.Queryable;
+import org.ovirt.engine.core.common.interfaces.SearchType;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryReturnValue;
 import org.ovirt.engine.core.common.queries.QueryType;
+import org.ovirt.engine.core.common.queries.SearchChanges;
+import org.ovirt.engine.core.common.queries.SearchParameters;
 import org.ovirt.engine.core.searchbackend.ISyntaxChecker;
 import org.ovirt.engine.core.searchbackend.SyntaxChecker;
 import org.ovirt.engine.core.searchbackend.SyntaxContainer;
@@ -325,6 +330,18 @@ public abstract class SearchableListModel<E, T> extends SortedListModel<T> imple
      * Grid refresh timer associated with this list model.
      */
     private GridTimer timer;
+
+    /**
+     * Number of searches for changes done between two searches for the whole result.
+     */
+    private static final int CHANGES_SEARCHES_PER_FULL_SEARCH = 10;
+
+    /**
+     * Version of the latest search for changes, {@code null} if the next search must fetch the whole result.
+     */
+    private Long changesVersion;
+    private String changesSearchKey;
+    private int changesSearches;
     private int currentPageNumber = 1; //Default to 1
 
     /**
@@ -802,7 +819,93 @@ public abstract class SearchableListModel<E, T> extends SortedListModel<T> imple
     }
 
     protected void syncSearch(QueryType queryType, QueryParametersBase queryParametersBase) {
-        syncSearch(queryType, queryParametersBase, new SetItemsAsyncQuery());
+        if (queryParametersBase instanceof SearchParameters
+                && isChangesSearch(queryType, (SearchParameters) queryParametersBase)) {
+            searchChanges((SearchParameters) queryParametersBase);
+        } else {
+            syncSearch(queryType, queryParametersBase, new SetItemsAsyncQuery());
+        }
+    }
+
+    private static boolean isChangesSearch(QueryType queryType, SearchParameters parameters) {
+        return queryType == QueryType.Search
+                && (parameters.getSearchTypeValue() == SearchType.VM
+                        || parameters.getSearchTypeValue() == SearchType.VDS);
+    }
+
+    /**
+     * Searches for the entities that changed since the previous search, as long as the search did not change, and
+     * replaces the changed items in place. The whole search result is fetched when the changes are not known, when
+     * the changes add or remove items, on a forced refresh and every {@link #CHANGES_SEARCHES_PER_FULL_SEARCH}
+     * searches, which picks up changes that are not tracked.
+     */
+    private void searchChanges(SearchParameters parameters) {
+        String changesSearchKey = parameters.getSearchTypeValue() + ":" + parameters.getSearchPattern() //$NON-NLS-1$
+                + ":" + parameters.getMaxCount() + ":" + parameters.getSearchFrom() //$NON-NLS-1$ //$NON-NLS-2$
+                + ":" + parameters.getCaseSensitive(); //$NON-NLS-1$
+        boolean fullSearch = getIsQueryFirstTime()
+                || changesVersion == null
+                || !changesSearchKey.equals(this.changesSearchKey)
+                || changesSearches >= CHANGES_SEARCHES_PER_FULL_SEARCH;
+        this.changesSearchKey = changesSearchKey;
+        changesSearches = fullSearch ? 0 : changesSearches + 1;
+        parameters.setChangesSince(fullSearch ? 0L : changesVersion);
+
+        syncSearch(QueryType.Search, parameters, asyncQuery(returnValue -> {
+            if (!changesSearchKey.equals(this.changesSearchKey)) {
+                // a different search was issued in the meantime
+                return;
+            }
+            SearchChanges<T> changes = returnValue.getReturnValue();
+            if (changes == null) {
+                changesVersion = null;
+                setItems(null);
+            } else if (changes.isComplete()) {
+                changesVersion = changes.getVersion();
+                setItems(changes.getItems());
+            } else if (applyChanges(changes)) {
+                changesVersion = changes.getVersion();
+            } else {
+                changesVersion = null;
+                syncSearch();
+            }
+        }));
+    }
+
+    /**
+     * Replaces the items that changed by their new version.
+     *
+     * @return {@code false} if the changes add or remove items, which requires searching again
+     */
+    private boolean applyChanges(SearchChanges<T> changes) {
+        if (changes.getChangedIds().isEmpty()) {
+            return true;
+        }
+
+        Map<Object, T> changedItems = new HashMap<>();
+        for (T item : changes.getItems()) {
+            changedItems.put(((Queryable) item).getQueryableId(), item);
+        }
+
+        List<T> newItems = new ArrayList<>();
+        if (getItems() != null) {
+            for (T item : getItems()) {
+                Object id = ((Queryable) item).getQueryableId();
+                if (changedItems.containsKey(id)) {
+                    newItems.add(changedItems.remove(id));
+                } else if (changes.getChangedIds().contains(id)) {
+                    return false;
+                } else {
+                    newItems.add(item);
+                }
+            }
+        }
+        if (!changedItems.isEmpty()) {
+            return false;
+        }
+
+        setItems(newItems);
+        return true;
     }
 
     public void stopRefresh() {
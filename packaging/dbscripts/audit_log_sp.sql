@@ -599,4 +599,26 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+DROP TRIGGER IF EXISTS notify_audit_log_inserted ON audit_log;
 
+-- Wakes up the notifier, which listens on the audit_log channel, when events are added. There is nothing for the
+-- notifier to send when no one subscribed to events, so no notification is sent then.
+CREATE OR REPLACE FUNCTION fn_audit_log_inserted ()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF EXISTS (
+            SELECT 1
+            FROM event_subscriber
+            ) THEN
+        PERFORM pg_notify('audit_log', '');
+    END IF;
+
+    RETURN NULL;
+END;$$
+LANGUAGE plpgsql;
+
+CREATE TRIGGER notify_audit_log_inserted AFTER
+INSERT
+    ON audit_log
+FOR EACH STATEMENT
+EXECUTE FUNCTION fn_audit_log_inserted();
@@ -3271,52 +3271,18 @@ FROM user_vm_template_permissions_view_base NATURAL
  JOIN engine_session_user_flat_groups;
 
 -- Permissions on VMs
--- The user and admin has permission on the VM
+-- The user and admin has permission on the VM, its cluster, its data center or the system.
+-- The permissions are expanded to the VMs they apply to in vm_permissions_map
 CREATE OR REPLACE VIEW vm_permissions_view_base (
     entity_id,
     granted_id,
     role_type
     ) AS
 
-SELECT object_id,
-    ad_element_id,
-    role_type
-FROM internal_permissions_view
-WHERE object_type_id = 2
-
-UNION ALL
-
-SELECT vm_guid,
-    ad_element_id,
-    role_type
-FROM vm_static
-INNER JOIN internal_permissions_view
-    ON object_id = cluster_id
-        AND object_type_id = 9
-        AND allows_viewing_children
-
-UNION ALL
-
 SELECT vm_guid,
     ad_element_id,
     role_type
-FROM vm_static
-INNER JOIN cluster
-    ON cluster.cluster_id = vm_static.cluster_id
-INNER JOIN internal_permissions_view
-    ON object_id = storage_pool_id
-        AND object_type_id = 14
-        AND allows_viewing_children
-
-UNION ALL
-
-SELECT vm_guid,
-    ad_element_id,
-    role_type
-FROM internal_permissions_view
-CROSS JOIN vm_static
-WHERE object_type_id = 1
-    AND allows_viewing_children;
+FROM vm_permissions_map;
 
 -- only user permissions
 CREATE OR REPLACE VIEW user_vm_permissions_view (
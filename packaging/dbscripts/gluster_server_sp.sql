@@ -45,6 +45,19 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetGlusterServersByClusterId (v_cluster_id UUID)
+RETURNS SETOF gluster_server STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT gluster_server.*
+    FROM gluster_server
+    INNER JOIN vds_static
+        ON vds_static.vds_id = gluster_server.server_id
+    WHERE vds_static.cluster_id = v_cluster_id;
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION DeleteGlusterServer (v_server_id UUID)
 RETURNS VOID AS $PROCEDURE$
 BEGIN
@@ -789,3 +789,173 @@ BEGIN
         AND object_id = v_object_id;
 END; $procedure$
 LANGUAGE plpgsql;
+
+----------------------------------------------------------------
+-- [vm_permissions_map] Table
+--
+-- Holds the VMs each permission applies to, so the VM permission views
+-- don't have to expand cluster, data center and system permissions
+-- on every query. The table is maintained by the triggers below.
+CREATE OR REPLACE FUNCTION fn_map_vm_permissions (
+    v_permission_id UUID,
+    v_vm_guid UUID
+    )
+RETURNS VOID AS $PROCEDURE$
+BEGIN
+    -- Permissions on the VM itself
+    INSERT INTO vm_permissions_map (permission_id, vm_guid, ad_element_id, role_type)
+    SELECT permissions.id, vm_static.vm_guid, permissions.ad_element_id, roles.role_type
+    FROM permissions
+    INNER JOIN roles
+        ON roles.id = permissions.role_id
+    INNER JOIN vm_static
+        ON vm_static.vm_guid = permissions.object_id
+    WHERE permissions.object_type_id = 2
+        AND (v_permission_id IS NULL OR permissions.id = v_permission_id)
+        AND (v_vm_guid IS NULL OR vm_static.vm_guid = v_vm_guid);
+
+    -- Permissions on the cluster of the VM
+    INSERT INTO vm_permissions_map (permission_id, vm_guid, ad_element_id, role_type)
+    SELECT permissions.id, vm_static.vm_guid, permissions.ad_element_id, roles.role_type
+    FROM permissions
+    INNER JOIN roles
+        ON roles.id = permissions.role_id
+            AND roles.allows_viewing_children
+    INNER JOIN vm_static
+        ON vm_static.cluster_id = permissions.object_id
+    WHERE permissions.object_type_id = 9
+        AND (v_permission_id IS NULL OR permissions.id = v_permission_id)
+        AND (v_vm_guid IS NULL OR vm_static.vm_guid = v_vm_guid);
+
+    -- Permissions on the data center of the VM
+    INSERT INTO vm_permissions_map (permission_id, vm_guid, ad_element_id, role_type)
+    SELECT permissions.id, vm_static.vm_guid, permissions.ad_element_id, roles.role_type
+    FROM permissions
+    INNER JOIN roles
+        ON roles.id = permissions.role_id
+            AND roles.allows_viewing_children
+    INNER JOIN cluster
+        ON cluster.storage_pool_id = permissions.object_id
+    INNER JOIN vm_static
+        ON vm_static.cluster_id = cluster.cluster_id
+    WHERE permissions.object_type_id = 14
+        AND (v_permission_id IS NULL OR permissions.id = v_permission_id)
+        AND (v_vm_guid IS NULL OR vm_static.vm_guid = v_vm_guid);
+
+    -- Permissions on the system
+    INSERT INTO vm_permissions_map (permission_id, vm_guid, ad_element_id, role_type)
+    SELECT permissions.id, vm_static.vm_guid, permissions.ad_element_id, roles.role_type
+    FROM permissions
+    INNER JOIN roles
+        ON roles.id = permissions.role_id
+            AND roles.allows_viewing_children
+    CROSS JOIN vm_static
+    WHERE permissions.object_type_id = 1
+        AND (v_permission_id IS NULL OR permissions.id = v_permission_id)
+        AND (v_vm_guid IS NULL OR vm_static.vm_guid = v_vm_guid);
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION fn_remap_vm_permissions_of_permission (v_permission_id UUID)
+RETURNS VOID AS $PROCEDURE$
+BEGIN
+    DELETE
+    FROM vm_permissions_map
+    WHERE permission_id = v_permission_id;
+
+    PERFORM fn_map_vm_permissions(v_permission_id, NULL);
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION fn_remap_vm_permissions_of_vm (v_vm_guid UUID)
+RETURNS VOID AS $PROCEDURE$
+BEGIN
+    DELETE
+    FROM vm_permissions_map
+    WHERE vm_guid = v_vm_guid;
+
+    PERFORM fn_map_vm_permissions(NULL, v_vm_guid);
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
+-- Rows of deleted permissions and VMs are removed by the foreign keys of the table
+DROP TRIGGER IF EXISTS map_vm_permissions_on_permission_change ON permissions;
+
+CREATE OR REPLACE FUNCTION fn_permission_changed ()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM fn_map_vm_permissions(NEW.id, NULL);
+    ELSE
+        PERFORM fn_remap_vm_permissions_of_permission(NEW.id);
+    END IF;
+    RETURN NEW;
+END;$$
+LANGUAGE plpgsql;
+
+CREATE TRIGGER map_vm_permissions_on_permission_change AFTER
+INSERT OR UPDATE OF role_id, ad_element_id, object_id, object_type_id
+    ON permissions
+FOR EACH ROW
+EXECUTE FUNCTION fn_permission_changed();
+
+DROP TRIGGER IF EXISTS map_vm_permissions_on_vm_change ON vm_static;
+
+CREATE OR REPLACE FUNCTION fn_vm_static_permissions_changed ()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM fn_map_vm_permissions(NULL, NEW.vm_guid);
+    ELSIF NEW.cluster_id IS DISTINCT FROM OLD.cluster_id THEN
+        PERFORM fn_remap_vm_permissions_of_vm(NEW.vm_guid);
+    END IF;
+    RETURN NEW;
+END;$$
+LANGUAGE plpgsql;
+
+CREATE TRIGGER map_vm_permissions_on_vm_change AFTER
+INSERT OR UPDATE OF cluster_id
+    ON vm_static
+FOR EACH ROW
+EXECUTE FUNCTION fn_vm_static_permissions_changed();
+
+DROP TRIGGER IF EXISTS map_vm_permissions_on_cluster_change ON cluster;
+
+CREATE OR REPLACE FUNCTION fn_cluster_permissions_changed ()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.storage_pool_id IS DISTINCT FROM OLD.storage_pool_id THEN
+        PERFORM fn_remap_vm_permissions_of_vm(vm_guid)
+        FROM vm_static
+        WHERE cluster_id = NEW.cluster_id;
+    END IF;
+    RETURN NEW;
+END;$$
+LANGUAGE plpgsql;
+
+CREATE TRIGGER map_vm_permissions_on_cluster_change AFTER
+UPDATE OF storage_pool_id
+    ON cluster
+FOR EACH ROW
+EXECUTE FUNCTION fn_cluster_permissions_changed();
+
+DROP TRIGGER IF EXISTS map_vm_permissions_on_role_change ON roles;
+
+CREATE OR REPLACE FUNCTION fn_role_permissions_changed ()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.role_type IS DISTINCT FROM OLD.role_type
+        OR NEW.allows_viewing_children IS DISTINCT FROM OLD.allows_viewing_children THEN
+        PERFORM fn_remap_vm_permissions_of_permission(id)
+        FROM permissions
+        WHERE role_id = NEW.id;
+    END IF;
+    RETURN NEW;
+END;$$
+LANGUAGE plpgsql;
+
+CREATE TRIGGER map_vm_permissions_on_role_change AFTER
+UPDATE OF role_type, allows_viewing_children
+    ON roles
+FOR EACH ROW
+EXECUTE FUNCTION fn_role_permissions_changed();
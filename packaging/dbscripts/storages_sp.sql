@@ -721,6 +721,25 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+DROP TYPE IF EXISTS GetStorageDomainIdsAndStatusesByStoragePoolId_rs CASCADE;
+CREATE TYPE GetStorageDomainIdsAndStatusesByStoragePoolId_rs AS (storage_id UUID, status INT);
+
+CREATE OR REPLACE FUNCTION GetStorageDomainIdsAndStatusesByStoragePoolId (v_storage_pool_id UUID)
+RETURNS SETOF GetStorageDomainIdsAndStatusesByStoragePoolId_rs STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT storage_id, status
+    FROM storage_pool_iso_map
+    INNER JOIN storage_domain_static
+        ON storage_pool_iso_map.storage_id = storage_domain_static.id
+    WHERE storage_pool_id = v_storage_pool_id
+        AND status IS NOT NULL
+        AND storage_domain_static.storage_type != 9
+        AND storage_domain_static.storage_type != 10; -- filter Cinder and Managed block storage domains
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION Getstorage_domains_By_id (
     v_id UUID,
     v_user_id UUID,
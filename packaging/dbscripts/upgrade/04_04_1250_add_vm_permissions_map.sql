@@ -0,0 +1,58 @@
+-- Materializes the VMs each permission applies to, kept up to date by the triggers
+-- defined in multi_level_administration_sp.sql
+CREATE TABLE vm_permissions_map (
+    permission_id UUID NOT NULL,
+    vm_guid UUID NOT NULL,
+    ad_element_id UUID NOT NULL,
+    role_type INTEGER NOT NULL,
+    CONSTRAINT pk_vm_permissions_map PRIMARY KEY (permission_id, vm_guid),
+    FOREIGN KEY (permission_id) REFERENCES permissions(id) ON DELETE CASCADE,
+    FOREIGN KEY (vm_guid) REFERENCES vm_static(vm_guid) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_vm_permissions_map_ad_element_id ON vm_permissions_map(ad_element_id, role_type);
+CREATE INDEX idx_vm_permissions_map_vm_guid ON vm_permissions_map(vm_guid);
+
+-- Permissions on the VM itself
+INSERT INTO vm_permissions_map (permission_id, vm_guid, ad_element_id, role_type)
+SELECT permissions.id, vm_static.vm_guid, permissions.ad_element_id, roles.role_type
+FROM permissions
+INNER JOIN roles
+    ON roles.id = permissions.role_id
+INNER JOIN vm_static
+    ON vm_static.vm_guid = permissions.object_id
+WHERE permissions.object_type_id = 2;
+
+-- Permissions on the cluster of the VM
+INSERT INTO vm_permissions_map (permission_id, vm_guid, ad_element_id, role_type)
+SELECT permissions.id, vm_static.vm_guid, permissions.ad_element_id, roles.role_type
+FROM permissions
+INNER JOIN roles
+    ON roles.id = permissions.role_id
+        AND roles.allows_viewing_children
+INNER JOIN vm_static
+    ON vm_static.cluster_id = permissions.object_id
+WHERE permissions.object_type_id = 9;
+
+-- Permissions on the data center of the VM
+INSERT INTO vm_permissions_map (permission_id, vm_guid, ad_element_id, role_type)
+SELECT permissions.id, vm_static.vm_guid, permissions.ad_element_id, roles.role_type
+FROM permissions
+INNER JOIN roles
+    ON roles.id = permissions.role_id
+        AND roles.allows_viewing_children
+INNER JOIN cluster
+    ON cluster.storage_pool_id = permissions.object_id
+INNER JOIN vm_static
+    ON vm_static.cluster_id = cluster.cluster_id
+WHERE permissions.object_type_id = 14;
+
+-- Permissions on the system
+INSERT INTO vm_permissions_map (permission_id, vm_guid, ad_element_id, role_type)
+SELECT permissions.id, vm_static.vm_guid, permissions.ad_element_id, roles.role_type
+FROM permissions
+INNER JOIN roles
+    ON roles.id = permissions.role_id
+        AND roles.allows_viewing_children
+CROSS JOIN vm_static
+WHERE permissions.object_type_id = 1;
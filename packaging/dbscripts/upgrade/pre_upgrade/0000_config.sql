@@ -68,6 +68,7 @@ select fn_db_add_config_value('CoCoLifeInMinutes','3000','general');
 select fn_db_add_config_value('CoCoWaitForEventInMinutes','300','general');
 select fn_db_add_config_value('CommandEntityAgingThreshold','30','general');
 select fn_db_add_config_value('CommandEntityCleanupTime','03:35:35','general');
+select fn_db_add_config_value('CommandEntityPayloadCompression','true','general');
 select fn_db_add_config_value('MaintenanceVdsIgnoreExternalVms','false','general');
 select fn_db_add_config_value('OnlyRequiredNetworksMandatoryForVdsSelection','false','general');
 select fn_db_add_config_value('RepeatEndMethodsOnFailMaxRetries','5','general');
@@ -156,6 +157,7 @@ select fn_db_add_config_value('GlusterRefreshRateTasks', '60', 'general');
 select fn_db_add_config_value('GlusterPeerStatusRetries', '2', 'general');
 select fn_db_add_config_value('GlusterTaskMinWaitForCleanupInMins', '10', 'general');
 select fn_db_add_config_value('GlusterRefreshRateHealInfo', '600', 'general');
+select fn_db_add_config_value('GlusterRefreshMaxConcurrentClusters', '4', 'general');
 select fn_db_add_config_value('GlusterUnSyncedEntriesHistoryLimit', '40', 'general');
 select fn_db_add_config_value_for_versions_up_to('LibgfApiSupported', 'false', '4.6');
 select fn_db_add_config_value_for_versions_up_to('UseNativeIOForGluster', 'false', '4.6');
@@ -317,6 +319,7 @@ select fn_db_add_config_value('IPTablesConfigSiteCustom','','general');
 select fn_db_add_config_value('IsMultilevelAdministrationOn','true','general');
 select fn_db_add_config_value('JobCleanupRateInMinutes','10','general');
 select fn_db_add_config_value('JobPageSize','100','general');
+select fn_db_add_config_value('JobStepsFlushIntervalInMillis','0','general');
 select fn_db_add_config_value('LeaseRetries','3','general');
 select fn_db_add_config_value('LeaseTimeSec','60','general');
 --Handling Enable lock policy for Storage Pool Manager on activation
@@ -350,6 +353,9 @@ select fn_db_add_config_value('MaxVmNameLengthNonWindows','64','general');
 select fn_db_add_config_value('MaxVmNameLengthWindows','15','general');
 select fn_db_add_config_value('MaxVmsInPool','1000','general');
 select fn_db_add_config_value('MinimalETLVersion','3.0.0','general');
+select fn_db_add_config_value('MultipleActionsMaxConcurrentCommands','100','general');
+select fn_db_add_config_value('MultipleActionsMaxConcurrentCommandsPerTarget','10','general');
+select fn_db_add_config_value('MultipleActionsMaxConcurrentCommandsPerType','50','general');
 select fn_db_add_config_value('NicDHCPDelayGraceInMS','60','general');
 select fn_db_add_config_value('NumberOfFailedRunsOnVds','3','general');
 select fn_db_add_config_value('NumberOfUSBSlots','4','general');
@@ -361,6 +367,7 @@ select fn_db_add_config_value('MaxSchedulerWeight','1000','general');
 select fn_db_add_config_value('SpeedOptimizationSchedulingThreshold','10','general');
 select fn_db_add_config_value('SchedulerAllowOverBooking','false','general');
 select fn_db_add_config_value('SchedulerOverBookingThreshold','10','general');
+select fn_db_add_config_value('SchedulingMaxOptimisticAttempts','3','general');
 select fn_db_add_config_value_for_versions_up_to('IgnoreVmToVmAffinityForHostMaintenance', 'false', '4.2');
 select fn_db_add_config_value_for_versions_up_to('IgnoreVmToVmAffinityForHostMaintenance', 'true', '4.6');
 select fn_db_add_config_value('UploadFileMaxTimeInMinutes','5','general');
@@ -389,6 +396,7 @@ select fn_db_add_config_value('PostgresPagingSyntax',E' OFFSET (%1$s -1) LIMIT %
 select fn_db_add_config_value('PostgresPagingType','Offset','general');
 select fn_db_add_config_value('PostgresSearchTemplate',E'SELECT * FROM (%2$s) %1$s) as T1 %3$s','general');
 select fn_db_add_config_value('ProductRPMVersion','3.0.0.0','general');
+select fn_db_add_config_value('QueryResultCacheMaxSizeInMB','64','general');
 select fn_db_add_config_value('QuotaGraceStorage','20','general');
 select fn_db_add_config_value('QuotaGraceCluster','20','general');
 select fn_db_add_config_value('QuotaThresholdStorage','80','general');
@@ -545,6 +553,7 @@ select fn_db_add_config_value('ServerCPUList',
     '4.6');
 
 select fn_db_add_config_value('ServerRebootTimeout','600','general');
+select fn_db_add_config_value('ServicesStartupParallelism','4','general');
 select fn_db_add_config_value('SetupNetworksPollingTimeout','3','general');
 select fn_db_add_config_value('SignCertTimeoutInSeconds','30','general');
 --Handling Script name for signing
@@ -632,6 +641,8 @@ select fn_db_add_config_value('VmPoolMonitorBatchSize','5','general');
 select fn_db_add_config_value('VmPoolMonitorIntervalInMinutes','5','general');
 select fn_db_add_config_value('VmPoolMonitorMaxAttempts','3','general');
 select fn_db_add_config_value('VmPriorityMaxValue','100','general');
+--Maximal time unchanged VM statistics are not persisted, besides their elapsed time
+select fn_db_add_config_value('VmStatisticsMaxPersistIntervalInSeconds','60','general');
 --How often we'll go over the HA VMs that went down and try to restart them
 select fn_db_add_config_value('AutoStartVmsRunnerIntervalInSeconds','1','general');
 --How often we'll try to run HA VM that we couldn't run before
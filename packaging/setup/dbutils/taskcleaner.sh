@@ -108,6 +108,28 @@ __EOF__
 	fi
 }
 
+# Command payloads of 512 characters or more are stored gzipped and Base64 encoded behind a "gzjson1:" header.
+# Replaces each of them in the output with the JSON it holds, so the displayed commands stay readable.
+decode_payloads() {
+	awk '
+		{
+			line = $0
+			out = ""
+			while (match(line, /gzjson1:[A-Za-z0-9+\/=]+/)) {
+				cmd = "printf \"%s\" \"" substr(line, RSTART + 8, RLENGTH - 8) "\" | base64 -d | gzip -dc"
+				json = ""
+				while ((cmd | getline decoded) > 0) {
+					json = json decoded
+				}
+				close(cmd)
+				out = out substr(line, 1, RSTART - 1) json
+				line = substr(line, RSTART + RLENGTH)
+			}
+			print out line
+		}
+	'
+}
+
 DBFUNC_DB_HOST="${ENGINE_DB_HOST}"
 DBFUNC_DB_PORT="${ENGINE_DB_PORT}"
 DBFUNC_DB_USER="${ENGINE_DB_USER}"
@@ -272,7 +294,8 @@ dbfunc_psql_die --file="$(dirname "$0")/taskcleaner_sp.sql" > /dev/null
 dbfunc_psql_die --file="$(dirname "$0")/taskcleaner_sp_3_5.sql" > /dev/null
 
 # Execute
-dbfunc_psql_die --command="${CMD1}${CMD2}"
+output="$(dbfunc_psql_die --command="${CMD1}${CMD2}")" || exit 1
+printf '%s\n' "${output}" | decode_payloads
 
 # Drop taskcleaner procedures
 dbfunc_psql_die --file="$(dirname "$0")/taskcleaner_sp_drop.sql" > /dev/null